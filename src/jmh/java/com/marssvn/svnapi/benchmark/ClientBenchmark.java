@@ -0,0 +1,158 @@
+package com.marssvn.svnapi.benchmark;
+
+import com.marssvn.svnapi.FsfsSvnClient;
+import com.marssvn.svnapi.ISvnSnapshot;
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.SvnServeClient;
+import com.marssvn.svnapi.model.SvnEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks of the client hot paths against a local svnserve,
+ * the svn command line client and the svnserve protocol client side by side,
+ * and the FSFS reader against the svn command line on the file:// url of the same repository.
+ *
+ * @author zhangkx
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ClientBenchmark {
+
+    /**
+     * count of directories of the seeded tree
+     */
+    @Param({"20"})
+    public int dirs;
+
+    /**
+     * count of files in each directory of the seeded tree
+     */
+    @Param({"50"})
+    public int filesPerDir;
+
+    private SvnFixture fixture;
+
+    private SvnClient cliClient;
+
+    private SvnServeClient serveClient;
+
+    private SvnClient fileCliClient;
+
+    private FsfsSvnClient fsfsClient;
+
+    private final AtomicLong mkdirCount = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        fixture = new SvnFixture();
+        fixture.start(dirs, filesPerDir);
+        cliClient = new SvnClient();
+        cliClient.setRootPath(fixture.getRootPath());
+        cliClient.setSvnUser(fixture.getAdminUser());
+        serveClient = new SvnServeClient();
+        serveClient.setRootPath(fixture.getRootPath());
+        serveClient.setSvnUser(fixture.getAdminUser());
+        fileCliClient = new SvnClient();
+        fileCliClient.setRootPath(fixture.getFileRootPath());
+        fileCliClient.setSvnUser(fixture.getAdminUser());
+        fsfsClient = new FsfsSvnClient();
+        fsfsClient.setRootPath(fixture.getFileRootPath());
+        fsfsClient.setSvnUser(fixture.getAdminUser());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        fixture.stop();
+    }
+
+    @Benchmark
+    public long headRevisionCli() {
+        return cliClient.headRevision();
+    }
+
+    @Benchmark
+    public long headRevisionServe() {
+        return serveClient.headRevision();
+    }
+
+    @Benchmark
+    public long headRevisionFileCli() {
+        return fileCliClient.headRevision();
+    }
+
+    @Benchmark
+    public long headRevisionFsfs() {
+        return fsfsClient.headRevision();
+    }
+
+    @Benchmark
+    public List<SvnEntry> listCli() {
+        return cliClient.list("src/dir-0");
+    }
+
+    @Benchmark
+    public List<SvnEntry> listServe() {
+        return serveClient.list("src/dir-0");
+    }
+
+    @Benchmark
+    public List<SvnEntry> listFileCli() {
+        return fileCliClient.list("src/dir-0");
+    }
+
+    @Benchmark
+    public List<SvnEntry> listFsfs() {
+        return fsfsClient.list("src/dir-0");
+    }
+
+    @Benchmark
+    public String fileContentFileCli() {
+        return fileCliClient.getFileContent("src/dir-0/file-0.txt", -1);
+    }
+
+    @Benchmark
+    public String fileContentFsfs() {
+        return fsfsClient.getFileContent("src/dir-0/file-0.txt", -1);
+    }
+
+    /**
+     * one head revision and ten listings in a snapshot, against ten plain listings
+     */
+    @Benchmark
+    public int listTenInSnapshotCli() {
+        ISvnSnapshot snapshot = cliClient.openSnapshot();
+        int size = 0;
+        for (int i = 0; i < 10; i++) {
+            size += snapshot.list("src/dir-" + (i % dirs)).size();
+        }
+        return size;
+    }
+
+    @Benchmark
+    public int listTenCli() {
+        int size = 0;
+        for (int i = 0; i < 10; i++) {
+            size += cliClient.list("src/dir-" + (i % dirs)).size();
+        }
+        return size;
+    }
+
+    @Benchmark
+    public void mkdirCli() {
+        cliClient.mkdir("mkdir/dir-" + mkdirCount.incrementAndGet(), "benchmark");
+    }
+}
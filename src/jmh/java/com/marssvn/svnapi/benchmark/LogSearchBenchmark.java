@@ -0,0 +1,128 @@
+package com.marssvn.svnapi.benchmark;
+
+import com.marssvn.svnapi.index.LogSearchIndex;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of LogSearchIndex on a synthetic history, no svn binaries are needed.
+ * <p>
+ * Revision r: message "PRJ-(r % 50000) fix word(r % 1000) in module(r % 100)", author user(r % 200),
+ * changed path /trunk/module(r % 100)/src/File(r % 5000).java. A ticket matches 20 revisions of 1M,
+ * "fix" matches all of them. grepMessages is a linear scan of the messages, like svn log | grep, as a baseline.
+ *
+ * @author zhangkx
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LogSearchBenchmark {
+
+    /**
+     * count of revisions of the synthetic history
+     */
+    @Param({"1000000"})
+    public int revisions;
+
+    private LogSearchIndex index;
+
+    private String[] messages;
+
+    @Setup
+    public void setUp() {
+        index = new LogSearchIndex();
+        messages = new String[revisions];
+        for (int revision = 1; revision <= revisions; revision++) {
+            LogEntry logEntry = logEntry(revision);
+            messages[revision - 1] = logEntry.getMessage();
+            index.add(logEntry);
+        }
+    }
+
+    /**
+     * rare term: a ticket number
+     */
+    @Benchmark
+    public List<Long> searchTicket() {
+        return index.search("PRJ-4242", 50);
+    }
+
+    /**
+     * common term, the first page of 50
+     */
+    @Benchmark
+    public List<Long> searchCommonTerm() {
+        return index.search("fix", 50);
+    }
+
+    /**
+     * two medium terms whose intersection is small
+     */
+    @Benchmark
+    public List<Long> searchAnd() {
+        return index.search("word17 module3", 50);
+    }
+
+    /**
+     * author and path component
+     */
+    @Benchmark
+    public List<Long> searchAuthorAndFile() {
+        return index.search("author:user7 File7.java", 50);
+    }
+
+    /**
+     * adding 1000 revisions to an empty index
+     */
+    @Benchmark
+    public LogSearchIndex addThousand() {
+        LogSearchIndex logSearchIndex = new LogSearchIndex();
+        for (int revision = 1; revision <= 1000; revision++) {
+            logSearchIndex.add(logEntry(revision));
+        }
+        return logSearchIndex;
+    }
+
+    /**
+     * linear scan of the messages newest first, as a baseline
+     */
+    @Benchmark
+    public List<Long> grepMessages() {
+        List<Long> result = new ArrayList<>();
+        for (int i = messages.length - 1; i >= 0 && result.size() < 50; i--) {
+            if (messages[i].toLowerCase(Locale.ROOT).contains("prj-4242 ")) {
+                result.add((long) i + 1);
+            }
+        }
+        return result;
+    }
+
+    private static LogEntry logEntry(int revision) {
+        LogEntry logEntry = new LogEntry();
+        logEntry.setRevision(revision);
+        logEntry.setAuthor("user" + revision % 200);
+        logEntry.setMessage("PRJ-" + revision % 50000 + " fix word" + revision % 1000 + " in module" + revision % 100);
+        LogChangedPath changedPath = new LogChangedPath();
+        changedPath.setAction("M");
+        changedPath.setKind("file");
+        changedPath.setPath("/trunk/module" + revision % 100 + "/src/File" + revision % 5000 + ".java");
+        logEntry.setChangedPaths(Collections.singletonList(changedPath));
+        return logEntry;
+    }
+}
@@ -0,0 +1,134 @@
+package com.marssvn.svnapi.benchmark;
+
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.parser.ListXmlReader;
+import org.dom4j.Document;
+import org.dom4j.DocumentException;
+import org.dom4j.Element;
+import org.dom4j.io.SAXReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the in-process work around a svn command, no svn binaries are needed:
+ * parsing of svn list --xml output, command line tokenizing and mapping of the parsed entries.
+ *
+ * @author zhangkx
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+
+    /**
+     * count of entries of the synthetic listing
+     */
+    @Param({"100", "10000"})
+    public int entries;
+
+    private byte[] listXml;
+
+    private List<SvnEntry> parsed;
+
+    private final static String COMMAND = "svn list svn://127.0.0.1/benchmark/src/dir-0 --xml -r 42"
+            + " --username marssvn --password \"p@ss word\" --no-auth-cache --non-interactive";
+
+    @Setup
+    public void setUp() {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<lists>\n"
+                + "<list path=\"svn://127.0.0.1/benchmark/src\">\n");
+        for (int i = 0; i < entries; i++) {
+            String kind = i % 10 == 0 ? "dir" : "file";
+            xml.append("<entry kind=\"").append(kind).append("\">\n<name>entry-").append(i).append(".txt</name>\n");
+            if ("file".equals(kind)) {
+                xml.append("<size>").append(i * 31).append("</size>\n");
+            }
+            xml.append("<commit revision=\"").append(i + 1).append("\">\n<author>marssvn</author>\n")
+                    .append("<date>2020-06-01T08:00:00.000000Z</date>\n</commit>\n</entry>\n");
+        }
+        xml.append("</list>\n</lists>\n");
+        listXml = xml.toString().getBytes(StandardCharsets.UTF_8);
+        parsed = parseStax();
+    }
+
+    @Benchmark
+    public List<SvnEntry> parseStax() {
+        List<SvnEntry> list = new ArrayList<>();
+        try (ListXmlReader reader = new ListXmlReader(new ByteArrayInputStream(listXml))) {
+            SvnEntry svnEntry;
+            while ((svnEntry = reader.next()) != null) {
+                list.add(svnEntry);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * the dom4j tree parse svn list was done with before the streaming reader, as a baseline
+     */
+    @Benchmark
+    public List<SvnEntry> parseDom4j() throws DocumentException {
+        Document document = new SAXReader().read(new ByteArrayInputStream(listXml));
+        List<SvnEntry> list = new ArrayList<>();
+        for (Element entry : document.getRootElement().element("list").elements("entry")) {
+            SvnEntry svnEntry = new SvnEntry();
+            svnEntry.setKind(entry.attributeValue("kind"));
+            svnEntry.setName(entry.elementText("name"));
+            String size = entry.elementText("size");
+            svnEntry.setSize(size == null ? 0 : Long.parseLong(size));
+            Element commit = entry.element("commit");
+            svnEntry.setCommitRevision(Long.parseLong(commit.attributeValue("revision")));
+            svnEntry.setCommitAuthor(commit.elementText("author"));
+            list.add(svnEntry);
+        }
+        return list;
+    }
+
+    @Benchmark
+    public String[] translateCommandline() {
+        return CommandUtils.translateCommandline(COMMAND);
+    }
+
+    /**
+     * the per-entry path mapping done by SvnClient.list after parsing
+     */
+    @Benchmark
+    public List<SvnEntry> mapEntries() {
+        String fullPath = "svn://127.0.0.1/benchmark/src";
+        List<SvnEntry> list = new ArrayList<>(parsed.size());
+        for (SvnEntry svnEntry : parsed) {
+            String entryName = svnEntry.getName();
+            svnEntry.setParentPath(fullPath);
+            svnEntry.setPath("src/" + entryName);
+            svnEntry.setFullPath(fullPath + "/" + entryName);
+            svnEntry.setHeadRevision(42);
+            list.add(svnEntry);
+        }
+        return list;
+    }
+
+    /**
+     * the bean copy ListCache hands out for every cached entry
+     */
+    @Benchmark
+    public List<SvnEntry> copyEntries() {
+        List<SvnEntry> list = new ArrayList<>(parsed.size());
+        for (SvnEntry svnEntry : parsed) {
+            list.add(svnEntry.convertTo(SvnEntry.class));
+        }
+        return list;
+    }
+}
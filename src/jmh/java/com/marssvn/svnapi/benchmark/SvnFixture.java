@@ -0,0 +1,150 @@
+package com.marssvn.svnapi.benchmark;
+
+import com.marssvn.svnapi.SvnAdminForLocale;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.model.SvnRepository;
+import com.marssvn.svnapi.model.SvnUser;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Throwaway repository for benchmarks: created with SvnAdminForLocale in a temp directory,
+ * served by a local svnserve on an ephemeral port and seeded with a synthetic tree in one commit.
+ *
+ * @author zhangkx
+ */
+public class SvnFixture {
+
+    /**
+     * repository name
+     */
+    private final static String REPOSITORY_NAME = "benchmark";
+
+    /**
+     * temp root directory of the repository
+     */
+    private File rootDir;
+
+    /**
+     * svnserve process
+     */
+    private Process svnserve;
+
+    /**
+     * url of the repository, e.g. svn://127.0.0.1:3690/benchmark
+     */
+    private String rootPath;
+
+    /**
+     * file url of the repository, e.g. file:///tmp/svnapi-benchmark123/benchmark
+     */
+    private String fileRootPath;
+
+    /**
+     * admin user of the repository
+     */
+    private SvnUser adminUser;
+
+    /**
+     * create the repository, start svnserve and seed the tree: dir-N/file-M.txt
+     *
+     * @param dirs         count of directories
+     * @param filesPerDir  count of files in each directory
+     * @throws IOException          IOException
+     * @throws InterruptedException InterruptedException
+     */
+    public void start(int dirs, int filesPerDir) throws IOException, InterruptedException {
+        rootDir = Files.createTempDirectory("svnapi-benchmark").toFile();
+        SvnRepository svnRepository = new SvnRepository();
+        svnRepository.setName(REPOSITORY_NAME);
+        svnRepository.setRootPathLocal(rootDir.getPath());
+        new SvnAdminForLocale().createRepository(svnRepository);
+        adminUser = svnRepository.getAdminUser();
+        fileRootPath = "file://" + new File(rootDir, REPOSITORY_NAME).getAbsolutePath();
+
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        svnserve = new ProcessBuilder("svnserve", "-d", "--foreground", "--listen-host", "127.0.0.1",
+                "--listen-port", String.valueOf(port), "-r", rootDir.getPath()).start();
+        waitForPort(port);
+        rootPath = "svn://127.0.0.1:" + port + "/" + REPOSITORY_NAME;
+
+        // seed
+        File seedDir = new File(rootDir, "seed");
+        for (int i = 0; i < dirs; i++) {
+            for (int j = 0; j < filesPerDir; j++) {
+                FileUtils.writeStringToFile(new File(seedDir, "src/dir-" + i + "/file-" + j + ".txt"),
+                        "line " + i + "-" + j + "\n", StandardCharsets.UTF_8);
+            }
+        }
+        CommandUtils.execute("svn import " + seedDir.getPath() + " " + rootPath + " -m seed" + adminUser.getAuthString(), 600000);
+    }
+
+    /**
+     * stop svnserve and delete the repository
+     *
+     * @throws IOException IOException
+     */
+    public void stop() throws IOException {
+        if (svnserve != null) {
+            svnserve.destroy();
+        }
+        if (rootDir != null) {
+            FileUtils.deleteDirectory(rootDir);
+        }
+    }
+
+    /**
+     * get url of the repository
+     *
+     * @return root path
+     */
+    public String getRootPath() {
+        return this.rootPath;
+    }
+
+    /**
+     * get file url of the repository
+     *
+     * @return file root path
+     */
+    public String getFileRootPath() {
+        return this.fileRootPath;
+    }
+
+    /**
+     * get admin user of the repository
+     *
+     * @return admin user
+     */
+    public SvnUser getAdminUser() {
+        return this.adminUser;
+    }
+
+    /**
+     * wait until svnserve accepts connections
+     *
+     * @param port port
+     * @throws InterruptedException InterruptedException
+     */
+    private static void waitForPort(int port) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 1000);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("svnserve is not started");
+    }
+}
@@ -0,0 +1,639 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.enums.EArchiveFormat;
+import com.marssvn.svnapi.enums.ESvnDepth;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.SvnBlame;
+import com.marssvn.svnapi.model.SvnDiff;
+import com.marssvn.svnapi.model.SvnDiffSummary;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnInfo;
+import com.marssvn.svnapi.model.SvnLock;
+import com.marssvn.svnapi.model.SvnLockResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous SVN client, every operation of the wrapped client runs on a bounded executor
+ * and returns a CompletableFuture, so the caller thread is never blocked by a svn process.
+ * <p>
+ * At most maxConcurrency operations run at the same time. The default executor uses virtual threads
+ * when the JDK has them, a bounded thread pool otherwise.
+ * Cancelling a future, or a future timing out, interrupts the operation and destroys its svn process.
+ * Operations served by svnserve are interrupted only, the socket read timeout of the connection applies.
+ *
+ * @author zhangkx
+ */
+public class AsyncSvnClient implements Closeable {
+
+    /**
+     * slf4j.Logger
+     */
+    private Logger logger = LoggerFactory.getLogger(AsyncSvnClient.class);
+
+    /**
+     * default max count of running operations
+     */
+    public final static int DEFAULT_MAX_CONCURRENCY = 16;
+
+    /**
+     * default max count of queued operations of the thread pool executor
+     */
+    public final static int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /**
+     * completes timed out operations, the timeout of a completed operation is removed from the queue
+     */
+    private final static ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread thread = new Thread(r, "svnapi-async-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * wrapped svn client
+     */
+    private final ISvnClient svnClient;
+
+    /**
+     * executor of operations
+     */
+    private final ExecutorService executor;
+
+    /**
+     * the executor is created by this client, and is shut down when the client is closed
+     */
+    private final boolean ownExecutor;
+
+    /**
+     * permits of running operations
+     */
+    private final Semaphore permits;
+
+    /**
+     * timeout of operations in milliseconds, 0 means no timeout other than the command timeout
+     */
+    private volatile long timeout;
+
+    public AsyncSvnClient(ISvnClient svnClient) {
+        this(svnClient, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public AsyncSvnClient(ISvnClient svnClient, int maxConcurrency) {
+        this(svnClient, newExecutor(maxConcurrency, DEFAULT_QUEUE_CAPACITY), maxConcurrency, true);
+    }
+
+    /**
+     * create async client on the executor, the executor is not shut down when the client is closed
+     *
+     * @param svnClient      svn client
+     * @param executor       executor
+     * @param maxConcurrency max count of running operations
+     */
+    public AsyncSvnClient(ISvnClient svnClient, ExecutorService executor, int maxConcurrency) {
+        this(svnClient, executor, maxConcurrency, false);
+    }
+
+    private AsyncSvnClient(ISvnClient svnClient, ExecutorService executor, int maxConcurrency, boolean ownExecutor) {
+        this.svnClient = svnClient;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.ownExecutor = ownExecutor;
+    }
+
+    /**
+     * create executor, virtual thread per task executor if the JDK supports virtual threads,
+     * otherwise a thread pool of maxConcurrency daemon threads with a bounded queue
+     *
+     * @param maxConcurrency max count of threads of the thread pool
+     * @param queueCapacity  max count of queued operations of the thread pool
+     * @return executor
+     */
+    public static ExecutorService newExecutor(int maxConcurrency, int queueCapacity) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+
+            // JDK without virtual threads
+            AtomicInteger threadNumber = new AtomicInteger();
+            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency,
+                    60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, "svnapi-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threadPoolExecutor.allowCoreThreadTimeOut(true);
+            return threadPoolExecutor;
+        }
+    }
+
+    /**
+     * set timeout of operations, the future of an operation which runs longer completes with SvnApiException
+     *
+     * @param timeout timeout in milliseconds, 0 means no timeout other than the command timeout
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * get the wrapped svn client
+     *
+     * @return svn client
+     */
+    public ISvnClient getSvnClient() {
+        return this.svnClient;
+    }
+
+    /**
+     * make directory, will make parent directories also
+     *
+     * @param dirPath directory path
+     * @param message message
+     * @return future
+     */
+    public CompletableFuture<Void> mkdir(String dirPath, String message) {
+        return submit(() -> {
+            svnClient.mkdir(dirPath, message);
+            return null;
+        });
+    }
+
+    /**
+     * get head headRevision
+     *
+     * @return future of head headRevision
+     */
+    public CompletableFuture<Long> headRevision() {
+        return submit(svnClient::headRevision);
+    }
+
+    /**
+     * get last changed headRevision
+     *
+     * @param path path
+     * @return future of last changed headRevision
+     */
+    public CompletableFuture<Long> lastChangedRevision(String path) {
+        return submit(() -> svnClient.lastChangedRevision(path));
+    }
+
+    /**
+     * get file mime type
+     *
+     * @param filePath file path
+     * @return future of mime type
+     */
+    public CompletableFuture<String> getMimeType(String filePath) {
+        return submit(() -> svnClient.getMimeType(filePath));
+    }
+
+    /**
+     * svn info
+     *
+     * @param path     file or directory path
+     * @param revision headRevision, default is HEAD
+     * @return future of info
+     */
+    public CompletableFuture<String> info(String path, long revision) {
+        return submit(() -> svnClient.info(path, revision));
+    }
+
+    /**
+     * @param filePath file path
+     * @param revision headRevision, default is HEAD
+     * @return future of blame string
+     */
+    public CompletableFuture<String> blame(String filePath, long revision) {
+        return submit(() -> svnClient.blame(filePath, revision));
+    }
+
+    /**
+     * get blame of a text file
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return future of blame
+     */
+    public CompletableFuture<SvnBlame> getBlame(String filePath, long revision) {
+        return submit(() -> svnClient.getBlame(filePath, revision));
+    }
+
+    /**
+     * list directories and files of path
+     *
+     * @param path directory path
+     * @return future of entry list
+     */
+    public CompletableFuture<List<SvnEntry>> list(String path) {
+        return submit(() -> svnClient.list(path));
+    }
+
+    /**
+     * get the document list of path
+     *
+     * @param path     relative path
+     * @param revision headRevision
+     * @return future of entry list
+     */
+    public CompletableFuture<List<SvnEntry>> list(String path, long revision) {
+        return submit(() -> svnClient.list(path, revision));
+    }
+
+    /**
+     * get the document lists of many paths at the same revision
+     *
+     * @param paths    relative paths
+     * @param revision revision, 0 or -1 means HEAD
+     * @return future of entry lists by path
+     */
+    public CompletableFuture<Map<String, List<SvnEntry>>> listAll(Collection<String> paths, long revision) {
+        return submit(() -> svnClient.listAll(paths, revision));
+    }
+
+    /**
+     * walk the tree of the directory, until the visitor returns false,
+     * cancelling the future stops the walk
+     *
+     * @param path     relative path of a directory
+     * @param revision revision, 0 or -1 means HEAD
+     * @param depth    depth of the walk
+     * @param visitor  visitor of entries, called on the executor
+     * @return future, completed when the walk ends
+     */
+    public CompletableFuture<Void> walk(String path, long revision, ESvnDepth depth, SvnEntryVisitor visitor) {
+        return submit(() -> {
+            svnClient.walk(path, revision, depth, visitor);
+            return null;
+        });
+    }
+
+    /**
+     * get svn info of many paths
+     *
+     * @param paths    relative paths
+     * @param revision revision, 0 or -1 means HEAD
+     * @return future of infos by path
+     */
+    public CompletableFuture<Map<String, SvnInfo>> infoAll(Collection<String> paths, long revision) {
+        return submit(() -> svnClient.infoAll(paths, revision));
+    }
+
+    /**
+     * get file by path
+     *
+     * @param filePath file path
+     * @param revision file revision, 0 or -1 means HEAD
+     * @return future of SvnEntry
+     */
+    public CompletableFuture<SvnEntry> getFile(String filePath, long revision) {
+        return submit(() -> svnClient.getFile(filePath, revision));
+    }
+
+    /**
+     * open a read view pinned to the revision
+     *
+     * @param revision revision, 0 or -1 means HEAD
+     * @return future of snapshot
+     */
+    public CompletableFuture<ISvnSnapshot> openSnapshot(long revision) {
+        return submit(() -> svnClient.openSnapshot(revision));
+    }
+
+    /**
+     * lock the file of path, if path is a directory, lock all of it's children file
+     *
+     * @param path    directory or file path
+     * @param comment lock comment
+     * @param force   force to steal the lock from another user or working copy
+     * @return future of boolean
+     */
+    public CompletableFuture<Boolean> lock(String path, String comment, boolean force) {
+        return submit(() -> svnClient.lock(path, comment, force));
+    }
+
+    /**
+     * unlock the file of path, if path is a directory, unlock all of it's children file
+     *
+     * @param path  directory or file path
+     * @param force force to break the lock
+     * @return future of boolean
+     */
+    public CompletableFuture<Boolean> unLock(String path, boolean force) {
+        return submit(() -> svnClient.unLock(path, force));
+    }
+
+    /**
+     * lock many files, directories are expanded to all of their files
+     *
+     * @param paths   relative paths of files or directories
+     * @param comment lock comment
+     * @param force   force to steal the locks from other users or working copies
+     * @return future of outcome of each file
+     */
+    public CompletableFuture<List<SvnLockResult>> lockAll(Collection<String> paths, String comment, boolean force) {
+        return submit(() -> svnClient.lockAll(paths, comment, force));
+    }
+
+    /**
+     * unlock many files, directories are expanded to all of their files
+     *
+     * @param paths relative paths of files or directories
+     * @param force force to break the locks of other users
+     * @return future of outcome of each file
+     */
+    public CompletableFuture<List<SvnLockResult>> unLockAll(Collection<String> paths, boolean force) {
+        return submit(() -> svnClient.unLockAll(paths, force));
+    }
+
+    /**
+     * get lock info of path
+     *
+     * @param filePath file path
+     * @return future of SvnLock
+     */
+    public CompletableFuture<SvnLock> getLock(String filePath) {
+        return submit(() -> svnClient.getLock(filePath));
+    }
+
+    /**
+     * get uuid of the repository
+     *
+     * @return future of uuid
+     */
+    public CompletableFuture<String> repositoryUuid() {
+        return submit(svnClient::repositoryUuid);
+    }
+
+    /**
+     * get file content of text file
+     *
+     * @param filePath file path
+     * @param revision headRevision, default is HEAD
+     * @return future of file content
+     */
+    public CompletableFuture<String> getFileContent(String filePath, long revision) {
+        return submit(() -> svnClient.getFileContent(filePath, revision));
+    }
+
+    /**
+     * open file content as a stream, the stream must be closed
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return future of file content
+     */
+    public CompletableFuture<InputStream> openFile(String filePath, long revision) {
+        return submit(() -> svnClient.openFile(filePath, revision));
+    }
+
+    /**
+     * copy file content to the channel through a small fixed buffer
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return future of count of bytes copied
+     */
+    public CompletableFuture<Long> transferTo(String filePath, long revision, WritableByteChannel channel) {
+        return submit(() -> svnClient.transferTo(filePath, revision, channel));
+    }
+
+    /**
+     * moveRepository source path to dest path
+     *
+     * @param sourcePath source path
+     * @param destPath   dest path
+     * @param message    log message
+     * @return future of boolean
+     */
+    public CompletableFuture<Boolean> move(String sourcePath, String destPath, String message) {
+        return submit(() -> svnClient.move(sourcePath, destPath, message));
+    }
+
+    /**
+     * export exports a clean directory tree from the repository
+     *
+     * @param path     path
+     * @param revision headRevision, default is HEAD
+     * @return future of string
+     */
+    public CompletableFuture<String> export(String path, long revision) {
+        return submit(() -> svnClient.export(path, revision));
+    }
+
+    /**
+     * export a directory tree as an archive streamed to the output stream
+     *
+     * @param path         relative path of a directory
+     * @param revision     revision, 0 or -1 means HEAD
+     * @param outputStream receives the archive, it is not closed
+     * @param format       archive format
+     * @return future, completed when the archive is written
+     */
+    public CompletableFuture<Void> export(String path, long revision, OutputStream outputStream, EArchiveFormat format) {
+        return submit(() -> {
+            svnClient.export(path, revision, outputStream, format);
+            return null;
+        });
+    }
+
+    /**
+     * get commit logs of path
+     *
+     * @param path             relative path
+     * @param fromRevision     from revision, 0 or -1 means HEAD
+     * @param toRevision       to revision, 0 or -1 means HEAD
+     * @param limit            max count of log entries, 0 means no limit
+     * @param withChangedPaths whether to read the changed paths of each entry
+     * @return future of log entries
+     */
+    public CompletableFuture<List<LogEntry>> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths) {
+        return submit(() -> svnClient.log(path, fromRevision, toRevision, limit, withChangedPaths));
+    }
+
+    /**
+     * Display local changes or differences between two revisions or paths
+     *
+     * @param filePath     file path
+     * @param olderVersion old headRevision
+     * @param newerVision  new headRevision
+     * @return future of differences
+     */
+    public CompletableFuture<String> diff(String filePath, long olderVersion, long newerVision) {
+        return submit(() -> svnClient.diff(filePath, olderVersion, newerVision));
+    }
+
+    /**
+     * get one page of the differences between two revisions
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @param firstHunk   index of the first hunk of the page
+     * @param maxHunks    max count of hunks of the page, 0 means no limit
+     * @return future of page of the differences
+     */
+    public CompletableFuture<SvnDiff> getDiff(String path, long oldRevision, long newRevision, int firstHunk, int maxHunks) {
+        return submit(() -> svnClient.getDiff(path, oldRevision, newRevision, firstHunk, maxHunks));
+    }
+
+    /**
+     * get the paths changed between two revisions
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @return future of changed paths
+     */
+    public CompletableFuture<List<SvnDiffSummary>> diffSummary(String path, long oldRevision, long newRevision) {
+        return submit(() -> svnClient.diffSummary(path, oldRevision, newRevision));
+    }
+
+    /**
+     * run any operation of the svn client asynchronously
+     *
+     * @param operation operation
+     * @param <T>       result type
+     * @return future of the result
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> operation) {
+        OperationFuture<T> future = new OperationFuture<>();
+        try {
+            executor.execute(() -> future.run(operation, permits));
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new SvnApiException("EC0004", "Too many svn operations"));
+            return future;
+        }
+
+        long operationTimeout = this.timeout;
+        if (operationTimeout > 0) {
+            ScheduledFuture<?> timeout = TIMER.schedule(() -> future.abort(new SvnApiException("Time out")),
+                    operationTimeout, TimeUnit.MILLISECONDS);
+
+            // a finished operation and its result must not stay reachable from the timer until the timeout
+            future.whenComplete((result, e) -> timeout.cancel(false));
+        }
+        return future;
+    }
+
+    /**
+     * shut down the executor if it is created by this client, running operations are cancelled
+     */
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            logger.debug("shut down async svn client executor");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * future of an operation, cancelling the future interrupts the operation and destroys its svn process
+     *
+     * @param <T> result type
+     */
+    private static class OperationFuture<T> extends CompletableFuture<T> {
+
+        /**
+         * thread which runs the operation, null if the operation is not running
+         */
+        private Thread runner;
+
+        /**
+         * run the operation on the current thread, unless the future is already done
+         *
+         * @param operation operation
+         * @param permits   permits of running operations
+         */
+        private void run(Supplier<T> operation, Semaphore permits) {
+            if (!start()) {
+                return;
+            }
+            try {
+                permits.acquire();
+                try {
+                    complete(operation.get());
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                completeExceptionally(new SvnApiException(e.getMessage()));
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            } finally {
+                finish();
+            }
+        }
+
+        /**
+         * complete the future exceptionally, interrupt the operation and destroy its svn process
+         *
+         * @param e exception
+         */
+        private void abort(Throwable e) {
+            if (completeExceptionally(e)) {
+                interruptRunner();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                interruptRunner();
+            }
+            return cancelled;
+        }
+
+        private synchronized boolean start() {
+            if (isDone()) {
+                return false;
+            }
+            runner = Thread.currentThread();
+            return true;
+        }
+
+        private void finish() {
+            synchronized (this) {
+                runner = null;
+            }
+
+            // clear the interrupt of an abort which raced with the end of the operation, the thread is reused
+            Thread.interrupted();
+        }
+
+        private synchronized void interruptRunner() {
+            if (runner != null) {
+                runner.interrupt();
+                CommandUtils.destroyRunningProcess(runner);
+            }
+        }
+    }
+}
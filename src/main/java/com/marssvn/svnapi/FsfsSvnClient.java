@@ -0,0 +1,452 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.common.ByteBufferInputStream;
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.fsfs.FsfsNode;
+import com.marssvn.svnapi.fsfs.FsfsRepository;
+import com.marssvn.svnapi.model.SvnEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * SVN client for file:// repositories, reads the FSFS files of the repository directly
+ * instead of forking a svn process for every call.
+ * <p>
+ * headRevision, repositoryUuid, list, getFileContent, openFile and transferTo are served by FsfsRepository,
+ * other operations, and all operations on repositories which FsfsRepository can't read, fall back to the svn
+ * command line. The root path may be any directory of the repository, e.g. file:///repos/test/trunk.
+ * <p>
+ * File contents are returned as stored in the repository, svn:keywords are not expanded as by svn cat.
+ * openFile and transferTo stream a plain representation from the mapped revision file, a delta is applied in
+ * memory up to maxDeltaSize, larger deltas are streamed from svn cat.
+ *
+ * @author zhangkx
+ */
+public class FsfsSvnClient extends SvnClient {
+
+    private Logger logger = LoggerFactory.getLogger(FsfsSvnClient.class);
+
+    /**
+     * default max length of a file whose delta is applied in memory, 64M
+     */
+    public final static long DEFAULT_MAX_DELTA_SIZE = 64L << 20;
+
+    /**
+     * reader of the repository, opened lazily for the root path
+     */
+    private volatile FsfsRepository repository;
+
+    /**
+     * path of the root path in the repository, empty if the root path is the repository root
+     */
+    private volatile String repositoryPrefix = "";
+
+    /**
+     * whether the root path is not a FSFS repository which FsfsRepository can read
+     */
+    private volatile boolean unsupported;
+
+    /**
+     * max length of a file whose delta is applied in memory by openFile and transferTo
+     */
+    private long maxDeltaSize = DEFAULT_MAX_DELTA_SIZE;
+
+    /**
+     * set root path
+     *
+     * @param rootPath svn root path, e.g. file:///repos/test
+     */
+    @Override
+    public void setRootPath(String rootPath) {
+        super.setRootPath(rootPath);
+        this.repository = null;
+        this.repositoryPrefix = "";
+        this.unsupported = false;
+    }
+
+    /**
+     * set max length of a file whose delta is applied in memory by openFile and transferTo,
+     * larger files are streamed from svn cat
+     *
+     * @param maxDeltaSize max length in bytes
+     */
+    public void setMaxDeltaSize(long maxDeltaSize) {
+        checkNotBound();
+        this.maxDeltaSize = maxDeltaSize;
+    }
+
+    /**
+     * get head headRevision
+     * svn command: db/current
+     *
+     * @return head headRevision
+     */
+    @Override
+    protected long doHeadRevision() {
+        return read(FsfsRepository::youngest, super::doHeadRevision);
+    }
+
+    /**
+     * get uuid of the repository
+     * svn command: db/uuid
+     *
+     * @return uuid
+     */
+    @Override
+    protected String doRepositoryUuid() {
+        return read(FsfsRepository::uuid, super::doRepositoryUuid);
+    }
+
+    /**
+     * get path of the root path in the repository
+     * svn command: the directories between the root path and the repository
+     *
+     * @return path relative to the repository root, e.g. trunk, empty if the root path is the repository root
+     */
+    @Override
+    protected String doRootPathInRepository() {
+        return read(fsfs -> this.repositoryPrefix, super::doRootPathInRepository);
+    }
+
+    /**
+     * FsfsRepository never expands keywords, nor does the svn cat --ignore-keywords it falls back to
+     * when the cache is filled
+     *
+     * @return false
+     */
+    @Override
+    protected boolean expandsKeywords() {
+        return false;
+    }
+
+    /**
+     * get the document list of path at the resolved revision
+     * svn command: the directory representation and the node-revisions of its entries
+     *
+     * @param path         relative path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return entry list
+     */
+    @Override
+    protected List<SvnEntry> doList(String path, long revision, long headRevision) {
+        doBaseCheck(path);
+        return read(fsfs -> listOf(fsfs, path, revision, headRevision), () -> super.doList(path, revision, headRevision));
+    }
+
+    /**
+     * get the document lists of many paths at the resolved revision, the paths are read one by one
+     *
+     * @param paths        relative paths, without duplicates
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return key: path, value: entry list, paths which do not exist are absent
+     */
+    @Override
+    protected Map<String, List<SvnEntry>> doListAll(List<String> paths, long revision, long headRevision) {
+        Map<String, List<SvnEntry>> result = new HashMap<>();
+        for (String path : paths) {
+            try {
+                result.put(path, doList(path, revision, headRevision));
+            } catch (SvnApiException e) {
+                if (!"EF0003".equals(e.getErrorCode())) {
+                    throw e;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * get file content of text file
+     * svn command: the text representation of the node-revision
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file content
+     */
+    @Override
+    protected String doGetFileContent(String filePath, long revision) {
+        doBaseCheck(filePath);
+        return read(fsfs -> new String(contentOf(fsfs, filePath, revision), StandardCharsets.UTF_8),
+                () -> super.doGetFileContent(filePath, revision));
+    }
+
+    /**
+     * open file content as a stream over the mapped revision file, or over the content of a small delta
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file content
+     */
+    @Override
+    public InputStream openFile(String filePath, long revision) {
+        return open(filePath, revision, () -> super.openFile(filePath, revision));
+    }
+
+    /**
+     * copy file content to the channel
+     * svn command: the text representation of the node-revision
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    @Override
+    protected long doTransferTo(String filePath, long revision, WritableByteChannel channel) {
+        return transfer(filePath, revision, channel, () -> super.doTransferTo(filePath, revision, channel));
+    }
+
+    /**
+     * open file content as stored in the repository, FsfsRepository never expands keywords,
+     * the svn command line fallback is run with --ignore-keywords
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file content
+     */
+    @Override
+    protected InputStream openStoredFile(String filePath, long revision) {
+        return open(filePath, revision, () -> super.openStoredFile(filePath, revision));
+    }
+
+    /**
+     * copy file content as stored in the repository to the channel, FsfsRepository never expands keywords,
+     * the svn command line fallback is run with --ignore-keywords
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    @Override
+    protected long transferStoredTo(String filePath, long revision, WritableByteChannel channel) {
+        return transfer(filePath, revision, channel, () -> super.transferStoredTo(filePath, revision, channel));
+    }
+
+    /**
+     * open file content from the blob cache, or as a stream over the mapped revision file,
+     * or over the content of a small delta
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param fallback svn command line fallback
+     * @return file content
+     */
+    private InputStream open(String filePath, long revision, Supplier<InputStream> fallback) {
+        ByteBuffer cached = cachedContent(filePath, revision);
+        if (cached != null) {
+            return new ByteBufferInputStream(cached);
+        }
+        doBaseCheck(filePath);
+        return read(fsfs -> new ByteBufferInputStream(openContent(fsfs, filePath, revision)), fallback);
+    }
+
+    /**
+     * copy file content to the channel
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @param fallback svn command line fallback
+     * @return count of bytes copied
+     */
+    private long transfer(String filePath, long revision, WritableByteChannel channel, Supplier<Long> fallback) {
+        doBaseCheck(filePath);
+        return read(fsfs -> {
+            ByteBuffer content = openContent(fsfs, filePath, revision);
+            try {
+                long count = 0;
+                while (content.hasRemaining()) {
+                    count += channel.write(content);
+                }
+                return count;
+            } catch (IOException e) {
+                throw new SvnApiException(e.getMessage());
+            }
+        }, fallback);
+    }
+
+    /**
+     * list a directory of the repository
+     *
+     * @param fsfs         repository
+     * @param path         relative path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return entry list, sorted by name
+     */
+    private List<SvnEntry> listOf(FsfsRepository fsfs, String path, long revision, long headRevision) {
+        String fullPath = getRootPath() + "/" + path;
+        String directoryPath = repositoryPath(path);
+        FsfsNode directory = fsfs.node(directoryPath, revision);
+        if (directory == null || !directory.isDirectory()) {
+            throw new SvnApiException("EF0003", "Path not found: " + path);
+        }
+
+        List<SvnEntry> list = new ArrayList<>();
+        for (Map.Entry<String, FsfsNode> child : fsfs.list(directory).entrySet()) {
+            String entryName = child.getKey();
+            FsfsNode node = child.getValue();
+            Map<String, String> revisionProperties = fsfs.revisionProperties(node.getRevision());
+
+            SvnEntry svnEntry = new SvnEntry();
+            svnEntry.setKind(node.getKind());
+            svnEntry.setName(entryName);
+            svnEntry.setParentPath(fullPath);
+            svnEntry.setPath(path + "/" + entryName);
+            svnEntry.setFullPath(fullPath + "/" + entryName);
+            svnEntry.setHeadRevision(headRevision);
+            svnEntry.setCommitRevision(node.getRevision());
+            svnEntry.setCommitAuthor(revisionProperties.get("svn:author"));
+            svnEntry.setCommitDate(DateUtils.parseDate(revisionProperties.get("svn:date")));
+            if (!node.isDirectory()) {
+                svnEntry.setSize(fsfs.size(node));
+                svnEntry.setExtension(entryName.substring(entryName.lastIndexOf(".") + 1));
+
+                // locks can only be queried at HEAD
+                if (revision == headRevision) {
+                    svnEntry.setLock(fsfs.getLock(directoryPath + "/" + entryName));
+                }
+            }
+            list.add(svnEntry);
+        }
+        return list;
+    }
+
+    /**
+     * read content of a file of the repository
+     *
+     * @param fsfs     repository
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return content
+     */
+    private byte[] contentOf(FsfsRepository fsfs, String filePath, long revision) {
+        return fsfs.read(fileOf(fsfs, filePath, revision));
+    }
+
+    /**
+     * get node-revision of a file of the repository
+     *
+     * @param fsfs     repository
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file node-revision
+     */
+    private FsfsNode fileOf(FsfsRepository fsfs, String filePath, long revision) {
+        FsfsNode file = fsfs.node(repositoryPath(filePath), revision <= 0 ? fsfs.youngest() : revision);
+        if (file == null || file.isDirectory()) {
+            throw new SvnApiException("EC0003", "File not found: " + filePath);
+        }
+        return file;
+    }
+
+    /**
+     * open content of a file of the repository, a delta larger than maxDeltaSize fails with EF0001
+     * and is read by the svn command line
+     *
+     * @param fsfs     repository
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return content
+     */
+    private ByteBuffer openContent(FsfsRepository fsfs, String filePath, long revision) {
+        return fsfs.open(fileOf(fsfs, filePath, revision), maxDeltaSize);
+    }
+
+    /**
+     * read from the repository, or fall back to the svn command line if the repository can't be read
+     *
+     * @param reader   reads from the repository
+     * @param fallback svn command line
+     * @param <T>      type of the result
+     * @return result
+     */
+    private <T> T read(Function<FsfsRepository, T> reader, Supplier<T> fallback) {
+        FsfsRepository fsfs = getRepository();
+        if (fsfs == null) {
+            return fallback.get();
+        }
+        try {
+            return reader.apply(fsfs);
+        } catch (SvnApiException e) {
+            if (!"EF0001".equals(e.getErrorCode()) && !"EF0002".equals(e.getErrorCode())) {
+                throw e;
+            }
+            logger.warn("Falling back to the svn command line, " + e.getMessage());
+            return fallback.get();
+        }
+    }
+
+    /**
+     * get reader of the repository of the root path
+     *
+     * @return reader, null if the root path is not a FSFS repository which FsfsRepository can read
+     */
+    private FsfsRepository getRepository() {
+        FsfsRepository fsfs = this.repository;
+        if (fsfs != null || unsupported) {
+            return fsfs;
+        }
+        synchronized (this) {
+            if (this.repository != null || unsupported) {
+                return this.repository;
+            }
+            try {
+                URI uri = URI.create(getRootPath());
+                if (!"file".equals(uri.getScheme())) {
+                    unsupported = true;
+                    return null;
+                }
+
+                // the root path may be a directory in the repository
+                File directory = new File(uri.getPath());
+                String prefix = "";
+                while (directory != null && !FsfsRepository.isFsfs(directory)) {
+                    prefix = prefix.isEmpty() ? directory.getName() : directory.getName() + "/" + prefix;
+                    directory = directory.getParentFile();
+                }
+                if (directory == null) {
+                    unsupported = true;
+                    return null;
+                }
+                fsfs = new FsfsRepository(directory);
+                this.repositoryPrefix = prefix;
+                this.repository = fsfs;
+                return fsfs;
+            } catch (IllegalArgumentException | SvnApiException e) {
+                logger.warn("Falling back to the svn command line for " + getRootPath() + ", " + e.getMessage());
+                unsupported = true;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * get path in the repository
+     *
+     * @param path path relative to the root path
+     * @return path relative to the repository root
+     */
+    private String repositoryPath(String path) {
+        String prefix = this.repositoryPrefix;
+        return prefix.isEmpty() ? path : prefix + "/" + path;
+    }
+}
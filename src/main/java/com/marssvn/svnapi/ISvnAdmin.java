@@ -1,8 +1,12 @@
 package com.marssvn.svnapi;
 
+import com.marssvn.svnapi.model.SvnLock;
 import com.marssvn.svnapi.model.SvnRepository;
+import com.marssvn.svnapi.model.SvnRepositoryResult;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * svn admin interface
@@ -20,6 +24,15 @@ public interface ISvnAdmin {
      */
     SvnRepository createRepository(SvnRepository svnRepository);
 
+    /**
+     * create many repositories in parallel, a failed repository does not stop the others
+     *
+     * @param svnRepositories repositories
+     * @param parallelism     max count of repositories created at the same time
+     * @return result per repository, in the order of the repositories
+     */
+    List<SvnRepositoryResult> createRepositories(List<SvnRepository> svnRepositories, int parallelism);
+
     /**
      * moveRepository repository
      *
@@ -67,4 +80,20 @@ public interface ISvnAdmin {
      * @throws IOException IOException
      */
     void restartSvnService(String rootPath) throws IOException;
+
+    /**
+     * list all locks of a repository, to load a lock table
+     *
+     * @param svnRepository SvnRepository
+     * @return locks, with repository paths
+     */
+    List<SvnLock> listLocks(SvnRepository svnRepository);
+
+    /**
+     * install the post-commit, post-lock and post-unlock hooks which append to the change journal of a repository
+     *
+     * @param svnRepository SvnRepository
+     * @return journal file
+     */
+    File installChangeJournal(SvnRepository svnRepository);
 }
@@ -1,13 +1,31 @@
 package com.marssvn.svnapi;
 
+import com.marssvn.svnapi.enums.EArchiveFormat;
+import com.marssvn.svnapi.enums.ESvnDepth;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.SvnBlame;
+import com.marssvn.svnapi.model.SvnDiff;
+import com.marssvn.svnapi.model.SvnDiffSummary;
 import com.marssvn.svnapi.model.SvnLock;
+import com.marssvn.svnapi.model.SvnLockResult;
 import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnInfo;
 import com.marssvn.svnapi.model.SvnUser;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 /**
  * SVN client interface
+ * <p>
+ * File contents read by svn cat have svn:keywords expanded. FsfsSvnClient returns all file contents as stored
+ * in the repository, without expansion, and so do getFileContent and transferTo of SvnServeClient.
  *
  * @author zhangkx
  */
@@ -65,12 +83,23 @@ public interface ISvnClient {
     String info(String path, long revision);
 
     /**
+     * get blame as text, one line per line of the file: revision, author and content like svn blame
+     *
      * @param filePath file path
      * @param revision headRevision, default is HEAD
      * @return blame string
      */
     String blame(String filePath, long revision);
 
+    /**
+     * get blame of a text file: the revision, author and date which last changed each line
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return blame
+     */
+    SvnBlame getBlame(String filePath, long revision);
+
     /**
      * list directories and files of path
      *
@@ -91,6 +120,87 @@ public interface ISvnClient {
      */
     List<SvnEntry> list(String path, long revision);
 
+    /**
+     * get the document lists of many paths at the same revision, with as few svn commands as possible
+     *
+     * @param paths    relative paths
+     * @param revision revision, 0 or -1 means HEAD
+     * @return key: path, value: entry list, in the order of paths, paths which do not exist are absent
+     */
+    Map<String, List<SvnEntry>> listAll(Collection<String> paths, long revision);
+
+    /**
+     * walk the tree of the directory, entries are streamed as they are listed.
+     * the stream must be closed, closing it before the end stops the walk
+     *
+     * @param path     relative path of a directory
+     * @param revision revision, 0 or -1 means HEAD
+     * @param depth    depth of the walk, the directory itself is not listed
+     * @return stream of entries, in depth-first order
+     */
+    Stream<SvnEntry> walk(String path, long revision, ESvnDepth depth);
+
+    /**
+     * walk the tree of the directory, until the visitor returns false
+     *
+     * @param path     relative path of a directory
+     * @param revision revision, 0 or -1 means HEAD
+     * @param depth    depth of the walk, the directory itself is not listed
+     * @param visitor  visitor of entries
+     */
+    default void walk(String path, long revision, ESvnDepth depth, SvnEntryVisitor visitor) {
+        try (Stream<SvnEntry> stream = walk(path, revision, depth)) {
+            Iterator<SvnEntry> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                if (!visitor.visit(iterator.next())) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * get svn info of many paths, with as few svn commands as possible
+     *
+     * @param paths    relative paths
+     * @param revision revision, 0 or -1 means HEAD
+     * @return key: path, value: info, in the order of paths, paths which do not exist are absent
+     */
+    Map<String, SvnInfo> infoAll(Collection<String> paths, long revision);
+
+    /**
+     * get uuid of the repository
+     *
+     * @return uuid
+     */
+    String repositoryUuid();
+
+    /**
+     * get file by path
+     *
+     * @param filePath file path
+     * @param revision file revision, 0 or -1 means HEAD
+     * @return SvnEntry
+     */
+    SvnEntry getFile(String filePath, long revision);
+
+    /**
+     * open a read view pinned to HEAD, HEAD is resolved once for all reads of the snapshot
+     *
+     * @return snapshot
+     */
+    default ISvnSnapshot openSnapshot() {
+        return openSnapshot(-1);
+    }
+
+    /**
+     * open a read view pinned to the revision
+     *
+     * @param revision revision, 0 or -1 means HEAD
+     * @return snapshot
+     */
+    ISvnSnapshot openSnapshot(long revision);
+
     /**
      * lock the file of path, if path is a directory, lock all of it's children file
      *
@@ -110,6 +220,25 @@ public interface ISvnClient {
      */
     boolean unLock(String path, boolean force);
 
+    /**
+     * lock many files with as few svn commands as possible, directories are expanded to all of their files
+     *
+     * @param paths   relative paths of files or directories
+     * @param comment lock comment
+     * @param force   force to steal the locks from other users or working copies
+     * @return outcome of each file
+     */
+    List<SvnLockResult> lockAll(Collection<String> paths, String comment, boolean force);
+
+    /**
+     * unlock many files with as few svn commands as possible, directories are expanded to all of their files
+     *
+     * @param paths relative paths of files or directories
+     * @param force force to break the locks of other users
+     * @return outcome of each file
+     */
+    List<SvnLockResult> unLockAll(Collection<String> paths, boolean force);
+
     /**
      * get lock info of path
      *
@@ -119,7 +248,7 @@ public interface ISvnClient {
     SvnLock getLock(String filePath);
 
     /**
-     * get file content of text file
+     * get file content of text file, keywords are expanded if it is read by svn cat
      *
      * @param filePath file path
      * @param revision headRevision, default is HEAD
@@ -127,6 +256,26 @@ public interface ISvnClient {
      */
     String getFileContent(String filePath, long revision);
 
+    /**
+     * open file content as a stream, the content is never held in memory as a whole, e.g. for large binaries.
+     * the stream must be closed, closing it before the end stops the transfer
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file content
+     */
+    InputStream openFile(String filePath, long revision);
+
+    /**
+     * copy file content to the channel through a small fixed buffer
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    long transferTo(String filePath, long revision, WritableByteChannel channel);
+
 
     /**
      * moveRepository source path to dest path
@@ -147,6 +296,30 @@ public interface ISvnClient {
      */
     String export(String path, long revision);
 
+    /**
+     * export a directory tree as an archive streamed to the output stream, no working copy is written to disk.
+     * entries are named after the directory, e.g. trunk/src/App.java
+     *
+     * @param path         relative path of a directory
+     * @param revision     revision, 0 or -1 means HEAD
+     * @param outputStream receives the archive, it is not closed
+     * @param format       archive format
+     */
+    void export(String path, long revision, OutputStream outputStream, EArchiveFormat format);
+
+    /**
+     * get commit logs of path, newest first when fromRevision is newer than toRevision.
+     * the output is parsed as it is read, use LogPager to read a long history page by page
+     *
+     * @param path             relative path
+     * @param fromRevision     from revision, 0 or -1 means HEAD
+     * @param toRevision       to revision, 0 or -1 means HEAD
+     * @param limit            max count of log entries, 0 means no limit
+     * @param withChangedPaths whether to read the changed paths of each entry
+     * @return log entries
+     */
+    List<LogEntry> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths);
+
     /**
      * Display local changes or differences between two revisions or paths
      *
@@ -157,5 +330,27 @@ public interface ISvnClient {
      */
     String diff(String filePath, long olderVersion, long newerVision);
 
+    /**
+     * get one page of the differences between two revisions as files, hunks and lines
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @param firstHunk   index of the first hunk of the page, the nextHunk of the previous page
+     * @param maxHunks    max count of hunks of the page, 0 means no limit
+     * @return page of the differences
+     */
+    SvnDiff getDiff(String path, long oldRevision, long newRevision, int firstHunk, int maxHunks);
+
+    /**
+     * get the paths changed between two revisions without their differences, for large revision ranges
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @return changed paths
+     */
+    List<SvnDiffSummary> diffSummary(String path, long oldRevision, long newRevision);
+
 
 }
@@ -0,0 +1,94 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.enums.ESvnDepth;
+import com.marssvn.svnapi.model.SvnEntry;
+
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Read view of a repository pinned to one revision.
+ * <p>
+ * HEAD is resolved once when the snapshot is opened, all reads of the snapshot are served at that revision,
+ * so several calls see a consistent tree and no call needs to query the head revision again.
+ *
+ * @author zhangkx
+ */
+public interface ISvnSnapshot {
+
+    /**
+     * get the revision the snapshot is pinned to
+     *
+     * @return revision
+     */
+    long getRevision();
+
+    /**
+     * get the head revision when the snapshot was opened
+     *
+     * @return head revision
+     */
+    long getHeadRevision();
+
+    /**
+     * get the document list of path
+     *
+     * @param path relative path
+     * @return entry list
+     */
+    List<SvnEntry> list(String path);
+
+    /**
+     * get the document lists of many paths
+     *
+     * @param paths relative paths
+     * @return key: path, value: entry list, in the order of paths, paths which do not exist are absent
+     */
+    Map<String, List<SvnEntry>> listAll(Collection<String> paths);
+
+    /**
+     * walk the tree of the directory, the stream must be closed
+     *
+     * @param path  relative path of a directory
+     * @param depth depth of the walk, the directory itself is not listed
+     * @return stream of entries, in depth-first order
+     */
+    Stream<SvnEntry> walk(String path, ESvnDepth depth);
+
+    /**
+     * get file by path
+     *
+     * @param filePath file path
+     * @return SvnEntry
+     */
+    SvnEntry getFile(String filePath);
+
+    /**
+     * get file content of text file
+     *
+     * @param filePath file path
+     * @return file content
+     */
+    String getFileContent(String filePath);
+
+    /**
+     * open file content as a stream, the stream must be closed
+     *
+     * @param filePath file path
+     * @return file content
+     */
+    InputStream openFile(String filePath);
+
+    /**
+     * copy file content to the channel through a small fixed buffer
+     *
+     * @param filePath file path
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    long transferTo(String filePath, WritableByteChannel channel);
+}
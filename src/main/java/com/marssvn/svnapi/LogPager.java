@@ -0,0 +1,87 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.LogPage;
+
+import java.util.List;
+
+/**
+ * Cursor based pager of commit logs, newest first.
+ * <p>
+ * The cursor is the revision a page starts from, each page runs one svn log limited to the page size,
+ * so only the entries of the page are read however long the history is. The cursor of the next page is
+ * the revision before the last entry, it is a plain number which a UI can pass back to fetch the next page.
+ * Revision 0 is never listed.
+ *
+ * @author zhangkx
+ */
+public class LogPager {
+
+    /**
+     * default count of entries of a page
+     */
+    public final static int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * svn client
+     */
+    private final ISvnClient svnClient;
+
+    /**
+     * relative path
+     */
+    private final String path;
+
+    /**
+     * count of entries of a page
+     */
+    private final int pageSize;
+
+    /**
+     * whether to read the changed paths of each entry
+     */
+    private final boolean withChangedPaths;
+
+    public LogPager(ISvnClient svnClient, String path) {
+        this(svnClient, path, DEFAULT_PAGE_SIZE, false);
+    }
+
+    public LogPager(ISvnClient svnClient, String path, int pageSize, boolean withChangedPaths) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        }
+        this.svnClient = svnClient;
+        this.path = path;
+        this.pageSize = pageSize;
+        this.withChangedPaths = withChangedPaths;
+    }
+
+    /**
+     * get the first page, which starts from HEAD
+     *
+     * @return page
+     */
+    public LogPage first() {
+        return page(-1);
+    }
+
+    /**
+     * get the page which starts from the cursor
+     *
+     * @param cursor revision to start from, 0 or -1 means HEAD
+     * @return page
+     */
+    public LogPage page(long cursor) {
+        List<LogEntry> entries = svnClient.log(path, cursor, 1, pageSize, withChangedPaths);
+        LogPage logPage = new LogPage();
+        logPage.setEntries(entries);
+
+        // a short page is the last one
+        long nextCursor = 0;
+        if (entries.size() >= pageSize) {
+            nextCursor = Math.max(entries.get(entries.size() - 1).getRevision() - 1, 0);
+        }
+        logPage.setNextCursor(nextCursor);
+        return logPage;
+    }
+}
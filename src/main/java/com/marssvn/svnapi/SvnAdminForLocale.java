@@ -2,10 +2,15 @@ package com.marssvn.svnapi;
 
 import com.marssvn.svnapi.common.CommandUtils;
 import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.enums.ERepositoryType;
 import com.marssvn.svnapi.enums.ESvnProtocol;
 import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.journal.ChangeJournal;
+import com.marssvn.svnapi.model.SvnLock;
 import com.marssvn.svnapi.model.SvnRepository;
+import com.marssvn.svnapi.model.SvnRepositoryResult;
 import com.marssvn.svnapi.model.SvnUser;
+import com.marssvn.svnapi.parser.LslocksReader;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +18,12 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * svn admin
@@ -32,12 +43,18 @@ public class SvnAdminForLocale implements ISvnAdmin {
      */
     private static String defaultSvnRootPath;
 
+    /**
+     * directory of the template repositories, null to run svnadmin create for every repository
+     */
+    private volatile File templateDirectory;
+
     static {
         defaultSvnRootPath = System.getProperty("user.home") + "/svn";
     }
 
     /**
-     * createRepository a new repository
+     * createRepository a new repository,
+     * the repository is copied from the template of its type if a template directory is set
      *
      * @param svnRepository SvnRepository
      * @return repository path
@@ -52,20 +69,21 @@ public class SvnAdminForLocale implements ISvnAdmin {
                 FileUtils.forceMkdir(repoRoot);
             }
 
-            // execute svnadmin create command
             String repoName = svnRepository.getName();
             String repoPathLocal = svnRepository.getFullPathLocal();
-            String command = "svnadmin create \"" + StringUtils.fixFileSeparatorChar(repoPathLocal) + "\"";
-
-            if (svnRepository.getRepositoryType() != null) {
-                command += " --fs-type " + svnRepository.getRepositoryType().getCode();
-            }
+            File templateDir = this.templateDirectory;
+            if (templateDir == null) {
 
-            logger.info("Create repository: " + repoName);
-            CommandUtils.executeAsync(command);
+                // execute svnadmin create command
+                logger.info("Create repository: " + repoName);
+                CommandUtils.executeAsync(createCommand(repoPathLocal, svnRepository.getRepositoryType()));
 
-            // backup svn repository settings
-            backupSettings(repoPathLocal);
+                // backup svn repository settings
+                backupSettings(repoPathLocal);
+            } else {
+                logger.info("Create repository from template: " + repoName);
+                copyTemplate(templateOf(templateDir, svnRepository.getRepositoryType()), new File(repoPathLocal));
+            }
 
             // svn admin
             SvnUser svnAdmin = new SvnUser("marssvn", StringUtils.createRandomPassword(16));
@@ -75,6 +93,11 @@ public class SvnAdminForLocale implements ISvnAdmin {
             // write svnserve.conf
             writeSvnserveConf(svnRepository);
 
+            // hooks of the change journal
+            if (svnRepository.isChangeJournal()) {
+                installChangeJournal(svnRepository);
+            }
+
             svnRepository.setSvnProtocol(ESvnProtocol.SVN);
             return svnRepository;
 
@@ -83,6 +106,129 @@ public class SvnAdminForLocale implements ISvnAdmin {
         }
     }
 
+    /**
+     * create many repositories in parallel, a failed repository does not stop the others,
+     * set a template directory to make each creation a file copy instead of svnadmin create
+     *
+     * @param svnRepositories repositories
+     * @param parallelism     max count of repositories created at the same time
+     * @return result per repository, in the order of the repositories
+     */
+    @Override
+    public List<SvnRepositoryResult> createRepositories(List<SvnRepository> svnRepositories, int parallelism) {
+        List<SvnRepositoryResult> results = new ArrayList<>();
+        if (svnRepositories.isEmpty()) {
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, svnRepositories.size())), runnable -> {
+            Thread thread = new Thread(runnable, "svnapi-create-repository");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<SvnRepositoryResult>> futures = new ArrayList<>();
+            for (SvnRepository svnRepository : svnRepositories) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return new SvnRepositoryResult(createRepository(svnRepository), true, null);
+                    } catch (RuntimeException e) {
+                        logger.warn("Create repository " + svnRepository.getName() + " failed: " + e.getMessage());
+                        return new SvnRepositoryResult(svnRepository, false, e.getMessage());
+                    }
+                }));
+            }
+            for (Future<SvnRepositoryResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SvnApiException("EA0001", "Interrupted while creating repositories");
+        } catch (ExecutionException e) {
+            throw new SvnApiException("EA0001", e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * set directory of the template repositories, createRepository copies the template of the repository type
+     * and gives the copy a new uuid, which is much faster than svnadmin create.
+     * A template is created by svnadmin create in the directory on first use, e.g. templates/fsfs
+     *
+     * @param templateDirectory template directory, null to run svnadmin create for every repository
+     */
+    public void setTemplateDirectory(File templateDirectory) {
+        this.templateDirectory = templateDirectory;
+    }
+
+    /**
+     * get svnadmin create command
+     *
+     * @param repoPathLocal  repository path
+     * @param repositoryType repository type, null for the default of svnadmin
+     * @return command
+     */
+    private String createCommand(String repoPathLocal, ERepositoryType repositoryType) {
+        String command = "svnadmin create \"" + StringUtils.fixFileSeparatorChar(repoPathLocal) + "\"";
+        if (repositoryType != null) {
+            command += " --fs-type " + repositoryType.getCode();
+        }
+        return command;
+    }
+
+    /**
+     * get the template repository of a type, it is created on first use
+     *
+     * @param templateDir    template directory
+     * @param repositoryType repository type, null for the default of svnadmin
+     * @return template repository
+     * @throws IOException IOException
+     */
+    private File templateOf(File templateDir, ERepositoryType repositoryType) throws IOException {
+        File template = new File(templateDir, repositoryType == null ? "default" : repositoryType.getCode());
+        if (new File(template, "format").isFile()) {
+            return template;
+        }
+        synchronized (this) {
+            if (new File(template, "format").isFile()) {
+                return template;
+            }
+
+            // created beside the template and renamed, so a half created template is never copied
+            File temp = new File(templateDir, template.getName() + ".tmp");
+            FileUtils.deleteDirectory(temp);
+            FileUtils.forceMkdir(templateDir);
+            logger.info("Create repository template: " + template.getPath());
+            CommandUtils.executeAsync(createCommand(temp.getPath(), repositoryType));
+            backupSettings(temp.getPath());
+            FileUtils.deleteDirectory(template);
+            FileUtils.moveDirectory(temp, template);
+            return template;
+        }
+    }
+
+    /**
+     * copy a template repository and give the copy a new uuid
+     * svn command: svnadmin setuuid
+     *
+     * @param template      template repository
+     * @param repositoryDir repository directory
+     * @throws IOException IOException
+     */
+    private void copyTemplate(File template, File repositoryDir) throws IOException {
+        if (repositoryDir.exists()) {
+            throw new SvnApiException("EA0001", "Repository exists: " + repositoryDir.getPath());
+        }
+        try {
+            FileUtils.copyDirectory(template, repositoryDir);
+            CommandUtils.execute("svnadmin setuuid \"" + StringUtils.fixFileSeparatorChar(repositoryDir.getPath()) + "\"");
+        } catch (IOException | RuntimeException e) {
+            FileUtils.deleteQuietly(repositoryDir);
+            throw e;
+        }
+    }
+
     /**
      * moveRepository repository
      *
@@ -190,4 +336,39 @@ public class SvnAdminForLocale implements ISvnAdmin {
             throw new SvnApiException("EA0004", "Please restart the svnserve service manually on Windows.");
         }
     }
+
+    /**
+     * list all locks of a repository, all locks are read by one command
+     * svn command: svnadmin lslocks
+     *
+     * @param svnRepository SvnRepository
+     * @return locks, with repository paths
+     */
+    @Override
+    public List<SvnLock> listLocks(SvnRepository svnRepository) {
+        String command = "svnadmin lslocks \"" + StringUtils.fixFileSeparatorChar(svnRepository.getFullPathLocal()) + "\"";
+        return CommandUtils.executeForStream(command, 0, inputStream -> {
+            List<SvnLock> locks = new ArrayList<>();
+            LslocksReader reader = new LslocksReader(inputStream);
+            SvnLock svnLock;
+            while ((svnLock = reader.next()) != null) {
+                locks.add(svnLock);
+            }
+            return locks;
+        });
+    }
+
+    /**
+     * install the post-commit, post-lock and post-unlock hooks which append to the change journal of a repository,
+     * hooks installed before are replaced, other hooks are kept and fail the installation
+     *
+     * @param svnRepository SvnRepository
+     * @return journal file
+     */
+    @Override
+    public File installChangeJournal(SvnRepository svnRepository) {
+        File repositoryDir = new File(svnRepository.getFullPathLocal());
+        logger.info("Install change journal: " + svnRepository.getName());
+        return ChangeJournal.install(repositoryDir);
+    }
 }
@@ -1,25 +1,92 @@
 package com.marssvn.svnapi;
 
+import com.marssvn.svnapi.cache.BlameCache;
+import com.marssvn.svnapi.cache.BlobCache;
+import com.marssvn.svnapi.cache.DiffCache;
+import com.marssvn.svnapi.cache.ListCache;
+import com.marssvn.svnapi.cache.SvnLockTable;
+import com.marssvn.svnapi.common.ByteBufferInputStream;
+import com.marssvn.svnapi.common.CommandStream;
 import com.marssvn.svnapi.common.CommandUtils;
-import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.common.LineDiff;
 import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.enums.EArchiveFormat;
+import com.marssvn.svnapi.enums.ESvnDepth;
 import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.RevisionEvent;
+import com.marssvn.svnapi.model.SvnBlame;
+import com.marssvn.svnapi.model.SvnBlameLine;
+import com.marssvn.svnapi.model.SvnDiff;
+import com.marssvn.svnapi.model.SvnDiffSummary;
 import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnInfo;
 import com.marssvn.svnapi.model.SvnLock;
+import com.marssvn.svnapi.model.SvnLockResult;
 import com.marssvn.svnapi.model.SvnUser;
+import com.marssvn.svnapi.parser.BlameXmlReader;
+import com.marssvn.svnapi.parser.DiffReader;
+import com.marssvn.svnapi.parser.DiffSummaryXmlReader;
+import com.marssvn.svnapi.parser.InfoXmlReader;
+import com.marssvn.svnapi.parser.ListXmlReader;
+import com.marssvn.svnapi.parser.LockOutputParser;
+import com.marssvn.svnapi.parser.LogXmlReader;
+import com.marssvn.svnapi.watch.RevisionWatcher;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.io.IOUtils;
-import org.dom4j.Document;
-import org.dom4j.DocumentException;
-import org.dom4j.Element;
+import org.apache.commons.io.input.NullInputStream;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * SVN client
+ * <p>
+ * The client is configured by setters, a client which is shared by threads must be bound first,
+ * SvnClientRegistry creates and binds a client per repository and svn user.
  *
  * @author zhangkx
  */
@@ -31,6 +98,61 @@ public class SvnClient implements ISvnClient {
      */
     private Logger logger = LoggerFactory.getLogger(SvnClient.class);
 
+    /**
+     * max length of a command with many targets, the limit of Windows is 8191
+     */
+    protected final static int MAX_COMMAND_LENGTH = 8000;
+
+    /**
+     * default timeout of a tree walk in milliseconds, walking a large tree takes much longer than other commands
+     */
+    public final static long DEFAULT_WALK_TIMEOUT = 3600000;
+
+    /**
+     * default timeout of streaming a file in milliseconds, large binaries take much longer than other commands
+     */
+    public final static long DEFAULT_TRANSFER_TIMEOUT = 3600000;
+
+    /**
+     * default timeout of a log in milliseconds, a log without limit reads the whole history
+     */
+    public final static long DEFAULT_LOG_TIMEOUT = 600000;
+
+    /**
+     * default timeout of a full blame in milliseconds, svn blame reads every revision of the file
+     */
+    public final static long DEFAULT_BLAME_TIMEOUT = 600000;
+
+    /**
+     * default timeout of a diff in milliseconds, a diff of a large revision range reads many files
+     */
+    public final static long DEFAULT_DIFF_TIMEOUT = 600000;
+
+    /**
+     * max count of changes of a file which are applied to a cached older blame, a full blame is run for more
+     */
+    protected final static int MAX_INCREMENTAL_BLAME_REVISIONS = 20;
+
+    /**
+     * max count of inserted and deleted lines of one change applied to a cached older blame
+     */
+    private final static int MAX_INCREMENTAL_BLAME_EDITS = 5000;
+
+    /**
+     * buffer size of transferTo
+     */
+    private final static int TRANSFER_BUFFER_SIZE = 8192;
+
+    /**
+     * default count of threads which compress the files of a zip export, 1 compresses on the calling thread
+     */
+    public final static int DEFAULT_EXPORT_PARALLELISM = 1;
+
+    /**
+     * error of a command with many targets, when some of them do not exist
+     */
+    private final static String MISSING_TARGETS_ERROR = "svn: E200009:";
+
     /**
      * root path
      */
@@ -41,6 +163,96 @@ public class SvnClient implements ISvnClient {
      */
     private SvnUser svnUser;
 
+    /**
+     * list cache, listings are not cached if it is null
+     */
+    private ListCache listCache;
+
+    /**
+     * cache of file contents at fixed revisions, contents are not cached if it is null
+     */
+    private BlobCache blobCache;
+
+    /**
+     * cache of blames, blames are not cached if it is null
+     */
+    private BlameCache blameCache;
+
+    /**
+     * cache of diffs between fixed revisions, diffs are not cached if it is null
+     */
+    private DiffCache diffCache;
+
+    /**
+     * table of all locks of the repository, locks are read from svn if it is null
+     */
+    private SvnLockTable lockTable;
+
+    /**
+     * watcher of the head revision of the repository, headRevision runs svn if it is null
+     */
+    private volatile RevisionWatcher revisionWatcher;
+
+    /**
+     * local directory of the repository, watched by the revision watcher
+     */
+    private volatile File repositoryDir;
+
+    /**
+     * listener of the revision watcher, invalidates the lock table after commits, which may release locks
+     */
+    private final Consumer<RevisionEvent> revisionListener = event -> {
+        SvnLockTable table = this.lockTable;
+        if (table != null) {
+            table.invalidate();
+        }
+    };
+
+    /**
+     * repository uuid, resolved once
+     */
+    private volatile String repositoryUuid;
+
+    /**
+     * path of the root path in the repository, resolved once
+     */
+    private volatile String rootPathInRepository;
+
+    /**
+     * timeout of a tree walk in milliseconds
+     */
+    private long walkTimeout = DEFAULT_WALK_TIMEOUT;
+
+    /**
+     * timeout of streaming a file in milliseconds
+     */
+    private long transferTimeout = DEFAULT_TRANSFER_TIMEOUT;
+
+    /**
+     * timeout of a log in milliseconds
+     */
+    private long logTimeout = DEFAULT_LOG_TIMEOUT;
+
+    /**
+     * timeout of a full blame in milliseconds
+     */
+    private long blameTimeout = DEFAULT_BLAME_TIMEOUT;
+
+    /**
+     * timeout of a diff in milliseconds
+     */
+    private long diffTimeout = DEFAULT_DIFF_TIMEOUT;
+
+    /**
+     * count of threads which compress the files of a zip export
+     */
+    private int exportParallelism = DEFAULT_EXPORT_PARALLELISM;
+
+    /**
+     * whether the client is bound to its root path and svn user, see bind
+     */
+    private volatile boolean bound;
+
 
     /**
      * set root path
@@ -49,7 +261,10 @@ public class SvnClient implements ISvnClient {
      */
     @Override
     public void setRootPath(String rootPath) {
+        checkNotBound();
         this.rootPath = rootPath;
+        this.repositoryUuid = null;
+        this.rootPathInRepository = null;
     }
 
     /**
@@ -59,9 +274,210 @@ public class SvnClient implements ISvnClient {
      */
     @Override
     public void setSvnUser(SvnUser svnUser) {
+        checkNotBound();
         this.svnUser = svnUser;
     }
 
+    /**
+     * set list cache, the cache can be shared by clients of different repositories
+     *
+     * @param listCache list cache, null to disable caching
+     */
+    public void setListCache(ListCache listCache) {
+        checkNotBound();
+        this.listCache = listCache;
+    }
+
+    /**
+     * get list cache
+     *
+     * @return list cache
+     */
+    public ListCache getListCache() {
+        return this.listCache;
+    }
+
+    /**
+     * set cache of file contents, contents read at a fixed revision (not HEAD) are cached,
+     * the cache can be shared by clients of different repositories
+     *
+     * @param blobCache blob cache, null to disable caching
+     */
+    public void setBlobCache(BlobCache blobCache) {
+        checkNotBound();
+        this.blobCache = blobCache;
+    }
+
+    /**
+     * set timeout of a tree walk
+     *
+     * @param walkTimeout timeout in milliseconds
+     */
+    public void setWalkTimeout(long walkTimeout) {
+        checkNotBound();
+        this.walkTimeout = walkTimeout;
+    }
+
+    /**
+     * set timeout of streaming a file with openFile or transferTo
+     *
+     * @param transferTimeout timeout in milliseconds
+     */
+    public void setTransferTimeout(long transferTimeout) {
+        checkNotBound();
+        this.transferTimeout = transferTimeout;
+    }
+
+    /**
+     * set cache of blames, blames at a newer revision are computed from the cached blame at an older revision
+     * and the changes in between, the cache can be shared by clients of different repositories
+     *
+     * @param blameCache blame cache, null to disable caching
+     */
+    public void setBlameCache(BlameCache blameCache) {
+        checkNotBound();
+        this.blameCache = blameCache;
+    }
+
+    /**
+     * set timeout of a full blame
+     *
+     * @param blameTimeout timeout in milliseconds
+     */
+    public void setBlameTimeout(long blameTimeout) {
+        checkNotBound();
+        this.blameTimeout = blameTimeout;
+    }
+
+    /**
+     * set cache of diffs, diffs between fixed revisions (not HEAD) are cached,
+     * the cache can be shared by clients of different repositories
+     *
+     * @param diffCache diff cache, null to disable caching
+     */
+    public void setDiffCache(DiffCache diffCache) {
+        checkNotBound();
+        this.diffCache = diffCache;
+    }
+
+    /**
+     * set lock table of the repository, getLock and list read locks from it,
+     * it is updated after lock and unlock
+     *
+     * @param lockTable lock table, null to read locks from svn
+     */
+    public void setLockTable(SvnLockTable lockTable) {
+        checkNotBound();
+        this.lockTable = lockTable;
+    }
+
+    /**
+     * get lock table
+     *
+     * @return lock table
+     */
+    public SvnLockTable getLockTable() {
+        return this.lockTable;
+    }
+
+    /**
+     * set revision watcher of a local repository, headRevision is answered by the watcher instead of svn,
+     * and the lock table is invalidated when the head revision advances
+     *
+     * @param revisionWatcher watcher, null to run svn for every headRevision
+     * @param repositoryDir   local directory of the repository of the root path
+     */
+    public void setRevisionWatcher(RevisionWatcher revisionWatcher, File repositoryDir) {
+        checkNotBound();
+        RevisionWatcher previous = this.revisionWatcher;
+        if (previous != null) {
+            previous.unsubscribe(revisionListener);
+        }
+        if (revisionWatcher != null) {
+            revisionWatcher.subscribe(repositoryDir, revisionListener);
+        }
+        this.repositoryDir = repositoryDir;
+        this.revisionWatcher = revisionWatcher;
+    }
+
+    /**
+     * set timeout of a diff
+     *
+     * @param diffTimeout timeout in milliseconds
+     */
+    public void setDiffTimeout(long diffTimeout) {
+        checkNotBound();
+        this.diffTimeout = diffTimeout;
+    }
+
+    /**
+     * set timeout of a log
+     *
+     * @param logTimeout timeout in milliseconds
+     */
+    public void setLogTimeout(long logTimeout) {
+        checkNotBound();
+        this.logTimeout = logTimeout;
+    }
+
+    /**
+     * set count of threads which compress the files of a zip export,
+     * files are compressed into temporary files in parallel and then copied into the archive
+     *
+     * @param exportParallelism count of threads, 1 compresses on the calling thread
+     */
+    public void setExportParallelism(int exportParallelism) {
+        checkNotBound();
+        this.exportParallelism = Math.max(1, exportParallelism);
+    }
+
+    /**
+     * bind the client to its root path and svn user, the setters fail afterwards, so a bound client
+     * can be shared by threads, see SvnClientRegistry
+     */
+    public void bind() {
+        if (StringUtils.isBlank(this.rootPath)) {
+            throw new SvnApiException("EC0002", "Path is required");
+        }
+        this.bound = true;
+    }
+
+    /**
+     * whether the client is bound to its root path and svn user
+     *
+     * @return true if the setters fail
+     */
+    public boolean isBound() {
+        return this.bound;
+    }
+
+    /**
+     * throw SvnApiException when the client is bound
+     */
+    protected void checkNotBound() {
+        if (this.bound) {
+            throw new SvnApiException("EC0005", "Client is bound to " + this.rootPath + ", it can't be configured");
+        }
+    }
+
+    /**
+     * get root path
+     *
+     * @return svn root path
+     */
+    protected String getRootPath() {
+        return this.rootPath;
+    }
+
+    /**
+     * get svn user
+     *
+     * @return svn user
+     */
+    protected SvnUser getSvnUser() {
+        return this.svnUser;
+    }
+
     /**
      * make directory, will make parent directories also
      *
@@ -76,13 +492,19 @@ public class SvnClient implements ISvnClient {
         String command = "svn mkdir " + fullPath + " -q -m \"" + message + "\" --parents" + svnUser.getAuthString();
         logger.info("mkdir: " + fullPath);
         CommandUtils.execute(command);
+
+        // the commit is seen by headRevision at once, not after the watcher latency
+        RevisionWatcher watcher = this.revisionWatcher;
+        if (watcher != null) {
+            watcher.refresh(this.repositoryDir);
+        }
     }
 
     /**
      * do base check
      * throw SvnApiException when svnUser or rootPathLocal is null
      */
-    private void doBaseCheck(String path) {
+    protected void doBaseCheck(String path) {
         if (this.svnUser == null || StringUtils.isEmpty(this.svnUser.getUsername()) || StringUtils.isEmpty(this.svnUser.getPassword())) {
             throw new SvnApiException("EC0001", "SVN User is required");
         }
@@ -109,10 +531,81 @@ public class SvnClient implements ISvnClient {
      */
     @Override
     public long headRevision() {
+        RevisionWatcher watcher = this.revisionWatcher;
+        if (watcher != null) {
+            long revision = watcher.headRevision(this.repositoryDir);
+            if (revision >= 0) {
+                return revision;
+            }
+        }
+        return doHeadRevision();
+    }
+
+    /**
+     * get head headRevision
+     * svn command: svn info
+     *
+     * @return head headRevision
+     */
+    protected long doHeadRevision() {
         String command = "svn info " + this.rootPath + " --show-item revision --no-newline" + svnUser.getAuthString();
         return CommandUtils.executeForLong(command);
     }
 
+    /**
+     * get uuid of the repository, resolved once
+     *
+     * @return uuid
+     */
+    @Override
+    public String repositoryUuid() {
+        String uuid = this.repositoryUuid;
+        if (uuid == null) {
+            uuid = doRepositoryUuid();
+            this.repositoryUuid = uuid;
+        }
+        return uuid;
+    }
+
+    /**
+     * get uuid of the repository
+     * svn command: svn info --show-item repos-uuid
+     *
+     * @return uuid
+     */
+    protected String doRepositoryUuid() {
+        String command = "svn info " + this.rootPath + " --show-item repos-uuid --no-newline" + svnUser.getAuthString();
+        return CommandUtils.executeForString(command).trim();
+    }
+
+    /**
+     * get path of the root path in the repository, resolved once
+     *
+     * @return path relative to the repository root, e.g. trunk, empty if the root path is the repository root
+     */
+    protected String rootPathInRepository() {
+        String path = this.rootPathInRepository;
+        if (path == null) {
+            path = doRootPathInRepository();
+            this.rootPathInRepository = path;
+        }
+        return path;
+    }
+
+    /**
+     * get path of the root path in the repository
+     * svn command: svn info --show-item relative-url
+     *
+     * @return path relative to the repository root, e.g. trunk, empty if the root path is the repository root
+     */
+    protected String doRootPathInRepository() {
+        String command = "svn info " + this.rootPath + " --show-item relative-url --no-newline" + svnUser.getAuthString();
+
+        // ^/trunk
+        String relativeUrl = CommandUtils.executeForString(command).trim();
+        return StringUtils.trimSlashes(StringUtils.decodeUri(relativeUrl.startsWith("^") ? relativeUrl.substring(1) : relativeUrl));
+    }
+
     /**
      * get last changed headRevision
      *
@@ -135,179 +628,505 @@ public class SvnClient implements ISvnClient {
      */
     @Override
     public List<SvnEntry> list(String path, long revision) {
-        try {
 
-            // get head headRevision
-            long headRevision = headRevision();
+        // get head headRevision
+        long headRevision = headRevision();
+        long resolvedRevision = revision <= 0 ? headRevision : revision;
+        List<SvnEntry> list = listAtRevision(path, resolvedRevision, headRevision);
+        if (resolvedRevision == headRevision) {
+            attachLocks(list);
+        }
+        return list;
+    }
+
+    /**
+     * replace the locks of the entries by the locks of the lock table, if there is one.
+     * locks are not versioned, the locks of cached listings may be outdated
+     *
+     * @param list entries at HEAD
+     */
+    void attachLocks(List<SvnEntry> list) {
+        SvnLockTable table = this.lockTable;
+        if (table == null) {
+            return;
+        }
+        List<String> paths = new ArrayList<>(list.size());
+        for (SvnEntry svnEntry : list) {
+            paths.add(svnEntry.getPath());
+        }
+        Map<String, SvnLock> locks = table.getAll(paths);
+        for (SvnEntry svnEntry : list) {
+            svnEntry.setLock(locks.get(svnEntry.getPath()));
+        }
+    }
 
-            // file headRevision
-            String rev = revision <= 0 ? "HEAD" : String.valueOf(revision);
+    /**
+     * get the document list of path at the resolved revision, served from the list cache if possible
+     *
+     * @param path         relative path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return entry list
+     */
+    protected List<SvnEntry> listAtRevision(String path, long revision, long headRevision) {
+        ListCache cache = this.listCache;
+        if (cache == null) {
+            return doList(path, revision, headRevision);
+        }
+        List<SvnEntry> list = cache.get(this.rootPath, path, revision, headRevision);
+        if (list == null) {
+            list = doList(path, revision, headRevision);
+            cache.put(this.rootPath, path, revision, list);
+        }
+        return list;
+    }
 
-            // full path
-            String fullPath = getFullPath(path);
+    /**
+     * get the document list of path at the resolved revision
+     * svn command: svn list
+     *
+     * @param path         relative path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return entry list
+     */
+    protected List<SvnEntry> doList(String path, long revision, long headRevision) {
 
-            // command
-            String command = "svn list " + fullPath + " --xml -r " + rev + svnUser.getAuthString();
+        // full path
+        String fullPath = getFullPath(path);
 
-            Document document = CommandUtils.executeForXmlDocument(command);
-            Element rootElement = document.getRootElement().element("list");
+        // command
+        String command = "svn list " + fullPath + " --xml -r " + revision + svnUser.getAuthString();
 
-            // <list><entry></entry></list>
+        // <list><entry></entry></list>, entries are parsed while svn is writing them
+        return CommandUtils.executeForStream(command, 0, inputStream -> {
             List<SvnEntry> list = new ArrayList<>();
-            rootElement.elements().forEach(entry -> {
-                SvnEntry svnEntry = new SvnEntry();
-                svnEntry.setKind(entry.attributeValue("kind"));
-                String entryName = entry.elementText("name");
-                svnEntry.setName(entryName);
-                svnEntry.setParentPath(fullPath);
-                svnEntry.setPath(path + "/" + entryName);
-                svnEntry.setFullPath(fullPath + "/" + entryName);
-                Element commitElement = entry.element("commit");
-                svnEntry.setHeadRevision(headRevision);
-                svnEntry.setCommitRevision(Long.valueOf(commitElement.attributeValue("revision")));
-                svnEntry.setCommitAuthor(commitElement.elementText("author"));
-                svnEntry.setCommitDate(DateUtils.parseDate(commitElement.elementText("date")));
-
-                if ("file".equals(svnEntry.getKind())) {
-                    svnEntry.setSize(Long.valueOf(entry.elementText("size")));
-                    svnEntry.setExtension(entryName.substring(entryName.lastIndexOf(".") + 1));
-                }
-
-                // svn lock
-                Element lockElement = entry.element("lock");
-                if (lockElement != null && lockElement.hasContent()) {
-                    SvnLock svnLock = new SvnLock();
-                    svnLock.setToken(lockElement.elementText("token"));
-                    svnLock.setOwner(lockElement.elementText("owner"));
-                    svnLock.setComment(lockElement.elementText("comment"));
-                    svnLock.setCreatedAt(DateUtils.parseDate(lockElement.elementText("created")));
-                    svnEntry.setLock(svnLock);
+            try (ListXmlReader reader = new ListXmlReader(inputStream)) {
+                SvnEntry svnEntry;
+                while ((svnEntry = reader.next()) != null) {
+                    String entryName = svnEntry.getName();
+                    svnEntry.setParentPath(fullPath);
+                    svnEntry.setPath(path + "/" + entryName);
+                    svnEntry.setFullPath(fullPath + "/" + entryName);
+                    svnEntry.setHeadRevision(headRevision);
+                    list.add(svnEntry);
                 }
-                list.add(svnEntry);
-            });
+            }
             return list;
-        } catch (DocumentException e) {
-            throw new SvnApiException(e.getMessage());
-        }
+        });
     }
 
     /**
-     * get file by path
+     * get the document lists of many paths, all paths are listed at the same revision.
+     * targets are grouped into as few svn list commands as the command line length allows
      *
-     * @param path     file path
-     * @param revision file headRevision
-     * @return SvnEntry
+     * @param paths    relative paths
+     * @param revision revision, 0 or -1 means HEAD
+     * @return key: path, value: entry list, in the order of paths, paths which do not exist are absent
      */
-    public SvnEntry getFile(String path, long revision) {
-        try {
+    @Override
+    public Map<String, List<SvnEntry>> listAll(Collection<String> paths, long revision) {
 
-            // file headRevision
-            String rev = revision == -1 ? "HEAD" : String.valueOf(revision);
-
-            // file full path
-            String fullPath = getFullPath(path);
-
-            // command
-            String command = "svn info " + fullPath + " --xml -r " + rev + this.svnUser.getAuthString();
-            Process process = Runtime.getRuntime().exec(command);
-
-            // serialize xml to SvnEntry
-//            Serializer xmlSerializer = new Persister();
-
-            String infoXml = IOUtils.toString(process.getInputStream(), "UTF-8");
-            System.out.println(infoXml);
-
-//            List<SvnInfoEntry> entryList = xmlSerializer.read(SvnInfo.class, infoXml).getEntryList();
-//            if (entryList.isEmpty()) {
-//                throw new SvnApiException("svn info entry is empty");
-//            }
-//
-//            SvnInfoEntry infoEntry = entryList.get(0);
-//
-            SvnEntry nodeItem = new SvnEntry();
-//
-//            // FileIcon.vue
-//            String nodeItemName = infoEntry.getPath();
-//            nodeItem.setName(nodeItemName);
-//
-//            // source/marssvn/src/demo/components/FileIcon.vue
-//            nodeItem.setPath(infoEntry.getRelativeUrl().replace("^/", ""));
-//
-//            // svn://127.0.0.1/marssvn/source/marssvn/src/demo/components/FileIcon.vue
-//            nodeItem.setFullPath(fullPath);
-//
-//            // parent path
-//            nodeItem.setParentPath(nodeItem.getPath().replace("/" + nodeItemName, ""));
-//
-//            // headRevision
-//            if (headRevision == -1) {
-//
-//                // HEAD headRevision
-//                nodeItem.setHeadRevision(infoEntry.getHeadRevision());
-//            } else {
-//
-//                // parameter headRevision
-//                nodeItem.setHeadRevision(headRevision);
-//            }
-//
-//            // e.g. vue
-//            String extension = nodeItemName.substring(nodeItemName.lastIndexOf(".") + 1);
-//            nodeItem.setExtension(extension);
-//
-//            // mime-type
-//            nodeItem.setMimeType(getMimeType(fullPath));
-//
-//            // DIR: directory   FILE: file,  NONE: nothing
-//            if ("file".equals(infoEntry.getKind())) {
-//                nodeItem.setNodeKind(ESvnNodeKind.FILE);
-//            } else if ("directory".equals(infoEntry.getKind())) {
-//                nodeItem.setNodeKind(ESvnNodeKind.DIR);
-//            } else {
-//                nodeItem.setNodeKind(ESvnNodeKind.NONE);
-//            }
-//
-//            // lock
-//            SvnInfoLock infoLock = infoEntry.getLock();
-//            if (infoLock != null) {
-//
-//                // token, owner, comment
-//                SvnLock svnLock = infoLock.convertTo(SvnLock.class);
-//
-//                // lock createdAt
-//                svnLock.setCreatedAt(DateUtils.parseDate(infoLock.getCreated()));
-//                nodeItem.setLock(svnLock);
-//            }
-//
-//            // commit
-//            SvnInfoCommit infoCommit = infoEntry.getCommit();
-//            if (infoCommit != null) {
-//                long commitRevision = infoCommit.getHeadRevision();
-//                SvnCommit commit = new SvnCommit();
-//
-//                // last changed headRevision
-//                commit.setHeadRevision(commitRevision);
-//
-//                // last changed commitAuthor
-//                commit.setCommitAuthor(infoCommit.getCommitAuthor());
-//
-//                // last changed date
-//                commit.setDate(DateUtils.parseDate(infoCommit.getDate()));
-//
-//                // commit message
-//                commit.setMessage(getCommitMessage(fullPath, commitRevision));
-//
-//                nodeItem.setCommit(commit);
-//            }
-
-            return nodeItem;
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new SvnApiException(e.getMessage());
+        // get head headRevision
+        long headRevision = headRevision();
+        long resolvedRevision = revision <= 0 ? headRevision : revision;
+        Map<String, List<SvnEntry>> lists = listAllAtRevision(paths, resolvedRevision, headRevision);
+        if (resolvedRevision == headRevision) {
+            for (List<SvnEntry> list : lists.values()) {
+                attachLocks(list);
+            }
         }
+        return lists;
     }
 
-    @Override
-    public String getMimeType(String path) {
+    /**
+     * get the document lists of many paths at the resolved revision, served from the list cache if possible
+     *
+     * @param paths        relative paths
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return key: path, value: entry list, in the order of paths, paths which do not exist are absent
+     */
+    protected Map<String, List<SvnEntry>> listAllAtRevision(Collection<String> paths, long revision, long headRevision) {
+        ListCache cache = this.listCache;
+        Set<String> uniquePaths = new LinkedHashSet<>(paths);
+        Map<String, List<SvnEntry>> cached = new HashMap<>();
+        List<String> missedPaths = new ArrayList<>();
+        for (String path : uniquePaths) {
+            List<SvnEntry> list = cache == null ? null : cache.get(this.rootPath, path, revision, headRevision);
+            if (list == null) {
+                missedPaths.add(path);
+            } else {
+                cached.put(path, list);
+            }
+        }
+
+        Map<String, List<SvnEntry>> fetched = missedPaths.isEmpty() ? Collections.emptyMap() : doListAll(missedPaths, revision, headRevision);
+        Map<String, List<SvnEntry>> result = new LinkedHashMap<>();
+        for (String path : uniquePaths) {
+            List<SvnEntry> list = cached.get(path);
+            if (list == null && (list = fetched.get(path)) != null && cache != null) {
+                cache.put(this.rootPath, path, revision, list);
+            }
+            if (list != null) {
+                result.put(path, list);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * get the document lists of many paths at the resolved revision
+     * svn command: svn list, with many targets
+     *
+     * @param paths        relative paths, without duplicates
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return key: path, value: entry list, paths which do not exist are absent
+     */
+    protected Map<String, List<SvnEntry>> doListAll(List<String> paths, long revision, long headRevision) {
+        Map<String, List<SvnEntry>> result = new HashMap<>();
+        String commandSuffix = " --xml -r " + revision + svnUser.getAuthString();
+        for (List<String> chunk : chunkTargets("svn list", paths, commandSuffix)) {
+            Map<String, String> pathsOfTarget = targetsOf(chunk);
+            String command = "svn list" + joinTargets(chunk) + commandSuffix;
+
+            // <list path="target1"><entry></entry></list><list path="target2">...</list>
+            CommandUtils.executeForStream(command, 0, inputStream -> {
+                try (ListXmlReader reader = new ListXmlReader(inputStream)) {
+
+                    // empty directories have a <list> without entries, missing targets have no <list>
+                    reader.setListListener(listPath -> {
+                        String path = pathsOfTarget.get(targetKey(listPath));
+                        if (path != null) {
+                            result.putIfAbsent(path, new ArrayList<>());
+                        }
+                    });
+                    SvnEntry svnEntry;
+                    while ((svnEntry = reader.next()) != null) {
+                        String path = pathsOfTarget.get(targetKey(reader.getListPath()));
+                        if (path == null) {
+                            continue;
+                        }
+                        String fullPath = getFullPath(path);
+                        String entryName = svnEntry.getName();
+                        svnEntry.setParentPath(fullPath);
+                        svnEntry.setPath(path + "/" + entryName);
+                        svnEntry.setFullPath(fullPath + "/" + entryName);
+                        svnEntry.setHeadRevision(headRevision);
+                        result.get(path).add(svnEntry);
+                    }
+                }
+                return null;
+            }, this::checkMissingTargets);
+        }
+        return result;
+    }
+
+    /**
+     * walk the tree of the directory with one svn command, entries are streamed as svn lists them.
+     * the stream must be closed, closing it before the end stops the svn command.
+     * the stream is sequential, use parallel() to process the entries in parallel
+     *
+     * @param path     relative path of a directory
+     * @param revision revision, 0 or -1 means HEAD
+     * @param depth    depth of the walk, the directory itself is not listed
+     * @return stream of entries, in depth-first order
+     */
+    @Override
+    public Stream<SvnEntry> walk(String path, long revision, ESvnDepth depth) {
+
+        // get head headRevision
+        long headRevision = headRevision();
+        return walkAtRevision(path, revision <= 0 ? headRevision : revision, headRevision, depth);
+    }
+
+    /**
+     * walk the tree of the directory at the resolved revision
+     * svn command: svn list --depth
+     *
+     * @param path         relative path of a directory
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @param depth        depth of the walk
+     * @return stream of entries, in depth-first order
+     */
+    protected Stream<SvnEntry> walkAtRevision(String path, long revision, long headRevision, ESvnDepth depth) {
+
+        // full path
+        String fullPath = getFullPath(path);
+
+        // command, --depth infinity is svn list -R
+        String command = "svn list " + fullPath + " --depth " + depth.getValue() + " --xml -r " + revision + svnUser.getAuthString();
+        CommandStream commandStream = CommandUtils.openStream(command, this.walkTimeout);
+        ListXmlReader reader = new ListXmlReader(commandStream.getInputStream());
+
+        Iterator<SvnEntry> iterator = new Iterator<SvnEntry>() {
+
+            private SvnEntry next;
+
+            private boolean finished;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null || finished) {
+                    return next != null;
+                }
+                try {
+                    next = reader.next();
+                } catch (RuntimeException e) {
+                    finished = true;
+                    throw commandStream.failure(e);
+                }
+                if (next == null) {
+                    finished = true;
+                    reader.close();
+                    commandStream.finish(null);
+                    return false;
+                }
+
+                // name of a descendant is relative to the directory, e.g. main/java/App.java
+                String relativeName = next.getName();
+                int slash = relativeName.lastIndexOf(StringUtils.SLASH_CHAR);
+                String entryName = relativeName.substring(slash + 1);
+                next.setName(entryName);
+                next.setParentPath(slash < 0 ? fullPath : fullPath + "/" + relativeName.substring(0, slash));
+                next.setPath(path + "/" + relativeName);
+                next.setFullPath(fullPath + "/" + relativeName);
+                next.setHeadRevision(headRevision);
+                if ("file".equals(next.getKind())) {
+                    next.setExtension(entryName.substring(entryName.lastIndexOf(".") + 1));
+                }
+                return true;
+            }
+
+            @Override
+            public SvnEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                SvnEntry svnEntry = next;
+                next = null;
+                return svnEntry;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(commandStream::close);
+    }
+
+    /**
+     * get svn info of many paths, targets are grouped into as few svn info commands as the command line length allows
+     * svn command: svn info, with many targets
+     *
+     * @param paths    relative paths
+     * @param revision revision, 0 or -1 means HEAD
+     * @return key: path, value: info, in the order of paths, paths which do not exist are absent
+     */
+    @Override
+    public Map<String, SvnInfo> infoAll(Collection<String> paths, long revision) {
+        List<String> targetPaths = new ArrayList<>(new LinkedHashSet<>(paths));
+        Map<String, SvnInfo> infos = new HashMap<>();
+        String commandSuffix = " --xml" + (revision > 0 ? " -r " + revision : "") + svnUser.getAuthString();
+        for (List<String> chunk : chunkTargets("svn info", targetPaths, commandSuffix)) {
+            Map<String, String> pathsOfTarget = targetsOf(chunk);
+            String command = "svn info" + joinTargets(chunk) + commandSuffix;
+
+            // <info><entry path="name"><url>target1</url></entry>...</info>
+            CommandUtils.executeForStream(command, 0, inputStream -> {
+                try (InfoXmlReader reader = new InfoXmlReader(inputStream)) {
+                    SvnInfo svnInfo;
+                    while ((svnInfo = reader.next()) != null) {
+                        String path = pathsOfTarget.get(targetKey(svnInfo.getUrl()));
+                        if (path != null) {
+                            svnInfo.setPath(path);
+                            infos.put(path, svnInfo);
+                        }
+                    }
+                }
+                return null;
+            }, this::checkMissingTargets);
+        }
+
+        Map<String, SvnInfo> result = new LinkedHashMap<>();
+        for (String path : paths) {
+            SvnInfo svnInfo = infos.get(path);
+            if (svnInfo != null) {
+                result.put(path, svnInfo);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * check the error output of a command with many targets, warnings of targets which do not exist are ignored
+     *
+     * @param executeError error output
+     */
+    private void checkMissingTargets(String executeError) {
+        for (String line : executeError.split("\\R")) {
+            if (line.startsWith("svn: E") && !line.startsWith(MISSING_TARGETS_ERROR)) {
+                throw new SvnApiException(executeError);
+            }
+        }
+        logger.debug(executeError);
+    }
+
+    /**
+     * group targets, so that the length of each command does not exceed MAX_COMMAND_LENGTH
+     *
+     * @param commandPrefix command before the targets
+     * @param paths         relative paths
+     * @param commandSuffix command after the targets
+     * @return chunks of relative paths
+     */
+    protected List<List<String>> chunkTargets(String commandPrefix, List<String> paths, String commandSuffix) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        int length = commandPrefix.length() + commandSuffix.length();
+        for (String path : paths) {
+            int targetLength = commandTarget(path).length() + 1;
+            if (!chunk.isEmpty() && length + targetLength > MAX_COMMAND_LENGTH) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+                length = commandPrefix.length() + commandSuffix.length();
+            }
+            chunk.add(path);
+            length += targetLength;
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    /**
+     * map targets of the command to relative paths
+     *
+     * @param paths relative paths
+     * @return key: normalized full path (target), value: relative path
+     */
+    private Map<String, String> targetsOf(List<String> paths) {
+        Map<String, String> pathsOfTarget = new HashMap<>();
+        for (String path : paths) {
+            pathsOfTarget.put(targetKey(getFullPath(path)), path);
+        }
+        return pathsOfTarget;
+    }
+
+    /**
+     * join the full paths of the relative paths as targets of a command
+     *
+     * @param paths relative paths
+     * @return targets
+     */
+    private String joinTargets(List<String> paths) {
+        StringBuilder targets = new StringBuilder();
+        for (String path : paths) {
+            targets.append(" ").append(commandTarget(path));
+        }
+        return targets.toString();
+    }
+
+    /**
+     * get the full path of the relative path as a target of a command, the command line is split on spaces and quotes,
+     * so they are uri-encoded, svn decodes them
+     *
+     * @param path relative path, e.g. trunk/my file.txt
+     * @return target, e.g. svn://localhost/repo/trunk/my%20file.txt
+     */
+    private String commandTarget(String path) {
+        String fullPath = getFullPath(path);
+        StringBuilder target = new StringBuilder(fullPath.length());
+        for (int i = 0; i < fullPath.length(); i++) {
+            char c = fullPath.charAt(i);
+            if (c == ' ') {
+                target.append("%20");
+            } else if (c == '"') {
+                target.append("%22");
+            } else if (c == '\'') {
+                target.append("%27");
+            } else {
+                target.append(c);
+            }
+        }
+        return target.toString();
+    }
+
+    /**
+     * normalize the target, svn echoes targets canonicalized and maybe uri-encoded
+     *
+     * @param target full path, or target echoed by svn
+     * @return normalized full path
+     */
+    private String targetKey(String target) {
+        String key = StringUtils.decodeUri(target);
+        while (key != null && key.endsWith(StringUtils.SLASH)) {
+            key = key.substring(0, key.length() - 1);
+        }
+        return key;
+    }
+
+    /**
+     * get file by path
+     *
+     * @param path     file path
+     * @param revision file revision, 0 or -1 means HEAD
+     * @return SvnEntry
+     */
+    @Override
+    public SvnEntry getFile(String path, long revision) {
+
+        // get head headRevision
+        long headRevision = headRevision();
+        return getFileAtRevision(path, revision <= 0 ? headRevision : revision, headRevision);
+    }
+
+    /**
+     * get file by path at the resolved revision
+     * svn command: svn list
+     *
+     * @param path         file path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return SvnEntry
+     */
+    protected SvnEntry getFileAtRevision(String path, long revision, long headRevision) {
+
+        // file full path
+        String fullPath = getFullPath(path);
+
+        // command, listing a file target lists the file itself
+        String command = "svn list " + fullPath + " --xml -r " + revision + svnUser.getAuthString();
+
+        SvnEntry svnEntry = CommandUtils.executeForStream(command, 0, inputStream -> {
+            try (ListXmlReader reader = new ListXmlReader(inputStream)) {
+                return reader.next();
+            }
+        });
+        if (svnEntry == null || !"file".equals(svnEntry.getKind())) {
+            throw new SvnApiException("EC0003", "File not found: " + path);
+        }
+        svnEntry.setParentPath(fullPath.substring(0, fullPath.lastIndexOf("/")));
+        svnEntry.setPath(path);
+        svnEntry.setFullPath(fullPath);
+        svnEntry.setHeadRevision(headRevision);
+        return svnEntry;
+    }
+
+    /**
+     * open a read view pinned to the revision, HEAD is resolved once
+     *
+     * @param revision revision, 0 or -1 means HEAD
+     * @return snapshot
+     */
+    @Override
+    public ISvnSnapshot openSnapshot(long revision) {
+        long headRevision = headRevision();
+        return new SvnSnapshot(this, revision <= 0 ? headRevision : revision, headRevision);
+    }
+
+    @Override
+    public String getMimeType(String path) {
 
         return "demo application/json";
     }
@@ -325,13 +1144,172 @@ public class SvnClient implements ISvnClient {
     }
 
     /**
+     * get blame as text, one line per line of the file: revision, author and content like svn blame
+     *
      * @param filePath file path
      * @param revision headRevision, default is HEAD
      * @return blame string
      */
     @Override
     public String blame(String filePath, long revision) {
-        return null;
+        StringBuilder text = new StringBuilder();
+        for (SvnBlameLine line : getBlame(filePath, revision).getLines()) {
+            text.append(String.format("%6s %10s ", line.getRevision() < 0 ? "-" : String.valueOf(line.getRevision()),
+                    line.getAuthor() == null ? "-" : line.getAuthor())).append(line.getContent()).append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * get blame of a text file, served from the blame cache if possible.
+     * if an older blame of the file is cached, only the changes after it are read: svn log of the file,
+     * then svn cat of each changed revision, the lines are matched by a line diff, new lines are blamed on the change.
+     * a full svn blame is run if there is no older blame, if there are many changes, or if the file was copied
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return blame
+     */
+    @Override
+    public SvnBlame getBlame(String filePath, long revision) {
+        doBaseCheck(filePath);
+        long resolvedRevision = revision <= 0 ? headRevision() : revision;
+        BlameCache cache = this.blameCache;
+        if (cache == null) {
+            return doBlame(filePath, resolvedRevision);
+        }
+
+        SvnBlame blame = cache.get(this.rootPath, filePath, resolvedRevision);
+        if (blame != null) {
+            return blame;
+        }
+        SvnBlame older = cache.getOlder(this.rootPath, filePath, resolvedRevision);
+        if (older != null) {
+            blame = incrementalBlame(older, resolvedRevision);
+        }
+        if (blame == null) {
+            blame = doBlame(filePath, resolvedRevision);
+        }
+        cache.put(this.rootPath, blame);
+        return blame;
+    }
+
+    /**
+     * get blame of a text file
+     * svn command: svn blame --xml, svn cat
+     *
+     * @param filePath file path
+     * @param revision resolved revision
+     * @return blame
+     */
+    protected SvnBlame doBlame(String filePath, long revision) {
+        List<String> contents = LineDiff.splitLines(getFileContent(filePath, revision));
+
+        // blame has no content, the lines are joined with the content of svn cat
+        String command = "svn blame " + getFullPath(filePath) + " -r " + revision + " --xml" + svnUser.getAuthString();
+        List<SvnBlameLine> lines = CommandUtils.executeForStream(command, this.blameTimeout, inputStream -> {
+            List<SvnBlameLine> blameLines = new ArrayList<>(contents.size());
+            try (BlameXmlReader reader = new BlameXmlReader(inputStream)) {
+                SvnBlameLine line;
+                while ((line = reader.next()) != null) {
+                    int index = line.getLineNumber() - 1;
+                    line.setContent(index < contents.size() ? contents.get(index) : "");
+                    blameLines.add(line);
+                }
+            }
+            return blameLines;
+        });
+
+        SvnBlame blame = new SvnBlame();
+        blame.setPath(filePath);
+        blame.setRevision(revision);
+        blame.setLines(lines);
+        return blame;
+    }
+
+    /**
+     * compute blame at a newer revision from an older blame of the same file and the changes in between
+     * svn command: svn log -v, svn cat
+     *
+     * @param older    older blame
+     * @param revision resolved revision
+     * @return blame, null if a full blame is needed
+     */
+    protected SvnBlame incrementalBlame(SvnBlame older, long revision) {
+        String filePath = older.getPath();
+        List<LogEntry> logEntries = log(filePath, revision, older.getRevision() + 1, MAX_INCREMENTAL_BLAME_REVISIONS + 1, true);
+        if (logEntries.size() > MAX_INCREMENTAL_BLAME_REVISIONS || !isModifiedInPlace(filePath, logEntries)) {
+            return null;
+        }
+
+        // apply the changes from the oldest
+        List<SvnBlameLine> lines = older.getLines();
+        for (int i = logEntries.size() - 1; i >= 0; i--) {
+            LogEntry logEntry = logEntries.get(i);
+            List<String> contents = LineDiff.splitLines(getFileContent(filePath, logEntry.getRevision()));
+            List<String> previousContents = new ArrayList<>(lines.size());
+            for (SvnBlameLine line : lines) {
+                previousContents.add(line.getContent());
+            }
+            int[] matched = LineDiff.match(previousContents, contents, MAX_INCREMENTAL_BLAME_EDITS);
+            if (matched == null) {
+                return null;
+            }
+
+            List<SvnBlameLine> changedLines = new ArrayList<>(contents.size());
+            for (int lineIndex = 0; lineIndex < contents.size(); lineIndex++) {
+                SvnBlameLine line = new SvnBlameLine();
+                if (matched[lineIndex] >= 0) {
+                    SvnBlameLine previous = lines.get(matched[lineIndex]);
+                    line.setRevision(previous.getRevision());
+                    line.setAuthor(previous.getAuthor());
+                    line.setDate(previous.getDate());
+                } else {
+                    line.setRevision(logEntry.getRevision());
+                    line.setAuthor(logEntry.getAuthor());
+                    line.setDate(logEntry.getDate());
+                }
+                line.setLineNumber(lineIndex + 1);
+                line.setContent(contents.get(lineIndex));
+                changedLines.add(line);
+            }
+            lines = changedLines;
+        }
+
+        SvnBlame blame = new SvnBlame();
+        blame.setPath(filePath);
+        blame.setRevision(revision);
+        blame.setLines(lines);
+        return blame;
+    }
+
+    /**
+     * whether every log entry modifies the same file in place, copies, replacements and moves of the file
+     * or of its parents (which do not list the file) need a full blame
+     *
+     * @param filePath   file path
+     * @param logEntries log entries of the file
+     * @return true if the changes can be applied to an older blame
+     */
+    private static boolean isModifiedInPlace(String filePath, List<LogEntry> logEntries) {
+        String suffix = "/" + StringUtils.trimSlashes(filePath);
+        String repositoryPath = null;
+        for (LogEntry logEntry : logEntries) {
+            String modified = null;
+            for (LogChangedPath changedPath : logEntry.getChangedPaths()) {
+                if ("M".equals(changedPath.getAction()) && changedPath.getPath().endsWith(suffix)) {
+                    if (modified != null) {
+                        return false;
+                    }
+                    modified = changedPath.getPath();
+                }
+            }
+            if (modified == null || (repositoryPath != null && !repositoryPath.equals(modified))) {
+                return false;
+            }
+            repositoryPath = modified;
+        }
+        return true;
     }
 
     /**
@@ -340,11 +1318,11 @@ public class SvnClient implements ISvnClient {
      * @param path    directory or file path
      * @param comment lock comment
      * @param force   force to steal the lock from another user or working copy
-     * @return boolean
+     * @return true if all files were locked
      */
     @Override
     public boolean lock(String path, String comment, boolean force) {
-        return false;
+        return allSucceeded(lockAll(Collections.singletonList(path), comment, force));
     }
 
     /**
@@ -352,22 +1330,264 @@ public class SvnClient implements ISvnClient {
      *
      * @param path  directory or file path
      * @param force force to break the lock
-     * @return boolean
+     * @return true if all files were unlocked
      */
     @Override
     public boolean unLock(String path, boolean force) {
-        return false;
+        return allSucceeded(unLockAll(Collections.singletonList(path), force));
+    }
+
+    /**
+     * lock many files, directories are expanded to all of their files.
+     * the files are listed by one svn info, then locked by as few svn lock commands as the command line length allows
+     * svn command: svn info --depth infinity, svn lock, with many targets
+     *
+     * @param paths   relative paths of files or directories
+     * @param comment lock comment
+     * @param force   force to steal the locks from other users or working copies
+     * @return outcome of each file, a path which does not exist fails
+     */
+    @Override
+    public List<SvnLockResult> lockAll(Collection<String> paths, String comment, boolean force) {
+        String commandSuffix = (StringUtils.isBlank(comment) ? "" : " -m \"" + comment.replace('"', '\'') + "\"")
+                + (force ? " --force" : "") + svnUser.getAuthString();
+        List<SvnLockResult> results = lockOrUnlock("svn lock", paths, commandSuffix);
+
+        // the token is known after the next refresh of the table
+        SvnLockTable table = this.lockTable;
+        if (table != null) {
+            Date now = new Date();
+            for (SvnLockResult result : results) {
+                if (result.isSuccess()) {
+                    SvnLock svnLock = new SvnLock();
+                    svnLock.setPath(result.getPath());
+                    svnLock.setOwner(svnUser.getUsername());
+                    svnLock.setComment(comment);
+                    svnLock.setCreatedAt(now);
+                    table.put(svnLock);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * unlock many files, directories are expanded to all of their files.
+     * the files are listed by one svn info, then unlocked by as few svn unlock commands as the command line length allows
+     * svn command: svn info --depth infinity, svn unlock, with many targets
+     *
+     * @param paths relative paths of files or directories
+     * @param force force to break the locks of other users
+     * @return outcome of each file, a path which does not exist fails
+     */
+    @Override
+    public List<SvnLockResult> unLockAll(Collection<String> paths, boolean force) {
+        List<SvnLockResult> results = lockOrUnlock("svn unlock", paths, (force ? " --force" : "") + svnUser.getAuthString());
+        SvnLockTable table = this.lockTable;
+        if (table != null) {
+            for (SvnLockResult result : results) {
+                if (result.isSuccess()) {
+                    table.remove(result.getPath());
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * list all locks of the repository, to load a lock table
+     * svn command: svn info --depth infinity --xml
+     *
+     * @return locks, with paths relative to the root path
+     */
+    public List<SvnLock> listLocks() {
+        doBaseCheck(this.rootPath);
+        String rootPrefix = targetKey(this.rootPath) + "/";
+        String command = "svn info " + this.rootPath + " --depth infinity --xml" + svnUser.getAuthString();
+        return CommandUtils.executeForStream(command, this.walkTimeout, inputStream -> {
+            List<SvnLock> locks = new ArrayList<>();
+            try (InfoXmlReader reader = new InfoXmlReader(inputStream)) {
+                SvnInfo svnInfo;
+                while ((svnInfo = reader.next()) != null) {
+                    String target = targetKey(svnInfo.getUrl());
+                    if (svnInfo.getLock() != null && target.startsWith(rootPrefix)) {
+                        svnInfo.getLock().setPath(target.substring(rootPrefix.length()));
+                        locks.add(svnInfo.getLock());
+                    }
+                }
+            }
+            return locks;
+        });
+    }
+
+    /**
+     * lock or unlock the files of the paths
+     *
+     * @param commandPrefix svn lock or svn unlock
+     * @param paths         relative paths of files or directories
+     * @param commandSuffix options of the command
+     * @return outcome of each file
+     */
+    private List<SvnLockResult> lockOrUnlock(String commandPrefix, Collection<String> paths, String commandSuffix) {
+        List<SvnLockResult> results = new ArrayList<>();
+        List<String> files = filesOf(new ArrayList<>(new LinkedHashSet<>(paths)), results);
+        for (List<String> chunk : chunkTargets(commandPrefix, files, commandSuffix)) {
+            results.addAll(lockTargets(commandPrefix + joinTargets(chunk) + commandSuffix, chunk));
+        }
+        return results;
+    }
+
+    /**
+     * list the files of the paths, a directory is expanded to all of its files
+     * svn command: svn info --depth infinity, with many targets
+     *
+     * @param paths   relative paths of files or directories
+     * @param missing receives a failure for each path which does not exist
+     * @return relative paths of the files
+     */
+    protected List<String> filesOf(List<String> paths, List<SvnLockResult> missing) {
+        String rootPrefix = targetKey(this.rootPath) + "/";
+        Set<String> files = new LinkedHashSet<>();
+        Set<String> found = new HashSet<>();
+        String commandSuffix = " --depth infinity --xml" + svnUser.getAuthString();
+        for (List<String> chunk : chunkTargets("svn info", paths, commandSuffix)) {
+            Map<String, String> pathsOfTarget = targetsOf(chunk);
+            String command = "svn info" + joinTargets(chunk) + commandSuffix;
+            CommandUtils.executeForStream(command, this.walkTimeout, inputStream -> {
+                try (InfoXmlReader reader = new InfoXmlReader(inputStream)) {
+                    SvnInfo svnInfo;
+                    while ((svnInfo = reader.next()) != null) {
+                        String target = targetKey(svnInfo.getUrl());
+                        String path = pathsOfTarget.get(target);
+                        if (path != null) {
+                            found.add(path);
+                        }
+                        if ("file".equals(svnInfo.getKind()) && target.startsWith(rootPrefix)) {
+                            files.add(target.substring(rootPrefix.length()));
+                        }
+                    }
+                }
+                return null;
+            }, this::checkMissingTargets);
+        }
+        for (String path : paths) {
+            if (!found.contains(path)) {
+                missing.add(new SvnLockResult(path, false, "Path not found"));
+            }
+        }
+        return new ArrayList<>(files);
+    }
+
+    /**
+     * run one svn lock or svn unlock command with many targets
+     *
+     * @param command command
+     * @param chunk   relative paths of the targets
+     * @return outcome of each target, in the order of the targets
+     */
+    protected List<SvnLockResult> lockTargets(String command, List<String> chunk) {
+        StringBuilder error = new StringBuilder();
+        String output = CommandUtils.executeForStream(command, 0,
+                inputStream -> IOUtils.toString(inputStream, StandardCharsets.UTF_8), executeError -> {
+                    error.append(executeError);
+                    checkMissingTargets(executeError);
+                });
+        return lockResults(chunk, output, error.toString());
     }
 
     /**
-     * get lock info of path
+     * match the output of svn lock or svn unlock to the targets
+     *
+     * @param chunk  relative paths of the targets
+     * @param output standard output
+     * @param error  error output
+     * @return outcome of each target, in the order of the targets
+     */
+    protected List<SvnLockResult> lockResults(List<String> chunk, String output, String error) {
+        Map<String, String> pathsOfTarget = targetsOf(chunk);
+        Set<String> done = new HashSet<>();
+        for (String target : LockOutputParser.parseDone(output)) {
+            String path = pathsOfTarget.get(targetKey(target));
+            done.add(path != null ? path : pathEndingWith(chunk, target));
+        }
+        Map<String, String> warnings = LockOutputParser.parseWarnings(error);
+
+        List<SvnLockResult> results = new ArrayList<>(chunk.size());
+        for (String path : chunk) {
+            if (done.contains(path)) {
+                results.add(new SvnLockResult(path, true, null));
+                continue;
+            }
+
+            // warnings name the repository path, which ends with the relative path
+            String warning = null;
+            for (Map.Entry<String, String> entry : warnings.entrySet()) {
+                if (pathEndingWith(Collections.singletonList(path), entry.getKey()) != null) {
+                    warning = entry.getValue();
+                    break;
+                }
+            }
+            results.add(new SvnLockResult(path, false, warning == null ? "Not done" : warning));
+        }
+        return results;
+    }
+
+    /**
+     * find the relative path which the printed path ends with, or which ends with the printed path
+     *
+     * @param paths   relative paths
+     * @param printed path printed by svn, e.g. a repository path
+     * @return relative path, null if none matches
+     */
+    private static String pathEndingWith(List<String> paths, String printed) {
+        String key = StringUtils.trimSlashes(StringUtils.decodeUri(printed));
+        for (String path : paths) {
+            String trimmed = StringUtils.trimSlashes(path);
+            if (key.equals(trimmed) || key.endsWith("/" + trimmed) || trimmed.endsWith("/" + key)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * whether all files succeeded
+     *
+     * @param results outcome of each file
+     * @return true if all succeeded, false if any failed or there were no files
+     */
+    private static boolean allSucceeded(List<SvnLockResult> results) {
+        if (results.isEmpty()) {
+            return false;
+        }
+        for (SvnLockResult result : results) {
+            if (!result.isSuccess()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * get lock info of path, from the lock table if there is one
+     * svn command: svn info
      *
      * @param filePath file path
-     * @return SvnLock
+     * @return SvnLock, null if the file is not locked
      */
     @Override
     public SvnLock getLock(String filePath) {
-        return null;
+        doBaseCheck(filePath);
+        SvnLockTable table = this.lockTable;
+        if (table != null) {
+            return table.get(filePath);
+        }
+        SvnInfo svnInfo = infoAll(Collections.singletonList(filePath), 0).get(filePath);
+        if (svnInfo == null || svnInfo.getLock() == null) {
+            return null;
+        }
+        svnInfo.getLock().setPath(filePath);
+        return svnInfo.getLock();
     }
 
     /**
@@ -379,7 +1599,181 @@ public class SvnClient implements ISvnClient {
      */
     @Override
     public String getFileContent(String filePath, long revision) {
-        return null;
+        ByteBuffer cached = cachedContent(filePath, revision);
+        if (cached != null) {
+            return StandardCharsets.UTF_8.decode(cached).toString();
+        }
+        return doGetFileContent(filePath, revision);
+    }
+
+    /**
+     * get file content of text file
+     * svn command: svn cat
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file content
+     */
+    protected String doGetFileContent(String filePath, long revision) {
+        return CommandUtils.executeForStream(catCommand(filePath, revision, false), 0, inputStream -> IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * open file content as a stream wired to the standard output of svn cat
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file content
+     */
+    @Override
+    public InputStream openFile(String filePath, long revision) {
+        ByteBuffer cached = cachedContent(filePath, revision);
+        if (cached != null) {
+            return new ByteBufferInputStream(cached);
+        }
+        return CommandUtils.openInputStream(catCommand(filePath, revision, false), this.transferTimeout);
+    }
+
+    /**
+     * copy file content to the channel through a small fixed buffer
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    @Override
+    public long transferTo(String filePath, long revision, WritableByteChannel channel) {
+        ByteBuffer cached = cachedContent(filePath, revision);
+        if (cached == null) {
+            return doTransferTo(filePath, revision, channel);
+        }
+        try {
+            long count = 0;
+            while (cached.hasRemaining()) {
+                count += channel.write(cached);
+            }
+            return count;
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * copy file content to the channel through a small fixed buffer
+     * svn command: svn cat
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    protected long doTransferTo(String filePath, long revision, WritableByteChannel channel) {
+        return catTo(catCommand(filePath, revision, false), channel);
+    }
+
+    /**
+     * open file content as stored in the repository, keywords are not expanded,
+     * svn:eol-style is still applied by svn cat
+     * svn command: svn cat --ignore-keywords
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return file content
+     */
+    protected InputStream openStoredFile(String filePath, long revision) {
+        return CommandUtils.openInputStream(catCommand(filePath, revision, true), this.transferTimeout);
+    }
+
+    /**
+     * copy file content as stored in the repository to the channel, keywords are not expanded,
+     * svn:eol-style is still applied by svn cat
+     * svn command: svn cat --ignore-keywords
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    protected long transferStoredTo(String filePath, long revision, WritableByteChannel channel) {
+        return catTo(catCommand(filePath, revision, true), channel);
+    }
+
+    /**
+     * copy the output of svn cat to the channel through a small fixed buffer
+     *
+     * @param command svn cat command
+     * @param channel target channel, it is not closed
+     * @return count of bytes copied
+     */
+    private long catTo(String command, WritableByteChannel channel) {
+        return CommandUtils.executeForStream(command, this.transferTimeout, inputStream -> {
+            ReadableByteChannel source = Channels.newChannel(inputStream);
+            ByteBuffer buffer = ByteBuffer.allocate(TRANSFER_BUFFER_SIZE);
+            long count = 0;
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    count += channel.write(buffer);
+                }
+                buffer.clear();
+            }
+            return count;
+        });
+    }
+
+    /**
+     * get file content from the blob cache, a missing content is read once into the cache,
+     * contents at HEAD are not cached.
+     * contents are keyed by the path in the repository, so clients of different root paths share them,
+     * and by whether keywords are expanded, see expandsKeywords
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @return read-only content, null if it is not cached
+     */
+    protected ByteBuffer cachedContent(String filePath, long revision) {
+        BlobCache cache = this.blobCache;
+        if (cache == null || revision <= 0) {
+            return null;
+        }
+        String uuid = repositoryUuid();
+        String prefix = rootPathInRepository();
+        String path = prefix.isEmpty() ? filePath : prefix + "/" + StringUtils.trimSlashes(filePath);
+        boolean keywordsExpanded = expandsKeywords();
+        ByteBuffer content = cache.get(uuid, path, revision, keywordsExpanded);
+        if (content == null) {
+            content = cache.put(uuid, path, revision, keywordsExpanded, channel -> {
+                if (keywordsExpanded) {
+                    doTransferTo(filePath, revision, channel);
+                } else {
+                    transferStoredTo(filePath, revision, channel);
+                }
+            });
+        }
+        return content;
+    }
+
+    /**
+     * whether getFileContent, openFile and transferTo expand keywords, svn cat does
+     *
+     * @return true if keywords are expanded
+     */
+    protected boolean expandsKeywords() {
+        return true;
+    }
+
+    /**
+     * svn cat command of a file
+     *
+     * @param filePath       file path
+     * @param revision       revision, 0 or -1 means HEAD
+     * @param ignoreKeywords whether keywords are not expanded
+     * @return command
+     */
+    private String catCommand(String filePath, long revision, boolean ignoreKeywords) {
+        return "svn cat " + getFullPath(filePath) + (revision > 0 ? " -r " + revision : "")
+                + (ignoreKeywords ? " --ignore-keywords" : "") + svnUser.getAuthString();
     }
 
     /**
@@ -407,6 +1801,262 @@ public class SvnClient implements ISvnClient {
         return null;
     }
 
+    /**
+     * export a directory tree as an archive streamed to the output stream,
+     * the tree is walked at one revision and every file is copied from svn cat into the archive as stored
+     * in the repository, keywords are not expanded. svn:eol-style is still applied, so the size of an entry is the
+     * count of bytes copied, not the size of the listing
+     *
+     * @param path         relative path of a directory
+     * @param revision     revision, 0 or -1 means HEAD
+     * @param outputStream receives the archive, it is not closed
+     * @param format       archive format
+     */
+    @Override
+    public void export(String path, long revision, OutputStream outputStream, EArchiveFormat format) {
+        doBaseCheck(path);
+        String dirPath = path;
+        while (dirPath.endsWith("/")) {
+            dirPath = dirPath.substring(0, dirPath.length() - 1);
+        }
+
+        // entries are named after the directory
+        String rootName = dirPath.substring(dirPath.lastIndexOf(StringUtils.SLASH_CHAR) + 1);
+
+        // get head headRevision
+        long headRevision = headRevision();
+        long resolvedRevision = revision <= 0 ? headRevision : revision;
+        try (Stream<SvnEntry> entries = walkAtRevision(dirPath, resolvedRevision, headRevision, ESvnDepth.INFINITY)) {
+            if (format == EArchiveFormat.ZIP) {
+                exportZip(dirPath, rootName, resolvedRevision, entries, outputStream);
+            } else {
+                exportTarGz(dirPath, rootName, resolvedRevision, entries, outputStream);
+            }
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * write the entries as tar.gz, the size of a tar entry is written before its content,
+     * so each file is spooled to a temporary file first
+     *
+     * @param dirPath      relative path of the directory
+     * @param rootName     name of the root entry
+     * @param revision     resolved revision
+     * @param entries      entries of the tree
+     * @param outputStream receives the archive, it is not closed
+     * @throws IOException IOException
+     */
+    private void exportTarGz(String dirPath, String rootName, long revision, Stream<SvnEntry> entries,
+                             OutputStream outputStream) throws IOException {
+        try (TarArchiveOutputStream tar = new TarArchiveOutputStream(
+                new GzipCompressorOutputStream(new CloseShieldOutputStream(outputStream)), StandardCharsets.UTF_8.name())) {
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+            tar.putArchiveEntry(new TarArchiveEntry(rootName + "/"));
+            tar.closeArchiveEntry();
+
+            for (SvnEntry svnEntry : (Iterable<SvnEntry>) entries::iterator) {
+                boolean dir = "dir".equals(svnEntry.getKind());
+                TarArchiveEntry tarEntry = new TarArchiveEntry(archiveName(dirPath, rootName, svnEntry) + (dir ? "/" : ""));
+                if (svnEntry.getCommitDate() != null) {
+                    tarEntry.setModTime(svnEntry.getCommitDate());
+                }
+                if (dir) {
+                    tar.putArchiveEntry(tarEntry);
+                    tar.closeArchiveEntry();
+                    continue;
+                }
+                Path spooled = spoolStoredFile(svnEntry.getPath(), revision);
+                try {
+                    tarEntry.setSize(Files.size(spooled));
+                    tar.putArchiveEntry(tarEntry);
+                    Files.copy(spooled, tar);
+                    tar.closeArchiveEntry();
+                } finally {
+                    Files.deleteIfExists(spooled);
+                }
+            }
+        }
+    }
+
+    /**
+     * write the entries as zip, files are compressed by exportParallelism threads, which spool them to temporary files.
+     * a single thread spools each file to a temporary file, so that the size of the entry is known for zip64
+     *
+     * @param dirPath      relative path of the directory
+     * @param rootName     name of the root entry
+     * @param revision     resolved revision
+     * @param entries      entries of the tree
+     * @param outputStream receives the archive, it is not closed
+     * @throws IOException IOException
+     */
+    private void exportZip(String dirPath, String rootName, long revision, Stream<SvnEntry> entries,
+                           OutputStream outputStream) throws IOException {
+        int parallelism = this.exportParallelism;
+        ExecutorService executor = null;
+        ParallelScatterZipCreator creator = null;
+        if (parallelism > 1) {
+            executor = Executors.newFixedThreadPool(parallelism, r -> {
+                Thread thread = new Thread(r, "svnapi-export");
+                thread.setDaemon(true);
+                return thread;
+            });
+            creator = new ParallelScatterZipCreator(executor);
+        }
+
+        try (ZipArchiveOutputStream zip = new ZipArchiveOutputStream(new CloseShieldOutputStream(outputStream))) {
+            zip.putArchiveEntry(directoryZipEntry(rootName + "/"));
+            zip.closeArchiveEntry();
+
+            for (SvnEntry svnEntry : (Iterable<SvnEntry>) entries::iterator) {
+                boolean dir = "dir".equals(svnEntry.getKind());
+                String name = archiveName(dirPath, rootName, svnEntry);
+                ZipArchiveEntry zipEntry = dir ? directoryZipEntry(name + "/") : new ZipArchiveEntry(name);
+                if (svnEntry.getCommitDate() != null) {
+                    zipEntry.setTime(svnEntry.getCommitDate().getTime());
+                }
+                if (!dir) {
+                    zipEntry.setMethod(ZipEntry.DEFLATED);
+                }
+                if (creator != null) {
+                    String filePath = svnEntry.getPath();
+                    creator.addArchiveEntry(zipEntry, () -> dir ? new NullInputStream(0) : openStoredFile(filePath, revision));
+                    continue;
+                }
+                if (dir) {
+                    zip.putArchiveEntry(zipEntry);
+                    zip.closeArchiveEntry();
+                    continue;
+                }
+                Path spooled = spoolStoredFile(svnEntry.getPath(), revision);
+                try {
+                    zipEntry.setSize(Files.size(spooled));
+                    zip.putArchiveEntry(zipEntry);
+                    Files.copy(spooled, zip);
+                    zip.closeArchiveEntry();
+                } finally {
+                    Files.deleteIfExists(spooled);
+                }
+            }
+
+            if (creator != null) {
+                try {
+                    creator.writeTo(zip);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SvnApiException(e.getMessage());
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof SvnApiException ? (SvnApiException) e.getCause() : new SvnApiException(e.getCause().getMessage());
+                }
+            }
+        } finally {
+
+            // stop the compressing threads if the export failed
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * copy file content as stored in the repository to a temporary file
+     *
+     * @param filePath file path
+     * @param revision resolved revision
+     * @return temporary file, deleted by the caller
+     * @throws IOException IOException
+     */
+    private Path spoolStoredFile(String filePath, long revision) throws IOException {
+        Path spooled = Files.createTempFile("svnapi-export", ".tmp");
+        try (FileChannel channel = FileChannel.open(spooled, StandardOpenOption.WRITE)) {
+            transferStoredTo(filePath, revision, channel);
+            return spooled;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+    }
+
+    /**
+     * empty stored zip entry of a directory
+     *
+     * @param name name, ends with /
+     * @return zip entry
+     */
+    private static ZipArchiveEntry directoryZipEntry(String name) {
+        ZipArchiveEntry zipEntry = new ZipArchiveEntry(name);
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(0);
+        zipEntry.setCrc(0);
+        return zipEntry;
+    }
+
+    /**
+     * name of an entry in the archive, relative to the exported directory
+     *
+     * @param dirPath  relative path of the directory
+     * @param rootName name of the root entry
+     * @param svnEntry entry
+     * @return name, e.g. trunk/src/App.java
+     */
+    private static String archiveName(String dirPath, String rootName, SvnEntry svnEntry) {
+        return rootName + "/" + svnEntry.getPath().substring(dirPath.length() + 1);
+    }
+
+    /**
+     * get commit logs of path, the xml output is parsed entry by entry while svn is running
+     * svn command: svn log --xml
+     *
+     * @param path             relative path
+     * @param fromRevision     from revision, 0 or -1 means HEAD
+     * @param toRevision       to revision, 0 or -1 means HEAD
+     * @param limit            max count of log entries, 0 means no limit
+     * @param withChangedPaths whether to read the changed paths of each entry
+     * @return log entries
+     */
+    @Override
+    public List<LogEntry> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths) {
+
+        // full path
+        String fullPath = getFullPath(path);
+
+        // command, -v lists the changed paths
+        String command = "svn log " + fullPath + " -r " + logRevision(fromRevision) + ":" + logRevision(toRevision)
+                + (limit > 0 ? " -l " + limit : "") + (withChangedPaths ? " -v" : "") + " --xml" + svnUser.getAuthString();
+        return CommandUtils.executeForStream(command, this.logTimeout, inputStream -> {
+            List<LogEntry> logEntries = new ArrayList<>();
+            try (LogXmlReader reader = new LogXmlReader(inputStream)) {
+                LogEntry logEntry;
+                while ((logEntry = reader.next()) != null) {
+                    logEntries.add(logEntry);
+                }
+            }
+            return logEntries;
+        });
+    }
+
+    /**
+     * revision argument of svn log
+     *
+     * @param revision revision, 0 or -1 means HEAD
+     * @return revision argument
+     */
+    private static String logRevision(long revision) {
+        return revision <= 0 ? "HEAD" : String.valueOf(revision);
+    }
+
+    /**
+     * old revision argument of svn diff, r0 is a valid old revision, the diff since the creation of the repository
+     *
+     * @param revision revision, -1 means HEAD
+     * @return revision argument
+     */
+    private static String diffOldRevision(long revision) {
+        return revision < 0 ? "HEAD" : String.valueOf(revision);
+    }
+
     /**
      * Display local changes or differences between two revisions or paths
      *
@@ -417,7 +2067,130 @@ public class SvnClient implements ISvnClient {
      */
     @Override
     public String diff(String filePath, long olderVersion, long newerVision) {
-        return null;
+        String command = "svn diff " + getFullPath(filePath) + " -r " + logRevision(olderVersion) + ":"
+                + logRevision(newerVision) + " --internal-diff" + svnUser.getAuthString();
+        return CommandUtils.executeForStringUTF8(command, this.diffTimeout);
+    }
+
+    /**
+     * get one page of the differences between two revisions as files, hunks and lines,
+     * served from the diff cache if possible. only the output up to the end of the page is read,
+     * read the next page from the nextHunk of the page
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @param firstHunk   index of the first hunk of the page, the nextHunk of the previous page
+     * @param maxHunks    max count of hunks of the page, 0 means no limit
+     * @return page of the differences
+     */
+    @Override
+    public SvnDiff getDiff(String path, long oldRevision, long newRevision, int firstHunk, int maxHunks) {
+        doBaseCheck(path);
+        DiffCache cache = this.diffCache;
+        if (cache == null) {
+            return doDiff(path, oldRevision, newRevision, firstHunk, maxHunks);
+        }
+
+        // a diff against HEAD changes with the next commit, it is cached at the resolved revisions
+        long headRevision = oldRevision < 0 || newRevision <= 0 ? headRevision() : 0;
+        long resolvedOldRevision = oldRevision < 0 ? headRevision : oldRevision;
+        long resolvedRevision = newRevision <= 0 ? headRevision : newRevision;
+        SvnDiff diff = cache.get(this.rootPath, path, resolvedOldRevision, resolvedRevision, firstHunk, maxHunks);
+        if (diff == null) {
+            diff = doDiff(path, resolvedOldRevision, resolvedRevision, firstHunk, maxHunks);
+            cache.put(this.rootPath, diff, maxHunks);
+        }
+        return diff;
+    }
+
+    /**
+     * get one page of the differences between two revisions
+     * svn command: svn diff -r old:new
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @param firstHunk   index of the first hunk of the page
+     * @param maxHunks    max count of hunks of the page, 0 means no limit
+     * @return page of the differences
+     */
+    protected SvnDiff doDiff(String path, long oldRevision, long newRevision, int firstHunk, int maxHunks) {
+        String command = "svn diff " + getFullPath(path) + " -r " + diffOldRevision(oldRevision) + ":"
+                + logRevision(newRevision) + " --internal-diff" + svnUser.getAuthString();
+        SvnDiff diff;
+        try (CommandStream commandStream = CommandUtils.openStream(command, this.diffTimeout)) {
+            try {
+                diff = new DiffReader(commandStream.getInputStream(), firstHunk, maxHunks).read();
+            } catch (RuntimeException e) {
+                throw commandStream.failure(e);
+            }
+
+            // the rest of a paged diff is not needed, closing the stream stops the command
+            if (diff.getNextHunk() < 0) {
+                commandStream.finish(null);
+            }
+        }
+        diff.setPath(path);
+        diff.setOldRevision(oldRevision);
+        diff.setNewRevision(newRevision);
+        return diff;
+    }
+
+    /**
+     * get the paths changed between two revisions without their differences, served from the diff cache if possible
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @return changed paths
+     */
+    @Override
+    public List<SvnDiffSummary> diffSummary(String path, long oldRevision, long newRevision) {
+        doBaseCheck(path);
+        DiffCache cache = this.diffCache;
+        if (cache == null) {
+            return doDiffSummary(path, oldRevision, newRevision);
+        }
+
+        long headRevision = oldRevision < 0 || newRevision <= 0 ? headRevision() : 0;
+        long resolvedOldRevision = oldRevision < 0 ? headRevision : oldRevision;
+        long resolvedRevision = newRevision <= 0 ? headRevision : newRevision;
+        List<SvnDiffSummary> summary = cache.getSummary(this.rootPath, path, resolvedOldRevision, resolvedRevision);
+        if (summary == null) {
+            summary = doDiffSummary(path, resolvedOldRevision, resolvedRevision);
+            cache.putSummary(this.rootPath, path, resolvedOldRevision, resolvedRevision, summary);
+        }
+        return summary;
+    }
+
+    /**
+     * get the paths changed between two revisions
+     * svn command: svn diff --summarize --xml -r old:new
+     *
+     * @param path        file or directory path
+     * @param oldRevision old revision, -1 means HEAD, 0 means r0
+     * @param newRevision new revision, 0 or -1 means HEAD
+     * @return changed paths, relative to the root path
+     */
+    protected List<SvnDiffSummary> doDiffSummary(String path, long oldRevision, long newRevision) {
+        String command = "svn diff " + getFullPath(path) + " -r " + diffOldRevision(oldRevision) + ":"
+                + logRevision(newRevision) + " --summarize --xml" + svnUser.getAuthString();
+        String rootPrefix = targetKey(this.rootPath) + "/";
+        return CommandUtils.executeForStream(command, this.diffTimeout, inputStream -> {
+            List<SvnDiffSummary> summary = new ArrayList<>();
+            try (DiffSummaryXmlReader reader = new DiffSummaryXmlReader(inputStream)) {
+                SvnDiffSummary changedPath;
+                while ((changedPath = reader.next()) != null) {
+                    String fullPath = targetKey(changedPath.getPath());
+                    if (fullPath.startsWith(rootPrefix)) {
+                        changedPath.setPath(fullPath.substring(rootPrefix.length()));
+                    }
+                    summary.add(changedPath);
+                }
+            }
+            return summary;
+        });
     }
 
     public String getCommitMesssage(String path, long revision) {
@@ -0,0 +1,266 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.cache.BlameCache;
+import com.marssvn.svnapi.cache.BlobCache;
+import com.marssvn.svnapi.cache.DiffCache;
+import com.marssvn.svnapi.cache.ListCache;
+import com.marssvn.svnapi.cache.LruCache;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.metrics.ICommandMetrics;
+import com.marssvn.svnapi.model.SvnUser;
+
+import java.util.Objects;
+
+/**
+ * Registry of clients bound to a (root path, svn user) each.
+ * <p>
+ * The SvnClient singleton is configured by setters, so requests of different repositories must not share it.
+ * The registry creates a client per root path and svn user, binds it and caches it, a bound client can't be
+ * configured any more and is shared by all threads which work on its repository. The clients of a registry
+ * share its list, blob, blame and diff caches, svn:// clients share the connection pool of their root path and
+ * user, and all commands are measured by the metrics and throttled by the scheduler of CommandUtils.
+ * <p>
+ * svn:// root paths get a SvnServeClient, file:// root paths a FsfsSvnClient and other root paths a SvnClient.
+ * Subclasses may override createClient and configure, e.g. to set timeouts or a lock table.
+ *
+ * @author zhangkx
+ */
+public class SvnClientRegistry {
+
+    /**
+     * default max count of cached clients
+     */
+    public final static int DEFAULT_MAX_CLIENTS = 10000;
+
+    /**
+     * clients, least recently used clients are dropped, a dropped client keeps working for its holders
+     */
+    private final LruCache<Key, SvnClient> clients;
+
+    /**
+     * list cache of all clients, null to disable caching
+     */
+    private final ListCache listCache;
+
+    /**
+     * blob cache of all clients, null to disable caching
+     */
+    private final BlobCache blobCache;
+
+    /**
+     * blame cache of all clients, null to disable caching
+     */
+    private final BlameCache blameCache;
+
+    /**
+     * diff cache of all clients, null to disable caching
+     */
+    private final DiffCache diffCache;
+
+    public SvnClientRegistry() {
+        this(DEFAULT_MAX_CLIENTS, new ListCache(), null, new BlameCache(), new DiffCache());
+    }
+
+    /**
+     * create a registry
+     *
+     * @param maxClients max count of cached clients
+     * @param listCache  list cache of all clients, null to disable caching
+     * @param blobCache  blob cache of all clients, null to disable caching
+     * @param blameCache blame cache of all clients, null to disable caching
+     * @param diffCache  diff cache of all clients, null to disable caching
+     */
+    public SvnClientRegistry(int maxClients, ListCache listCache, BlobCache blobCache, BlameCache blameCache, DiffCache diffCache) {
+        this.clients = new LruCache<>(maxClients, maxClients, (key, client) -> 1);
+        this.listCache = listCache;
+        this.blobCache = blobCache;
+        this.blameCache = blameCache;
+        this.diffCache = diffCache;
+    }
+
+    /**
+     * get the client of a root path and svn user, it is created and bound on first use
+     *
+     * @param rootPath svn root path, e.g. svn://localhost/repo
+     * @param svnUser  svn user, it is copied, later changes of it do not change the client
+     * @return bound client
+     */
+    public SvnClient getClient(String rootPath, SvnUser svnUser) {
+        if (StringUtils.isBlank(rootPath)) {
+            throw new SvnApiException("EC0002", "Path is required");
+        }
+        if (svnUser == null || StringUtils.isEmpty(svnUser.getUsername()) || StringUtils.isEmpty(svnUser.getPassword())) {
+            throw new SvnApiException("EC0001", "SVN User is required");
+        }
+        Key key = new Key(trimRootPath(rootPath), svnUser.getUsername(), svnUser.getPassword());
+        SvnClient client = clients.get(key);
+        if (client != null) {
+            return client;
+        }
+
+        // clients are cheap to create, one lock keeps a client per key
+        synchronized (clients) {
+            client = clients.get(key);
+            if (client == null) {
+                client = createClient(key.rootPath);
+                client.setRootPath(key.rootPath);
+                client.setSvnUser(new SvnUser(key.username, key.password));
+                client.setListCache(listCache);
+                client.setBlobCache(blobCache);
+                client.setBlameCache(blameCache);
+                client.setDiffCache(diffCache);
+                configure(client);
+                client.bind();
+                clients.put(key, client);
+            }
+            return client;
+        }
+    }
+
+    /**
+     * drop the clients of a root path and its cached listings, e.g. after the repository was moved or deleted
+     *
+     * @param rootPath svn root path
+     */
+    public void invalidate(String rootPath) {
+        String trimmed = trimRootPath(rootPath);
+        clients.removeIf(key -> key.rootPath.equals(trimmed));
+        if (listCache != null) {
+            listCache.invalidate(trimmed);
+        }
+    }
+
+    /**
+     * drop all clients
+     */
+    public void clear() {
+        clients.clear();
+    }
+
+    /**
+     * get count of cached clients
+     *
+     * @return count of clients
+     */
+    public int size() {
+        return clients.size();
+    }
+
+    /**
+     * get list cache of all clients
+     *
+     * @return list cache
+     */
+    public ListCache getListCache() {
+        return listCache;
+    }
+
+    /**
+     * get blob cache of all clients
+     *
+     * @return blob cache
+     */
+    public BlobCache getBlobCache() {
+        return blobCache;
+    }
+
+    /**
+     * get blame cache of all clients
+     *
+     * @return blame cache
+     */
+    public BlameCache getBlameCache() {
+        return blameCache;
+    }
+
+    /**
+     * get diff cache of all clients
+     *
+     * @return diff cache
+     */
+    public DiffCache getDiffCache() {
+        return diffCache;
+    }
+
+    /**
+     * get metrics of the commands of all clients, they are shared by the process, see CommandUtils.setMetrics
+     *
+     * @return metrics
+     */
+    public ICommandMetrics getMetrics() {
+        return CommandUtils.getMetrics();
+    }
+
+    /**
+     * create the client of a root path, it is configured and bound by the registry
+     *
+     * @param rootPath svn root path, without trailing slash
+     * @return client
+     */
+    protected SvnClient createClient(String rootPath) {
+        if (rootPath.startsWith("svn://")) {
+            return new SvnServeClient();
+        }
+        if (rootPath.startsWith("file://")) {
+            return new FsfsSvnClient();
+        }
+        return new SvnClient();
+    }
+
+    /**
+     * configure a new client before it is bound, nothing by default
+     *
+     * @param client client, with root path, svn user and caches set
+     */
+    protected void configure(SvnClient client) {
+    }
+
+    /**
+     * remove trailing slashes of a root path
+     *
+     * @param rootPath svn root path
+     * @return root path
+     */
+    private static String trimRootPath(String rootPath) {
+        String trimmed = rootPath.trim();
+        while (trimmed.endsWith("/") && !trimmed.endsWith("://")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed;
+    }
+
+    /**
+     * registry key: root path + username + password
+     */
+    private static final class Key {
+
+        private final String rootPath;
+        private final String username;
+        private final String password;
+
+        private Key(String rootPath, String username, String password) {
+            this.rootPath = rootPath;
+            this.username = username;
+            this.password = password;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return rootPath.equals(key.rootPath) && username.equals(key.username) && password.equals(key.password);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, username, password);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.model.SvnEntry;
+
+/**
+ * visitor of the entries of a tree walk
+ *
+ * @author zhangkx
+ */
+@FunctionalInterface
+public interface SvnEntryVisitor {
+
+    /**
+     * visit entry
+     *
+     * @param svnEntry entry
+     * @return false to stop the walk
+     */
+    boolean visit(SvnEntry svnEntry);
+}
@@ -0,0 +1,550 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.enums.ESvnDepth;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnLock;
+import com.marssvn.svnapi.model.SvnUser;
+import com.marssvn.svnapi.svnserve.SvnServeConnection;
+import com.marssvn.svnapi.svnserve.SvnServeConnectionPool;
+import org.apache.commons.io.output.CountingOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getList;
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getLong;
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getOptionalString;
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getString;
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getWord;
+
+/**
+ * SVN client for svn:// repositories, speaks the svnserve protocol directly over pooled connections
+ * instead of forking a svn process for every call.
+ * <p>
+ * headRevision, lastChangedRevision, list, walk, getFile, getFileContent, transferTo and log are served by svnserve,
+ * other operations fall back to the svn command line.
+ *
+ * @author zhangkx
+ */
+public class SvnServeClient extends SvnClient {
+
+    /**
+     * error of svnserve when the path does not exist, SVN_ERR_FS_NOT_FOUND
+     */
+    private final static String PATH_NOT_FOUND_ERROR = "E160013:";
+
+    /**
+     * connection pool, created lazily for the root path and svn user
+     */
+    private volatile SvnServeConnectionPool pool;
+
+    /**
+     * set root path
+     *
+     * @param rootPath svn root path, e.g. svn://localhost/repo
+     */
+    @Override
+    public void setRootPath(String rootPath) {
+        super.setRootPath(rootPath);
+        this.pool = null;
+    }
+
+    /**
+     * set svn user
+     *
+     * @param svnUser svn user
+     */
+    @Override
+    public void setSvnUser(SvnUser svnUser) {
+        super.setSvnUser(svnUser);
+        this.pool = null;
+    }
+
+    /**
+     * set connection pool, the shared pool of root path and svn user is used by default
+     *
+     * @param pool connection pool
+     */
+    public void setPool(SvnServeConnectionPool pool) {
+        checkNotBound();
+        this.pool = pool;
+    }
+
+    /**
+     * get connection pool
+     *
+     * @return connection pool
+     */
+    private SvnServeConnectionPool getPool() {
+        SvnServeConnectionPool connectionPool = this.pool;
+        if (connectionPool == null) {
+            connectionPool = SvnServeConnectionPool.getPool(getRootPath(), getSvnUser());
+            this.pool = connectionPool;
+        }
+        return connectionPool;
+    }
+
+    /**
+     * get head headRevision
+     * svn command: get-latest-rev
+     *
+     * @return head headRevision
+     */
+    @Override
+    protected long doHeadRevision() {
+        return getPool().execute(SvnServeConnection::getLatestRevision);
+    }
+
+    /**
+     * get last changed headRevision
+     * svn command: stat
+     *
+     * @param path path
+     * @return last changed headRevision
+     */
+    @Override
+    public long lastChangedRevision(String path) {
+        doBaseCheck(path);
+        List<Object> dirent = getPool().execute(connection -> connection.stat(StringUtils.trimSlashes(path), -1));
+        if (dirent == null) {
+            throw new SvnApiException("ES0004", "Path not found: " + path);
+        }
+        return getLong(dirent, 3);
+    }
+
+    /**
+     * get the document list of path at the resolved revision
+     * svn command: get-dir
+     *
+     * @param path         relative path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return entry list
+     */
+    @Override
+    protected List<SvnEntry> doList(String path, long revision, long headRevision) {
+        doBaseCheck(path);
+        String relativePath = StringUtils.trimSlashes(path);
+        String fullPath = getRootPath() + "/" + path;
+
+        return getPool().execute(connection -> {
+
+            // ( rev ( props ) ( entry ... ) )
+            List<Object> dir = connection.getDir(relativePath, revision);
+
+            // locks can only be queried at HEAD
+            Map<String, SvnLock> locks = revision == headRevision ? getLocks(connection, relativePath) : new HashMap<>();
+
+            List<SvnEntry> list = new ArrayList<>();
+            for (Object item : getList(dir, 2)) {
+                @SuppressWarnings("unchecked")
+                List<Object> dirent = (List<Object>) item;
+
+                // ( name kind size has-props created-rev ( date ) ( author ) )
+                SvnEntry svnEntry = new SvnEntry();
+                String entryName = getString(dirent, 0);
+                svnEntry.setKind(getWord(dirent, 1));
+                svnEntry.setName(entryName);
+                svnEntry.setParentPath(fullPath);
+                svnEntry.setPath(path + "/" + entryName);
+                svnEntry.setFullPath(fullPath + "/" + entryName);
+                svnEntry.setHeadRevision(headRevision);
+                svnEntry.setCommitRevision(getLong(dirent, 4));
+                svnEntry.setCommitDate(DateUtils.parseDate(getOptionalString(dirent, 5)));
+                svnEntry.setCommitAuthor(getOptionalString(dirent, 6));
+
+                if ("file".equals(svnEntry.getKind())) {
+                    svnEntry.setSize(getLong(dirent, 2));
+                    svnEntry.setExtension(entryName.substring(entryName.lastIndexOf(".") + 1));
+                }
+                svnEntry.setLock(locks.get(entryName));
+                list.add(svnEntry);
+            }
+            return list;
+        });
+    }
+
+    /**
+     * get the document lists of many paths at the resolved revision, one get-dir per path on pooled connections
+     * svn command: get-dir
+     *
+     * @param paths        relative paths, without duplicates
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return key: path, value: entry list, paths which do not exist are absent
+     */
+    @Override
+    protected Map<String, List<SvnEntry>> doListAll(List<String> paths, long revision, long headRevision) {
+        Map<String, List<SvnEntry>> result = new HashMap<>();
+        for (String path : paths) {
+            try {
+                result.put(path, doList(path, revision, headRevision));
+            } catch (SvnApiException e) {
+                if (!"ES0004".equals(e.getErrorCode()) || !e.getMessage().contains(PATH_NOT_FOUND_ERROR)) {
+                    throw e;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * walk the tree of the directory at the resolved revision, depth-first,
+     * a directory is read with get-dir when the walk reaches it, no connection is held between directories
+     * svn command: get-dir
+     *
+     * @param path         relative path of a directory
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @param depth        depth of the walk
+     * @return stream of entries, in depth-first order
+     */
+    @Override
+    protected Stream<SvnEntry> walkAtRevision(String path, long revision, long headRevision, ESvnDepth depth) {
+        doBaseCheck(path);
+        Deque<Iterator<SvnEntry>> directories = new ArrayDeque<>();
+        if (depth != ESvnDepth.EMPTY) {
+            directories.push(listForWalk(path, revision, headRevision, depth));
+        }
+
+        Iterator<SvnEntry> iterator = new Iterator<SvnEntry>() {
+
+            private SvnEntry next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && !directories.isEmpty()) {
+                    Iterator<SvnEntry> children = directories.peek();
+                    if (!children.hasNext()) {
+                        directories.pop();
+                        continue;
+                    }
+                    next = children.next();
+                    if (depth == ESvnDepth.INFINITY && "dir".equals(next.getKind())) {
+                        directories.push(listForWalk(next.getPath(), revision, headRevision, depth));
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public SvnEntry next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                SvnEntry svnEntry = next;
+                next = null;
+                return svnEntry;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * list the children of a directory of the walk, sorted by name as svn list does
+     *
+     * @param path         relative path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @param depth        depth of the walk, only files are listed for ESvnDepth.FILES
+     * @return children
+     */
+    private Iterator<SvnEntry> listForWalk(String path, long revision, long headRevision, ESvnDepth depth) {
+        List<SvnEntry> children = new ArrayList<>();
+        for (SvnEntry svnEntry : doList(path, revision, headRevision)) {
+            if (depth != ESvnDepth.FILES || "file".equals(svnEntry.getKind())) {
+                children.add(svnEntry);
+            }
+        }
+        children.sort(Comparator.comparing(SvnEntry::getName));
+        return children.iterator();
+    }
+
+    /**
+     * get locks of the children of directory
+     *
+     * @param connection   svnserve connection
+     * @param relativePath directory path
+     * @return key: entry name, value: lock
+     */
+    private Map<String, SvnLock> getLocks(SvnServeConnection connection, String relativePath) throws IOException {
+
+        String dirPath = repositoryPath(connection, relativePath);
+        if (!dirPath.endsWith("/")) {
+            dirPath += "/";
+        }
+
+        Map<String, SvnLock> locks = new HashMap<>();
+        for (Object item : connection.getLocks(relativePath, "immediates")) {
+            @SuppressWarnings("unchecked")
+            List<Object> lockDesc = (List<Object>) item;
+
+            String lockPath = getString(lockDesc, 0);
+            if (!lockPath.startsWith(dirPath) || lockPath.indexOf('/', dirPath.length()) >= 0) {
+                continue;
+            }
+            locks.put(lockPath.substring(dirPath.length()), toSvnLock(lockDesc));
+        }
+        return locks;
+    }
+
+    /**
+     * convert lock description to SvnLock
+     *
+     * @param lockDesc ( path token owner ( comment ) created ( expires ) )
+     * @return SvnLock
+     */
+    private static SvnLock toSvnLock(List<Object> lockDesc) {
+        SvnLock svnLock = new SvnLock();
+        svnLock.setToken(getString(lockDesc, 1));
+        svnLock.setOwner(getString(lockDesc, 2));
+        svnLock.setComment(getOptionalString(lockDesc, 3));
+        svnLock.setCreatedAt(DateUtils.parseDate(getString(lockDesc, 4)));
+        return svnLock;
+    }
+
+    /**
+     * get path relative to the repository root, lock paths are relative to the repository root,
+     * which may be a parent of the root path
+     *
+     * @param connection   svnserve connection
+     * @param relativePath path relative to the root path
+     * @return path relative to the repository root, with a leading slash
+     */
+    private String repositoryPath(SvnServeConnection connection, String relativePath) {
+        String rootPath = URI.create(getRootPath()).getPath();
+        String repositoryRootPath = URI.create(connection.getRepositoryRoot()).getPath();
+        String prefix = rootPath.length() > repositoryRootPath.length() ? rootPath.substring(repositoryRootPath.length()) : "";
+        return prefix + "/" + relativePath;
+    }
+
+    /**
+     * get file by path at the resolved revision
+     * svn command: stat, get-locks
+     *
+     * @param path         file path
+     * @param revision     resolved revision
+     * @param headRevision head revision
+     * @return SvnEntry
+     */
+    @Override
+    protected SvnEntry getFileAtRevision(String path, long revision, long headRevision) {
+        doBaseCheck(path);
+        String relativePath = StringUtils.trimSlashes(path);
+        String fullPath = getRootPath() + "/" + path;
+
+        return getPool().execute(connection -> {
+
+            // ( kind size has-props created-rev ( date ) ( author ) )
+            List<Object> dirent = connection.stat(relativePath, revision);
+            if (dirent == null || !"file".equals(getWord(dirent, 0))) {
+                throw new SvnApiException("EC0003", "File not found: " + path);
+            }
+
+            String entryName = relativePath.substring(relativePath.lastIndexOf("/") + 1);
+            SvnEntry svnEntry = new SvnEntry();
+            svnEntry.setKind("file");
+            svnEntry.setName(entryName);
+            svnEntry.setParentPath(fullPath.substring(0, fullPath.lastIndexOf("/")));
+            svnEntry.setPath(path);
+            svnEntry.setFullPath(fullPath);
+            svnEntry.setHeadRevision(headRevision);
+            svnEntry.setSize(getLong(dirent, 1));
+            svnEntry.setExtension(entryName.substring(entryName.lastIndexOf(".") + 1));
+            svnEntry.setCommitRevision(getLong(dirent, 3));
+            svnEntry.setCommitDate(DateUtils.parseDate(getOptionalString(dirent, 4)));
+            svnEntry.setCommitAuthor(getOptionalString(dirent, 5));
+
+            // locks can only be queried at HEAD
+            if (revision == headRevision) {
+                String lockPath = repositoryPath(connection, relativePath);
+                for (Object item : connection.getLocks(relativePath, "empty")) {
+                    @SuppressWarnings("unchecked")
+                    List<Object> lockDesc = (List<Object>) item;
+                    if (lockPath.equals(getString(lockDesc, 0))) {
+                        svnEntry.setLock(toSvnLock(lockDesc));
+                    }
+                }
+            }
+            return svnEntry;
+        });
+    }
+
+    /**
+     * get uuid of the repository
+     * svn command: the repository info of the handshake
+     *
+     * @return uuid
+     */
+    @Override
+    protected String doRepositoryUuid() {
+        return getPool().execute(SvnServeConnection::getUuid);
+    }
+
+    /**
+     * get path of the root path in the repository
+     * svn command: the repository root of the handshake
+     *
+     * @return path relative to the repository root, e.g. trunk, empty if the root path is the repository root
+     */
+    @Override
+    protected String doRootPathInRepository() {
+        return getPool().execute(connection -> StringUtils.trimSlashes(repositoryPath(connection, "")));
+    }
+
+    /**
+     * get-file never expands keywords
+     *
+     * @return false
+     */
+    @Override
+    protected boolean expandsKeywords() {
+        return false;
+    }
+
+    /**
+     * get file content of text file
+     * svn command: get-file
+     *
+     * @param filePath file path
+     * @param revision headRevision, default is HEAD
+     * @return file content
+     */
+    @Override
+    protected String doGetFileContent(String filePath, long revision) {
+        doBaseCheck(filePath);
+        return getPool().execute(connection -> {
+
+            // the pool retries a broken reused connection, a retry starts with an empty buffer
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            connection.getFile(StringUtils.trimSlashes(filePath), revision <= 0 ? -1 : revision, outputStream);
+            return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+        });
+    }
+
+    /**
+     * copy file content to the channel chunk by chunk as svnserve sends it
+     * svn command: get-file
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    @Override
+    protected long doTransferTo(String filePath, long revision, WritableByteChannel channel) {
+        doBaseCheck(filePath);
+        CountingOutputStream outputStream = new CountingOutputStream(Channels.newOutputStream(channel));
+        getPool().execute(connection -> {
+
+            // the pool retries a broken reused connection, the content must not be written twice
+            if (outputStream.getByteCount() > 0) {
+                throw new SvnApiException("ES0001", "Connection lost while transferring " + filePath);
+            }
+            return connection.getFile(StringUtils.trimSlashes(filePath), revision <= 0 ? -1 : revision, outputStream);
+        });
+        return outputStream.getByteCount();
+    }
+
+    /**
+     * copy file content as stored in the repository to the channel, get-file never expands keywords
+     * svn command: get-file
+     *
+     * @param filePath file path
+     * @param revision revision, 0 or -1 means HEAD
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    @Override
+    protected long transferStoredTo(String filePath, long revision, WritableByteChannel channel) {
+        return doTransferTo(filePath, revision, channel);
+    }
+
+    /**
+     * get commit logs of path, from fromRevision to toRevision
+     * svn command: log
+     *
+     * @param path             relative path
+     * @param fromRevision     from revision, 0 or -1 means HEAD
+     * @param toRevision       to revision, 0 or -1 means HEAD
+     * @param limit            max count of log entries, 0 means no limit
+     * @param withChangedPaths whether to read the changed paths of each entry
+     * @return log entries
+     */
+    @Override
+    public List<LogEntry> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths) {
+        doBaseCheck(path);
+        return getPool().execute(connection -> {
+
+            // the pool retries a broken reused connection, a retry starts with an empty list
+            List<LogEntry> logEntries = new ArrayList<>();
+            connection.log(StringUtils.trimSlashes(path), fromRevision <= 0 ? -1 : fromRevision, toRevision <= 0 ? -1 : toRevision,
+                    limit, withChangedPaths, item -> {
+
+                // ( ( changed-path ... ) rev ( author ) ( date ) ( message ) ... )
+                LogEntry logEntry = new LogEntry();
+                logEntry.setRevision(getLong(item, 1));
+                logEntry.setAuthor(getOptionalString(item, 2));
+                logEntry.setDate(DateUtils.parseDate(getOptionalString(item, 3)));
+                logEntry.setMessage(getOptionalString(item, 4));
+                if (withChangedPaths) {
+                    List<LogChangedPath> changedPaths = new ArrayList<>();
+                    for (Object changedPath : getList(item, 0)) {
+                        @SuppressWarnings("unchecked")
+                        List<Object> changedPathItem = (List<Object>) changedPath;
+                        changedPaths.add(toChangedPath(changedPathItem));
+                    }
+                    logEntry.setChangedPaths(changedPaths);
+                }
+                logEntries.add(logEntry);
+            });
+            return logEntries;
+        });
+    }
+
+    /**
+     * convert changed path item of log
+     *
+     * @param item ( path action ( ?copy-path copy-rev ) ( ?node-kind ?text-mods ?prop-mods ) )
+     * @return changed path
+     */
+    private static LogChangedPath toChangedPath(List<Object> item) {
+        LogChangedPath changedPath = new LogChangedPath();
+        changedPath.setPath(getString(item, 0));
+        changedPath.setAction(getWord(item, 1));
+        List<Object> copyFrom = getList(item, 2);
+        if (!copyFrom.isEmpty()) {
+            changedPath.setCopyFromPath(getString(copyFrom, 0));
+            changedPath.setCopyFromRevision(getLong(copyFrom, 1));
+        }
+        if (item.size() > 3) {
+            List<Object> kind = getList(item, 3);
+            if (!kind.isEmpty() && !"unknown".equals(getWord(kind, 0))) {
+                changedPath.setKind(getWord(kind, 0));
+            }
+        }
+        return changedPath;
+    }
+}
@@ -0,0 +1,149 @@
+package com.marssvn.svnapi;
+
+import com.marssvn.svnapi.enums.ESvnDepth;
+import com.marssvn.svnapi.model.SvnEntry;
+
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Read view of a SvnClient pinned to one revision
+ *
+ * @author zhangkx
+ */
+class SvnSnapshot implements ISvnSnapshot {
+
+    /**
+     * svn client
+     */
+    private final SvnClient svnClient;
+
+    /**
+     * pinned revision
+     */
+    private final long revision;
+
+    /**
+     * head revision when the snapshot was opened
+     */
+    private final long headRevision;
+
+    SvnSnapshot(SvnClient svnClient, long revision, long headRevision) {
+        this.svnClient = svnClient;
+        this.revision = revision;
+        this.headRevision = headRevision;
+    }
+
+    /**
+     * get the revision the snapshot is pinned to
+     *
+     * @return revision
+     */
+    @Override
+    public long getRevision() {
+        return this.revision;
+    }
+
+    /**
+     * get the head revision when the snapshot was opened
+     *
+     * @return head revision
+     */
+    @Override
+    public long getHeadRevision() {
+        return this.headRevision;
+    }
+
+    /**
+     * get the document list of path at the pinned revision, at HEAD the locks come from the lock table of the client
+     *
+     * @param path relative path
+     * @return entry list
+     */
+    @Override
+    public List<SvnEntry> list(String path) {
+        List<SvnEntry> list = svnClient.listAtRevision(path, this.revision, this.headRevision);
+        if (this.revision == this.headRevision) {
+            svnClient.attachLocks(list);
+        }
+        return list;
+    }
+
+    /**
+     * get the document lists of many paths at the pinned revision, at HEAD the locks come from the lock table of the client
+     *
+     * @param paths relative paths
+     * @return key: path, value: entry list, in the order of paths, paths which do not exist are absent
+     */
+    @Override
+    public Map<String, List<SvnEntry>> listAll(Collection<String> paths) {
+        Map<String, List<SvnEntry>> lists = svnClient.listAllAtRevision(paths, this.revision, this.headRevision);
+        if (this.revision == this.headRevision) {
+            for (List<SvnEntry> list : lists.values()) {
+                svnClient.attachLocks(list);
+            }
+        }
+        return lists;
+    }
+
+    /**
+     * walk the tree of the directory at the pinned revision
+     *
+     * @param path  relative path of a directory
+     * @param depth depth of the walk
+     * @return stream of entries, in depth-first order
+     */
+    @Override
+    public Stream<SvnEntry> walk(String path, ESvnDepth depth) {
+        return svnClient.walkAtRevision(path, this.revision, this.headRevision, depth);
+    }
+
+    /**
+     * get file by path at the pinned revision
+     *
+     * @param filePath file path
+     * @return SvnEntry
+     */
+    @Override
+    public SvnEntry getFile(String filePath) {
+        return svnClient.getFileAtRevision(filePath, this.revision, this.headRevision);
+    }
+
+    /**
+     * get file content of text file at the pinned revision
+     *
+     * @param filePath file path
+     * @return file content
+     */
+    @Override
+    public String getFileContent(String filePath) {
+        return svnClient.getFileContent(filePath, this.revision);
+    }
+
+    /**
+     * open file content as a stream at the pinned revision
+     *
+     * @param filePath file path
+     * @return file content
+     */
+    @Override
+    public InputStream openFile(String filePath) {
+        return svnClient.openFile(filePath, this.revision);
+    }
+
+    /**
+     * copy file content at the pinned revision to the channel
+     *
+     * @param filePath file path
+     * @param channel  target channel, it is not closed
+     * @return count of bytes copied
+     */
+    @Override
+    public long transferTo(String filePath, WritableByteChannel channel) {
+        return svnClient.transferTo(filePath, this.revision, channel);
+    }
+}
@@ -0,0 +1,232 @@
+package com.marssvn.svnapi.cache;
+
+import com.marssvn.svnapi.model.SvnBlame;
+import com.marssvn.svnapi.model.SvnBlameLine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Cache of blames.
+ * <p>
+ * A blame at a fixed revision never changes, so blames are keyed by (root path, path, revision).
+ * The cached revisions of each path are tracked as well, so that a blame at a newer revision can be computed
+ * from the newest cached blame before it and the changes in between, see SvnClient.getBlame.
+ * The cache can be shared by clients of different repositories.
+ *
+ * @author zhangkx
+ */
+public class BlameCache {
+
+    /**
+     * default max count of blames
+     */
+    public final static int DEFAULT_MAX_BLAMES = 1000;
+
+    /**
+     * default max count of lines of all blames
+     */
+    public final static long DEFAULT_MAX_LINES = 2000000;
+
+    /**
+     * blames, weighed by line count
+     */
+    private final LruCache<Key, SvnBlame> cache;
+
+    /**
+     * key: root path + path, value: revisions which are cached, evicted revisions are dropped by the eviction listener
+     * of the cache, a path is dropped with its last revision
+     */
+    private final Map<Key, NavigableSet<Long>> revisions = new ConcurrentHashMap<>();
+
+    public BlameCache() {
+        this(DEFAULT_MAX_BLAMES, DEFAULT_MAX_LINES);
+    }
+
+    public BlameCache(int maxBlames, long maxLines) {
+        this.cache = new LruCache<>(maxBlames, maxLines, (key, blame) -> blame.getLines().size() + 1,
+                (key, blame) -> evicted(key));
+    }
+
+    /**
+     * get blame
+     *
+     * @param rootPath root path
+     * @param path     relative path
+     * @param revision resolved revision
+     * @return copy of the cached blame, null if not cached
+     */
+    public SvnBlame get(String rootPath, String path, long revision) {
+        SvnBlame cached = cache.get(new Key(rootPath, path, revision));
+        return cached == null ? null : copyOf(cached, revision);
+    }
+
+    /**
+     * get the newest cached blame of the path before the revision
+     *
+     * @param rootPath root path
+     * @param path     relative path
+     * @param revision resolved revision
+     * @return copy of the cached blame, null if there is none
+     */
+    public SvnBlame getOlder(String rootPath, String path, long revision) {
+        NavigableSet<Long> cachedRevisions = revisions.get(new Key(rootPath, path, 0));
+        if (cachedRevisions == null) {
+            return null;
+        }
+        Long older = cachedRevisions.lower(revision);
+        while (older != null) {
+            SvnBlame cached = cache.get(new Key(rootPath, path, older));
+            if (cached != null) {
+                return copyOf(cached, older);
+            }
+            evicted(new Key(rootPath, path, older));
+            older = cachedRevisions.lower(older);
+        }
+        return null;
+    }
+
+    /**
+     * put blame, a copy of the blame is cached
+     *
+     * @param rootPath root path
+     * @param blame    blame, its path and revision are the key
+     */
+    public void put(String rootPath, SvnBlame blame) {
+        // the revision is tracked before the blame is cached, so that the eviction of the blame drops it
+        revisions.compute(new Key(rootPath, blame.getPath(), 0), (key, cachedRevisions) -> {
+            NavigableSet<Long> added = cachedRevisions == null ? new ConcurrentSkipListSet<>() : cachedRevisions;
+            added.add(blame.getRevision());
+            return added;
+        });
+        cache.put(new Key(rootPath, blame.getPath(), blame.getRevision()), copyOf(blame, blame.getRevision()));
+    }
+
+    /**
+     * remove all blames
+     */
+    public void clear() {
+        cache.clear();
+        revisions.clear();
+    }
+
+    /**
+     * get count of cached blames
+     *
+     * @return size
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * get count of paths with cached blames
+     *
+     * @return count of paths
+     */
+    public int getPathCount() {
+        return revisions.size();
+    }
+
+    /**
+     * get count of cached lines
+     *
+     * @return weight
+     */
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    /**
+     * get hit count
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * get miss count
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * drop the revision of an evicted blame, and its path with the last revision
+     *
+     * @param key key of the evicted blame
+     */
+    private void evicted(Key key) {
+        revisions.computeIfPresent(new Key(key.rootPath, key.path, 0), (pathKey, cachedRevisions) -> {
+            cachedRevisions.remove(key.revision);
+            return cachedRevisions.isEmpty() ? null : cachedRevisions;
+        });
+    }
+
+    /**
+     * copy blame, cached blames are never handed out, callers may modify them
+     *
+     * @param blame    blame
+     * @param revision revision of the copy
+     * @return copy
+     */
+    private static SvnBlame copyOf(SvnBlame blame, long revision) {
+        List<SvnBlameLine> lines = new ArrayList<>(blame.getLines().size());
+        for (SvnBlameLine line : blame.getLines()) {
+            SvnBlameLine lineCopy = new SvnBlameLine();
+            lineCopy.setLineNumber(line.getLineNumber());
+            lineCopy.setRevision(line.getRevision());
+            lineCopy.setAuthor(line.getAuthor());
+            lineCopy.setDate(line.getDate());
+            lineCopy.setContent(line.getContent());
+            lines.add(lineCopy);
+        }
+        SvnBlame copy = new SvnBlame();
+        copy.setPath(blame.getPath());
+        copy.setRevision(revision);
+        copy.setLines(lines);
+        return copy;
+    }
+
+    /**
+     * cache key: root path + path + revision
+     */
+    private static final class Key {
+
+        private final String rootPath;
+        private final String path;
+        private final long revision;
+
+        private Key(String rootPath, String path, long revision) {
+            this.rootPath = rootPath;
+            this.path = path;
+            this.revision = revision;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return revision == key.revision && rootPath.equals(key.rootPath) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, path, revision);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.marssvn.svnapi.cache;
+
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Consumer;
+
+/**
+ * On-disk cache of file contents, which never change for a path at a fixed revision.
+ * <p>
+ * Contents are stored once per SHA-1 checksum under blobs/, refs/ maps (repository uuid, path in the repository, revision,
+ * whether keywords are expanded) to a checksum, so a file which is unchanged across many revisions, branches or
+ * repositories is stored once, and clients of different root paths of a repository share it.
+ * Contents are served as read-only memory mapped buffers. The total size of blobs is capped,
+ * the least recently used blobs (by modification time, touched on every hit) are deleted first.
+ * The cache survives restarts, refs to evicted blobs are dropped when they are read.
+ * The directory must not be shared by several processes.
+ *
+ * @author zhangkx
+ */
+public class BlobCache {
+
+    /**
+     * slf4j.Logger
+     */
+    private Logger logger = LoggerFactory.getLogger(BlobCache.class);
+
+    /**
+     * default max total size of blobs, 1G
+     */
+    public final static long DEFAULT_MAX_BYTES = 1L << 30;
+
+    /**
+     * directory of blobs, file name: checksum
+     */
+    private final File blobDir;
+
+    /**
+     * directory of refs, file name: checksum of the key, content: checksum of the blob
+     */
+    private final File refDir;
+
+    /**
+     * directory of blobs being written
+     */
+    private final File tmpDir;
+
+    /**
+     * max total size of blobs
+     */
+    private final long maxBytes;
+
+    /**
+     * total size of blobs
+     */
+    private long totalBytes;
+
+    public BlobCache(File directory) {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+
+    public BlobCache(File directory, long maxBytes) {
+        this.blobDir = new File(directory, "blobs");
+        this.refDir = new File(directory, "refs");
+        this.tmpDir = new File(directory, "tmp");
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(blobDir.toPath());
+            Files.createDirectories(refDir.toPath());
+            Files.createDirectories(tmpDir.toPath());
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+
+        // blobs of a previous process which were not finished
+        for (File file : listFiles(tmpDir)) {
+            deleteQuietly(file);
+        }
+        for (File file : listFiles(blobDir)) {
+            totalBytes += file.length();
+        }
+    }
+
+    /**
+     * get file content
+     *
+     * @param uuid             repository uuid
+     * @param path             path relative to the repository root
+     * @param revision         revision, must not be HEAD
+     * @param keywordsExpanded whether keywords of the content are expanded
+     * @return read-only content, null if not cached
+     */
+    public ByteBuffer get(String uuid, String path, long revision, boolean keywordsExpanded) {
+        File ref = new File(refDir, sha1(keyOf(uuid, path, revision, keywordsExpanded)));
+        if (!ref.isFile()) {
+            return null;
+        }
+        try {
+            File blob = new File(blobDir, new String(Files.readAllBytes(ref.toPath()), StandardCharsets.US_ASCII));
+            ByteBuffer content = map(blob);
+            if (content == null) {
+
+                // the blob was evicted
+                deleteQuietly(ref);
+                return null;
+            }
+            blob.setLastModified(System.currentTimeMillis());
+            return content;
+        } catch (IOException e) {
+            logger.warn("failed to read cached blob: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * put file content, the content is written to a temporary file while its checksum is computed
+     *
+     * @param uuid             repository uuid
+     * @param path             path relative to the repository root
+     * @param revision         revision, must not be HEAD
+     * @param keywordsExpanded whether keywords of the content are expanded
+     * @param writer           writes the content to the channel
+     * @return read-only content, null if it is too large to be cached
+     */
+    public ByteBuffer put(String uuid, String path, long revision, boolean keywordsExpanded, Consumer<WritableByteChannel> writer) {
+        MessageDigest digest = newSha1();
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(tmpDir.toPath(), "blob", ".tmp");
+            long size;
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                writer.accept(new WritableByteChannel() {
+                    @Override
+                    public int write(ByteBuffer src) throws IOException {
+                        ByteBuffer hashed = src.duplicate();
+                        int n = channel.write(src);
+                        hashed.limit(hashed.position() + n);
+                        digest.update(hashed);
+                        return n;
+                    }
+
+                    @Override
+                    public boolean isOpen() {
+                        return channel.isOpen();
+                    }
+
+                    @Override
+                    public void close() {
+                        // closed by the cache
+                    }
+                });
+                size = channel.size();
+            }
+            if (size > Math.min(maxBytes, Integer.MAX_VALUE)) {
+                return null;
+            }
+
+            String checksum = toHex(digest.digest());
+            File blob = new File(blobDir, checksum);
+            synchronized (this) {
+                if (blob.isFile()) {
+                    blob.setLastModified(System.currentTimeMillis());
+                } else {
+                    Files.move(tmp, blob.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                    totalBytes += size;
+                }
+            }
+            Path refTmp = Files.createTempFile(tmpDir.toPath(), "ref", ".tmp");
+            Files.write(refTmp, checksum.getBytes(StandardCharsets.US_ASCII));
+            Files.move(refTmp, new File(refDir, sha1(keyOf(uuid, path, revision, keywordsExpanded))).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            ByteBuffer content = map(blob);
+            evict(blob);
+            return content;
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        } finally {
+            if (tmp != null) {
+                deleteQuietly(tmp.toFile());
+            }
+        }
+    }
+
+    /**
+     * get total size of blobs
+     *
+     * @return bytes
+     */
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * delete least recently used blobs until the total size is under the cap
+     *
+     * @param keep blob which is not deleted
+     */
+    private synchronized void evict(File keep) {
+        if (totalBytes <= maxBytes) {
+            return;
+        }
+        File[] blobs = listFiles(blobDir);
+        long[] lastModified = new long[blobs.length];
+        for (int i = 0; i < blobs.length; i++) {
+            lastModified[i] = blobs[i].lastModified();
+        }
+        Integer[] order = new Integer[blobs.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastModified[i]));
+        for (int i : order) {
+            if (totalBytes <= maxBytes) {
+                break;
+            }
+            if (!blobs[i].equals(keep)) {
+                long size = blobs[i].length();
+                if (blobs[i].delete()) {
+                    totalBytes -= size;
+                }
+            }
+        }
+    }
+
+    /**
+     * map blob into memory
+     *
+     * @param blob blob
+     * @return read-only content, null if the blob does not exist
+     * @throws IOException IOException
+     */
+    private static ByteBuffer map(File blob) throws IOException {
+        if (!blob.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(blob.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * key of a file content
+     *
+     * @param uuid             repository uuid
+     * @param path             path relative to the repository root
+     * @param revision         revision
+     * @param keywordsExpanded whether keywords of the content are expanded
+     * @return key
+     */
+    private static String keyOf(String uuid, String path, long revision, boolean keywordsExpanded) {
+        return uuid + "\n" + StringUtils.trimSlashes(path) + "\n" + revision + (keywordsExpanded ? "\nexpanded" : "");
+    }
+
+    /**
+     * SHA-1 checksum of text
+     *
+     * @param text text
+     * @return checksum, hex
+     */
+    private static String sha1(String text) {
+        return toHex(newSha1().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * new SHA-1 digest
+     *
+     * @return MessageDigest
+     */
+    private static MessageDigest newSha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * bytes to lower case hex
+     *
+     * @param bytes bytes
+     * @return hex
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * files of a directory
+     *
+     * @param dir directory
+     * @return files, empty if the directory can't be read
+     */
+    private static File[] listFiles(File dir) {
+        File[] files = dir.listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * delete file, on exit if it can't be deleted now
+     *
+     * @param file file
+     */
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.marssvn.svnapi.cache;
+
+import com.marssvn.svnapi.model.SvnDiff;
+import com.marssvn.svnapi.model.SvnDiffFile;
+import com.marssvn.svnapi.model.SvnDiffHunk;
+import com.marssvn.svnapi.model.SvnDiffLine;
+import com.marssvn.svnapi.model.SvnDiffSummary;
+import com.marssvn.svnapi.model.SvnPropertyChange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cache of diffs and diff summaries.
+ * <p>
+ * A diff between two fixed revisions never changes, so pages of diffs are keyed by
+ * (root path, path, old revision, new revision, first hunk, max hunks) and summaries by
+ * (root path, path, old revision, new revision). Diffs against HEAD must be resolved to a revision first.
+ * The cache can be shared by clients of different repositories.
+ *
+ * @author zhangkx
+ */
+public class DiffCache {
+
+    /**
+     * default max count of pages and summaries
+     */
+    public final static int DEFAULT_MAX_ENTRIES = 1000;
+
+    /**
+     * default max count of lines of all pages, and of paths of all summaries
+     */
+    public final static long DEFAULT_MAX_LINES = 1000000;
+
+    /**
+     * pages of diffs, weighed by line count
+     */
+    private final LruCache<Key, SvnDiff> diffs;
+
+    /**
+     * summaries, weighed by path count
+     */
+    private final LruCache<Key, List<SvnDiffSummary>> summaries;
+
+    public DiffCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_LINES);
+    }
+
+    public DiffCache(int maxEntries, long maxLines) {
+        this.diffs = new LruCache<>(maxEntries, maxLines, (key, diff) -> lineCount(diff) + 1);
+        this.summaries = new LruCache<>(maxEntries, maxLines, (key, summary) -> summary.size() + 1);
+    }
+
+    /**
+     * get page of a diff
+     *
+     * @param rootPath    root path
+     * @param path        relative path
+     * @param oldRevision resolved old revision
+     * @param newRevision resolved new revision
+     * @param firstHunk   index of the first hunk of the page
+     * @param maxHunks    max count of hunks of the page
+     * @return copy of the cached page, null if not cached
+     */
+    public SvnDiff get(String rootPath, String path, long oldRevision, long newRevision, int firstHunk, int maxHunks) {
+        SvnDiff cached = diffs.get(new Key(rootPath, path, oldRevision, newRevision, firstHunk, maxHunks));
+        return cached == null ? null : copyOf(cached);
+    }
+
+    /**
+     * put page of a diff, a copy of the page is cached
+     *
+     * @param rootPath root path
+     * @param diff     page, its path, revisions and firstHunk are the key
+     * @param maxHunks max count of hunks of the page
+     */
+    public void put(String rootPath, SvnDiff diff, int maxHunks) {
+        diffs.put(new Key(rootPath, diff.getPath(), diff.getOldRevision(), diff.getNewRevision(),
+                diff.getFirstHunk(), maxHunks), copyOf(diff));
+    }
+
+    /**
+     * get summary of a diff
+     *
+     * @param rootPath    root path
+     * @param path        relative path
+     * @param oldRevision resolved old revision
+     * @param newRevision resolved new revision
+     * @return copy of the cached summary, null if not cached
+     */
+    public List<SvnDiffSummary> getSummary(String rootPath, String path, long oldRevision, long newRevision) {
+        List<SvnDiffSummary> cached = summaries.get(new Key(rootPath, path, oldRevision, newRevision, 0, 0));
+        return cached == null ? null : copyOf(cached);
+    }
+
+    /**
+     * put summary of a diff, a copy of the summary is cached
+     *
+     * @param rootPath    root path
+     * @param path        relative path
+     * @param oldRevision resolved old revision
+     * @param newRevision resolved new revision
+     * @param summary     summary
+     */
+    public void putSummary(String rootPath, String path, long oldRevision, long newRevision, List<SvnDiffSummary> summary) {
+        summaries.put(new Key(rootPath, path, oldRevision, newRevision, 0, 0), copyOf(summary));
+    }
+
+    /**
+     * remove all pages and summaries
+     */
+    public void clear() {
+        diffs.clear();
+        summaries.clear();
+    }
+
+    /**
+     * get count of cached pages and summaries
+     *
+     * @return size
+     */
+    public int size() {
+        return diffs.size() + summaries.size();
+    }
+
+    /**
+     * get count of cached lines and paths
+     *
+     * @return weight
+     */
+    public long getWeight() {
+        return diffs.getWeight() + summaries.getWeight();
+    }
+
+    /**
+     * get hit count
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return diffs.getHitCount() + summaries.getHitCount();
+    }
+
+    /**
+     * get miss count
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return diffs.getMissCount() + summaries.getMissCount();
+    }
+
+    /**
+     * count lines of a page
+     *
+     * @param diff page
+     * @return line count
+     */
+    private static long lineCount(SvnDiff diff) {
+        long count = 0;
+        for (SvnDiffFile file : diff.getFiles()) {
+            count += 1 + file.getPropertyChanges().size();
+            for (SvnDiffHunk hunk : file.getHunks()) {
+                count += 1 + hunk.getLines().size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * copy page, cached pages are never handed out, callers may modify them
+     *
+     * @param diff page
+     * @return copy
+     */
+    private static SvnDiff copyOf(SvnDiff diff) {
+        SvnDiff copy = new SvnDiff();
+        copy.setPath(diff.getPath());
+        copy.setOldRevision(diff.getOldRevision());
+        copy.setNewRevision(diff.getNewRevision());
+        copy.setFirstHunk(diff.getFirstHunk());
+        copy.setNextHunk(diff.getNextHunk());
+        for (SvnDiffFile file : diff.getFiles()) {
+            SvnDiffFile fileCopy = new SvnDiffFile();
+            fileCopy.setPath(file.getPath());
+            fileCopy.setOldRevision(file.getOldRevision());
+            fileCopy.setNewRevision(file.getNewRevision());
+            fileCopy.setBinary(file.isBinary());
+            for (SvnDiffHunk hunk : file.getHunks()) {
+                SvnDiffHunk hunkCopy = new SvnDiffHunk();
+                hunkCopy.setOldStart(hunk.getOldStart());
+                hunkCopy.setOldCount(hunk.getOldCount());
+                hunkCopy.setNewStart(hunk.getNewStart());
+                hunkCopy.setNewCount(hunk.getNewCount());
+                hunkCopy.setSection(hunk.getSection());
+                hunkCopy.setTruncated(hunk.isTruncated());
+                List<SvnDiffLine> lines = new ArrayList<>(hunk.getLines().size());
+                for (SvnDiffLine line : hunk.getLines()) {
+                    SvnDiffLine lineCopy = new SvnDiffLine();
+                    lineCopy.setType(line.getType());
+                    lineCopy.setContent(line.getContent());
+                    lineCopy.setOldLineNumber(line.getOldLineNumber());
+                    lineCopy.setNewLineNumber(line.getNewLineNumber());
+                    lineCopy.setNoNewline(line.isNoNewline());
+                    lines.add(lineCopy);
+                }
+                hunkCopy.setLines(lines);
+                fileCopy.getHunks().add(hunkCopy);
+            }
+            for (SvnPropertyChange change : file.getPropertyChanges()) {
+                SvnPropertyChange changeCopy = new SvnPropertyChange();
+                changeCopy.setName(change.getName());
+                changeCopy.setAction(change.getAction());
+                changeCopy.setOldValue(change.getOldValue());
+                changeCopy.setNewValue(change.getNewValue());
+                fileCopy.getPropertyChanges().add(changeCopy);
+            }
+            copy.getFiles().add(fileCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * copy summary
+     *
+     * @param summary summary
+     * @return copy
+     */
+    private static List<SvnDiffSummary> copyOf(List<SvnDiffSummary> summary) {
+        List<SvnDiffSummary> copy = new ArrayList<>(summary.size());
+        for (SvnDiffSummary path : summary) {
+            SvnDiffSummary pathCopy = new SvnDiffSummary();
+            pathCopy.setPath(path.getPath());
+            pathCopy.setKind(path.getKind());
+            pathCopy.setItem(path.getItem());
+            pathCopy.setProps(path.getProps());
+            copy.add(pathCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * cache key: root path + path + revisions + page
+     */
+    private static final class Key {
+
+        private final String rootPath;
+        private final String path;
+        private final long oldRevision;
+        private final long newRevision;
+        private final int firstHunk;
+        private final int maxHunks;
+
+        private Key(String rootPath, String path, long oldRevision, long newRevision, int firstHunk, int maxHunks) {
+            this.rootPath = rootPath;
+            this.path = path;
+            this.oldRevision = oldRevision;
+            this.newRevision = newRevision;
+            this.firstHunk = firstHunk;
+            this.maxHunks = maxHunks;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return oldRevision == key.oldRevision && newRevision == key.newRevision && firstHunk == key.firstHunk
+                    && maxHunks == key.maxHunks && rootPath.equals(key.rootPath) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, path, oldRevision, newRevision, firstHunk, maxHunks);
+        }
+    }
+}
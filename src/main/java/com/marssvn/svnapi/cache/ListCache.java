@@ -0,0 +1,181 @@
+package com.marssvn.svnapi.cache;
+
+import com.marssvn.svnapi.model.SvnEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Cache of directory listings.
+ * <p>
+ * A listing at a fixed revision never changes, so listings are keyed by (root path, path, revision)
+ * with the revision resolved to a number, HEAD listings are hits as long as the head revision has not moved.
+ * The cache can be shared by clients of different repositories.
+ * Locks are not versioned, the lock of a cached entry is the lock at the time the listing was cached.
+ *
+ * @author zhangkx
+ */
+public class ListCache {
+
+    /**
+     * default max count of listings
+     */
+    public final static int DEFAULT_MAX_LISTS = 10000;
+
+    /**
+     * default max count of entries of all listings
+     */
+    public final static long DEFAULT_MAX_ENTRIES = 1000000;
+
+    /**
+     * listings, weighed by entry count
+     */
+    private final LruCache<Key, List<SvnEntry>> cache;
+
+    public ListCache() {
+        this(DEFAULT_MAX_LISTS, DEFAULT_MAX_ENTRIES);
+    }
+
+    public ListCache(int maxLists, long maxEntries) {
+        this.cache = new LruCache<>(maxLists, maxEntries, (key, list) -> list.size() + 1);
+    }
+
+    /**
+     * get listing
+     *
+     * @param rootPath     root path
+     * @param path         relative path
+     * @param revision     resolved revision
+     * @param headRevision head revision, set to the returned entries
+     * @return copy of the cached entries, null if not cached
+     */
+    public List<SvnEntry> get(String rootPath, String path, long revision, long headRevision) {
+        List<SvnEntry> cached = cache.get(new Key(rootPath, path, revision));
+        return cached == null ? null : copyOf(cached, headRevision);
+    }
+
+    /**
+     * put listing, a copy of the entries is cached
+     *
+     * @param rootPath root path
+     * @param path     relative path
+     * @param revision resolved revision
+     * @param list     entries
+     */
+    public void put(String rootPath, String path, long revision, List<SvnEntry> list) {
+        cache.put(new Key(rootPath, path, revision), Collections.unmodifiableList(copyOf(list, 0)));
+    }
+
+    /**
+     * remove all listings of the root path
+     *
+     * @param rootPath root path
+     */
+    public void invalidate(String rootPath) {
+        cache.removeIf(key -> key.rootPath.equals(rootPath));
+    }
+
+    /**
+     * remove all listings
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * get count of cached listings
+     *
+     * @return size
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * get count of cached entries
+     *
+     * @return weight
+     */
+    public long getWeight() {
+        return cache.getWeight();
+    }
+
+    /**
+     * get hit count
+     *
+     * @return hit count
+     */
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    /**
+     * get miss count
+     *
+     * @return miss count
+     */
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    /**
+     * get eviction count
+     *
+     * @return eviction count
+     */
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    /**
+     * copy entries, cached entries are never handed out, callers may modify them
+     *
+     * @param list         entries
+     * @param headRevision head revision
+     * @return copy
+     */
+    private static List<SvnEntry> copyOf(List<SvnEntry> list, long headRevision) {
+        List<SvnEntry> copy = new ArrayList<>(list.size());
+        for (SvnEntry svnEntry : list) {
+            SvnEntry entryCopy = svnEntry.convertTo(SvnEntry.class);
+            entryCopy.setHeadRevision(headRevision);
+            copy.add(entryCopy);
+        }
+        return copy;
+    }
+
+    /**
+     * cache key: root path + path + revision
+     */
+    private static final class Key {
+
+        private final String rootPath;
+        private final String path;
+        private final long revision;
+
+        private Key(String rootPath, String path, long revision) {
+            this.rootPath = rootPath;
+            this.path = path;
+            this.revision = revision;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return revision == key.revision && rootPath.equals(key.rootPath) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rootPath, path, revision);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.marssvn.svnapi.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Thread safe LRU cache, bounded by entry count and by total weight.
+ * <p>
+ * Values must be immutable, the weight of a value is computed once when it is put,
+ * and again when it is removed.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ * @author zhangkx
+ */
+public class LruCache<K, V> {
+
+    /**
+     * entries in access order, the eldest entry is the least recently used
+     */
+    private final LinkedHashMap<K, V> map = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * max count of entries
+     */
+    private final int maxSize;
+
+    /**
+     * max total weight of entries
+     */
+    private final long maxWeight;
+
+    /**
+     * weigher
+     */
+    private final Weigher<K, V> weigher;
+
+    /**
+     * eviction listener, null if there is none
+     */
+    private final EvictionListener<K, V> evictionListener;
+
+    /**
+     * total weight of entries
+     */
+    private long weight;
+
+    /**
+     * hit count
+     */
+    private long hitCount;
+
+    /**
+     * miss count
+     */
+    private long missCount;
+
+    /**
+     * eviction count
+     */
+    private long evictionCount;
+
+    public LruCache(int maxSize, long maxWeight, Weigher<K, V> weigher) {
+        this(maxSize, maxWeight, weigher, null);
+    }
+
+    /**
+     * create a cache
+     *
+     * @param maxSize          max count of entries
+     * @param maxWeight        max total weight of entries
+     * @param weigher          weigher
+     * @param evictionListener listener of evicted entries, it is called while the cache is locked, null if there is none
+     */
+    public LruCache(int maxSize, long maxWeight, Weigher<K, V> weigher, EvictionListener<K, V> evictionListener) {
+        this.maxSize = maxSize;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * get value and mark it as most recently used
+     *
+     * @param key key
+     * @return value, null if not cached
+     */
+    public synchronized V get(K key) {
+        V value = map.get(key);
+        if (value == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return value;
+    }
+
+    /**
+     * put value, evict least recently used entries when the cache is full.
+     * value heavier than the max weight is not cached, it is passed to the eviction listener as if it was evicted
+     *
+     * @param key   key
+     * @param value value
+     */
+    public synchronized void put(K key, V value) {
+        long valueWeight = weigher.weigh(key, value);
+        if (valueWeight > maxWeight) {
+            if (evictionListener != null) {
+                evictionListener.evicted(key, value);
+            }
+            return;
+        }
+        V oldValue = map.put(key, value);
+        if (oldValue != null) {
+            weight -= weigher.weigh(key, oldValue);
+        }
+        weight += valueWeight;
+
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        while ((map.size() > maxSize || weight > maxWeight) && iterator.hasNext()) {
+            Map.Entry<K, V> eldest = iterator.next();
+            weight -= weigher.weigh(eldest.getKey(), eldest.getValue());
+            iterator.remove();
+            evictionCount++;
+            if (evictionListener != null) {
+                evictionListener.evicted(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    /**
+     * remove value
+     *
+     * @param key key
+     * @return removed value
+     */
+    public synchronized V remove(K key) {
+        V value = map.remove(key);
+        if (value != null) {
+            weight -= weigher.weigh(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * remove all values whose key matches the filter
+     *
+     * @param filter key filter
+     */
+    public synchronized void removeIf(Predicate<K> filter) {
+        Iterator<Map.Entry<K, V>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, V> entry = iterator.next();
+            if (filter.test(entry.getKey())) {
+                weight -= weigher.weigh(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * remove all values
+     */
+    public synchronized void clear() {
+        map.clear();
+        weight = 0;
+    }
+
+    /**
+     * get count of entries
+     *
+     * @return size
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * get total weight of entries
+     *
+     * @return weight
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * get hit count
+     *
+     * @return hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * get miss count
+     *
+     * @return miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * get eviction count
+     *
+     * @return eviction count
+     */
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * weigher of cache entries
+     *
+     * @param <K> key type
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+
+        /**
+         * weigh the entry
+         *
+         * @param key   key
+         * @param value value
+         * @return weight
+         */
+        long weigh(K key, V value);
+    }
+
+    /**
+     * listener of entries evicted because the cache is full, not of removed entries
+     *
+     * @param <K> key type
+     * @param <V> value type
+     */
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+
+        /**
+         * called after the entry was evicted
+         *
+         * @param key   key
+         * @param value value
+         */
+        void evicted(K key, V value);
+    }
+}
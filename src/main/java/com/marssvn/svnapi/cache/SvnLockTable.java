@@ -0,0 +1,313 @@
+package com.marssvn.svnapi.cache;
+
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.model.SvnLock;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory table of all locks of a repository, indexed by path and by owner.
+ * <p>
+ * The table is loaded in one shot by the loader, e.g. svnadmin lslocks of a local repository
+ * (SvnAdminForLocale.listLocks) or svn info -R (SvnClient.listLocks), and reloaded when it is older than
+ * the refresh interval at the next lookup. A SvnClient which uses the table updates it after its own lock and
+ * unlock calls, locks taken by other clients are seen after the next refresh.
+ * Paths are relative to the root path, leading and trailing slashes are ignored.
+ *
+ * @author zhangkx
+ */
+public class SvnLockTable {
+
+    /**
+     * default refresh interval in milliseconds
+     */
+    public final static long DEFAULT_REFRESH_INTERVAL = 60000;
+
+    /**
+     * loads all locks, the path of each lock must be set
+     */
+    private final Supplier<Collection<SvnLock>> loader;
+
+    /**
+     * guards the maps
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * key: path, value: lock
+     */
+    private final Map<String, SvnLock> locksByPath = new HashMap<>();
+
+    /**
+     * key: owner, value: paths of the locks of the owner, sorted
+     */
+    private final Map<String, TreeSet<String>> pathsByOwner = new HashMap<>();
+
+    /**
+     * refresh interval in milliseconds, 0 never refreshes after the first load
+     */
+    private volatile long refreshInterval = DEFAULT_REFRESH_INTERVAL;
+
+    /**
+     * System.currentTimeMillis of the last load, 0 if never loaded
+     */
+    private volatile long loadedAt;
+
+    /**
+     * locks put and removed while a load is running, key: path, value: lock, null if removed,
+     * null if no load is running. they are applied again after the load, which may have missed them
+     */
+    private Map<String, SvnLock> changesDuringLoad;
+
+    public SvnLockTable(Supplier<Collection<SvnLock>> loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * set refresh interval
+     *
+     * @param refreshInterval interval in milliseconds, 0 never refreshes after the first load
+     */
+    public void setRefreshInterval(long refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * reload all locks now, the locks put and removed while the loader runs are kept
+     */
+    public void refresh() {
+        synchronized (loader) {
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = new LinkedHashMap<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            Collection<SvnLock> locks = null;
+            try {
+                locks = loader.get();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    Map<String, SvnLock> changes = changesDuringLoad;
+                    changesDuringLoad = null;
+                    if (locks != null) {
+                        locksByPath.clear();
+                        pathsByOwner.clear();
+                        for (SvnLock svnLock : locks) {
+                            add(svnLock);
+                        }
+                        for (Map.Entry<String, SvnLock> change : changes.entrySet()) {
+                            removePath(change.getKey());
+                            if (change.getValue() != null) {
+                                add(change.getValue());
+                            }
+                        }
+                        loadedAt = System.currentTimeMillis();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * mark the table stale, it is reloaded at the next lookup, e.g. after a commit which may have released locks
+     */
+    public void invalidate() {
+        loadedAt = 0;
+    }
+
+    /**
+     * get lock of a file
+     *
+     * @param path relative path
+     * @return copy of the lock, null if the file is not locked
+     */
+    public SvnLock get(String path) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            SvnLock svnLock = locksByPath.get(StringUtils.trimSlashes(path));
+            return svnLock == null ? null : svnLock.convertTo(SvnLock.class);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get locks of many files
+     *
+     * @param paths relative paths
+     * @return key: path, value: copy of the lock, files which are not locked are absent
+     */
+    public Map<String, SvnLock> getAll(Collection<String> paths) {
+        ensureFresh();
+        Map<String, SvnLock> result = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String path : paths) {
+                SvnLock svnLock = locksByPath.get(StringUtils.trimSlashes(path));
+                if (svnLock != null) {
+                    result.put(path, svnLock.convertTo(SvnLock.class));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get locks held by a user
+     *
+     * @param owner user name
+     * @return copies of the locks, ordered by path
+     */
+    public List<SvnLock> getByOwner(String owner) {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            TreeSet<String> paths = pathsByOwner.get(owner);
+            List<SvnLock> result = new ArrayList<>(paths == null ? 0 : paths.size());
+            if (paths != null) {
+                for (String path : paths) {
+                    result.add(locksByPath.get(path).convertTo(SvnLock.class));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * put lock of a file, e.g. after it was locked, a load which is running keeps it
+     *
+     * @param svnLock lock, its path is the key
+     */
+    public void put(SvnLock svnLock) {
+        ensureFresh();
+        SvnLock copy = svnLock.convertTo(SvnLock.class);
+        lock.writeLock().lock();
+        try {
+            String path = StringUtils.trimSlashes(copy.getPath());
+            removePath(path);
+            add(copy);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.put(path, copy);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * remove lock of a file, e.g. after it was unlocked
+     *
+     * @param path relative path
+     */
+    public void remove(String path) {
+        ensureFresh();
+        lock.writeLock().lock();
+        try {
+            String normalizedPath = StringUtils.trimSlashes(path);
+            removePath(normalizedPath);
+            if (changesDuringLoad != null) {
+                changesDuringLoad.put(normalizedPath, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * get count of locks
+     *
+     * @return count
+     */
+    public int size() {
+        ensureFresh();
+        lock.readLock().lock();
+        try {
+            return locksByPath.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get time of the last load
+     *
+     * @return System.currentTimeMillis of the last load, 0 if never loaded
+     */
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    /**
+     * load the locks if they were never loaded or are older than the refresh interval,
+     * concurrent callers wait for one load
+     */
+    private void ensureFresh() {
+        if (!isStale()) {
+            return;
+        }
+        synchronized (loader) {
+            if (isStale()) {
+                refresh();
+            }
+        }
+    }
+
+    /**
+     * whether the locks must be loaded
+     *
+     * @return true if never loaded or older than the refresh interval
+     */
+    private boolean isStale() {
+        long loaded = loadedAt;
+        return loaded == 0 || (refreshInterval > 0 && System.currentTimeMillis() - loaded >= refreshInterval);
+    }
+
+    /**
+     * add a lock, the caller holds the write lock
+     *
+     * @param svnLock lock
+     */
+    private void add(SvnLock svnLock) {
+        String path = StringUtils.trimSlashes(svnLock.getPath());
+        svnLock.setPath(path);
+        locksByPath.put(path, svnLock);
+        if (svnLock.getOwner() != null) {
+            pathsByOwner.computeIfAbsent(svnLock.getOwner(), key -> new TreeSet<>()).add(path);
+        }
+    }
+
+    /**
+     * remove the lock of a path, the caller holds the write lock
+     *
+     * @param path normalized path
+     */
+    private void removePath(String path) {
+        SvnLock removed = locksByPath.remove(path);
+        if (removed != null && removed.getOwner() != null) {
+            TreeSet<String> paths = pathsByOwner.get(removed.getOwner());
+            paths.remove(path);
+            if (paths.isEmpty()) {
+                pathsByOwner.remove(removed.getOwner());
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.marssvn.svnapi.common;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * InputStream over a ByteBuffer, e.g. a memory mapped file, the buffer is read from its position to its limit
+ *
+ * @author zhangkx
+ */
+public class ByteBufferInputStream extends InputStream {
+
+    /**
+     * buffer
+     */
+    private final ByteBuffer buffer;
+
+    public ByteBufferInputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+        return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int n = Math.min(len, buffer.remaining());
+        buffer.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) {
+        int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return buffer.remaining();
+    }
+}
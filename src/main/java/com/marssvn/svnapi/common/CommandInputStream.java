@@ -0,0 +1,81 @@
+package com.marssvn.svnapi.common;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+
+/**
+ * Standard output of a running command as a plain InputStream, see CommandUtils.openInputStream.
+ * <p>
+ * At the end of the output the command is finished and its errors are thrown as SvnApiException,
+ * closing the stream before the end destroys the process.
+ *
+ * @author zhangkx
+ */
+class CommandInputStream extends FilterInputStream {
+
+    /**
+     * running command
+     */
+    private final CommandStream commandStream;
+
+    /**
+     * the end of the output is reached
+     */
+    private boolean finished;
+
+    CommandInputStream(CommandStream commandStream) {
+        super(commandStream.getInputStream());
+        this.commandStream = commandStream;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b;
+        try {
+            b = super.read();
+        } catch (IOException | RuntimeException e) {
+            throw commandStream.failure(e);
+        }
+        if (b < 0) {
+            finish();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n;
+        try {
+            n = super.read(b, off, len);
+        } catch (IOException | RuntimeException e) {
+            throw commandStream.failure(e);
+        }
+        if (n < 0) {
+            finish();
+        }
+        return n;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * destroy the process if the end of the output is not reached
+     */
+    @Override
+    public void close() {
+        commandStream.close();
+    }
+
+    /**
+     * finish the command once, throws SvnApiException if it failed
+     */
+    private void finish() {
+        if (!finished) {
+            finished = true;
+            commandStream.finish(null);
+        }
+    }
+}
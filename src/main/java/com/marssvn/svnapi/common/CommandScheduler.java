@@ -0,0 +1,440 @@
+package com.marssvn.svnapi.common;
+
+import com.marssvn.svnapi.enums.ECommandPriority;
+import com.marssvn.svnapi.exception.SvnApiException;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bulkhead in front of the svn processes spawned by CommandUtils.
+ * <p>
+ * Commands are grouped by the host of their first url target (scheme://authority, e.g. svn://127.0.0.1:3690),
+ * commands on local paths such as svnadmin share the key "local". Each key runs at most maxConcurrency
+ * commands at once, further commands wait in a bounded queue and are rejected with ECM0002 when it is full.
+ * Waiting interactive commands (list, info, cat ...) are started before background commands (export, dump, verify ...),
+ * a background command is started after every INTERACTIVE_BURST interactive commands so that it is not starved.
+ * A thread which already runs a command of the key, e.g. while it reads a streamed listing, never waits for a second one.
+ * Programs other than the svn tools are not scheduled.
+ *
+ * @author zhangkx
+ */
+public class CommandScheduler {
+
+    /**
+     * default max count of running commands per key
+     */
+    public final static int DEFAULT_MAX_CONCURRENCY = 16;
+
+    /**
+     * default max count of waiting commands per key
+     */
+    public final static int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /**
+     * count of interactive commands started in a row while background commands are waiting
+     */
+    public final static int INTERACTIVE_BURST = 4;
+
+    /**
+     * key of commands on local paths
+     */
+    public final static String LOCAL_KEY = "local";
+
+    /**
+     * svn tools, the scheduled programs, their first argument is a subcommand
+     */
+    final static Set<String> SVN_PROGRAMS = new HashSet<>(Arrays.asList("svn", "svnadmin", "svnlook", "svnrdump", "svnsync"));
+
+    /**
+     * background subcommands, all others are interactive
+     */
+    private final static Set<String> BACKGROUND_SUBCOMMANDS = new HashSet<>(Arrays.asList(
+            "export", "checkout", "co", "import", "dump", "load", "verify", "hotcopy", "pack", "upgrade", "recover",
+            "sync", "synchronize", "initialize", "init", "copy-revprops"));
+
+    /**
+     * bulkheads, key: scheme://authority or local
+     */
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * max count of running commands of keys which are configured individually
+     */
+    private final Map<String, Integer> maxConcurrencies = new ConcurrentHashMap<>();
+
+    /**
+     * default max count of running commands per key
+     */
+    private volatile int defaultMaxConcurrency = DEFAULT_MAX_CONCURRENCY;
+
+    /**
+     * max count of waiting commands per key
+     */
+    private volatile int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+    /**
+     * set default max count of running commands per key
+     *
+     * @param maxConcurrency max concurrency, at least 1
+     */
+    public void setDefaultMaxConcurrency(int maxConcurrency) {
+        this.defaultMaxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    /**
+     * set max count of running commands of a key
+     *
+     * @param key            scheme://authority, e.g. svn://127.0.0.1:3690, or local
+     * @param maxConcurrency max concurrency, at least 1
+     */
+    public void setMaxConcurrency(String key, int maxConcurrency) {
+        maxConcurrencies.put(key, Math.max(1, maxConcurrency));
+    }
+
+    /**
+     * set max count of waiting commands per key
+     *
+     * @param queueCapacity queue capacity, 0 rejects commands instead of waiting
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(0, queueCapacity);
+    }
+
+    /**
+     * get count of running commands of a key
+     *
+     * @param key scheme://authority or local
+     * @return running commands
+     */
+    public int getRunning(String key) {
+        Bulkhead bulkhead = bulkheads.get(key);
+        return bulkhead == null ? 0 : bulkhead.running();
+    }
+
+    /**
+     * get count of waiting commands of a key
+     *
+     * @param key scheme://authority or local
+     * @return waiting commands
+     */
+    public int getWaiting(String key) {
+        Bulkhead bulkhead = bulkheads.get(key);
+        return bulkhead == null ? 0 : bulkhead.waiting();
+    }
+
+    /**
+     * wait until the command may be started
+     *
+     * @param commandLine command line
+     * @param timeout     max milliseconds to wait
+     * @return permit, must be released when the command is finished
+     */
+    Permit acquire(List<String> commandLine, long timeout) {
+        if (commandLine.isEmpty() || !SVN_PROGRAMS.contains(programOf(commandLine.get(0)))) {
+            return Permit.NONE;
+        }
+        Bulkhead bulkhead = bulkheads.computeIfAbsent(keyOf(commandLine), Bulkhead::new);
+        return bulkhead.acquire(priorityOf(commandLine), timeout);
+    }
+
+    /**
+     * get key of a command, the host of its first url target
+     *
+     * @param commandLine command line
+     * @return scheme://authority or local
+     */
+    public static String keyOf(List<String> commandLine) {
+        for (String arg : commandLine) {
+            int schemeEnd = arg.indexOf("://");
+            if (schemeEnd > 0 && !arg.startsWith("-")) {
+                int authorityEnd = arg.indexOf('/', schemeEnd + 3);
+                return (authorityEnd < 0 ? arg : arg.substring(0, authorityEnd)).toLowerCase();
+            }
+        }
+        return LOCAL_KEY;
+    }
+
+    /**
+     * get priority class of a command by its subcommand
+     *
+     * @param commandLine command line
+     * @return priority
+     */
+    public static ECommandPriority priorityOf(List<String> commandLine) {
+        for (int i = 1; i < commandLine.size(); i++) {
+            String arg = commandLine.get(i);
+            if (!arg.startsWith("-")) {
+                return BACKGROUND_SUBCOMMANDS.contains(arg) ? ECommandPriority.BACKGROUND : ECommandPriority.INTERACTIVE;
+            }
+        }
+        return ECommandPriority.INTERACTIVE;
+    }
+
+    /**
+     * program name without directory and extension
+     *
+     * @param executable executable
+     * @return program
+     */
+    static String programOf(String executable) {
+        String program = new File(executable).getName().toLowerCase();
+        return program.endsWith(".exe") ? program.substring(0, program.length() - 4) : program;
+    }
+
+    /**
+     * right to run one command, released once
+     */
+    static class Permit {
+
+        /**
+         * permit of a command which is not scheduled
+         */
+        final static Permit NONE = new Permit(null, null);
+
+        /**
+         * bulkhead which granted the permit
+         */
+        private final Bulkhead bulkhead;
+
+        /**
+         * thread which acquired the permit
+         */
+        private final Thread thread;
+
+        /**
+         * the permit is released
+         */
+        private boolean released;
+
+        Permit(Bulkhead bulkhead, Thread thread) {
+            this.bulkhead = bulkhead;
+            this.thread = thread;
+        }
+
+        /**
+         * release the permit, the next waiting command is started
+         */
+        void release() {
+            if (bulkhead != null) {
+                bulkhead.release(this);
+            }
+        }
+    }
+
+    /**
+     * running commands and waiting queues of one key
+     */
+    private class Bulkhead {
+
+        /**
+         * key
+         */
+        private final String key;
+
+        /**
+         * guards the state of the bulkhead
+         */
+        private final ReentrantLock lock = new ReentrantLock();
+
+        /**
+         * waiting interactive commands
+         */
+        private final Deque<Waiter> interactiveQueue = new ArrayDeque<>();
+
+        /**
+         * waiting background commands
+         */
+        private final Deque<Waiter> backgroundQueue = new ArrayDeque<>();
+
+        /**
+         * count of running commands by the thread which started them
+         */
+        private final Map<Thread, Integer> holders = new HashMap<>();
+
+        /**
+         * count of running commands, reentrant commands excluded
+         */
+        private int running;
+
+        /**
+         * interactive commands started in a row while background commands were waiting
+         */
+        private int interactiveBurst;
+
+        Bulkhead(String key) {
+            this.key = key;
+        }
+
+        /**
+         * wait for a permit
+         *
+         * @param priority priority
+         * @param timeout  max milliseconds to wait
+         * @return permit
+         */
+        Permit acquire(ECommandPriority priority, long timeout) {
+            Thread thread = Thread.currentThread();
+            lock.lock();
+            try {
+                Integer held = holders.get(thread);
+                if (held != null) {
+                    holders.put(thread, held + 1);
+                    return new Permit(this, thread);
+                }
+                if (running < maxConcurrency() && interactiveQueue.isEmpty() && backgroundQueue.isEmpty()) {
+                    running++;
+                    holders.put(thread, 1);
+                    return new Permit(this, thread);
+                }
+                if (waiting() >= queueCapacity) {
+                    throw new SvnApiException("ECM0002", "Too many commands waiting for " + key);
+                }
+
+                Waiter waiter = new Waiter(lock.newCondition());
+                Deque<Waiter> queue = priority == ECommandPriority.BACKGROUND ? backgroundQueue : interactiveQueue;
+                queue.addLast(waiter);
+                long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+                try {
+                    while (!waiter.granted) {
+                        if (nanos <= 0) {
+                            queue.remove(waiter);
+                            throw new SvnApiException("ECM0003", "Time out waiting to execute command on " + key);
+                        }
+                        nanos = waiter.condition.awaitNanos(nanos);
+                    }
+                } catch (InterruptedException e) {
+                    if (waiter.granted) {
+                        grantNext();
+                    } else {
+                        queue.remove(waiter);
+                    }
+                    Thread.currentThread().interrupt();
+                    throw new SvnApiException(e.getMessage());
+                }
+                holders.put(thread, 1);
+                return new Permit(this, thread);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * release a permit
+         *
+         * @param permit permit
+         */
+        void release(Permit permit) {
+            lock.lock();
+            try {
+                if (permit.released) {
+                    return;
+                }
+                permit.released = true;
+                int held = holders.get(permit.thread);
+                if (held > 1) {
+                    holders.put(permit.thread, held - 1);
+                    return;
+                }
+                holders.remove(permit.thread);
+                grantNext();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * free the slot of a finished command and start waiting commands while slots are free
+         */
+        private void grantNext() {
+            running--;
+            while (running < maxConcurrency()) {
+                Waiter next;
+                if (backgroundQueue.isEmpty()) {
+                    next = interactiveQueue.pollFirst();
+                } else if (interactiveQueue.isEmpty() || interactiveBurst >= INTERACTIVE_BURST) {
+                    next = backgroundQueue.pollFirst();
+                    interactiveBurst = 0;
+                } else {
+                    next = interactiveQueue.pollFirst();
+                    interactiveBurst++;
+                }
+                if (next == null) {
+                    return;
+                }
+                running++;
+                next.granted = true;
+                next.condition.signal();
+            }
+        }
+
+        /**
+         * get max count of running commands
+         *
+         * @return max concurrency
+         */
+        private int maxConcurrency() {
+            Integer maxConcurrency = maxConcurrencies.get(key);
+            return maxConcurrency == null ? defaultMaxConcurrency : maxConcurrency;
+        }
+
+        /**
+         * get count of running commands
+         *
+         * @return running commands
+         */
+        int running() {
+            lock.lock();
+            try {
+                return running;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * get count of waiting commands
+         *
+         * @return waiting commands
+         */
+        int waiting() {
+            lock.lock();
+            try {
+                return interactiveQueue.size() + backgroundQueue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * waiting command
+     */
+    private static class Waiter {
+
+        /**
+         * signalled when the command is granted a slot
+         */
+        private final Condition condition;
+
+        /**
+         * the command may be started
+         */
+        private boolean granted;
+
+        Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
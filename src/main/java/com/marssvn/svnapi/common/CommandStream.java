@@ -0,0 +1,217 @@
+package com.marssvn.svnapi.common;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.io.output.ByteArrayOutputStream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Running command whose standard output is read as a stream, see CommandUtils.openStream.
+ * <p>
+ * Read the output, then call finish to wait for the command and check its errors.
+ * Closing the stream before it is finished destroys the process, e.g. when the reader stops early.
+ *
+ * @author zhangkx
+ */
+public class CommandStream implements Closeable {
+
+    /**
+     * process of the command
+     */
+    private final Process process;
+
+    /**
+     * standard output of the command, counts the bytes read
+     */
+    private final CountingInputStream inputStream;
+
+    /**
+     * command line, for metrics
+     */
+    private final List<String> commandLine;
+
+    /**
+     * System.nanoTime before the process was started
+     */
+    private final long startNanos;
+
+    /**
+     * System.nanoTime after the process was started
+     */
+    private final long spawnedNanos;
+
+    /**
+     * slot of the command in the CommandScheduler
+     */
+    private final CommandScheduler.Permit permit;
+
+    /**
+     * thread which started the command
+     */
+    private final Thread thread;
+
+    /**
+     * error output of the command
+     */
+    private final ByteArrayOutputStream errorStream = new ByteArrayOutputStream();
+
+    /**
+     * pumps the error output
+     */
+    private final Future<?> errorPumper;
+
+    /**
+     * destroys the process when it times out
+     */
+    private final ScheduledFuture<?> killer;
+
+    /**
+     * the process timed out
+     */
+    private final AtomicBoolean timedOut = new AtomicBoolean();
+
+    /**
+     * the command is finished or closed
+     */
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    CommandStream(Process process, List<String> commandLine, long startNanos, long spawnedNanos, CommandScheduler.Permit permit,
+                  ExecutorService pumper, ScheduledExecutorService timer, long timeout) {
+        this.process = process;
+        this.inputStream = new CountingInputStream(process.getInputStream());
+        this.commandLine = commandLine;
+        this.startNanos = startNanos;
+        this.spawnedNanos = spawnedNanos;
+        this.permit = permit;
+        this.thread = Thread.currentThread();
+        this.errorPumper = pumper.submit(() -> {
+            IOUtils.copy(process.getErrorStream(), errorStream);
+            return null;
+        });
+        this.killer = timer.schedule(() -> {
+            timedOut.set(true);
+            process.destroyForcibly();
+        }, timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * get the standard output of the command,
+     * closing it has no effect, xml stream readers close their input at the end of the document
+     *
+     * @return standard output
+     */
+    public InputStream getInputStream() {
+        return new CloseShieldInputStream(inputStream);
+    }
+
+    /**
+     * wait for the command to exit after its output is read, the rest of the output is skipped
+     *
+     * @param errorHandler handler of the error output, called if the error output is not blank,
+     *                     SvnApiException is thrown instead if it is null
+     */
+    public void finish(Consumer<String> errorHandler) {
+        try {
+
+            // drain the rest of output, so that the process can exit
+            IOUtils.skip(inputStream, Long.MAX_VALUE);
+            process.waitFor();
+            errorPumper.get();
+            if (timedOut.get()) {
+                throw new SvnApiException("Time out");
+            }
+
+            // throw exception if has error when execute command
+            String executeError = errorStream.toString(Charset.defaultCharset());
+            if (StringUtils.isNotBlank(executeError)) {
+                if (errorHandler == null) {
+                    throw new SvnApiException(executeError);
+                }
+                errorHandler.accept(executeError);
+            }
+        } catch (IOException | ExecutionException | RuntimeException e) {
+            throw failure(e);
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new SvnApiException(e.getMessage());
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * destroy the failed process, the error output of the command describes the failure better than
+     * the exception of the output reader (e.g. a truncated xml)
+     *
+     * @param e exception of the output reader
+     * @return SvnApiException
+     */
+    public SvnApiException failure(Exception e) {
+        process.destroyForcibly();
+        try {
+            if (timedOut.get()) {
+                return new SvnApiException("Time out");
+            }
+            try {
+                errorPumper.get(1, TimeUnit.SECONDS);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException ignored) {
+                // use the exception of the reader
+            }
+            String executeError = errorStream.toString(Charset.defaultCharset());
+            if (StringUtils.isNotBlank(executeError)) {
+                return new SvnApiException(executeError);
+            }
+            return e instanceof SvnApiException ? (SvnApiException) e : new SvnApiException(e.getMessage());
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * destroy the process if the command is not finished
+     */
+    @Override
+    public void close() {
+        if (!released.get()) {
+            process.destroyForcibly();
+            release();
+        }
+    }
+
+    /**
+     * release the resources of the command once and record it to the metrics
+     */
+    private void release() {
+        if (released.compareAndSet(false, true)) {
+            killer.cancel(false);
+            CommandUtils.unregisterProcess(thread, process);
+            permit.release();
+            CommandUtils.recordCommand(commandLine, startNanos, spawnedNanos, inputStream.getByteCount(),
+                    errorStream.size(), process.isAlive() ? -1 : process.exitValue(), timedOut.get());
+            try {
+                process.getInputStream().close();
+            } catch (IOException ignored) {
+                // the process is gone
+            }
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.marssvn.svnapi.common;
 
 import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.metrics.CommandSample;
+import com.marssvn.svnapi.metrics.ICommandMetrics;
+import com.marssvn.svnapi.metrics.SimpleCommandMetrics;
 import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.io.output.NullOutputStream;
 import org.dom4j.Document;
 import org.dom4j.DocumentException;
 import org.dom4j.DocumentHelper;
@@ -10,17 +15,26 @@ import org.slf4j.LoggerFactory;
 import org.zeroturnaround.exec.InvalidExitValueException;
 import org.zeroturnaround.exec.ProcessExecutor;
 import org.zeroturnaround.exec.ProcessResult;
+import org.zeroturnaround.exec.listener.ProcessListener;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
  * command utils
@@ -59,10 +73,127 @@ public class CommandUtils {
      */
     private static String os;
 
+    /**
+     * default threshold of slow commands, milliseconds
+     */
+    public final static long DEFAULT_SLOW_COMMAND_THRESHOLD = 2000;
+
+    /**
+     * metrics of executed commands
+     */
+    private static volatile ICommandMetrics metrics = new SimpleCommandMetrics();
+
+    /**
+     * commands which run longer are logged as warnings, milliseconds, 0 to disable
+     */
+    private static volatile long slowCommandThreshold = DEFAULT_SLOW_COMMAND_THRESHOLD;
+
+    /**
+     * limits the concurrent svn processes
+     */
+    private static volatile CommandScheduler scheduler = new CommandScheduler();
+
+    /**
+     * pumps the error stream of streamed commands
+     */
+    private final static ExecutorService STREAM_PUMPER = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "svnapi-stream-pumper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * destroys streamed commands when they time out
+     */
+    private final static ScheduledExecutorService STREAM_TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "svnapi-stream-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * processes of running commands, key: the thread which executes the commands, a thread may run a command
+     * while it reads the output of another one, e.g. svn cat of each file of a walk
+     */
+    private final static Map<Thread, Set<Process>> RUNNING_PROCESSES = new ConcurrentHashMap<>();
+
     static {
         os = System.getProperty("os.name").toLowerCase();
     }
 
+    /**
+     * set metrics of executed commands, e.g. a MicrometerCommandMetrics, SimpleCommandMetrics by default
+     *
+     * @param commandMetrics metrics, ICommandMetrics.NONE to disable
+     */
+    public static void setMetrics(ICommandMetrics commandMetrics) {
+        metrics = commandMetrics == null ? ICommandMetrics.NONE : commandMetrics;
+    }
+
+    /**
+     * get metrics of executed commands
+     *
+     * @return metrics
+     */
+    public static ICommandMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * set scheduler of svn processes
+     *
+     * @param commandScheduler scheduler
+     */
+    public static void setScheduler(CommandScheduler commandScheduler) {
+        scheduler = commandScheduler;
+    }
+
+    /**
+     * get scheduler of svn processes, e.g. to configure the max concurrency of a host
+     *
+     * @return scheduler
+     */
+    public static CommandScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * set threshold of slow commands, commands which run longer are logged as warnings
+     *
+     * @param threshold milliseconds, 0 to disable
+     */
+    public static void setSlowCommandThreshold(long threshold) {
+        slowCommandThreshold = threshold;
+    }
+
+    /**
+     * get threshold of slow commands
+     *
+     * @return milliseconds, 0 if disabled
+     */
+    public static long getSlowCommandThreshold() {
+        return slowCommandThreshold;
+    }
+
+    /**
+     * destroy the processes of the commands which are running on the thread,
+     * reading the output of a process is not interruptible, so interrupting the thread is not enough to cancel a command
+     *
+     * @param thread thread which executes the commands
+     * @return true if a process is destroyed
+     */
+    public static boolean destroyRunningProcess(Thread thread) {
+        Set<Process> processes = RUNNING_PROCESSES.remove(thread);
+        if (processes == null || processes.isEmpty()) {
+            return false;
+        }
+        logger.debug("destroy " + processes.size() + " processes of thread: " + thread.getName());
+        for (Process process : processes) {
+            process.destroyForcibly();
+        }
+        return true;
+    }
+
     /**
      * Os is windows
      *
@@ -207,6 +338,188 @@ public class CommandUtils {
         return DocumentHelper.parseText(executeForString(command, timeout));
     }
 
+    /**
+     * execute command and read the standard output as a stream while the command is running,
+     * the output is never buffered in memory as a whole
+     *
+     * @param command command text
+     * @param timeout the timeout for the process in milliseconds.
+     * @param handler handler of the standard output
+     * @param <T>     result type
+     * @return result of the handler
+     */
+    public static <T> T executeForStream(String command, long timeout, StreamHandler<T> handler) {
+        return executeForStream(command, timeout, handler, null);
+    }
+
+    /**
+     * execute command and read the standard output as a stream while the command is running,
+     * the error output is passed to the error handler instead of failing the command,
+     * e.g. warnings of targets which do not exist when the command has many targets
+     *
+     * @param command      command text
+     * @param timeout      the timeout for the process in milliseconds.
+     * @param handler      handler of the standard output
+     * @param errorHandler handler of the error output, called if the error output is not blank,
+     *                     SvnApiException is thrown instead if it is null
+     * @param <T>          result type
+     * @return result of the handler
+     */
+    public static <T> T executeForStream(String command, long timeout, StreamHandler<T> handler, Consumer<String> errorHandler) {
+        try (CommandStream commandStream = openStream(command, timeout)) {
+            T result;
+            try {
+                result = handler.handle(commandStream.getInputStream());
+            } catch (IOException | RuntimeException e) {
+                throw commandStream.failure(e);
+            }
+            commandStream.finish(errorHandler);
+            return result;
+        }
+    }
+
+    /**
+     * start command, the standard output is read by the caller as a stream.
+     * the caller must finish or close the returned stream, closing it before it is finished destroys the process
+     *
+     * @param command command text
+     * @param timeout the timeout for the process in milliseconds.
+     * @return running command
+     */
+    public static CommandStream openStream(String command, long timeout) {
+        logger.debug("execute command: " + command);
+
+        List<String> commandLine = parseCommand(command);
+        long effectiveTimeout = timeout > 0 ? timeout : DEFAULT_TIME_OUT_M;
+        CommandScheduler.Permit permit = scheduler.acquire(commandLine, effectiveTimeout);
+        long startNanos = System.nanoTime();
+        Process process;
+        try {
+            process = new ProcessBuilder(commandLine).start();
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            permit.release();
+            throw new SvnApiException(e.getMessage());
+        }
+        long spawnedNanos = System.nanoTime();
+
+        // the thread may have been interrupted before the process is registered
+        registerProcess(Thread.currentThread(), process);
+        if (Thread.currentThread().isInterrupted()) {
+            process.destroyForcibly();
+        }
+        return new CommandStream(process, commandLine, startNanos, spawnedNanos, permit,
+                STREAM_PUMPER, STREAM_TIMER, effectiveTimeout);
+    }
+
+    /**
+     * start command, the standard output is read by the caller as an InputStream with constant memory.
+     * the command is checked for errors at the end of the output, the caller must close the stream,
+     * closing it before the end destroys the process
+     *
+     * @param command command text
+     * @param timeout the timeout for the process in milliseconds.
+     * @return standard output
+     */
+    public static InputStream openInputStream(String command, long timeout) {
+        return new CommandInputStream(openStream(command, timeout));
+    }
+
+    /**
+     * add the process of a started command to the running processes of the thread
+     *
+     * @param thread  thread which started the command
+     * @param process process
+     */
+    private static void registerProcess(Thread thread, Process process) {
+        RUNNING_PROCESSES.compute(thread, (key, processes) -> {
+            Set<Process> registered = processes == null ? ConcurrentHashMap.newKeySet() : processes;
+            registered.add(process);
+            return registered;
+        });
+    }
+
+    /**
+     * remove the process of a finished command from the running processes of the thread
+     *
+     * @param thread  thread which started the command
+     * @param process process
+     */
+    static void unregisterProcess(Thread thread, Process process) {
+        RUNNING_PROCESSES.computeIfPresent(thread, (key, processes) -> {
+            processes.remove(process);
+            return processes.isEmpty() ? null : processes;
+        });
+    }
+
+    /**
+     * record a finished command to the metrics and log it if it is slow
+     *
+     * @param commandLine  command line
+     * @param startNanos   System.nanoTime before the process was started
+     * @param spawnedNanos System.nanoTime after the process was started, 0 if it was not started
+     * @param stdoutBytes  bytes of the standard output
+     * @param stderrBytes  bytes of the error output
+     * @param exitCode     exit code, -1 if unknown
+     * @param timedOut     the command timed out
+     */
+    static void recordCommand(List<String> commandLine, long startNanos, long spawnedNanos,
+                              long stdoutBytes, long stderrBytes, int exitCode, boolean timedOut) {
+        if (spawnedNanos == 0 || commandLine.isEmpty()) {
+            return;
+        }
+
+        long wallNanos = System.nanoTime() - startNanos;
+        long threshold = slowCommandThreshold;
+        if (threshold > 0 && wallNanos >= threshold * 1000000) {
+            logger.warn("slow command, " + wallNanos / 1000000 + " ms: " + maskCommand(commandLine));
+        }
+
+        String program = CommandScheduler.programOf(commandLine.get(0));
+        String subcommand = "";
+        if (CommandScheduler.SVN_PROGRAMS.contains(program)) {
+            for (int i = 1; i < commandLine.size(); i++) {
+                if (!commandLine.get(i).startsWith("-")) {
+                    subcommand = commandLine.get(i);
+                    break;
+                }
+            }
+        }
+
+        CommandSample sample = new CommandSample();
+        sample.setProgram(program);
+        sample.setSubcommand(subcommand);
+        sample.setSpawnNanos(spawnedNanos - startNanos);
+        sample.setWallNanos(wallNanos);
+        sample.setStdoutBytes(stdoutBytes);
+        sample.setStderrBytes(stderrBytes);
+        sample.setExitCode(exitCode);
+        sample.setTimedOut(timedOut);
+        try {
+            metrics.record(sample);
+        } catch (RuntimeException e) {
+            logger.warn("failed to record command metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * command line with the password masked, for logging
+     *
+     * @param commandLine command line
+     * @return command text
+     */
+    private static String maskCommand(List<String> commandLine) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < commandLine.size(); i++) {
+            if (i > 0) {
+                text.append(SPACE);
+            }
+            boolean password = i > 0 && "--password".equals(commandLine.get(i - 1));
+            text.append(password ? "******" : commandLine.get(i));
+        }
+        return text.toString();
+    }
+
     /**
      * execute command for ProcessResult
      *
@@ -217,15 +530,24 @@ public class CommandUtils {
     private static ProcessResult executeForProcessResult(String command, long timeout, boolean readOutput) {
         logger.debug("execute command: " + command);
 
+        List<String> commandLine = parseCommand(command);
+        ByteArrayOutputStream errorStream = new ByteArrayOutputStream();
+        CountingOutputStream outputCounter = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        SpawnListener spawnListener = new SpawnListener();
+        int exitCode = -1;
+        boolean timedOut = false;
+        long effectiveTimeout = timeout > 0 ? timeout : DEFAULT_TIME_OUT_M;
+        CommandScheduler.Permit permit = scheduler.acquire(commandLine, effectiveTimeout);
         try {
-            ByteArrayOutputStream errorStream = new ByteArrayOutputStream();
-
             ProcessResult processResult = new ProcessExecutor()
-                    .command(parseCommand(command))
-                    .timeout(timeout > 0 ? timeout : DEFAULT_TIME_OUT_M, TimeUnit.MILLISECONDS)
+                    .command(commandLine)
+                    .timeout(effectiveTimeout, TimeUnit.MILLISECONDS)
                     .redirectError(errorStream)
+                    .redirectOutput(outputCounter)
                     .readOutput(readOutput)
+                    .addListener(spawnListener)
                     .execute();
+            exitCode = processResult.getExitValue();
 
             // throw exception if has error when execute command
             String executeError = errorStream.toString(Charset.defaultCharset());
@@ -238,7 +560,15 @@ public class CommandUtils {
             e.printStackTrace();
             throw new SvnApiException(e.getMessage());
         } catch (TimeoutException e) {
+            timedOut = true;
             throw new SvnApiException("Time out");
+        } finally {
+            if (spawnListener.process != null) {
+                unregisterProcess(Thread.currentThread(), spawnListener.process);
+            }
+            permit.release();
+            recordCommand(commandLine, spawnListener.startNanos, spawnListener.spawnedNanos,
+                    outputCounter.getByteCount(), errorStream.size(), exitCode, timedOut);
         }
     }
 
@@ -294,17 +624,26 @@ public class CommandUtils {
     private static ProcessResult executeForProcessResultAsync(String command, long timeout, boolean readOutput) {
         logger.debug("execute command: " + command);
 
+        List<String> commandLine = parseCommand(command);
+        ByteArrayOutputStream errorStream = new ByteArrayOutputStream();
+        CountingOutputStream outputCounter = new CountingOutputStream(NullOutputStream.NULL_OUTPUT_STREAM);
+        SpawnListener spawnListener = new SpawnListener();
+        int exitCode = -1;
+        boolean timedOut = false;
+        long effectiveTimeout = timeout > 0 ? timeout : DEFAULT_TIME_OUT_M;
+        CommandScheduler.Permit permit = scheduler.acquire(commandLine, effectiveTimeout);
         try {
-            ByteArrayOutputStream errorStream = new ByteArrayOutputStream();
-
             Future<ProcessResult> future = new ProcessExecutor()
-                    .command(parseCommand(command))
+                    .command(commandLine)
                     .redirectError(errorStream)
+                    .redirectOutput(outputCounter)
                     .readOutput(readOutput)
+                    .addListener(spawnListener)
 //                    .exitValue(0)
                     .start().getFuture();
 
-            ProcessResult processResult = future.get(timeout > 0 ? timeout : DEFAULT_TIME_OUT_M, TimeUnit.MILLISECONDS);
+            ProcessResult processResult = future.get(effectiveTimeout, TimeUnit.MILLISECONDS);
+            exitCode = processResult.getExitValue();
 
             // throw exception if has error when execute command
             String executeError = errorStream.toString(Charset.defaultCharset());
@@ -317,10 +656,15 @@ public class CommandUtils {
         } catch (InvalidExitValueException e) {
             throw new SvnApiException("Unexpected exit value");
         } catch (TimeoutException e) {
+            timedOut = true;
             throw new SvnApiException("Time out");
         } catch (IOException | InterruptedException | ExecutionException e) {
             e.printStackTrace();
             throw new SvnApiException(e.getMessage());
+        } finally {
+            permit.release();
+            recordCommand(commandLine, spawnListener.startNanos, spawnListener.spawnedNanos,
+                    outputCounter.getByteCount(), errorStream.size(), exitCode, timedOut);
         }
     }
 
@@ -356,7 +700,7 @@ public class CommandUtils {
      * @param toProcess the command line to process
      * @return the command line broken into strings. An empty or null toProcess parameter results in a zero sized array
      */
-    private static String[] translateCommandline(final String toProcess) {
+    public static String[] translateCommandline(final String toProcess) {
         if (toProcess == null || toProcess.length() == 0) {
             // no command? no string
             return new String[0];
@@ -422,4 +766,37 @@ public class CommandUtils {
         final String[] args = new String[list.size()];
         return list.toArray(args);
     }
+
+    /**
+     * measures the start of a process executed by zt-exec, and registers the process to the thread which executes it
+     */
+    private static class SpawnListener extends ProcessListener {
+
+        /**
+         * started process, null if it was not started
+         */
+        private volatile Process process;
+
+        /**
+         * System.nanoTime before the process is started
+         */
+        private volatile long startNanos;
+
+        /**
+         * System.nanoTime after the process is started, 0 if it was not started
+         */
+        private volatile long spawnedNanos;
+
+        @Override
+        public void beforeStart(ProcessExecutor executor) {
+            startNanos = System.nanoTime();
+        }
+
+        @Override
+        public void afterStart(Process process, ProcessExecutor executor) {
+            spawnedNanos = System.nanoTime();
+            this.process = process;
+            registerProcess(Thread.currentThread(), process);
+        }
+    }
 }
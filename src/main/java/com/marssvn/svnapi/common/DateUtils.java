@@ -1,11 +1,30 @@
 package com.marssvn.svnapi.common;
 
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 
+/**
+ * Date utils
+ *
+ * @author zhangkx
+ */
 public class DateUtils {
 
+    /**
+     * parse a date of svn, e.g. 2020-06-01T08:00:00.000000Z, which is the format of svn xml output and svnserve
+     *
+     * @param str date text
+     * @return date, null if the text is blank or is not a svn date
+     */
     public static Date parseDate(String str) {
-
-        return new Date();
+        if (StringUtils.isBlank(str)) {
+            return null;
+        }
+        try {
+            return Date.from(Instant.parse(str.trim()));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
     }
 }
@@ -0,0 +1,146 @@
+package com.marssvn.svnapi.common;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line diff of two texts, Myers' O(ND) algorithm on the lines between the common prefix and suffix.
+ *
+ * @author zhangkx
+ */
+public class LineDiff {
+
+    private LineDiff() {
+    }
+
+    /**
+     * split text into lines without line breaks, a line break at the end does not start a new line
+     *
+     * @param text text
+     * @return lines
+     */
+    public static List<String> splitLines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = length;
+            }
+            int contentEnd = end > start && text.charAt(end - 1) == '\r' ? end - 1 : end;
+            lines.add(text.substring(start, contentEnd));
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * match the lines of the new text to the lines of the old text by a shortest edit script
+     *
+     * @param oldLines lines of the old text
+     * @param newLines lines of the new text
+     * @param maxEdits max count of inserted and deleted lines
+     * @return index: line of the new text, value: matched line of the old text, -1 if the line was inserted;
+     * null if more than maxEdits lines were inserted and deleted
+     */
+    public static int[] match(List<String> oldLines, List<String> newLines, int maxEdits) {
+        int[] matched = new int[newLines.size()];
+
+        // common prefix and suffix
+        int prefix = 0;
+        int minSize = Math.min(oldLines.size(), newLines.size());
+        while (prefix < minSize && oldLines.get(prefix).equals(newLines.get(prefix))) {
+            matched[prefix] = prefix;
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < minSize - prefix
+                && oldLines.get(oldLines.size() - 1 - suffix).equals(newLines.get(newLines.size() - 1 - suffix))) {
+            matched[newLines.size() - 1 - suffix] = oldLines.size() - 1 - suffix;
+            suffix++;
+        }
+
+        // lines between are compared as ids
+        int n = oldLines.size() - prefix - suffix;
+        int m = newLines.size() - prefix - suffix;
+        Map<String, Integer> ids = new HashMap<>();
+        int[] a = new int[n];
+        int[] b = new int[m];
+        for (int i = 0; i < n; i++) {
+            a[i] = ids.computeIfAbsent(oldLines.get(prefix + i), key -> ids.size());
+        }
+        for (int i = 0; i < m; i++) {
+            b[i] = ids.computeIfAbsent(newLines.get(prefix + i), key -> ids.size());
+        }
+        for (int i = 0; i < m; i++) {
+            matched[prefix + i] = -1;
+        }
+
+        // forward search, trace.get(d)[k + d] is the furthest x on diagonal k with d edits
+        int limit = Math.min(n + m, maxEdits);
+        List<int[]> trace = new ArrayList<>();
+        int edits = -1;
+        for (int d = 0; d <= limit && edits < 0; d++) {
+            int[] previous = d == 0 ? null : trace.get(d - 1);
+            int[] current = new int[2 * d + 1];
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (d == 0) {
+                    x = 0;
+                } else if (k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1])) {
+                    x = previous[k + 1 + d - 1];
+                } else {
+                    x = previous[k - 1 + d - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[x] == b[y]) {
+                    x++;
+                    y++;
+                }
+                current[k + d] = x;
+                if (x >= n && y >= m) {
+                    edits = d;
+                    break;
+                }
+            }
+            trace.add(current);
+        }
+        if (edits < 0) {
+            return null;
+        }
+
+        // backtrack the snakes
+        int x = n;
+        int y = m;
+        for (int d = edits; d >= 0; d--) {
+            int k = x - y;
+            int startX;
+            int startY;
+            int previousX = 0;
+            int previousY = 0;
+            if (d == 0) {
+                startX = 0;
+                startY = 0;
+            } else {
+                int[] previous = trace.get(d - 1);
+                boolean down = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+                int previousK = down ? k + 1 : k - 1;
+                previousX = previous[previousK + d - 1];
+                previousY = previousX - previousK;
+                startX = down ? previousX : previousX + 1;
+                startY = down ? previousY + 1 : previousY;
+            }
+            while (x > startX && y > startY) {
+                x--;
+                y--;
+                matched[prefix + y] = prefix + x;
+            }
+            x = previousX;
+            y = previousY;
+        }
+        return matched;
+    }
+}
@@ -0,0 +1,23 @@
+package com.marssvn.svnapi.common;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * handler of the standard output of a command, reads it while the command is running
+ *
+ * @param <T> result type
+ * @author zhangkx
+ */
+@FunctionalInterface
+public interface StreamHandler<T> {
+
+    /**
+     * handle the output stream of the command
+     *
+     * @param inputStream standard output of the command
+     * @return result
+     * @throws IOException IOException
+     */
+    T handle(InputStream inputStream) throws IOException;
+}
@@ -1,6 +1,8 @@
 package com.marssvn.svnapi.common;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 
 /**
  * String utils
@@ -70,6 +72,54 @@ public class StringUtils {
         return arg.replace(SLASH_CHAR, File.separatorChar).replace(BACKSLASH_CHAR, File.separatorChar);
     }
 
+    /**
+     * remove leading and trailing slashes
+     *
+     * @param path path, e.g. /trunk/src/
+     * @return path, e.g. trunk/src
+     */
+    public static String trimSlashes(String path) {
+        int begin = 0;
+        int end = path.length();
+        while (begin < end && path.charAt(begin) == SLASH_CHAR) {
+            begin++;
+        }
+        while (end > begin && path.charAt(end - 1) == SLASH_CHAR) {
+            end--;
+        }
+        return path.substring(begin, end);
+    }
+
+    /**
+     * decode the percent-encoded characters of uri, '+' is kept
+     *
+     * @param uri uri, e.g. svn://localhost/repo/a%20b
+     * @return decoded uri, e.g. svn://localhost/repo/a b
+     */
+    public static String decodeUri(String uri) {
+        if (uri == null || uri.indexOf('%') < 0) {
+            return uri;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(uri.length());
+        for (int i = 0; i < uri.length(); i++) {
+            char c = uri.charAt(i);
+            int high;
+            int low;
+            if (c == '%' && i + 2 < uri.length()
+                    && (high = Character.digit(uri.charAt(i + 1), 16)) >= 0
+                    && (low = Character.digit(uri.charAt(i + 2), 16)) >= 0) {
+                bytes.write((high << 4) + low);
+                i += 2;
+            } else {
+                int codePoint = uri.codePointAt(i);
+                byte[] charBytes = new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+                bytes.write(charBytes, 0, charBytes.length);
+                i += Character.charCount(codePoint) - 1;
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
     /**
      * Get random password
      * @param length password length
@@ -0,0 +1,29 @@
+package com.marssvn.svnapi.enums;
+
+/**
+ * archive format of an export
+ *
+ * @author zhangkx
+ */
+public enum EArchiveFormat {
+
+    /**
+     * gzip compressed tar
+     */
+    TAR_GZ("tar.gz"),
+
+    /**
+     * zip
+     */
+    ZIP("zip");
+
+    private String value;
+
+    EArchiveFormat(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return this.value;
+    }
+}
@@ -0,0 +1,49 @@
+package com.marssvn.svnapi.enums;
+
+/**
+ * type of a record of the change journal, the value is the first field of the record
+ *
+ * @author zhangkx
+ */
+public enum EChangeType {
+
+    /**
+     * a revision was committed
+     */
+    COMMIT("C"),
+
+    /**
+     * files were locked
+     */
+    LOCK("L"),
+
+    /**
+     * files were unlocked
+     */
+    UNLOCK("U");
+
+    private String value;
+
+    EChangeType(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return this.value;
+    }
+
+    /**
+     * get type by value
+     *
+     * @param value value
+     * @return type, null if unknown
+     */
+    public static EChangeType of(String value) {
+        for (EChangeType type : values()) {
+            if (type.value.equals(value)) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
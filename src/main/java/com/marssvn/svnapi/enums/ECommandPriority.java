@@ -0,0 +1,29 @@
+package com.marssvn.svnapi.enums;
+
+/**
+ * priority class of a svn command, see CommandScheduler
+ *
+ * @author zhangkx
+ */
+public enum ECommandPriority {
+
+    /**
+     * reads and small writes a user is waiting for, e.g. list, info, cat, mkdir
+     */
+    INTERACTIVE("interactive"),
+
+    /**
+     * long running bulk work, e.g. export, dump, verify
+     */
+    BACKGROUND("background");
+
+    private String value;
+
+    ECommandPriority(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return this.value;
+    }
+}
@@ -0,0 +1,34 @@
+package com.marssvn.svnapi.enums;
+
+/**
+ * type of a line of a diff hunk, the value is the prefix of the line in a unified diff
+ *
+ * @author zhangkx
+ */
+public enum EDiffLineType {
+
+    /**
+     * unchanged line
+     */
+    CONTEXT(" "),
+
+    /**
+     * added line
+     */
+    ADDED("+"),
+
+    /**
+     * deleted line
+     */
+    DELETED("-");
+
+    private String value;
+
+    EDiffLineType(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return this.value;
+    }
+}
@@ -0,0 +1,39 @@
+package com.marssvn.svnapi.enums;
+
+/**
+ * svn depth
+ *
+ * @author zhangkx
+ */
+public enum ESvnDepth {
+
+    /**
+     * the target only
+     */
+    EMPTY("empty"),
+
+    /**
+     * the target and its file children
+     */
+    FILES("files"),
+
+    /**
+     * the target and its children
+     */
+    IMMEDIATES("immediates"),
+
+    /**
+     * the target and all of its descendants
+     */
+    INFINITY("infinity");
+
+    private String value;
+
+    ESvnDepth(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return this.value;
+    }
+}
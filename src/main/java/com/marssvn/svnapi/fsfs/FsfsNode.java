@@ -0,0 +1,152 @@
+package com.marssvn.svnapi.fsfs;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+
+import java.util.Map;
+
+/**
+ * Node-revision of a FSFS repository, a file or a directory as it was changed in a revision.
+ * It is the header block at the offset (or item) of its id, ended by a blank line:
+ * id, type, pred, count, text, props, cpath, copyroot, copyfrom
+ *
+ * @author zhangkx
+ */
+public final class FsfsNode {
+
+    /**
+     * node-revision id, e.g. 0.0.r1/1234 or 2-1.0.r5/3
+     */
+    private final String id;
+
+    /**
+     * file or dir
+     */
+    private final String kind;
+
+    /**
+     * revision in which the node-revision was created, i.e. the last changed revision of the path
+     */
+    private final long revision;
+
+    /**
+     * offset in the revision for physical addressing, item index for logical addressing
+     */
+    private final long item;
+
+    /**
+     * created path, e.g. /trunk/a.txt
+     */
+    private final String createdPath;
+
+    /**
+     * representation of the file content or of the directory entries, null if empty
+     */
+    final FsfsRep text;
+
+    /**
+     * representation of the properties, null if there are none
+     */
+    final FsfsRep props;
+
+    private FsfsNode(String id, String kind, long revision, long item, String createdPath, FsfsRep text, FsfsRep props) {
+        this.id = id;
+        this.kind = kind;
+        this.revision = revision;
+        this.item = item;
+        this.createdPath = createdPath;
+        this.text = text;
+        this.props = props;
+    }
+
+    /**
+     * create a node-revision from its header lines
+     *
+     * @param headers key: header name, value: header value
+     * @return node-revision
+     */
+    static FsfsNode of(Map<String, String> headers) {
+        String id = headers.get("id");
+        String kind = headers.get("type");
+        if (id == null || (!"file".equals(kind) && !"dir".equals(kind))) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid node-revision " + headers);
+        }
+        long[] location = parseId(id);
+        String text = headers.get("text");
+        String props = headers.get("props");
+        return new FsfsNode(id, kind, location[0], location[1], headers.get("cpath"),
+                text == null ? null : FsfsRep.parse(text), props == null ? null : FsfsRep.parse(props));
+    }
+
+    /**
+     * parse the revision and the offset (or item) of a committed node-revision id: node-id.copy-id.r[rev]/[offset]
+     *
+     * @param id node-revision id
+     * @return revision, offset or item
+     */
+    static long[] parseId(String id) {
+        int revisionIndex = id.lastIndexOf(".r");
+        int slashIndex = id.lastIndexOf('/');
+        if (revisionIndex < 0 || slashIndex < revisionIndex) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid node-revision id '" + id + "'");
+        }
+        try {
+            return new long[]{Long.parseLong(id.substring(revisionIndex + 2, slashIndex)), Long.parseLong(id.substring(slashIndex + 1))};
+        } catch (NumberFormatException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid node-revision id '" + id + "'");
+        }
+    }
+
+    /**
+     * get node-revision id
+     *
+     * @return id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * get kind
+     *
+     * @return file or dir
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * get revision in which the node-revision was created
+     *
+     * @return last changed revision
+     */
+    public long getRevision() {
+        return revision;
+    }
+
+    /**
+     * get offset in the revision for physical addressing, item index for logical addressing
+     *
+     * @return offset or item
+     */
+    public long getItem() {
+        return item;
+    }
+
+    /**
+     * get created path
+     *
+     * @return path, e.g. /trunk/a.txt
+     */
+    public String getCreatedPath() {
+        return createdPath;
+    }
+
+    /**
+     * whether the node-revision is a directory
+     *
+     * @return true if directory
+     */
+    public boolean isDirectory() {
+        return "dir".equals(kind);
+    }
+}
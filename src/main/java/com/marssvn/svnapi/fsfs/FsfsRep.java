@@ -0,0 +1,61 @@
+package com.marssvn.svnapi.fsfs;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+
+/**
+ * Location of a representation, the "text:" or "props:" line of a node-revision:
+ * revision offset-or-item size expanded-size md5 [sha1 uniquifier]
+ *
+ * @author zhangkx
+ */
+final class FsfsRep {
+
+    /**
+     * revision of the file which holds the representation
+     */
+    final long revision;
+
+    /**
+     * offset in the revision for physical addressing, item index for logical addressing
+     */
+    final long item;
+
+    /**
+     * length of the data after the PLAIN or DELTA header line
+     */
+    final long size;
+
+    /**
+     * length of the fulltext, 0 means the same as size
+     */
+    final long expandedSize;
+
+    FsfsRep(long revision, long item, long size, long expandedSize) {
+        this.revision = revision;
+        this.item = item;
+        this.size = size;
+        this.expandedSize = expandedSize;
+    }
+
+    /**
+     * parse a representation line
+     *
+     * @param value value of the "text:" or "props:" line
+     * @return representation
+     */
+    static FsfsRep parse(String value) {
+        String[] fields = value.trim().split(" ");
+        if (fields.length < 4) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid representation '" + value + "'");
+        }
+        try {
+            long revision = Long.parseLong(fields[0]);
+            if (revision < 0) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: uncommitted representation '" + value + "'");
+            }
+            return new FsfsRep(revision, Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+        } catch (NumberFormatException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid representation '" + value + "'");
+        }
+    }
+}
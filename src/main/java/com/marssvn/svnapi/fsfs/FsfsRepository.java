@@ -0,0 +1,1064 @@
+package com.marssvn.svnapi.fsfs;
+
+import com.marssvn.svnapi.cache.LruCache;
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnLock;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Read-only reader of a local FSFS repository, which reads db/current, revision files, packed shards and
+ * node-revisions directly from disk instead of forking a svn process.
+ * <p>
+ * Revision files and packs are memory-mapped and kept mapped in a small LRU, so that a lookup is a few
+ * reads from the page cache. Everything below db/revs is immutable once committed, so directories are cached
+ * by their representation, only db/current, db/min-unpacked-rev and the locks are read again.
+ * FSFS formats 1 to 8 are read: sharded and linear layouts, packed shards, physical and logical addressing,
+ * plain and svndiff0/1/2 representations. Anything else fails with EF0001, so that the caller can fall back
+ * to the svn command line. Packed revision properties of format 8 are not read (EF0001).
+ *
+ * @author zhangkx
+ */
+public class FsfsRepository implements Closeable {
+
+    /**
+     * newest FSFS format which is read, the format of svn 1.10 to 1.14
+     */
+    public final static int MAX_FORMAT = 8;
+
+    /**
+     * default max count of mapped revision files and packs
+     */
+    public final static int DEFAULT_MAX_MAPPED_FILES = 64;
+
+    /**
+     * default max count of entries of all cached directories
+     */
+    public final static long DEFAULT_MAX_DIRECTORY_ENTRIES = 1000000;
+
+    /**
+     * item index of the root node-revision of a revision for logical addressing
+     */
+    private final static long ROOT_NODE_ITEM = 2;
+
+    /**
+     * first line of a log-to-phys index
+     */
+    private final static String L2P_PREFIX = "L2P-INDEX\n";
+
+    /**
+     * repository directory, which holds the db directory
+     */
+    private final File root;
+
+    /**
+     * db directory
+     */
+    private final File db;
+
+    /**
+     * FSFS format of db/format
+     */
+    private final int format;
+
+    /**
+     * revisions per shard, 0 for the linear layout
+     */
+    private final int shardSize;
+
+    /**
+     * whether items are addressed by item index and log-to-phys indexes (format 7 and later) instead of offsets
+     */
+    private final boolean logicalAddressing;
+
+    /**
+     * revisions before it are packed
+     */
+    private volatile long minUnpackedRevision;
+
+    /**
+     * key: revision file or pack, value: read-only mapping
+     */
+    private final LruCache<File, ByteBuffer> mappedFiles;
+
+    /**
+     * key: pack, value: offsets of the revisions in the pack, physical addressing only
+     */
+    private final LruCache<File, long[]> manifests;
+
+    /**
+     * key: revision file or pack, value: its log-to-phys index, logical addressing only
+     */
+    private final LruCache<File, L2pIndex> l2pIndexes;
+
+    /**
+     * key: revision/item of the representation, value: entries of the directory, name to "kind id"
+     */
+    private final LruCache<String, Map<String, String>> directories;
+
+    /**
+     * key: revision, value: revision properties
+     */
+    private final LruCache<Long, Map<String, String>> revisionProperties;
+
+    public FsfsRepository(File root) {
+        this(root, DEFAULT_MAX_MAPPED_FILES, DEFAULT_MAX_DIRECTORY_ENTRIES);
+    }
+
+    public FsfsRepository(File root, int maxMappedFiles, long maxDirectoryEntries) {
+        this.root = root;
+        this.db = new File(root, "db");
+        String fsType = readText(new File(db, "fs-type"), "fsfs").trim();
+        if (!"fsfs".equals(fsType)) {
+            throw new SvnApiException("EF0001", "Not a FSFS repository: " + root.getPath() + ", fs-type: " + fsType);
+        }
+
+        // format, then options: layout sharded 1000 | layout linear, addressing logical | addressing physical
+        String[] lines = readText(new File(db, "format"), null).split("\n");
+        int shards = 0;
+        boolean logical = false;
+        try {
+            this.format = Integer.parseInt(lines[0].trim());
+            for (int i = 1; i < lines.length; i++) {
+                String[] option = lines[i].trim().split(" ");
+                if (option.length == 3 && "layout".equals(option[0]) && "sharded".equals(option[1])) {
+                    shards = Integer.parseInt(option[2]);
+                } else if (option.length == 2 && "addressing".equals(option[0])) {
+                    logical = "logical".equals(option[1]);
+                }
+            }
+        } catch (NumberFormatException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid db/format of " + root.getPath());
+        }
+        if (format < 1 || format > MAX_FORMAT) {
+            throw new SvnApiException("EF0001", "Unsupported FSFS format " + format + " of " + root.getPath());
+        }
+        this.shardSize = shards;
+        this.logicalAddressing = logical;
+        this.minUnpackedRevision = readMinUnpackedRevision();
+        this.mappedFiles = new LruCache<>(maxMappedFiles, maxMappedFiles, (key, value) -> 1);
+        this.manifests = new LruCache<>(maxMappedFiles, Long.MAX_VALUE, (key, value) -> 1);
+        this.l2pIndexes = new LruCache<>(maxMappedFiles, Long.MAX_VALUE, (key, value) -> 1);
+        this.directories = new LruCache<>(Integer.MAX_VALUE, maxDirectoryEntries, (key, value) -> value.size() + 1);
+        this.revisionProperties = new LruCache<>(10000, Long.MAX_VALUE, (key, value) -> 1);
+    }
+
+    /**
+     * whether the directory is a FSFS repository
+     *
+     * @param root repository directory
+     * @return true if db/format exists and db/fs-type is fsfs or absent
+     */
+    public static boolean isFsfs(File root) {
+        File fsType = new File(root, "db/fs-type");
+        return new File(root, "db/format").isFile() && (!fsType.isFile() || "fsfs".equals(readText(fsType, "").trim()));
+    }
+
+    /**
+     * get repository directory
+     *
+     * @return repository directory
+     */
+    public File getRoot() {
+        return root;
+    }
+
+    /**
+     * get FSFS format
+     *
+     * @return format
+     */
+    public int getFormat() {
+        return format;
+    }
+
+    /**
+     * whether items are addressed by log-to-phys indexes
+     *
+     * @return true for logical addressing
+     */
+    public boolean isLogicalAddressing() {
+        return logicalAddressing;
+    }
+
+    /**
+     * get youngest revision, the first field of db/current, which is read at every call
+     *
+     * @return head revision
+     */
+    public long youngest() {
+        return youngest(root);
+    }
+
+    /**
+     * get youngest revision of a repository without opening it, the first field of db/current
+     *
+     * @param root repository directory
+     * @return head revision
+     */
+    public static long youngest(File root) {
+        String current = readText(new File(root, "db/current"), null).trim();
+        int space = current.indexOf(' ');
+        try {
+            return Long.parseLong(space < 0 ? current : current.substring(0, space));
+        } catch (NumberFormatException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid db/current of " + root.getPath());
+        }
+    }
+
+    /**
+     * get uuid of the repository, the first line of db/uuid
+     *
+     * @return uuid
+     */
+    public String uuid() {
+        return readText(new File(db, "uuid"), null).split("\n")[0].trim();
+    }
+
+    /**
+     * get root directory of a revision
+     *
+     * @param revision revision
+     * @return root node-revision
+     */
+    public FsfsNode root(long revision) {
+        if (revision < 0 || revision > youngest()) {
+            throw new SvnApiException("EF0003", "No such revision " + revision + " in " + root.getPath());
+        }
+        if (logicalAddressing) {
+            return readNode(revision, ROOT_NODE_ITEM);
+        }
+
+        // the last line of a revision is "root-offset changes-offset"
+        File file = revisionFile(revision);
+        ByteBuffer data = map(file);
+        int start = (int) revisionStart(file, revision);
+        int end = (int) revisionEnd(file, revision, data);
+        int lineStart = end - 1;
+        while (lineStart > start && data.get(lineStart - 1) != '\n') {
+            lineStart--;
+        }
+        String[] trailer = text(data, lineStart, end - 1 - lineStart).trim().split(" ");
+        try {
+            return readNode(revision, Long.parseLong(trailer[0]));
+        } catch (NumberFormatException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid trailer of revision " + revision);
+        }
+    }
+
+    /**
+     * get node-revision of a path
+     *
+     * @param path     path relative to the repository root
+     * @param revision revision
+     * @return node-revision, null if the path does not exist in the revision
+     */
+    public FsfsNode node(String path, long revision) {
+        FsfsNode node = root(revision);
+        for (String name : path.split("/")) {
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!node.isDirectory()) {
+                return null;
+            }
+            String entry = entries(node).get(name);
+            if (entry == null) {
+                return null;
+            }
+            node = nodeOf(entry);
+        }
+        return node;
+    }
+
+    /**
+     * get children of a directory
+     *
+     * @param directory directory node-revision
+     * @return key: name, value: node-revision, sorted by name
+     */
+    public Map<String, FsfsNode> list(FsfsNode directory) {
+        Map<String, FsfsNode> children = new TreeMap<>();
+        for (Map.Entry<String, String> entry : entries(directory).entrySet()) {
+            children.put(entry.getKey(), nodeOf(entry.getValue()));
+        }
+        return children;
+    }
+
+    /**
+     * get length of a file
+     *
+     * @param file file node-revision
+     * @return length in bytes
+     */
+    public long size(FsfsNode file) {
+        FsfsRep text = file.text;
+        if (text == null) {
+            return 0;
+        }
+        if (text.expandedSize != 0 || text.size == 0) {
+            return text.expandedSize;
+        }
+
+        // an old representation without expanded size, a plain one has the size of its data
+        return repData(text).plain ? text.size : read(file).length;
+    }
+
+    /**
+     * read content of a file
+     *
+     * @param file file node-revision
+     * @return content
+     */
+    public byte[] read(FsfsNode file) {
+        return file.text == null ? new byte[0] : fulltext(file.text);
+    }
+
+    /**
+     * open content of a file as a read-only buffer without copying a plain representation:
+     * the buffer is a view of the mapped revision file, which the OS pages in as it is read.
+     * A delta is applied in memory, deltas whose content is larger than the limit fail with EF0001
+     *
+     * @param file         file node-revision
+     * @param maxDeltaSize max length of the content of a delta representation in bytes
+     * @return content, from the position to the limit
+     */
+    public ByteBuffer open(FsfsNode file, long maxDeltaSize) {
+        FsfsRep rep = file.text;
+        if (rep == null) {
+            return ByteBuffer.allocate(0);
+        }
+        RepData repData = repData(rep);
+        if (repData.plain) {
+            return repData.body.asReadOnlyBuffer();
+        }
+
+        // an old representation without expanded size has at least the size of its data
+        long expandedSize = Math.max(rep.expandedSize, rep.size);
+        if (expandedSize > maxDeltaSize) {
+            throw new SvnApiException("EF0001", "Delta of " + expandedSize + " bytes is too large to be applied in memory");
+        }
+        return ByteBuffer.wrap(fulltext(rep)).asReadOnlyBuffer();
+    }
+
+    /**
+     * get properties of a revision, e.g. svn:author, svn:date, svn:log
+     *
+     * @param revision revision
+     * @return copy of the properties
+     */
+    public Map<String, String> revisionProperties(long revision) {
+        Map<String, String> properties = revisionProperties.get(revision);
+        if (properties == null) {
+            properties = readRevisionProperties(revision);
+            revisionProperties.put(revision, properties);
+        }
+        return new HashMap<>(properties);
+    }
+
+    /**
+     * get lock of a file, read from db/locks at every call
+     *
+     * @param path path relative to the repository root
+     * @return lock, null if the file is not locked
+     */
+    public SvnLock getLock(String path) {
+        String lockPath = "/" + StringUtils.trimSlashes(path);
+        String digest = md5Hex(lockPath);
+        File file = new File(db, "locks/" + digest.substring(0, 3) + "/" + digest);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        // a digest file of a directory only lists the digests of its children
+        Map<String, String> values = parseHash(readBytes(file));
+        if (values.get("token") == null || !lockPath.equals(values.get("path"))) {
+            return null;
+        }
+        String expiration = values.get("expiration_date");
+        if (expiration != null && DateUtils.parseDate(expiration) != null
+                && DateUtils.parseDate(expiration).getTime() <= System.currentTimeMillis()) {
+            return null;
+        }
+        SvnLock svnLock = new SvnLock();
+        svnLock.setPath(StringUtils.trimSlashes(path));
+        svnLock.setToken(values.get("token"));
+        svnLock.setOwner(values.get("owner"));
+        svnLock.setComment(values.get("comment"));
+        svnLock.setCreatedAt(DateUtils.parseDate(values.get("creation_date")));
+        return svnLock;
+    }
+
+    /**
+     * unmap all files and drop all caches
+     */
+    @Override
+    public void close() {
+        mappedFiles.clear();
+        manifests.clear();
+        l2pIndexes.clear();
+        directories.clear();
+        revisionProperties.clear();
+    }
+
+    /**
+     * get entries of a directory, served from the directory cache if possible
+     *
+     * @param directory directory node-revision
+     * @return key: name, value: "kind id"
+     */
+    private Map<String, String> entries(FsfsNode directory) {
+        FsfsRep text = directory.text;
+        if (text == null) {
+            return Collections.emptyMap();
+        }
+        String key = text.revision + "/" + text.item;
+        Map<String, String> entries = directories.get(key);
+        if (entries == null) {
+            entries = Collections.unmodifiableMap(parseHash(fulltext(text)));
+            directories.put(key, entries);
+        }
+        return entries;
+    }
+
+    /**
+     * read the node-revision of a directory entry
+     *
+     * @param entry "kind id"
+     * @return node-revision
+     */
+    private FsfsNode nodeOf(String entry) {
+        long[] location = FsfsNode.parseId(entry.substring(entry.indexOf(' ') + 1));
+        return readNode(location[0], location[1]);
+    }
+
+    /**
+     * read a node-revision, header lines ended by a blank line
+     *
+     * @param revision revision
+     * @param item     offset in the revision or item index
+     * @return node-revision
+     */
+    private FsfsNode readNode(long revision, long item) {
+        File file = revisionFile(revision);
+        ByteBuffer data = map(file);
+        int position = (int) offsetOf(file, revision, item);
+        Map<String, String> headers = new HashMap<>();
+        while (true) {
+            String line = line(data, position);
+            position += line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (line.isEmpty()) {
+                break;
+            }
+            int colon = line.indexOf(": ");
+            if (colon > 0) {
+                headers.put(line.substring(0, colon), line.substring(colon + 2));
+            }
+        }
+        return FsfsNode.of(headers);
+    }
+
+    /**
+     * read the fulltext of a representation, a delta is applied to the fulltext of its base
+     *
+     * @param rep representation
+     * @return fulltext
+     */
+    private byte[] fulltext(FsfsRep rep) {
+        RepData repData = repData(rep);
+        if (repData.plain) {
+            byte[] content = new byte[repData.body.remaining()];
+            repData.body.get(content);
+            return content;
+        }
+        String[] fields = repData.header.split(" ");
+        byte[] base = new byte[0];
+        if (fields.length == 4) {
+            try {
+                base = fulltext(new FsfsRep(Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3]), 0));
+            } catch (NumberFormatException e) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid representation header '" + repData.header + "'");
+            }
+        }
+        return Svndiff.apply(repData.body, base);
+    }
+
+    /**
+     * locate the header and the data of a representation in its revision file
+     *
+     * @param rep representation
+     * @return header and data, the data is a view of the mapped revision file
+     */
+    private RepData repData(FsfsRep rep) {
+        File file = revisionFile(rep.revision);
+        ByteBuffer data = map(file);
+        int position = (int) offsetOf(file, rep.revision, rep.item);
+
+        // PLAIN | DELTA | DELTA base-revision base-offset base-size
+        String header = line(data, position);
+        position += header.length() + 1;
+        if (position + rep.size > data.limit()) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: representation out of range in revision " + rep.revision);
+        }
+        if (!"PLAIN".equals(header) && !header.startsWith("DELTA")) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid representation header '" + header + "'");
+        }
+        ByteBuffer body = data.duplicate();
+        body.position(position);
+        body.limit(position + (int) rep.size);
+        return new RepData(header, body.slice());
+    }
+
+    /**
+     * get the file of a revision, a revision file or the pack of its shard
+     *
+     * @param revision revision
+     * @return revision file or pack
+     */
+    private File revisionFile(long revision) {
+        if (isPacked(revision)) {
+            return packFile(revision, "pack");
+        }
+        File file = shardSize > 0 ? new File(db, "revs/" + revision / shardSize + "/" + revision) : new File(db, "revs/" + revision);
+        if (!file.isFile() && shardSize > 0) {
+
+            // the shard may have been packed since min-unpacked-rev was read
+            minUnpackedRevision = readMinUnpackedRevision();
+            if (isPacked(revision)) {
+                return packFile(revision, "pack");
+            }
+        }
+        return file;
+    }
+
+    /**
+     * whether a revision is in a pack
+     *
+     * @param revision revision
+     * @return true if packed
+     */
+    private boolean isPacked(long revision) {
+        return shardSize > 0 && revision < minUnpackedRevision;
+    }
+
+    /**
+     * get a file of the pack of the shard of a revision
+     *
+     * @param revision revision
+     * @param name     pack, manifest or pack.l2p
+     * @return file
+     */
+    private File packFile(long revision, String name) {
+        return new File(db, "revs/" + revision / shardSize + ".pack/" + name);
+    }
+
+    /**
+     * get absolute offset of an item in the revision file or pack
+     *
+     * @param file     revision file or pack
+     * @param revision revision
+     * @param item     offset in the revision or item index
+     * @return absolute offset
+     */
+    private long offsetOf(File file, long revision, long item) {
+        if (logicalAddressing) {
+            return l2pIndex(file, revision).offsetOf(revision, item);
+        }
+        return revisionStart(file, revision) + item;
+    }
+
+    /**
+     * get offset of a revision in its file, physical addressing only
+     *
+     * @param file     revision file or pack
+     * @param revision revision
+     * @return offset, 0 for a revision file
+     */
+    private long revisionStart(File file, long revision) {
+        return "pack".equals(file.getName()) ? manifest(file)[(int) (revision % shardSize)] : 0;
+    }
+
+    /**
+     * get end offset of a revision in its file, physical addressing only
+     *
+     * @param file     revision file or pack
+     * @param revision revision
+     * @param data     mapped file
+     * @return offset after the last byte of the revision
+     */
+    private long revisionEnd(File file, long revision, ByteBuffer data) {
+        if ("pack".equals(file.getName())) {
+            long[] offsets = manifest(file);
+            int index = (int) (revision % shardSize) + 1;
+            if (index < offsets.length) {
+                return offsets[index];
+            }
+        }
+        return data.limit();
+    }
+
+    /**
+     * get offsets of the revisions in a pack, one offset per line of its manifest
+     *
+     * @param pack pack
+     * @return offsets
+     */
+    private long[] manifest(File pack) {
+        long[] offsets = manifests.get(pack);
+        if (offsets == null) {
+            String[] lines = readText(new File(pack.getParentFile(), "manifest"), null).trim().split("\n");
+            offsets = new long[lines.length];
+            try {
+                for (int i = 0; i < lines.length; i++) {
+                    offsets[i] = Long.parseLong(lines[i].trim());
+                }
+            } catch (NumberFormatException e) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid manifest of " + pack.getParent());
+            }
+            manifests.put(pack, offsets);
+        }
+        return offsets;
+    }
+
+    /**
+     * get the log-to-phys index of a revision file or pack: pack.l2p of a pack, the index before the footer
+     * of a revision file, the footer is "l2p-offset l2p-checksum p2l-offset p2l-checksum" and its length is the last byte
+     *
+     * @param file     revision file or pack
+     * @param revision revision
+     * @return index
+     */
+    private L2pIndex l2pIndex(File file, long revision) {
+        L2pIndex index = l2pIndexes.get(file);
+        if (index != null) {
+            return index;
+        }
+        ByteBuffer data;
+        if ("pack".equals(file.getName())) {
+            data = map(packFile(revision, "pack.l2p"));
+        } else {
+            data = map(file);
+            int footerLength = data.get(data.limit() - 1) & 0xff;
+            int footerStart = data.limit() - 1 - footerLength;
+            String[] footer = text(data, footerStart, footerLength).trim().split(" ");
+            try {
+                int l2pOffset = Integer.parseInt(footer[0]);
+                int p2lOffset = footer.length > 2 ? Integer.parseInt(footer[2]) : footerStart;
+                data.position(l2pOffset);
+                data.limit(p2lOffset);
+                data = data.slice();
+            } catch (RuntimeException e) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid footer of revision " + revision);
+            }
+        }
+        index = new L2pIndex(data);
+        l2pIndexes.put(file, index);
+        return index;
+    }
+
+    /**
+     * map a file read-only, mappings are shared by the LRU
+     *
+     * @param file file
+     * @return independent view of the mapping
+     */
+    private ByteBuffer map(File file) {
+        ByteBuffer data = mappedFiles.get(file);
+        if (data == null) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new SvnApiException("EF0001", "File too large to map: " + file.getPath());
+                }
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } catch (IOException e) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: can't read " + file.getPath() + ", " + e.getMessage());
+            }
+            mappedFiles.put(file, data);
+        }
+        return data.duplicate();
+    }
+
+    /**
+     * read properties of a revision, from its revision properties file, or from the pack of its shard:
+     * the manifest names the pack file of each revision, a pack file is compressed and holds
+     * "first-revision\ncount\nsize\n...\n\n" and the properties of count revisions one after another
+     *
+     * @param revision revision
+     * @return properties
+     */
+    private Map<String, String> readRevisionProperties(long revision) {
+        File file = shardSize > 0 ? new File(db, "revprops/" + revision / shardSize + "/" + revision) : new File(db, "revprops/" + revision);
+        if (file.isFile()) {
+            return parseHash(readBytes(file));
+        }
+        File packDir = new File(db, "revprops/" + revision / shardSize + ".pack");
+        if (shardSize == 0 || !packDir.isDirectory()) {
+            throw new SvnApiException("EF0003", "No such revision " + revision + " in " + root.getPath());
+        }
+        if (format >= 8) {
+            throw new SvnApiException("EF0001", "Unsupported packed revision properties of FSFS format " + format);
+        }
+
+        // revision 0 is never packed
+        long firstRevision = Math.max(revision - revision % shardSize, 1);
+        String[] names = readText(new File(packDir, "manifest"), null).split("\n");
+        int index = (int) (revision - firstRevision);
+        if (index >= names.length) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: revision " + revision + " missing in revprops manifest");
+        }
+        ByteBuffer pack = Svndiff.decompress(ByteBuffer.wrap(readBytes(new File(packDir, names[index].trim()))), 1);
+        try {
+            long packFirstRevision = Long.parseLong(line(pack, pack.position()));
+            pack.position(pack.position() + Long.toString(packFirstRevision).length() + 1);
+            int count = Integer.parseInt(line(pack, pack.position()));
+            pack.position(pack.position() + Integer.toString(count).length() + 1);
+            long[] sizes = new long[count];
+            for (int i = 0; i < count; i++) {
+                String size = line(pack, pack.position());
+                sizes[i] = Long.parseLong(size);
+                pack.position(pack.position() + size.length() + 1);
+            }
+            if (pack.hasRemaining() && pack.get(pack.position()) == '\n') {
+                pack.position(pack.position() + 1);
+            }
+            int offset = pack.position();
+            for (int i = 0; i < count; i++) {
+                if (packFirstRevision + i == revision) {
+                    byte[] properties = new byte[(int) sizes[i]];
+                    pack.position(offset);
+                    pack.get(properties);
+                    return parseHash(properties);
+                }
+                offset += (int) sizes[i];
+            }
+        } catch (RuntimeException e) {
+            if (e instanceof SvnApiException) {
+                throw e;
+            }
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid revprops pack of revision " + revision);
+        }
+        throw new SvnApiException("EF0002", "Corrupt FSFS data: revision " + revision + " missing in revprops pack");
+    }
+
+    /**
+     * read min-unpacked-rev, revisions before it are packed
+     *
+     * @return min unpacked revision, 0 if nothing is packed
+     */
+    private long readMinUnpackedRevision() {
+        File file = new File(db, "min-unpacked-rev");
+        if (format < 4 || !file.isFile()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(readText(file, "0").trim());
+        } catch (NumberFormatException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid db/min-unpacked-rev of " + root.getPath());
+        }
+    }
+
+    /**
+     * parse a hash dump: K length, key, V length, value, ..., END,
+     * D length, key deletes a key in incremental dumps
+     *
+     * @param data dump
+     * @return key: key, value: value
+     */
+    static Map<String, String> parseHash(byte[] data) {
+        Map<String, String> values = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            while (buffer.hasRemaining()) {
+                String line = line(buffer, buffer.position());
+                buffer.position(buffer.position() + line.length() + 1);
+                if ("END".equals(line)) {
+                    return values;
+                }
+                String key = readHashItem(buffer, line, 'K', 'D');
+                if (line.charAt(0) == 'D') {
+                    values.remove(key);
+                    continue;
+                }
+                String valueLine = line(buffer, buffer.position());
+                buffer.position(buffer.position() + valueLine.length() + 1);
+                values.put(key, readHashItem(buffer, valueLine, 'V', 'V'));
+            }
+        } catch (RuntimeException e) {
+            if (e instanceof SvnApiException) {
+                throw e;
+            }
+        }
+        throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid hash dump");
+    }
+
+    /**
+     * read a key or value of a hash dump
+     *
+     * @param buffer buffer, positioned after the length line, it is advanced after the item
+     * @param line   length line, e.g. K 5
+     * @param kind   expected kind
+     * @param other  other allowed kind
+     * @return item
+     */
+    private static String readHashItem(ByteBuffer buffer, String line, char kind, char other) {
+        if (line.length() < 3 || (line.charAt(0) != kind && line.charAt(0) != other) || line.charAt(1) != ' ') {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid hash dump line '" + line + "'");
+        }
+        byte[] item = new byte[Integer.parseInt(line.substring(2))];
+        buffer.get(item);
+        if (buffer.get() != '\n') {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid hash dump item");
+        }
+        return new String(item, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * read a line
+     *
+     * @param data     data
+     * @param position start of the line
+     * @return line without the line feed
+     */
+    static String line(ByteBuffer data, int position) {
+        int end = position;
+        while (end < data.limit() && data.get(end) != '\n') {
+            end++;
+        }
+        if (end >= data.limit()) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: line feed expected");
+        }
+        return text(data, position, end - position);
+    }
+
+    /**
+     * decode bytes as UTF-8
+     *
+     * @param data     data
+     * @param position start
+     * @param length   length
+     * @return text
+     */
+    private static String text(ByteBuffer data, int position, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = data.get(position + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * read a file
+     *
+     * @param file file
+     * @return content
+     */
+    private static byte[] readBytes(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: can't read " + file.getPath() + ", " + e.getMessage());
+        }
+    }
+
+    /**
+     * read a small text file
+     *
+     * @param file         file
+     * @param defaultValue value if the file does not exist, null if it must exist
+     * @return content
+     */
+    private static String readText(File file, String defaultValue) {
+        if (defaultValue != null && !file.isFile()) {
+            return defaultValue;
+        }
+        return new String(readBytes(file), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * md5 of a text, lower case hex
+     *
+     * @param text text
+     * @return hex
+     */
+    private static String md5Hex(String text) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("MD5").digest(text.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * header and data of a representation
+     */
+    private static final class RepData {
+
+        /**
+         * header line, PLAIN or DELTA with the base
+         */
+        private final String header;
+
+        /**
+         * whether the data is the fulltext
+         */
+        private final boolean plain;
+
+        /**
+         * data after the header, fulltext or svndiff
+         */
+        private final ByteBuffer body;
+
+        private RepData(String header, ByteBuffer body) {
+            this.header = header;
+            this.plain = "PLAIN".equals(header);
+            this.body = body;
+        }
+    }
+
+    /**
+     * Log-to-phys index of a revision file or pack, it maps (revision, item index) to the offset of the item.
+     * The index is "L2P-INDEX\n" and a stream of numbers, 7 bits per byte, least significant first:
+     * first revision, revision count, page size, page count, the page count of each revision,
+     * the byte size and entry count of each page, then the pages, each a list of offset + 1 deltas
+     */
+    private static final class L2pIndex {
+
+        /**
+         * the index data
+         */
+        private final ByteBuffer data;
+
+        /**
+         * first revision of the index
+         */
+        private final long firstRevision;
+
+        /**
+         * max count of entries of a page
+         */
+        private final long pageSize;
+
+        /**
+         * index of the first page of each revision, one more for the end
+         */
+        private final int[] firstPages;
+
+        /**
+         * offset of each page in the data
+         */
+        private final int[] pageOffsets;
+
+        /**
+         * entry count of each page
+         */
+        private final int[] pageEntries;
+
+        private L2pIndex(ByteBuffer data) {
+            this.data = data;
+            for (int i = 0; i < L2P_PREFIX.length(); i++) {
+                if (!data.hasRemaining() || data.get() != L2P_PREFIX.charAt(i)) {
+                    throw new SvnApiException("EF0001", "Unsupported log-to-phys index");
+                }
+            }
+            try {
+                firstRevision = readNumber(data);
+                int revisionCount = (int) readNumber(data);
+                pageSize = readNumber(data);
+                int pageCount = (int) readNumber(data);
+                firstPages = new int[revisionCount + 1];
+                for (int i = 0; i < revisionCount; i++) {
+                    firstPages[i + 1] = firstPages[i] + (int) readNumber(data);
+                }
+                pageOffsets = new int[pageCount];
+                pageEntries = new int[pageCount];
+                List<Long> pageSizes = new ArrayList<>(pageCount);
+                for (int i = 0; i < pageCount; i++) {
+                    pageSizes.add(readNumber(data));
+                    pageEntries[i] = (int) readNumber(data);
+                }
+                int offset = data.position();
+                for (int i = 0; i < pageCount; i++) {
+                    pageOffsets[i] = offset;
+                    offset += pageSizes.get(i).intValue();
+                }
+            } catch (RuntimeException e) {
+                if (e instanceof SvnApiException) {
+                    throw e;
+                }
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid log-to-phys index");
+            }
+        }
+
+        /**
+         * get offset of an item
+         *
+         * @param revision revision
+         * @param item     item index
+         * @return absolute offset in the revision file or pack
+         */
+        private long offsetOf(long revision, long item) {
+            int revisionIndex = (int) (revision - firstRevision);
+            if (revisionIndex < 0 || revisionIndex + 1 >= firstPages.length) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: revision " + revision + " missing in log-to-phys index");
+            }
+            int page = firstPages[revisionIndex] + (int) (item / pageSize);
+            int entry = (int) (item % pageSize);
+            if (page >= firstPages[revisionIndex + 1] || entry >= pageEntries[page]) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: item " + item + " missing in revision " + revision);
+            }
+
+            // offsets + 1 are stored as deltas to the previous entry, signed numbers are zigzag encoded
+            ByteBuffer pageData = data.duplicate();
+            pageData.position(pageOffsets[page]);
+            long value = 0;
+            for (int i = 0; i <= entry; i++) {
+                long delta = readNumber(pageData);
+                value += (delta & 1) == 0 ? delta >>> 1 : -1 - (delta >>> 1);
+            }
+            if (value <= 0) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: unused item " + item + " in revision " + revision);
+            }
+            return value - 1;
+        }
+
+        /**
+         * read a number of the index, 7 bits per byte, least significant first
+         *
+         * @param data data
+         * @return number
+         */
+        private static long readNumber(ByteBuffer data) {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = data.get() & 0xff;
+                value |= (long) (b & 0x7f) << shift;
+                if (b < 0x80) {
+                    return value;
+                }
+            }
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid index number");
+        }
+    }
+}
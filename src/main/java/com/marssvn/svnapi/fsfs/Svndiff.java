@@ -0,0 +1,278 @@
+package com.marssvn.svnapi.fsfs;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decoder of svndiff, the delta format of FSFS representations.
+ * <p>
+ * svndiff0 keeps instructions and new data as is, svndiff1 compresses them with zlib and svndiff2 with lz4.
+ * A delta is a sequence of windows, each window rebuilds a part of the target from a view of the source,
+ * from the target built so far by the window and from new data.
+ *
+ * @author zhangkx
+ */
+final class Svndiff {
+
+    /**
+     * instruction: copy from the source view
+     */
+    private final static int COPY_FROM_SOURCE = 0;
+
+    /**
+     * instruction: copy from the target view built so far
+     */
+    private final static int COPY_FROM_TARGET = 1;
+
+    /**
+     * instruction: copy from the new data
+     */
+    private final static int COPY_FROM_NEW_DATA = 2;
+
+    private Svndiff() {
+    }
+
+    /**
+     * apply a delta to the source
+     *
+     * @param delta  svndiff data, from the position to the limit
+     * @param source fulltext of the delta base, empty for a self-delta
+     * @return fulltext of the target
+     */
+    static byte[] apply(ByteBuffer delta, byte[] source) {
+        if (delta.remaining() < 4 || delta.get() != 'S' || delta.get() != 'V' || delta.get() != 'N') {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff header expected");
+        }
+        int version = delta.get();
+        if (version < 0 || version > 2) {
+            throw new SvnApiException("EF0001", "Unsupported svndiff version: " + version);
+        }
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        while (delta.hasRemaining()) {
+            long sourceOffset = readLong(delta);
+            int sourceLength = readInt(delta);
+            int targetLength = readInt(delta);
+            int instructionsLength = readInt(delta);
+            int newDataLength = readInt(delta);
+            if (sourceOffset + sourceLength > source.length || instructionsLength + newDataLength > delta.remaining()) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff window out of range");
+            }
+
+            ByteBuffer instructions = section(delta, instructionsLength, version);
+            ByteBuffer newData = section(delta, newDataLength, version);
+            byte[] view = new byte[targetLength];
+            int length = 0;
+            while (instructions.hasRemaining()) {
+                int selector = instructions.get() & 0xff;
+                int action = selector >> 6;
+                int count = selector & 0x3f;
+                if (count == 0) {
+                    count = readInt(instructions);
+                }
+                if (length + count > targetLength) {
+                    throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff instruction out of range");
+                }
+                if (action == COPY_FROM_SOURCE) {
+                    int offset = readInt(instructions);
+                    if (offset + count > sourceLength) {
+                        throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff source copy out of range");
+                    }
+                    System.arraycopy(source, (int) sourceOffset + offset, view, length, count);
+                } else if (action == COPY_FROM_TARGET) {
+
+                    // the ranges may overlap, a short range is repeated
+                    int offset = readInt(instructions);
+                    if (offset >= length) {
+                        throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff target copy out of range");
+                    }
+                    for (int i = 0; i < count; i++) {
+                        view[length + i] = view[offset + i];
+                    }
+                } else if (action == COPY_FROM_NEW_DATA) {
+                    if (count > newData.remaining()) {
+                        throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff new data out of range");
+                    }
+                    newData.get(view, length, count);
+                } else {
+                    throw new SvnApiException("EF0002", "Corrupt FSFS data: unknown svndiff instruction " + selector);
+                }
+                length += count;
+            }
+            if (length != targetLength) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff window length mismatch");
+            }
+            target.write(view, 0, length);
+        }
+        return target.toByteArray();
+    }
+
+    /**
+     * decompress data of svn__compress, e.g. packed revision properties:
+     * the original length, then zlib data, or the original data if compression did not make it smaller
+     *
+     * @param data    compressed data
+     * @param version 1 for zlib, 2 for lz4
+     * @return original data
+     */
+    static ByteBuffer decompress(ByteBuffer data, int version) {
+        return section(data, data.remaining(), version);
+    }
+
+    /**
+     * read the instructions or the new data of a window
+     *
+     * @param delta   delta, positioned at the section, it is advanced over the section
+     * @param length  length of the section in the delta
+     * @param version svndiff version
+     * @return uncompressed section
+     */
+    private static ByteBuffer section(ByteBuffer delta, int length, int version) {
+        ByteBuffer data = delta.slice();
+        data.limit(length);
+        delta.position(delta.position() + length);
+        if (version == 0 || length == 0) {
+            return data;
+        }
+
+        // data is only compressed if that makes it smaller
+        int originalLength = readInt(data);
+        if (originalLength <= data.remaining()) {
+            ByteBuffer original = data.slice();
+            original.limit(originalLength);
+            return original;
+        }
+        byte[] original = new byte[originalLength];
+        if (version == 1) {
+            inflate(data, original);
+        } else {
+            lz4(data, original);
+        }
+        return ByteBuffer.wrap(original);
+    }
+
+    /**
+     * inflate zlib data
+     *
+     * @param data     zlib data
+     * @param original buffer of the original length
+     */
+    private static void inflate(ByteBuffer data, byte[] original) {
+        byte[] compressed = new byte[data.remaining()];
+        data.get(compressed);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            int length = 0;
+            while (length < original.length && !inflater.finished()) {
+                int count = inflater.inflate(original, length, original.length - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += count;
+            }
+            if (length != original.length) {
+                throw new SvnApiException("EF0002", "Corrupt FSFS data: zlib data length mismatch");
+            }
+        } catch (DataFormatException e) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * decompress a lz4 block
+     *
+     * @param data     lz4 block
+     * @param original buffer of the original length
+     */
+    private static void lz4(ByteBuffer data, byte[] original) {
+        int length = 0;
+        try {
+            while (data.hasRemaining()) {
+                int token = data.get() & 0xff;
+                int literals = lz4Length(data, token >> 4);
+                data.get(original, length, literals);
+                length += literals;
+                if (!data.hasRemaining()) {
+                    break;
+                }
+
+                int offset = (data.get() & 0xff) | (data.get() & 0xff) << 8;
+                int count = lz4Length(data, token & 0x0f) + 4;
+                if (offset == 0 || offset > length || length + count > original.length) {
+                    throw new SvnApiException("EF0002", "Corrupt FSFS data: lz4 match out of range");
+                }
+                for (int i = 0; i < count; i++, length++) {
+                    original[length] = original[length - offset];
+                }
+            }
+        } catch (RuntimeException e) {
+            if (e instanceof SvnApiException) {
+                throw e;
+            }
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: lz4 block out of range");
+        }
+        if (length != original.length) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: lz4 data length mismatch");
+        }
+    }
+
+    /**
+     * read a lz4 length, 15 is continued by bytes until one is not 255
+     *
+     * @param data   lz4 block
+     * @param length length of the token
+     * @return length
+     */
+    private static int lz4Length(ByteBuffer data, int length) {
+        if (length == 15) {
+            int next;
+            do {
+                next = data.get() & 0xff;
+                length += next;
+            } while (next == 255);
+        }
+        return length;
+    }
+
+    /**
+     * read a svndiff number: 7 bits per byte, most significant first, the high bit is set on all but the last byte
+     *
+     * @param data data
+     * @return number
+     */
+    static long readLong(ByteBuffer data) {
+        long value = 0;
+        for (int i = 0; i < 10; i++) {
+            if (!data.hasRemaining()) {
+                break;
+            }
+            int b = data.get() & 0xff;
+            value = (value << 7) | (b & 0x7f);
+            if (b < 0x80) {
+                return value;
+            }
+        }
+        throw new SvnApiException("EF0002", "Corrupt FSFS data: invalid svndiff number");
+    }
+
+    /**
+     * read a svndiff number which fits an int
+     *
+     * @param data data
+     * @return number
+     */
+    private static int readInt(ByteBuffer data) {
+        long value = readLong(data);
+        if (value > Integer.MAX_VALUE) {
+            throw new SvnApiException("EF0002", "Corrupt FSFS data: svndiff number too large");
+        }
+        return (int) value;
+    }
+}
@@ -0,0 +1,67 @@
+package com.marssvn.svnapi.index;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints, used for posting lists of the indexes,
+ * boxed integers would take several times the memory
+ *
+ * @author zhangkx
+ */
+class IntList {
+
+    /**
+     * values
+     */
+    private int[] values;
+
+    /**
+     * count of values
+     */
+    private int size;
+
+    IntList() {
+        this.values = new int[4];
+    }
+
+    /**
+     * append a value
+     *
+     * @param value value
+     */
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1) + 1);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * get value
+     *
+     * @param index index
+     * @return value
+     */
+    int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * get count of values
+     *
+     * @return count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * whether the list contains the value, the values must be ascending
+     *
+     * @param value value
+     * @return true if the value is in the list
+     */
+    boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+}
@@ -0,0 +1,341 @@
+package com.marssvn.svnapi.index;
+
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index of commit messages, authors and changed paths, for searching the history by
+ * ticket number or keyword without reading the log.
+ * <p>
+ * Text is split into lower case words at spaces and punctuation, '-', '_' and '.' are kept inside a word
+ * so that a ticket number like ABC-123 or a file name like App.java is one term, the parts of such a word
+ * are indexed as well. Each ideograph (e.g. Chinese) is a term of its own. Path components are words,
+ * the author is indexed as a word and as the term "author:name".
+ * <p>
+ * All terms of a query must match, matching revisions are returned newest first.
+ * Revisions must be added in ascending order, update adds the revisions of a RevisionIndex after the last one added,
+ * the index is not persisted, it is rebuilt from the RevisionIndex when the process starts.
+ *
+ * @author zhangkx
+ */
+public class LogSearchIndex {
+
+    /**
+     * prefix of author terms, e.g. author:marssvn
+     */
+    public final static String AUTHOR_PREFIX = "author:";
+
+    /**
+     * guards the index
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * count of indexed revisions
+     */
+    private int count;
+
+    /**
+     * revisions, ascending, index: position
+     */
+    private long[] revisions = new long[1024];
+
+    /**
+     * key: term, value: positions of the revisions which contain the term, ascending
+     */
+    private final Map<String, IntList> postings = new HashMap<>();
+
+    /**
+     * add a log entry, entries which are not newer than the last added revision are ignored
+     *
+     * @param logEntry log entry
+     * @return true if it was added
+     */
+    public boolean add(LogEntry logEntry) {
+        Set<String> terms = new LinkedHashSet<>();
+        addWords(logEntry.getMessage(), true, terms);
+        if (logEntry.getAuthor() != null) {
+            terms.add(AUTHOR_PREFIX + logEntry.getAuthor().toLowerCase(Locale.ROOT));
+            addWords(logEntry.getAuthor(), true, terms);
+        }
+        if (logEntry.getChangedPaths() != null) {
+            for (LogChangedPath changedPath : logEntry.getChangedPaths()) {
+                addWords(changedPath.getPath(), true, terms);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (count > 0 && logEntry.getRevision() <= revisions[count - 1]) {
+                return false;
+            }
+            if (count == revisions.length) {
+                revisions = Arrays.copyOf(revisions, count * 2);
+            }
+            int position = count;
+            revisions[position] = logEntry.getRevision();
+            count++;
+            for (String term : terms) {
+                postings.computeIfAbsent(term, key -> new IntList()).add(position);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * add the revisions of the revision index after the last added revision
+     *
+     * @param revisionIndex revision index
+     * @return count of revisions added
+     */
+    public int update(RevisionIndex revisionIndex) {
+        int before = size();
+        revisionIndex.scan(getLastRevision(), this::add);
+        return size() - before;
+    }
+
+    /**
+     * search revisions, newest first
+     *
+     * @param query words, all of them must match, e.g. "ABC-123 author:marssvn"
+     * @param limit max count of revisions, 0 means no limit
+     * @return revisions
+     */
+    public List<Long> search(String query, int limit) {
+        return search(query, -1, limit);
+    }
+
+    /**
+     * search revisions, newest first, starting from a revision to read the results page by page
+     *
+     * @param query        words, all of them must match, e.g. "ABC-123 author:marssvn"
+     * @param fromRevision revision to start from, 0 or -1 means the last added revision
+     * @param limit        max count of revisions, 0 means no limit
+     * @return revisions
+     */
+    public List<Long> search(String query, long fromRevision, int limit) {
+        List<Long> result = new ArrayList<>();
+        Set<String> terms = queryTerms(query);
+        if (terms.isEmpty()) {
+            return result;
+        }
+
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                IntList list = postings.get(term);
+                if (list == null) {
+                    return result;
+                }
+                lists.add(list);
+            }
+
+            // walk the shortest list from the newest position, probe the others
+            lists.sort(Comparator.comparingInt(IntList::size));
+            IntList shortest = lists.get(0);
+            int max = limit > 0 ? limit : Integer.MAX_VALUE;
+            for (int i = upperBound(shortest, fromRevision) - 1; i >= 0 && result.size() < max; i--) {
+                int position = shortest.get(i);
+                if (containsAll(lists, position)) {
+                    result.add(revisions[position]);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get the last added revision
+     *
+     * @return revision, 0 if the index is empty
+     */
+    public long getLastRevision() {
+        lock.readLock().lock();
+        try {
+            return count == 0 ? 0 : revisions[count - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get count of indexed revisions
+     *
+     * @return count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get count of distinct terms
+     *
+     * @return count
+     */
+    public int getTermCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * split a query into terms, words of the query are not split into their parts
+     *
+     * @param query query
+     * @return terms
+     */
+    private static Set<String> queryTerms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String piece : query.trim().split("\\s+")) {
+            if (piece.regionMatches(true, 0, AUTHOR_PREFIX, 0, AUTHOR_PREFIX.length()) && piece.length() > AUTHOR_PREFIX.length()) {
+                terms.add(AUTHOR_PREFIX + piece.substring(AUTHOR_PREFIX.length()).toLowerCase(Locale.ROOT));
+            } else {
+                addWords(piece, false, terms);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * split text into lower case words
+     *
+     * @param text      text, may be null
+     * @param withParts whether to add the parts of words joined by '-', '_' or '.'
+     * @param terms     receives the words
+     */
+    private static void addWords(String text, boolean withParts, Set<String> terms) {
+        if (text == null) {
+            return;
+        }
+        int start = -1;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            int next = i + Character.charCount(codePoint);
+            if (Character.isIdeographic(codePoint)) {
+                addWord(text, start, i, withParts, terms);
+                start = -1;
+                terms.add(text.substring(i, next));
+            } else if (Character.isLetterOrDigit(codePoint) || isJoiner(codePoint)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else {
+                addWord(text, start, i, withParts, terms);
+                start = -1;
+            }
+            i = next;
+        }
+        addWord(text, start, text.length(), withParts, terms);
+    }
+
+    /**
+     * add a word, joiners at its ends are dropped
+     *
+     * @param text      text
+     * @param start     start of the word, -1 if there is no word
+     * @param end       end of the word
+     * @param withParts whether to add the parts of the word
+     * @param terms     receives the word
+     */
+    private static void addWord(String text, int start, int end, boolean withParts, Set<String> terms) {
+        if (start < 0) {
+            return;
+        }
+        while (start < end && isJoiner(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && isJoiner(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+        String word = text.substring(start, end).toLowerCase(Locale.ROOT);
+        terms.add(word);
+        if (withParts) {
+            for (String part : word.split("[-_.]+")) {
+                if (!part.isEmpty()) {
+                    terms.add(part);
+                }
+            }
+        }
+    }
+
+    /**
+     * whether the character joins the parts of a word, e.g. ABC-123, App.java
+     *
+     * @param codePoint character
+     * @return true if it is '-', '_' or '.'
+     */
+    private static boolean isJoiner(int codePoint) {
+        return codePoint == '-' || codePoint == '_' || codePoint == '.';
+    }
+
+    /**
+     * whether all lists contain the position
+     *
+     * @param lists    posting lists, the first one is skipped
+     * @param position position
+     * @return true if all contain it
+     */
+    private static boolean containsAll(List<IntList> lists, int position) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * find the first posting whose revision is greater than the revision
+     *
+     * @param list     posting list
+     * @param revision revision, 0 or -1 means the last added revision
+     * @return index of the posting, size of the list if there is none
+     */
+    private int upperBound(IntList list, long revision) {
+        if (revision <= 0) {
+            return list.size();
+        }
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (revisions[list.get(middle)] <= revision) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,773 @@
+package com.marssvn.svnapi.index;
+
+import com.marssvn.svnapi.ISvnClient;
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.SvnRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only index of the commit logs of a repository: revision, author, date, message and changed paths.
+ * <p>
+ * The index is built once with update and then extended from the last indexed revision, each update reads
+ * the new revisions with svn log in batches and appends them to the file, so log queries by path or by author
+ * are answered from memory and one read of the file instead of by spawning svn.
+ * <p>
+ * File format: header "SVNRIDX1", uuid of the repository; then one record per revision in ascending order:
+ * body length (int), CRC32 of the body (int), body (revision, date, author, message, changed paths, numbers as varints).
+ * A record which was not completely written (e.g. the process was killed) is truncated when the file is opened.
+ * <p>
+ * Paths are repository paths as in the changed paths of svn log, e.g. /trunk/a.txt, whatever the root path of the
+ * client which updates the index, so queries take repository paths too, also for a client rooted at trunk.
+ * A client rooted at a directory only indexes the commits below it, update with a client of the repository root
+ * to index the whole history. Queries of a path match the commits which changed the path or anything below it,
+ * copies are not followed (like svn log --stop-on-copy).
+ * The file must not be shared by several processes.
+ *
+ * @author zhangkx
+ */
+public class RevisionIndex implements Closeable {
+
+    /**
+     * slf4j.Logger
+     */
+    private Logger logger = LoggerFactory.getLogger(RevisionIndex.class);
+
+    /**
+     * count of revisions read by one svn log of an update
+     */
+    public final static int UPDATE_BATCH_SIZE = 1000;
+
+    /**
+     * magic of the file header
+     */
+    private final static byte[] MAGIC = "SVNRIDX1".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * bytes before the body of a record: body length and CRC32
+     */
+    private final static int RECORD_HEADER_SIZE = 8;
+
+    /**
+     * index file
+     */
+    private final File file;
+
+    /**
+     * channel of the index file
+     */
+    private final FileChannel channel;
+
+    /**
+     * guards the in-memory index, the file is only appended under the write lock
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * uuid of the indexed repository, null until the first update
+     */
+    private String uuid;
+
+    /**
+     * end of the file
+     */
+    private long endOffset;
+
+    /**
+     * count of indexed revisions
+     */
+    private int count;
+
+    /**
+     * revisions, ascending, index: position
+     */
+    private long[] revisions = new long[1024];
+
+    /**
+     * file offsets of the record bodies, index: position
+     */
+    private long[] offsets = new long[1024];
+
+    /**
+     * lengths of the record bodies, index: position
+     */
+    private int[] lengths = new int[1024];
+
+    /**
+     * key: author, value: positions of the author's commits
+     */
+    private final Map<String, IntList> authorPostings = new HashMap<>();
+
+    /**
+     * key: path, value: positions of the commits which changed the path or anything below it
+     */
+    private final Map<String, IntList> pathPostings = new HashMap<>();
+
+    /**
+     * open the index file, it is created if it does not exist
+     *
+     * @param file index file
+     */
+    public RevisionIndex(File file) {
+        this.file = file;
+        FileChannel fileChannel = null;
+        try {
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null) {
+                Files.createDirectories(parent.toPath());
+            }
+            fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.channel = fileChannel;
+            load();
+        } catch (IOException e) {
+            closeQuietly(fileChannel);
+            throw new SvnApiException(e.getMessage());
+        } catch (RuntimeException e) {
+            closeQuietly(fileChannel);
+            throw e;
+        }
+    }
+
+    /**
+     * get the index file of a local repository, which is next to the repository directory, e.g. ~/svn/repo.revisions
+     *
+     * @param svnRepository repository
+     * @return index file
+     */
+    public static File fileOf(SvnRepository svnRepository) {
+        return new File(svnRepository.getFullPathLocal() + ".revisions");
+    }
+
+    /**
+     * index the revisions after the last indexed revision up to HEAD
+     * svn command: svn log -v --xml, in batches of UPDATE_BATCH_SIZE revisions
+     *
+     * @param svnClient client of the repository
+     * @return count of revisions added
+     */
+    public synchronized int update(ISvnClient svnClient) {
+        String repositoryUuid = svnClient.repositoryUuid();
+        if (this.uuid == null) {
+            writeHeader(repositoryUuid);
+        } else if (!this.uuid.equals(repositoryUuid)) {
+            throw new SvnApiException("EI0002", "Revision index " + file + " belongs to repository " + this.uuid
+                    + ", not " + repositoryUuid);
+        }
+
+        long headRevision = svnClient.headRevision();
+        int added = 0;
+        for (long from = getLastRevision() + 1; from <= headRevision; from += UPDATE_BATCH_SIZE) {
+            long to = Math.min(from + UPDATE_BATCH_SIZE - 1, headRevision);
+            List<LogEntry> logEntries = svnClient.log("/", from, to, 0, true);
+            added += append(logEntries);
+        }
+        if (added > 0) {
+            logger.debug("revision index " + file + " updated to r" + getLastRevision() + ", " + added + " revisions added");
+        }
+        return added;
+    }
+
+    /**
+     * get uuid of the indexed repository
+     *
+     * @return uuid, null if the index was never updated
+     */
+    public String getRepositoryUuid() {
+        lock.readLock().lock();
+        try {
+            return this.uuid;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get the last indexed revision
+     *
+     * @return revision, 0 if the index is empty
+     */
+    public long getLastRevision() {
+        lock.readLock().lock();
+        try {
+            return count == 0 ? 0 : revisions[count - 1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get count of indexed revisions
+     *
+     * @return count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get log entry of a revision
+     *
+     * @param revision revision
+     * @return log entry, null if the revision is not indexed
+     */
+    public LogEntry get(long revision) {
+        lock.readLock().lock();
+        try {
+            int position = Arrays.binarySearch(revisions, 0, count, revision);
+            return position < 0 ? null : read(position);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get commit logs of path from the index, like ISvnClient.log with changed paths
+     *
+     * @param path         repository path, e.g. /trunk/a.txt or trunk/a.txt, "/" for all commits
+     * @param fromRevision from revision, 0 or -1 means the last indexed revision
+     * @param toRevision   to revision, 0 or -1 means the last indexed revision
+     * @param limit        max count of log entries, 0 means no limit
+     * @return log entries, newest first when fromRevision is newer than toRevision
+     */
+    public List<LogEntry> log(String path, long fromRevision, long toRevision, int limit) {
+        lock.readLock().lock();
+        try {
+            String key = normalize(path);
+            IntList postings = null;
+            if (!"/".equals(key)) {
+                postings = pathPostings.get(key);
+                if (postings == null) {
+                    return new ArrayList<>();
+                }
+            }
+            return collect(postings, fromRevision, toRevision, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * get the last commit which changed the path or anything below it
+     *
+     * @param path repository path
+     * @return log entry, null if no indexed commit changed the path
+     */
+    public LogEntry lastChange(String path) {
+        List<LogEntry> logEntries = log(path, -1, 1, 1);
+        return logEntries.isEmpty() ? null : logEntries.get(0);
+    }
+
+    /**
+     * get commits of an author, newest first
+     *
+     * @param author       author
+     * @param fromRevision revision to start from, 0 or -1 means the last indexed revision
+     * @param limit        max count of log entries, 0 means no limit
+     * @return log entries
+     */
+    public List<LogEntry> byAuthor(String author, long fromRevision, int limit) {
+        lock.readLock().lock();
+        try {
+            IntList postings = authorPostings.get(author);
+            if (postings == null) {
+                return new ArrayList<>();
+            }
+            return collect(postings, fromRevision, 1, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * read the indexed log entries after a revision in ascending order, e.g. to feed another index
+     *
+     * @param afterRevision revision, entries after it are read
+     * @param consumer      receives log entries
+     */
+    public void scan(long afterRevision, Consumer<LogEntry> consumer) {
+        int position;
+        int end;
+        lock.readLock().lock();
+        try {
+            position = lowerBound(null, afterRevision + 1);
+            end = count;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // the consumer is called without the lock
+        for (; position < end; position++) {
+            LogEntry logEntry;
+            lock.readLock().lock();
+            try {
+                logEntry = read(position);
+            } finally {
+                lock.readLock().unlock();
+            }
+            consumer.accept(logEntry);
+        }
+    }
+
+    /**
+     * close the index file
+     */
+    @Override
+    public void close() {
+        closeQuietly(channel);
+    }
+
+    /**
+     * load the index file into memory, a truncated last record is dropped
+     *
+     * @throws IOException IOException
+     */
+    private void load() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return;
+        }
+
+        DataInputStream inputStream = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0)), 65536));
+        byte[] magic = new byte[MAGIC.length];
+        byte[] uuidBytes;
+        try {
+            inputStream.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new EOFException();
+            }
+            uuidBytes = new byte[inputStream.readUnsignedShort()];
+            inputStream.readFully(uuidBytes);
+        } catch (EOFException e) {
+            throw new SvnApiException("EI0001", "Invalid revision index: " + file);
+        }
+        this.uuid = new String(uuidBytes, StandardCharsets.UTF_8);
+
+        long offset = MAGIC.length + 2 + uuidBytes.length;
+        CRC32 crc32 = new CRC32();
+        while (offset + RECORD_HEADER_SIZE <= size) {
+            int length = inputStream.readInt();
+            int crc = inputStream.readInt();
+            if (length < 0 || offset + RECORD_HEADER_SIZE + length > size) {
+                break;
+            }
+            byte[] body = new byte[length];
+            inputStream.readFully(body);
+            crc32.reset();
+            crc32.update(body, 0, length);
+            if ((int) crc32.getValue() != crc) {
+                break;
+            }
+            addPosition(decode(ByteBuffer.wrap(body)), offset + RECORD_HEADER_SIZE, length);
+            offset += RECORD_HEADER_SIZE + length;
+        }
+
+        if (offset < size) {
+            logger.warn("revision index " + file + " has an incomplete record at " + offset + ", truncated");
+            channel.truncate(offset);
+        }
+        this.endOffset = offset;
+    }
+
+    /**
+     * write the header of a new index file
+     *
+     * @param repositoryUuid uuid of the repository
+     */
+    private void writeHeader(String repositoryUuid) {
+        byte[] uuidBytes = repositoryUuid.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 2 + uuidBytes.length);
+        header.put(MAGIC).putShort((short) uuidBytes.length).put(uuidBytes).flip();
+        lock.writeLock().lock();
+        try {
+            channel.truncate(0);
+            writeFully(header, 0);
+            channel.force(false);
+            this.uuid = repositoryUuid;
+            this.endOffset = header.limit();
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * append log entries newer than the last indexed revision to the file and to the memory
+     *
+     * @param logEntries log entries
+     * @return count of entries appended
+     */
+    private int append(List<LogEntry> logEntries) {
+        long lastRevision = getLastRevision();
+        List<LogEntry> newEntries = new ArrayList<>();
+        for (LogEntry logEntry : logEntries) {
+            if (logEntry.getRevision() > lastRevision) {
+                newEntries.add(logEntry);
+            }
+        }
+        if (newEntries.isEmpty()) {
+            return 0;
+        }
+        newEntries.sort(Comparator.comparingLong(LogEntry::getRevision));
+
+        // encode all records, then write them with one call
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        int[] bodyLengths = new int[newEntries.size()];
+        CRC32 crc32 = new CRC32();
+        for (int i = 0; i < newEntries.size(); i++) {
+            byte[] body = encode(newEntries.get(i));
+            crc32.reset();
+            crc32.update(body, 0, body.length);
+            ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE).putInt(body.length).putInt((int) crc32.getValue());
+            records.write(recordHeader.array(), 0, RECORD_HEADER_SIZE);
+            records.write(body, 0, body.length);
+            bodyLengths[i] = body.length;
+        }
+
+        lock.writeLock().lock();
+        try {
+            writeFully(ByteBuffer.wrap(records.toByteArray()), endOffset);
+            channel.force(false);
+            long offset = endOffset;
+            for (int i = 0; i < newEntries.size(); i++) {
+                addPosition(newEntries.get(i), offset + RECORD_HEADER_SIZE, bodyLengths[i]);
+                offset += RECORD_HEADER_SIZE + bodyLengths[i];
+            }
+            this.endOffset = offset;
+        } catch (IOException e) {
+
+            // drop what was written of the batch, the next update reads it again
+            try {
+                channel.truncate(endOffset);
+            } catch (IOException ignored) {
+                // truncated when the file is opened again
+            }
+            throw new SvnApiException(e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return newEntries.size();
+    }
+
+    /**
+     * add a log entry to the in-memory index
+     *
+     * @param logEntry log entry
+     * @param offset   file offset of the record body
+     * @param length   length of the record body
+     */
+    private void addPosition(LogEntry logEntry, long offset, int length) {
+        if (count == revisions.length) {
+            int capacity = count * 2;
+            revisions = Arrays.copyOf(revisions, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        int position = count;
+        revisions[position] = logEntry.getRevision();
+        offsets[position] = offset;
+        lengths[position] = length;
+        count++;
+
+        if (logEntry.getAuthor() != null) {
+            authorPostings.computeIfAbsent(logEntry.getAuthor(), key -> new IntList()).add(position);
+        }
+        if (logEntry.getChangedPaths() != null) {
+
+            // a commit is posted once to each changed path and each of its parents
+            Set<String> paths = new LinkedHashSet<>();
+            for (LogChangedPath changedPath : logEntry.getChangedPaths()) {
+                String path = normalize(changedPath.getPath());
+                while (!"/".equals(path) && paths.add(path)) {
+                    path = path.substring(0, Math.max(path.lastIndexOf('/'), 1));
+                }
+            }
+            for (String path : paths) {
+                pathPostings.computeIfAbsent(path, key -> new IntList()).add(position);
+            }
+        }
+    }
+
+    /**
+     * collect log entries of the positions within the revision range
+     *
+     * @param postings     positions, ascending, null means all positions
+     * @param fromRevision from revision, 0 or -1 means the last indexed revision
+     * @param toRevision   to revision, 0 or -1 means the last indexed revision
+     * @param limit        max count of log entries, 0 means no limit
+     * @return log entries
+     */
+    private List<LogEntry> collect(IntList postings, long fromRevision, long toRevision, int limit) {
+        List<LogEntry> logEntries = new ArrayList<>();
+        if (count == 0) {
+            return logEntries;
+        }
+        long lastRevision = revisions[count - 1];
+        long from = fromRevision <= 0 ? lastRevision : fromRevision;
+        long to = toRevision <= 0 ? lastRevision : toRevision;
+        int max = limit > 0 ? limit : Integer.MAX_VALUE;
+
+        // [begin, end) of the postings within the range
+        int begin = lowerBound(postings, Math.min(from, to));
+        int end = lowerBound(postings, Math.max(from, to) + 1);
+        if (from >= to) {
+            for (int i = end - 1; i >= begin && logEntries.size() < max; i--) {
+                logEntries.add(read(postings == null ? i : postings.get(i)));
+            }
+        } else {
+            for (int i = begin; i < end && logEntries.size() < max; i++) {
+                logEntries.add(read(postings == null ? i : postings.get(i)));
+            }
+        }
+        return logEntries;
+    }
+
+    /**
+     * find the first posting whose revision is not less than the revision
+     *
+     * @param postings positions, ascending, null means all positions
+     * @param revision revision
+     * @return index of the posting, size of the postings if there is none
+     */
+    private int lowerBound(IntList postings, long revision) {
+        int low = 0;
+        int high = postings == null ? count : postings.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int position = postings == null ? middle : postings.get(middle);
+            if (revisions[position] < revision) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * read the log entry of a position from the file
+     *
+     * @param position position
+     * @return log entry
+     */
+    private LogEntry read(int position) {
+        ByteBuffer body = ByteBuffer.allocate(lengths[position]);
+        try {
+            long offset = offsets[position];
+            while (body.hasRemaining()) {
+                if (channel.read(body, offset + body.position()) < 0) {
+                    throw new EOFException("Unexpected end of revision index " + file);
+                }
+            }
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+        body.flip();
+        return decode(body);
+    }
+
+    /**
+     * write the buffer to the file at the offset
+     *
+     * @param buffer buffer
+     * @param offset file offset
+     * @throws IOException IOException
+     */
+    private void writeFully(ByteBuffer buffer, long offset) throws IOException {
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * encode the body of a record
+     *
+     * @param logEntry log entry
+     * @return body
+     */
+    private static byte[] encode(LogEntry logEntry) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        writeVarLong(out, logEntry.getRevision());
+        writeVarLong(out, logEntry.getDate() == null ? 0 : logEntry.getDate().getTime() + 1);
+        writeString(out, logEntry.getAuthor());
+        writeString(out, logEntry.getMessage());
+        List<LogChangedPath> changedPaths = logEntry.getChangedPaths();
+        if (changedPaths == null) {
+            writeVarLong(out, 0);
+            return out.toByteArray();
+        }
+        writeVarLong(out, changedPaths.size() + 1);
+        for (LogChangedPath changedPath : changedPaths) {
+            writeString(out, changedPath.getAction());
+            writeString(out, changedPath.getKind());
+            writeString(out, changedPath.getPath());
+            writeString(out, changedPath.getCopyFromPath());
+            writeVarLong(out, changedPath.getCopyFromRevision() + 1);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * decode the body of a record
+     *
+     * @param body body
+     * @return log entry
+     */
+    private static LogEntry decode(ByteBuffer body) {
+        LogEntry logEntry = new LogEntry();
+        logEntry.setRevision(readVarLong(body));
+        long date = readVarLong(body);
+        logEntry.setDate(date == 0 ? null : new Date(date - 1));
+        logEntry.setAuthor(readString(body));
+        logEntry.setMessage(readString(body));
+        int pathCount = (int) readVarLong(body) - 1;
+        if (pathCount >= 0) {
+            List<LogChangedPath> changedPaths = new ArrayList<>(pathCount);
+            for (int i = 0; i < pathCount; i++) {
+                LogChangedPath changedPath = new LogChangedPath();
+                changedPath.setAction(readString(body));
+                changedPath.setKind(readString(body));
+                changedPath.setPath(readString(body));
+                changedPath.setCopyFromPath(readString(body));
+                changedPath.setCopyFromRevision(readVarLong(body) - 1);
+                changedPaths.add(changedPath);
+            }
+            logEntry.setChangedPaths(changedPaths);
+        }
+        return logEntry;
+    }
+
+    /**
+     * write a non-negative number as a varint, 7 bits per byte
+     *
+     * @param out   output
+     * @param value value
+     */
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * read a varint
+     *
+     * @param in input
+     * @return value
+     */
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * write a string as varint length + 1 and UTF-8 bytes, length 0 is null
+     *
+     * @param out output
+     * @param str string
+     */
+    private static void writeString(ByteArrayOutputStream out, String str) {
+        if (str == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * read a string
+     *
+     * @param in input
+     * @return string, may be null
+     */
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        String str = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return str;
+    }
+
+    /**
+     * normalize path to the form of changed paths, e.g. trunk/src/ to /trunk/src
+     *
+     * @param path path
+     * @return path with a leading slash and without a trailing slash
+     */
+    private static String normalize(String path) {
+        if (StringUtils.isBlank(path)) {
+            return "/";
+        }
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        String trimmed = path.substring(0, end);
+        return trimmed.startsWith("/") ? trimmed : "/" + trimmed;
+    }
+
+    /**
+     * close the channel, errors are ignored
+     *
+     * @param fileChannel channel
+     */
+    private static void closeQuietly(FileChannel fileChannel) {
+        if (fileChannel == null) {
+            return;
+        }
+        try {
+            fileChannel.close();
+        } catch (IOException ignored) {
+            // nothing to do
+        }
+    }
+}
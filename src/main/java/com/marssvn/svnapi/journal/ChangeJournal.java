@@ -0,0 +1,140 @@
+package com.marssvn.svnapi.journal;
+
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Change journal of a repository: an append-only file to which the post-commit, post-lock and post-unlock hooks
+ * append a record per commit, lock or unlock, read by ChangeJournalReader.
+ * <p>
+ * A record is a header line "type revision time user", type C, L or U, revision 0 for locks and unlocks,
+ * time in seconds, then a line per changed path, as printed by svnlook changed for commits, or as passed to the
+ * hook for locks and unlocks, then a line ".". The hooks are sh scripts, each appends its record by one printf
+ * and holds a flock of the journal if the system has flock, so records of concurrent hooks do not interleave.
+ *
+ * @author zhangkx
+ */
+public final class ChangeJournal {
+
+    /**
+     * path of the journal in the repository directory
+     */
+    public final static String JOURNAL_PATH = "journal/changes";
+
+    /**
+     * line which marks the hooks of the change journal, other hooks are not replaced
+     */
+    public final static String HOOK_MARKER = "# marssvn change journal";
+
+    /**
+     * names of the hooks
+     */
+    private final static String[] HOOKS = {"post-commit", "post-lock", "post-unlock"};
+
+    private ChangeJournal() {
+    }
+
+    /**
+     * get the journal of a repository
+     *
+     * @param repositoryDir repository directory
+     * @return journal file
+     */
+    public static File fileOf(File repositoryDir) {
+        return new File(repositoryDir, JOURNAL_PATH);
+    }
+
+    /**
+     * install the hooks of the change journal into a repository, hooks installed before are replaced
+     *
+     * @param repositoryDir repository directory
+     * @return journal file
+     */
+    public static File install(File repositoryDir) {
+        if (CommandUtils.osIsWindows()) {
+            throw new SvnApiException("EA0005", "Change journal hooks are sh scripts, not supported on Windows");
+        }
+        File hooksDir = new File(repositoryDir, "hooks");
+        if (!hooksDir.isDirectory()) {
+            throw new SvnApiException("EA0005", "Not a repository: " + repositoryDir.getPath());
+        }
+        File journal = fileOf(repositoryDir);
+        try {
+            for (String name : HOOKS) {
+                File hook = new File(hooksDir, name);
+                if (hook.exists() && !FileUtils.readFileToString(hook, StandardCharsets.UTF_8).contains(HOOK_MARKER)) {
+                    throw new SvnApiException("EA0005", "Hook exists: " + hook.getPath());
+                }
+            }
+            FileUtils.forceMkdir(journal.getParentFile());
+            if (!journal.exists()) {
+                FileUtils.touch(journal);
+            }
+            String svnlook = svnlookPath();
+            for (String name : HOOKS) {
+                File hook = new File(hooksDir, name);
+                FileUtils.writeStringToFile(hook, script(name, svnlook), StandardCharsets.UTF_8);
+                if (!hook.setExecutable(true, false)) {
+                    throw new SvnApiException("EA0005", "Hook can't be made executable: " + hook.getPath());
+                }
+            }
+            return journal;
+        } catch (IOException e) {
+            throw new SvnApiException("EA0005", e.getMessage());
+        }
+    }
+
+    /**
+     * get the script of a hook
+     *
+     * @param name    post-commit, post-lock or post-unlock
+     * @param svnlook path of svnlook
+     * @return script
+     */
+    static String script(String name, String svnlook) {
+        StringBuilder script = new StringBuilder();
+        script.append("#!/bin/sh\n");
+        script.append(HOOK_MARKER).append(", installed by marssvn, do not edit\n");
+        script.append("PATH=/usr/local/bin:/usr/bin:/bin\n");
+        script.append("REPOS=\"$1\"\n");
+        script.append("JOURNAL=\"$REPOS/").append(JOURNAL_PATH).append("\"\n");
+        if ("post-commit".equals(name)) {
+            script.append("REV=\"$2\"\n");
+            script.append("SVNLOOK='").append(svnlook.replace("'", "'\\''")).append("'\n");
+            script.append("USER=$(\"$SVNLOOK\" author -r \"$REV\" \"$REPOS\")\n");
+            script.append("PATHS=$(\"$SVNLOOK\" changed -r \"$REV\" \"$REPOS\")\n");
+            script.append("HEADER=\"C $REV\"\n");
+        } else {
+            script.append("USER=\"$2\"\n");
+            script.append("PATHS=$(cat)\n");
+            script.append("HEADER=\"").append("post-lock".equals(name) ? "L" : "U").append(" 0\"\n");
+        }
+        script.append("exec 9>>\"$JOURNAL\"\n");
+        script.append("flock 9 2>/dev/null\n");
+        script.append("printf '%s %s %s\\n%s\\n.\\n' \"$HEADER\" \"$(date +%s)\" \"$USER\" \"$PATHS\" >&9\n");
+        return script.toString();
+    }
+
+    /**
+     * find svnlook on the PATH, hooks run with an empty environment
+     *
+     * @return absolute path of svnlook, or svnlook if it is not on the PATH
+     */
+    private static String svnlookPath() {
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String directory : path.split(File.pathSeparator)) {
+                File svnlook = new File(directory, "svnlook");
+                if (!directory.isEmpty() && svnlook.isFile() && svnlook.canExecute()) {
+                    return svnlook.getAbsolutePath();
+                }
+            }
+        }
+        return "svnlook";
+    }
+}
@@ -0,0 +1,248 @@
+package com.marssvn.svnapi.journal;
+
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.enums.EChangeType;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.ChangeRecord;
+import com.marssvn.svnapi.model.LogChangedPath;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reader which tails the change journal of a repository from a checkpointed offset.
+ * <p>
+ * Only complete records are returned, a record which a hook is still appending is returned by a later poll.
+ * poll advances the offset in memory, checkpoint persists it, so a consumer which checkpoints after it has
+ * handled the records sees every record at least once across restarts, without reading the history again.
+ *
+ * @author zhangkx
+ */
+public class ChangeJournalReader {
+
+    private Logger logger = LoggerFactory.getLogger(ChangeJournalReader.class);
+
+    /**
+     * interval in milliseconds at which poll with a timeout reads the journal again
+     */
+    private final static long WAIT_INTERVAL = 50;
+
+    /**
+     * journal file
+     */
+    private final File journal;
+
+    /**
+     * checkpoint file, null if the offset is not persisted
+     */
+    private final File checkpoint;
+
+    /**
+     * offset of the journal after the last record returned
+     */
+    private long offset;
+
+    /**
+     * create a reader, it starts at the offset of the checkpoint, or at the start of the journal
+     *
+     * @param journal    journal file, see ChangeJournal.fileOf
+     * @param checkpoint checkpoint file, null if the offset is not persisted
+     */
+    public ChangeJournalReader(File journal, File checkpoint) {
+        this.journal = journal;
+        this.checkpoint = checkpoint;
+        if (checkpoint != null && checkpoint.isFile()) {
+            try {
+                this.offset = Long.parseLong(FileUtils.readFileToString(checkpoint, StandardCharsets.UTF_8).trim());
+            } catch (IOException | NumberFormatException e) {
+                throw new SvnApiException("Invalid checkpoint " + checkpoint.getPath() + ", " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * get offset of the journal after the last record returned
+     *
+     * @return offset
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * read the complete records after the offset and advance the offset over them
+     *
+     * @param maxRecords max count of records
+     * @return records, empty if there is no new record
+     */
+    public synchronized List<ChangeRecord> poll(int maxRecords) {
+        List<ChangeRecord> records = new ArrayList<>();
+        if (!journal.isFile()) {
+            return records;
+        }
+        try (FileChannel channel = FileChannel.open(journal.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < offset) {
+                logger.warn("Change journal " + journal.getPath() + " is shorter than the offset, reading it from the start");
+                offset = 0;
+            }
+            InputStream inputStream = new BufferedInputStream(Channels.newInputStream(channel.position(offset)), 65536);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            List<String> lines = new ArrayList<>();
+            long position = offset;
+            int b;
+            while (records.size() < maxRecords && position < size && (b = inputStream.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+                line.reset();
+                if (!".".equals(text)) {
+                    lines.add(text);
+                    continue;
+                }
+
+                // end of a record
+                ChangeRecord record = parse(lines, position);
+                lines.clear();
+                offset = position;
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * read the complete records after the offset, waiting for a record up to the timeout
+     *
+     * @param maxRecords max count of records
+     * @param timeout    timeout in milliseconds
+     * @return records, empty if there was no new record before the timeout
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public List<ChangeRecord> poll(int maxRecords, long timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        List<ChangeRecord> records = poll(maxRecords);
+        while (records.isEmpty()) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(WAIT_INTERVAL)));
+            records = poll(maxRecords);
+        }
+        return records;
+    }
+
+    /**
+     * persist the offset to the checkpoint, the checkpoint is written to a temp file and moved
+     */
+    public synchronized void checkpoint() {
+        if (checkpoint == null) {
+            return;
+        }
+        File temp = new File(checkpoint.getPath() + ".tmp");
+        try {
+            FileUtils.writeStringToFile(temp, String.valueOf(offset), StandardCharsets.UTF_8);
+            Files.move(temp.toPath(), checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * parse a record
+     *
+     * @param lines  lines of the record, without the end line
+     * @param offset offset of the journal after the record
+     * @return record, null if it is empty or unknown
+     */
+    private ChangeRecord parse(List<String> lines, long offset) {
+        String[] header = lines.isEmpty() ? new String[0] : lines.get(0).split(" ", 4);
+        EChangeType type = header.length < 3 ? null : EChangeType.of(header[0]);
+        if (type == null) {
+            logger.warn("Skipping unknown change journal record at " + offset + ": " + lines);
+            return null;
+        }
+
+        ChangeRecord record = new ChangeRecord();
+        record.setType(type);
+        try {
+            record.setRevision(Long.parseLong(header[1]));
+            record.setDate(new Date(Long.parseLong(header[2]) * 1000));
+        } catch (NumberFormatException e) {
+            logger.warn("Skipping invalid change journal record at " + offset + ": " + lines.get(0));
+            return null;
+        }
+        record.setAuthor(header.length < 4 || header[3].isEmpty() ? null : header[3]);
+        record.setOffset(offset);
+
+        List<LogChangedPath> changedPaths = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            LogChangedPath changedPath = type == EChangeType.COMMIT ? changedPath(line) : lockedPath(line);
+            if (changedPath != null) {
+                changedPaths.add(changedPath);
+            }
+        }
+        record.setChangedPaths(changedPaths);
+        return record;
+    }
+
+    /**
+     * parse a line of svnlook changed: status of the node, status of the properties, two spaces, path,
+     * directories end with a slash
+     *
+     * @param line line
+     * @return changed path, null if the line is empty
+     */
+    private LogChangedPath changedPath(String line) {
+        if (line.length() < 5) {
+            return null;
+        }
+        String path = line.substring(4);
+        LogChangedPath changedPath = new LogChangedPath();
+        char status = line.charAt(0);
+        changedPath.setAction(status == 'A' || status == 'D' || status == 'R' ? String.valueOf(status) : "M");
+        changedPath.setKind(path.endsWith("/") ? "dir" : "file");
+        changedPath.setPath("/" + StringUtils.trimSlashes(path));
+        return changedPath;
+    }
+
+    /**
+     * parse a line of the paths passed to post-lock or post-unlock
+     *
+     * @param line line
+     * @return locked path, null if the line is empty
+     */
+    private LogChangedPath lockedPath(String line) {
+        if (StringUtils.isBlank(line)) {
+            return null;
+        }
+        LogChangedPath changedPath = new LogChangedPath();
+        changedPath.setKind("file");
+        changedPath.setPath("/" + StringUtils.trimSlashes(line));
+        return changedPath;
+    }
+}
@@ -0,0 +1,54 @@
+package com.marssvn.svnapi.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Measurements of one executed command
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class CommandSample {
+
+    /**
+     * program, e.g. svn
+     */
+    private String program;
+
+    /**
+     * svn subcommand, e.g. list, empty if the program has no subcommands
+     */
+    private String subcommand;
+
+    /**
+     * nanoseconds to start the process
+     */
+    private long spawnNanos;
+
+    /**
+     * nanoseconds from starting the process to its end, including reading the output
+     */
+    private long wallNanos;
+
+    /**
+     * bytes of the standard output
+     */
+    private long stdoutBytes;
+
+    /**
+     * bytes of the error output
+     */
+    private long stderrBytes;
+
+    /**
+     * exit code, -1 if the process was destroyed or its exit code is unknown
+     */
+    private int exitCode;
+
+    /**
+     * the command timed out
+     */
+    private boolean timedOut;
+}
@@ -0,0 +1,209 @@
+package com.marssvn.svnapi.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a wall time histogram of one command, e.g. svn list, see SimpleCommandMetrics
+ *
+ * @author zhangkx
+ */
+public class CommandStats {
+
+    /**
+     * upper bounds of the wall time histogram buckets in milliseconds, the last bucket is unbounded
+     */
+    private final static long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000, 60000};
+
+    /**
+     * count of commands
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * count of commands which timed out
+     */
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * count of commands which exited with a non-zero exit code, timeouts included
+     */
+    private final LongAdder failures = new LongAdder();
+
+    /**
+     * total spawn time
+     */
+    private final LongAdder spawnNanos = new LongAdder();
+
+    /**
+     * total wall time
+     */
+    private final LongAdder wallNanos = new LongAdder();
+
+    /**
+     * max wall time
+     */
+    private final LongAccumulator maxWallNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * total bytes of the standard output
+     */
+    private final LongAdder stdoutBytes = new LongAdder();
+
+    /**
+     * total bytes of the error output
+     */
+    private final LongAdder stderrBytes = new LongAdder();
+
+    /**
+     * wall time histogram, counts of commands by bucket
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+
+    /**
+     * add a sample
+     *
+     * @param sample CommandSample
+     */
+    void add(CommandSample sample) {
+        count.increment();
+        if (sample.isTimedOut()) {
+            timeouts.increment();
+        }
+        if (sample.getExitCode() != 0) {
+            failures.increment();
+        }
+        spawnNanos.add(sample.getSpawnNanos());
+        wallNanos.add(sample.getWallNanos());
+        maxWallNanos.accumulate(sample.getWallNanos());
+        stdoutBytes.add(sample.getStdoutBytes());
+        stderrBytes.add(sample.getStderrBytes());
+
+        long wallMillis = sample.getWallNanos() / 1000000;
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MS.length && wallMillis >= BUCKET_BOUNDS_MS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+    }
+
+    /**
+     * get count of commands
+     *
+     * @return count of commands
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * get count of commands which timed out
+     *
+     * @return count of commands which timed out
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * get count of commands which exited with a non-zero exit code
+     *
+     * @return count of commands which exited with a non-zero exit code
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * get total spawn time in nanoseconds
+     *
+     * @return total spawn time in nanoseconds
+     */
+    public long getSpawnNanos() {
+        return spawnNanos.sum();
+    }
+
+    /**
+     * get total wall time in nanoseconds
+     *
+     * @return total wall time in nanoseconds
+     */
+    public long getWallNanos() {
+        return wallNanos.sum();
+    }
+
+    /**
+     * get max wall time in nanoseconds
+     *
+     * @return max wall time in nanoseconds
+     */
+    public long getMaxWallNanos() {
+        return maxWallNanos.get();
+    }
+
+    /**
+     * get total bytes of the standard output
+     *
+     * @return total bytes of the standard output
+     */
+    public long getStdoutBytes() {
+        return stdoutBytes.sum();
+    }
+
+    /**
+     * get total bytes of the error output
+     *
+     * @return total bytes of the error output
+     */
+    public long getStderrBytes() {
+        return stderrBytes.sum();
+    }
+
+    /**
+     * get the mean wall time
+     *
+     * @return milliseconds, 0 if no command was recorded
+     */
+    public double getMeanWallMillis() {
+        long n = getCount();
+        return n == 0 ? 0 : getWallNanos() / 1000000.0 / n;
+    }
+
+    /**
+     * get an upper bound of a wall time percentile from the histogram
+     *
+     * @param percentile percentile, e.g. 0.99
+     * @return upper bound of the bucket in milliseconds, the max wall time for the unbounded bucket,
+     * 0 if no command was recorded
+     */
+    public long getWallPercentileMillis(double percentile) {
+        long total = 0;
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return BUCKET_BOUNDS_MS[i];
+            }
+        }
+        return getMaxWallNanos() / 1000000;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", timeouts=" + getTimeouts() + ", failures=" + getFailures()
+                + ", mean=" + String.format("%.1f", getMeanWallMillis()) + "ms"
+                + ", p99<=" + getWallPercentileMillis(0.99) + "ms"
+                + ", max=" + getMaxWallNanos() / 1000000 + "ms"
+                + ", stdout=" + getStdoutBytes() + "B, stderr=" + getStderrBytes() + "B";
+    }
+}
@@ -0,0 +1,24 @@
+package com.marssvn.svnapi.metrics;
+
+/**
+ * Receives a sample of every command executed by CommandUtils, see CommandUtils.setMetrics.
+ * <p>
+ * Implementations are called on the thread which executed the command and must be thread safe and cheap.
+ *
+ * @author zhangkx
+ */
+public interface ICommandMetrics {
+
+    /**
+     * metrics which discard all samples
+     */
+    ICommandMetrics NONE = sample -> {
+    };
+
+    /**
+     * record a finished command
+     *
+     * @param sample CommandSample
+     */
+    void record(CommandSample sample);
+}
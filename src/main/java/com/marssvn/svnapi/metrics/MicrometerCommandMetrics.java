@@ -0,0 +1,64 @@
+package com.marssvn.svnapi.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics published to a Micrometer registry, micrometer-core is an optional dependency.
+ * <p>
+ * Meters are tagged by program and subcommand:
+ * svnapi.command.spawn and svnapi.command.wall (timers, wall also tagged by exit code),
+ * svnapi.command.stdout and svnapi.command.stderr (byte distributions), svnapi.command.timeouts (counter).
+ *
+ * @author zhangkx
+ */
+public class MicrometerCommandMetrics implements ICommandMetrics {
+
+    /**
+     * meter registry
+     */
+    private final MeterRegistry registry;
+
+    public MicrometerCommandMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * record a finished command
+     *
+     * @param sample CommandSample
+     */
+    @Override
+    public void record(CommandSample sample) {
+        String program = sample.getProgram();
+        String subcommand = sample.getSubcommand() == null ? "" : sample.getSubcommand();
+
+        Timer.builder("svnapi.command.spawn")
+                .tag("program", program).tag("subcommand", subcommand)
+                .register(registry)
+                .record(sample.getSpawnNanos(), TimeUnit.NANOSECONDS);
+        Timer.builder("svnapi.command.wall")
+                .tag("program", program).tag("subcommand", subcommand)
+                .tag("exit", String.valueOf(sample.getExitCode()))
+                .register(registry)
+                .record(sample.getWallNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("svnapi.command.stdout").baseUnit("bytes")
+                .tag("program", program).tag("subcommand", subcommand)
+                .register(registry)
+                .record(sample.getStdoutBytes());
+        DistributionSummary.builder("svnapi.command.stderr").baseUnit("bytes")
+                .tag("program", program).tag("subcommand", subcommand)
+                .register(registry)
+                .record(sample.getStderrBytes());
+        if (sample.isTimedOut()) {
+            Counter.builder("svnapi.command.timeouts")
+                    .tag("program", program).tag("subcommand", subcommand)
+                    .register(registry)
+                    .increment();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.marssvn.svnapi.metrics;
+
+import com.marssvn.svnapi.common.StringUtils;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory metrics without dependencies, the default of CommandUtils.
+ * Samples are aggregated by command, e.g. "svn list", "svn info", "svnadmin create".
+ *
+ * @author zhangkx
+ */
+public class SimpleCommandMetrics implements ICommandMetrics {
+
+    /**
+     * stats, key: command
+     */
+    private final Map<String, CommandStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * record a finished command
+     *
+     * @param sample CommandSample
+     */
+    @Override
+    public void record(CommandSample sample) {
+        stats.computeIfAbsent(keyOf(sample.getProgram(), sample.getSubcommand()), key -> new CommandStats()).add(sample);
+    }
+
+    /**
+     * get stats of a command
+     *
+     * @param program    program, e.g. svn
+     * @param subcommand subcommand, e.g. list, empty or null if the program has no subcommands
+     * @return stats, null if the command was never executed
+     */
+    public CommandStats getStats(String program, String subcommand) {
+        return stats.get(keyOf(program, subcommand));
+    }
+
+    /**
+     * get stats of all commands
+     *
+     * @return key: command, e.g. "svn list", value: stats, sorted by command
+     */
+    public Map<String, CommandStats> getStats() {
+        return Collections.unmodifiableMap(new TreeMap<>(stats));
+    }
+
+    /**
+     * clear all stats
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * key of a command
+     *
+     * @param program    program
+     * @param subcommand subcommand
+     * @return key
+     */
+    private static String keyOf(String program, String subcommand) {
+        return StringUtils.isEmpty(subcommand) ? program : program + " " + subcommand;
+    }
+}
@@ -0,0 +1,49 @@
+package com.marssvn.svnapi.model;
+
+import com.marssvn.svnapi.enums.EChangeType;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * record of the change journal: a commit, or a lock or unlock of files
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class ChangeRecord {
+
+    /**
+     * type
+     */
+    private EChangeType type;
+
+    /**
+     * committed revision, 0 for locks and unlocks
+     */
+    private long revision;
+
+    /**
+     * author of the commit, or user who locked or unlocked
+     */
+    private String author;
+
+    /**
+     * time the hook ran, in seconds
+     */
+    private Date date;
+
+    /**
+     * changed paths of the commit, action A, D, M or R, or locked or unlocked files, action null.
+     * paths are repository paths with a leading slash, as in svn log
+     */
+    private List<LogChangedPath> changedPaths;
+
+    /**
+     * offset of the journal after the record
+     */
+    private long offset;
+}
@@ -0,0 +1,39 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * path changed by a commit
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class LogChangedPath {
+
+    /**
+     * action: A (added), D (deleted), R (replaced), M (modified)
+     */
+    private String action;
+
+    /**
+     * path from the repository root, e.g. /trunk/src/App.java
+     */
+    private String path;
+
+    /**
+     * kind: file, dir, or null if it is unknown
+     */
+    private String kind;
+
+    /**
+     * source path if the path was copied, otherwise null
+     */
+    private String copyFromPath;
+
+    /**
+     * source revision if the path was copied, otherwise -1
+     */
+    private long copyFromRevision = -1;
+}
@@ -4,6 +4,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author zhangkx
@@ -31,4 +32,9 @@ public class LogEntry {
      * commit message
      */
     private String message;
+
+    /**
+     * paths changed by the commit, null if changed paths were not requested
+     */
+    private List<LogChangedPath> changedPaths;
 }
@@ -0,0 +1,35 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * one page of commit logs, newest first, see LogPager
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class LogPage {
+
+    /**
+     * log entries of the page
+     */
+    private List<LogEntry> entries;
+
+    /**
+     * cursor of the next page, the revision to continue from, 0 if this is the last page
+     */
+    private long nextCursor;
+
+    /**
+     * whether there are older entries after this page
+     *
+     * @return true if there is a next page
+     */
+    public boolean hasNext() {
+        return nextCursor > 0;
+    }
+}
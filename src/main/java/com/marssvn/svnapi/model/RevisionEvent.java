@@ -0,0 +1,46 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * the head revision of a watched repository has advanced
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class RevisionEvent {
+
+    /**
+     * absolute path of the repository directory
+     */
+    private String repositoryPath;
+
+    /**
+     * head revision before the event
+     */
+    private long previousRevision;
+
+    /**
+     * new head revision, several commits may be reported by one event
+     */
+    private long revision;
+
+    /**
+     * time the new revision was seen
+     */
+    private Date detectedAt;
+
+    public RevisionEvent() {
+    }
+
+    public RevisionEvent(String repositoryPath, long previousRevision, long revision, Date detectedAt) {
+        this.repositoryPath = repositoryPath;
+        this.previousRevision = previousRevision;
+        this.revision = revision;
+        this.detectedAt = detectedAt;
+    }
+}
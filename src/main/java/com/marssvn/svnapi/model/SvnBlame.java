@@ -0,0 +1,31 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * blame of a file at a revision
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnBlame {
+
+    /**
+     * relative path of the file
+     */
+    private String path;
+
+    /**
+     * revision of the blame
+     */
+    private long revision;
+
+    /**
+     * lines of the file
+     */
+    private List<SvnBlameLine> lines;
+}
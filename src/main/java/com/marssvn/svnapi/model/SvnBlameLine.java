@@ -0,0 +1,41 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * line of a blame, with the commit which last changed it
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnBlameLine {
+
+    /**
+     * line number, starts from 1
+     */
+    private int lineNumber;
+
+    /**
+     * revision which last changed the line
+     */
+    private long revision;
+
+    /**
+     * author of the revision
+     */
+    private String author;
+
+    /**
+     * date of the revision
+     */
+    private Date date;
+
+    /**
+     * line content, without the line break
+     */
+    private String content;
+}
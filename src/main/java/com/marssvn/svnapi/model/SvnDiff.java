@@ -0,0 +1,47 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * one page of a diff, the files whose hunks (or whose header, for files without hunks) are in the page
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnDiff {
+
+    /**
+     * relative path
+     */
+    private String path;
+
+    /**
+     * old revision
+     */
+    private long oldRevision;
+
+    /**
+     * new revision
+     */
+    private long newRevision;
+
+    /**
+     * index of the first hunk of the page in the whole diff
+     */
+    private int firstHunk;
+
+    /**
+     * index of the first hunk of the next page, -1 if this is the last page
+     */
+    private int nextHunk = -1;
+
+    /**
+     * files of the page
+     */
+    private List<SvnDiffFile> files = new ArrayList<>();
+}
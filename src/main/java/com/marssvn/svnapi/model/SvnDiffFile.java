@@ -0,0 +1,47 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * diff of one file or directory
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnDiffFile {
+
+    /**
+     * path, relative to the diffed path, as in the Index: line
+     */
+    private String path;
+
+    /**
+     * old revision, -1 if the file did not exist (added)
+     */
+    private long oldRevision = -1;
+
+    /**
+     * new revision, -1 if the file does not exist (deleted)
+     */
+    private long newRevision = -1;
+
+    /**
+     * the file is marked as a binary type, its content is not compared
+     */
+    private boolean binary;
+
+    /**
+     * hunks of the page
+     */
+    private List<SvnDiffHunk> hunks = new ArrayList<>();
+
+    /**
+     * property changes
+     */
+    private List<SvnPropertyChange> propertyChanges = new ArrayList<>();
+}
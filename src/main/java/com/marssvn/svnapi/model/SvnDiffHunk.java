@@ -0,0 +1,52 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * hunk of a file diff: @@ -oldStart,oldCount +newStart,newCount @@ section
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnDiffHunk {
+
+    /**
+     * first line in the old file
+     */
+    private int oldStart;
+
+    /**
+     * count of lines in the old file
+     */
+    private int oldCount;
+
+    /**
+     * first line in the new file
+     */
+    private int newStart;
+
+    /**
+     * count of lines in the new file
+     */
+    private int newCount;
+
+    /**
+     * text after the range, e.g. the enclosing function, may be empty
+     */
+    private String section;
+
+    /**
+     * lines of the hunk
+     */
+    private List<SvnDiffLine> lines = new ArrayList<>();
+
+    /**
+     * the hunk has more lines than a page can hold, the rest of the lines were skipped
+     */
+    private boolean truncated;
+}
@@ -0,0 +1,40 @@
+package com.marssvn.svnapi.model;
+
+import com.marssvn.svnapi.enums.EDiffLineType;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * line of a diff hunk
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnDiffLine {
+
+    /**
+     * line type
+     */
+    private EDiffLineType type;
+
+    /**
+     * line content, without the prefix and the line break
+     */
+    private String content;
+
+    /**
+     * line number in the old file, -1 for added lines
+     */
+    private int oldLineNumber;
+
+    /**
+     * line number in the new file, -1 for deleted lines
+     */
+    private int newLineNumber;
+
+    /**
+     * the line has no line break at the end of the file
+     */
+    private boolean noNewline;
+}
@@ -0,0 +1,34 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * changed path of a diff summary (svn diff --summarize)
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnDiffSummary {
+
+    /**
+     * relative path
+     */
+    private String path;
+
+    /**
+     * kind: file, dir
+     */
+    private String kind;
+
+    /**
+     * change of the content: added, deleted, modified, none
+     */
+    private String item;
+
+    /**
+     * change of the properties: modified, none
+     */
+    private String props;
+}
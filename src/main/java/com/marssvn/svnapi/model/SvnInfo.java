@@ -0,0 +1,71 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * svn info of a file or directory
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnInfo extends BaseBean {
+
+    /**
+     * node kind: file, dir
+     */
+    private String kind;
+
+    /**
+     * file path(relative)
+     */
+    private String path;
+
+    /**
+     * url
+     */
+    private String url;
+
+    /**
+     * url relative to the repository root, e.g. ^/src/main
+     */
+    private String relativeUrl;
+
+    /**
+     * repository root url
+     */
+    private String repositoryRoot;
+
+    /**
+     * repository uuid
+     */
+    private String repositoryUuid;
+
+    /**
+     * revision of the info
+     */
+    private long revision;
+
+    /**
+     * last changed revision
+     */
+    private long commitRevision;
+
+    /**
+     * last changed author
+     */
+    private String commitAuthor;
+
+    /**
+     * last changed date
+     */
+    private Date commitDate;
+
+    /**
+     * lock
+     */
+    private SvnLock lock;
+}
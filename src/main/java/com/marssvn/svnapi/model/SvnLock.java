@@ -9,6 +9,11 @@ import java.util.Date;
 @Setter
 public class SvnLock extends BaseBean {
 
+    /**
+     * path of the locked file, relative to the root path, set by lock tables
+     */
+    private String path;
+
     /**
      * SvnLock token
      */
@@ -0,0 +1,38 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * outcome of locking or unlocking one file
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnLockResult {
+
+    /**
+     * relative path of the file
+     */
+    private String path;
+
+    /**
+     * whether the file was locked or unlocked
+     */
+    private boolean success;
+
+    /**
+     * reason of the failure, e.g. the warning of svn, null if succeeded
+     */
+    private String error;
+
+    public SvnLockResult() {
+    }
+
+    public SvnLockResult(String path, boolean success, String error) {
+        this.path = path;
+        this.success = success;
+        this.error = error;
+    }
+}
@@ -0,0 +1,34 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * change of a versioned property
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnPropertyChange {
+
+    /**
+     * property name, e.g. svn:ignore
+     */
+    private String name;
+
+    /**
+     * action: Added, Deleted, Modified
+     */
+    private String action;
+
+    /**
+     * old value, null if the property was added
+     */
+    private String oldValue;
+
+    /**
+     * new value, null if the property was deleted
+     */
+    private String newValue;
+}
@@ -50,6 +50,11 @@ public class SvnRepository {
      */
     private SvnUser adminUser;
 
+    /**
+     * whether createRepository installs the hooks of the change journal
+     */
+    private boolean changeJournal;
+
     /**
      * Get Root Path, if root path is blank, return System.getProperty("user.home") + "/svn"
      *
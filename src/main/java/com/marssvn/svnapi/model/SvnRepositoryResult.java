@@ -0,0 +1,38 @@
+package com.marssvn.svnapi.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * outcome of creating one repository of a batch
+ *
+ * @author zhangkx
+ */
+@Getter
+@Setter
+public class SvnRepositoryResult {
+
+    /**
+     * repository, with the admin user set if created
+     */
+    private SvnRepository repository;
+
+    /**
+     * whether the repository was created
+     */
+    private boolean success;
+
+    /**
+     * reason of the failure, null if succeeded
+     */
+    private String error;
+
+    public SvnRepositoryResult() {
+    }
+
+    public SvnRepositoryResult(SvnRepository repository, boolean success, String error) {
+        this.repository = repository;
+        this.success = success;
+        this.error = error;
+    }
+}
@@ -0,0 +1,54 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+
+/**
+ * Base of the streaming readers of svn xml output, holds the xml stream reader of the input stream.
+ *
+ * @author zhangkx
+ */
+abstract class AbstractXmlReader implements Closeable {
+
+    /**
+     * xml input factory, thread safe after configured
+     */
+    private final static XMLInputFactory XML_INPUT_FACTORY;
+
+    static {
+        XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, true);
+    }
+
+    /**
+     * xml stream reader
+     */
+    protected final XMLStreamReader reader;
+
+    AbstractXmlReader(InputStream inputStream) {
+        try {
+            this.reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+        } catch (XMLStreamException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * close the xml stream reader, the underlying input stream is not closed
+     */
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+}
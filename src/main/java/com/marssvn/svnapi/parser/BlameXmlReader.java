@@ -0,0 +1,109 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnBlameLine;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+
+/**
+ * Streaming reader of "svn blame --xml" output, pulls one line at a time from the stream.
+ * <p>
+ * the output has no content, content of the lines is null.
+ *
+ * <pre>
+ * &lt;blame&gt;
+ *   &lt;target path="svn://localhost/repo/trunk/App.java"&gt;
+ *     &lt;entry line-number="1"&gt;
+ *       &lt;commit revision="3"&gt;&lt;author&gt;marssvn&lt;/author&gt;&lt;date&gt;...&lt;/date&gt;&lt;/commit&gt;
+ *     &lt;/entry&gt;
+ *   &lt;/target&gt;
+ * &lt;/blame&gt;
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class BlameXmlReader extends AbstractXmlReader {
+
+    public BlameXmlReader(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * read next line
+     *
+     * @return line, null if there are no more lines
+     */
+    public SvnBlameLine next() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "entry".equals(reader.getLocalName())) {
+                    return readEntry();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * read &lt;entry&gt;, the reader is at the start element,
+     * a line without commit (e.g. a local modification) has revision -1
+     *
+     * @return line
+     * @throws XMLStreamException XMLStreamException
+     */
+    private SvnBlameLine readEntry() throws XMLStreamException {
+        SvnBlameLine line = new SvnBlameLine();
+        line.setLineNumber(Integer.parseInt(reader.getAttributeValue(null, "line-number")));
+        line.setRevision(-1);
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "entry".equals(reader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "commit":
+                    line.setRevision(Long.parseLong(reader.getAttributeValue(null, "revision")));
+                    break;
+                case "author":
+                    line.setAuthor(reader.getElementText());
+                    break;
+                case "date":
+                    line.setDate(DateUtils.parseDate(reader.getElementText()));
+                    break;
+                case "merged":
+
+                    // commit of the merge source with -g, the commit of the line is kept
+                    skipElement();
+                    break;
+                default:
+                    break;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * skip the current element and its children
+     *
+     * @throws XMLStreamException XMLStreamException
+     */
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
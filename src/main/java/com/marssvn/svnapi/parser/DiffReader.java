@@ -0,0 +1,444 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.enums.EDiffLineType;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnDiff;
+import com.marssvn.svnapi.model.SvnDiffFile;
+import com.marssvn.svnapi.model.SvnDiffHunk;
+import com.marssvn.svnapi.model.SvnDiffLine;
+import com.marssvn.svnapi.model.SvnPropertyChange;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader of "svn diff" output (unified diff), reads one page of hunks into a SvnDiff.
+ * <p>
+ * Hunks are numbered across all files of the diff from 0, a page holds the hunks firstHunk to
+ * firstHunk + maxHunks - 1 and the files they belong to, a file whose hunks span two pages is in both.
+ * A file without hunks (binary, property changes only) is in the page of the hunks around it.
+ * Reading stops at the first hunk after the page, so the rest of the output is not read.
+ * Lines of a hunk beyond maxHunkLines are skipped and the hunk is marked as truncated.
+ *
+ * <pre>
+ * Index: App.java
+ * ===================================================================
+ * --- App.java	(revision 3)
+ * +++ App.java	(revision 4)
+ * &#64;&#64; -1,3 +1,4 &#64;&#64; public class App
+ *  unchanged
+ * -deleted
+ * +added
+ * \ No newline at end of file
+ *
+ * Property changes on: App.java
+ * ___________________________________________________________________
+ * Added: svn:eol-style
+ * ## -0,0 +1 ##
+ * +native
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class DiffReader {
+
+    /**
+     * default max count of lines of a hunk
+     */
+    public final static int DEFAULT_MAX_HUNK_LINES = 10000;
+
+    /**
+     * hunk header: @@ -oldStart[,oldCount] +newStart[,newCount] @@ section
+     */
+    private final static Pattern HUNK_HEADER = Pattern.compile("^@@ -(\\d+)(?:,(\\d+))? \\+(\\d+)(?:,(\\d+))? @@ ?(.*)$");
+
+    /**
+     * property value range: ## -a[,b] +c[,d] ##
+     */
+    private final static Pattern PROPERTY_HEADER = Pattern.compile("^## -\\d+(?:,(\\d+))? \\+\\d+(?:,(\\d+))? ##.*$");
+
+    /**
+     * revision of a file header: path\t(revision N), (nonexistent) or (working copy)
+     */
+    private final static Pattern FILE_REVISION = Pattern.compile("\\(revision (\\d+)\\)\\s*$");
+
+    private final static String INDEX = "Index: ";
+    private final static String PROPERTY_CHANGES = "Property changes on: ";
+    private final static String BINARY = "Cannot display: file marked as a binary type.";
+    private final static String NO_NEWLINE = "\\ ";
+
+    /**
+     * diff output
+     */
+    private final Reader reader;
+
+    /**
+     * index of the first hunk of the page
+     */
+    private final int firstHunk;
+
+    /**
+     * end of the page (exclusive), Integer.MAX_VALUE if there is no limit
+     */
+    private final int endHunk;
+
+    /**
+     * max count of lines of a hunk
+     */
+    private final int maxHunkLines;
+
+    /**
+     * line which was read but not consumed
+     */
+    private String pushedBack;
+
+    /**
+     * whether the end of the output was reached
+     */
+    private boolean eof;
+
+    /**
+     * index of the next hunk
+     */
+    private int hunkIndex;
+
+    /**
+     * file being read
+     */
+    private SvnDiffFile file;
+
+    /**
+     * whether the file being read is in the page
+     */
+    private boolean fileInPage;
+
+    /**
+     * last line of the page, for a following "\ No newline at end of file"
+     */
+    private SvnDiffLine lastLine;
+
+    public DiffReader(InputStream inputStream, int firstHunk, int maxHunks) {
+        this(inputStream, firstHunk, maxHunks, DEFAULT_MAX_HUNK_LINES);
+    }
+
+    /**
+     * constructor
+     *
+     * @param inputStream  diff output, UTF-8
+     * @param firstHunk    index of the first hunk of the page
+     * @param maxHunks     max count of hunks of the page, 0 means no limit
+     * @param maxHunkLines max count of lines of a hunk
+     */
+    public DiffReader(InputStream inputStream, int firstHunk, int maxHunks, int maxHunkLines) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.firstHunk = Math.max(0, firstHunk);
+        this.endHunk = maxHunks > 0 ? this.firstHunk + maxHunks : Integer.MAX_VALUE;
+        this.maxHunkLines = maxHunkLines;
+    }
+
+    /**
+     * read the page, the input stream is not closed
+     *
+     * @return page, its nextHunk is -1 if the whole output was read
+     */
+    public SvnDiff read() {
+        SvnDiff diff = new SvnDiff();
+        diff.setFirstHunk(firstHunk);
+        try {
+            String line;
+            while ((line = readLine()) != null) {
+                if (line.startsWith(INDEX)) {
+                    if (hunkIndex >= endHunk) {
+                        diff.setNextHunk(hunkIndex);
+                        return diff;
+                    }
+                    startFile(diff, line.substring(INDEX.length()));
+                } else if (line.startsWith(PROPERTY_CHANGES)) {
+                    String path = line.substring(PROPERTY_CHANGES.length());
+                    if (file == null || !path.equals(file.getPath())) {
+                        if (hunkIndex >= endHunk) {
+                            diff.setNextHunk(hunkIndex);
+                            return diff;
+                        }
+                        startFile(diff, path);
+                    }
+                    readPropertyChanges();
+                } else if (file == null) {
+
+                    // text before the first file, e.g. warnings
+                    continue;
+                } else if (line.startsWith("--- ")) {
+                    file.setOldRevision(fileRevision(line));
+                } else if (line.startsWith("+++ ")) {
+                    file.setNewRevision(fileRevision(line));
+                } else if (line.startsWith(BINARY)) {
+                    file.setBinary(true);
+                } else if (line.startsWith("@@ ")) {
+                    Matcher matcher = HUNK_HEADER.matcher(line);
+                    if (!matcher.matches()) {
+                        continue;
+                    }
+                    if (hunkIndex >= endHunk) {
+                        diff.setNextHunk(hunkIndex);
+                        return diff;
+                    }
+                    readHunk(diff, matcher);
+                } else if (line.startsWith(NO_NEWLINE) && lastLine != null) {
+                    lastLine.setNoNewline(true);
+                }
+            }
+            return diff;
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * start a file, it is in the page if no hunk of the page is left behind
+     *
+     * @param diff page
+     * @param path path of the file
+     */
+    private void startFile(SvnDiff diff, String path) {
+        file = new SvnDiffFile();
+        file.setPath(path);
+        fileInPage = false;
+        lastLine = null;
+        if (hunkIndex >= firstHunk) {
+            addFile(diff);
+        }
+    }
+
+    /**
+     * add the current file to the page
+     *
+     * @param diff page
+     */
+    private void addFile(SvnDiff diff) {
+        if (!fileInPage) {
+            diff.getFiles().add(file);
+            fileInPage = true;
+        }
+    }
+
+    /**
+     * read the lines of a hunk, the lines are counted by the ranges of the header
+     *
+     * @param diff    page
+     * @param matcher matched hunk header
+     * @throws IOException IOException
+     */
+    private void readHunk(SvnDiff diff, Matcher matcher) throws IOException {
+        SvnDiffHunk hunk = new SvnDiffHunk();
+        hunk.setOldStart(Integer.parseInt(matcher.group(1)));
+        hunk.setOldCount(matcher.group(2) == null ? 1 : Integer.parseInt(matcher.group(2)));
+        hunk.setNewStart(Integer.parseInt(matcher.group(3)));
+        hunk.setNewCount(matcher.group(4) == null ? 1 : Integer.parseInt(matcher.group(4)));
+        hunk.setSection(matcher.group(5));
+        boolean inPage = hunkIndex >= firstHunk;
+        hunkIndex++;
+        if (inPage) {
+            addFile(diff);
+            file.getHunks().add(hunk);
+        }
+        lastLine = null;
+
+        int oldLeft = hunk.getOldCount();
+        int newLeft = hunk.getNewCount();
+        int oldLineNumber = hunk.getOldStart();
+        int newLineNumber = hunk.getNewStart();
+        String line;
+        while ((oldLeft > 0 || newLeft > 0) && (line = readLine()) != null) {
+            EDiffLineType type;
+            if (line.isEmpty() || line.charAt(0) == ' ') {
+
+                // some tools strip the space of an empty context line
+                type = EDiffLineType.CONTEXT;
+            } else if (line.charAt(0) == '-') {
+                type = EDiffLineType.DELETED;
+            } else if (line.charAt(0) == '+') {
+                type = EDiffLineType.ADDED;
+            } else if (line.startsWith(NO_NEWLINE)) {
+                if (lastLine != null) {
+                    lastLine.setNoNewline(true);
+                }
+                continue;
+            } else {
+
+                // malformed hunk, the line is read again as a header
+                pushedBack = line;
+                break;
+            }
+
+            SvnDiffLine diffLine = new SvnDiffLine();
+            diffLine.setType(type);
+            diffLine.setContent(line.isEmpty() ? "" : line.substring(1));
+            diffLine.setOldLineNumber(type == EDiffLineType.ADDED ? -1 : oldLineNumber);
+            diffLine.setNewLineNumber(type == EDiffLineType.DELETED ? -1 : newLineNumber);
+            if (type != EDiffLineType.ADDED) {
+                oldLeft--;
+                oldLineNumber++;
+            }
+            if (type != EDiffLineType.DELETED) {
+                newLeft--;
+                newLineNumber++;
+            }
+            if (!inPage) {
+                continue;
+            }
+            if (hunk.getLines().size() < maxHunkLines) {
+                hunk.getLines().add(diffLine);
+                lastLine = diffLine;
+            } else {
+                hunk.setTruncated(true);
+                lastLine = null;
+            }
+        }
+    }
+
+    /**
+     * read the property changes of the current file, up to the first line which does not belong to them
+     *
+     * @throws IOException IOException
+     */
+    private void readPropertyChanges() throws IOException {
+        SvnPropertyChange change = null;
+        StringBuilder oldValue = null;
+        StringBuilder newValue = null;
+        String line;
+        while ((line = readLine()) != null) {
+            Matcher matcher = PROPERTY_HEADER.matcher(line);
+            if (line.startsWith("___")) {
+                continue;
+            }
+            int colon = line.indexOf(": ");
+            String action = colon > 0 ? line.substring(0, colon) : "";
+            if ("Added".equals(action) || "Deleted".equals(action) || "Modified".equals(action) || "Name".equals(action)) {
+                setValues(change, oldValue, newValue);
+                change = new SvnPropertyChange();
+                change.setName(line.substring(colon + 2));
+                change.setAction("Name".equals(action) ? "Modified" : action);
+                oldValue = null;
+                newValue = null;
+                if (fileInPage) {
+                    file.getPropertyChanges().add(change);
+                }
+            } else if (change != null && matcher.matches()) {
+                int oldLeft = matcher.group(1) == null ? 1 : Integer.parseInt(matcher.group(1));
+                int newLeft = matcher.group(2) == null ? 1 : Integer.parseInt(matcher.group(2));
+                while ((oldLeft > 0 || newLeft > 0) && (line = readLine()) != null) {
+                    char prefix = line.isEmpty() ? ' ' : line.charAt(0);
+                    String content = line.isEmpty() ? "" : line.substring(1);
+                    if (prefix == '-' || prefix == ' ') {
+                        oldValue = append(oldValue, content);
+                        oldLeft--;
+                    }
+                    if (prefix == '+' || prefix == ' ') {
+                        newValue = append(newValue, content);
+                        newLeft--;
+                    }
+                    if (prefix != '-' && prefix != '+' && prefix != ' ') {
+                        pushedBack = line;
+                        break;
+                    }
+                }
+            } else if (change != null && line.startsWith("   - ")) {
+
+                // svn 1.6 format
+                oldValue = append(oldValue, line.substring(5));
+            } else if (change != null && line.startsWith("   + ")) {
+                newValue = append(newValue, line.substring(5));
+            } else if (line.startsWith(NO_NEWLINE)) {
+                continue;
+            } else {
+                pushedBack = line;
+                break;
+            }
+        }
+        setValues(change, oldValue, newValue);
+    }
+
+    /**
+     * set the values of a property change
+     *
+     * @param change   property change, may be null
+     * @param oldValue old value, null if there was none
+     * @param newValue new value, null if there is none
+     */
+    private static void setValues(SvnPropertyChange change, StringBuilder oldValue, StringBuilder newValue) {
+        if (change != null) {
+            change.setOldValue(oldValue == null ? null : oldValue.toString());
+            change.setNewValue(newValue == null ? null : newValue.toString());
+        }
+    }
+
+    /**
+     * append a line to a multi-line value
+     *
+     * @param value value, may be null
+     * @param line  line
+     * @return value
+     */
+    private static StringBuilder append(StringBuilder value, String line) {
+        if (value == null) {
+            return new StringBuilder(line);
+        }
+        return value.append('\n').append(line);
+    }
+
+    /**
+     * get revision of a file header
+     *
+     * @param line --- or +++ line
+     * @return revision, -1 if the file does not exist
+     */
+    private static long fileRevision(String line) {
+        Matcher matcher = FILE_REVISION.matcher(line);
+        if (!matcher.find()) {
+            return -1;
+        }
+        long revision = Long.parseLong(matcher.group(1));
+
+        // svn 1.7 and before show an added file as revision 0
+        return revision == 0 ? -1 : revision;
+    }
+
+    /**
+     * read a line, only '\n' breaks a line, a '\r' before it is dropped
+     *
+     * @return line, null at the end of the output
+     * @throws IOException IOException
+     */
+    private String readLine() throws IOException {
+        if (pushedBack != null) {
+            String line = pushedBack;
+            pushedBack = null;
+            return line;
+        }
+        if (eof) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) >= 0 && c != '\n') {
+            line.append((char) c);
+        }
+        if (c < 0) {
+            eof = true;
+            if (line.length() == 0) {
+                return null;
+            }
+        }
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,53 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnDiffSummary;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+
+/**
+ * Streaming reader of "svn diff --summarize --xml" output, pulls one changed path at a time from the stream.
+ * <p>
+ * the path of an entry is the url as printed by svn.
+ *
+ * <pre>
+ * &lt;diff&gt;
+ *   &lt;paths&gt;
+ *     &lt;path item="modified" props="none" kind="file"&gt;svn://localhost/repo/trunk/App.java&lt;/path&gt;
+ *   &lt;/paths&gt;
+ * &lt;/diff&gt;
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class DiffSummaryXmlReader extends AbstractXmlReader {
+
+    public DiffSummaryXmlReader(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * read next changed path
+     *
+     * @return changed path, null if there are no more paths
+     */
+    public SvnDiffSummary next() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "path".equals(reader.getLocalName())) {
+                    SvnDiffSummary summary = new SvnDiffSummary();
+                    summary.setItem(reader.getAttributeValue(null, "item"));
+                    summary.setProps(reader.getAttributeValue(null, "props"));
+                    summary.setKind(reader.getAttributeValue(null, "kind"));
+                    summary.setPath(reader.getElementText().trim());
+                    return summary;
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnInfo;
+import com.marssvn.svnapi.model.SvnLock;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+
+/**
+ * Streaming reader of "svn info --xml" output, pulls one SvnInfo at a time from the stream.
+ * <p>
+ * the path of SvnInfo is the path attribute of the entry, which is the name of the target for url targets,
+ * use url to match an info with its target.
+ *
+ * <pre>
+ * &lt;info&gt;
+ *   &lt;entry kind="dir" path="src" revision="3"&gt;
+ *     &lt;url&gt;svn://localhost/repo/src&lt;/url&gt;
+ *     &lt;relative-url&gt;^/src&lt;/relative-url&gt;
+ *     &lt;repository&gt;&lt;root&gt;svn://localhost/repo&lt;/root&gt;&lt;uuid&gt;...&lt;/uuid&gt;&lt;/repository&gt;
+ *     &lt;commit revision="2"&gt;&lt;author&gt;marssvn&lt;/author&gt;&lt;date&gt;...&lt;/date&gt;&lt;/commit&gt;
+ *     &lt;lock&gt;&lt;token&gt;...&lt;/token&gt;&lt;owner&gt;...&lt;/owner&gt;&lt;comment&gt;...&lt;/comment&gt;&lt;created&gt;...&lt;/created&gt;&lt;/lock&gt;
+ *   &lt;/entry&gt;
+ * &lt;/info&gt;
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class InfoXmlReader extends AbstractXmlReader {
+
+    public InfoXmlReader(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * read next info
+     *
+     * @return info, null if there are no more entries
+     */
+    public SvnInfo next() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "entry".equals(reader.getLocalName())) {
+                    return readEntry();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * read &lt;entry&gt;, the reader is at the start element
+     *
+     * @return SvnInfo
+     * @throws XMLStreamException XMLStreamException
+     */
+    private SvnInfo readEntry() throws XMLStreamException {
+        SvnInfo svnInfo = new SvnInfo();
+        svnInfo.setKind(reader.getAttributeValue(null, "kind"));
+        svnInfo.setPath(reader.getAttributeValue(null, "path"));
+        String revision = reader.getAttributeValue(null, "revision");
+        if (revision != null) {
+            svnInfo.setRevision(Long.parseLong(revision));
+        }
+
+        SvnLock svnLock = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "entry".equals(reader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "url":
+                    svnInfo.setUrl(reader.getElementText());
+                    break;
+                case "relative-url":
+                    svnInfo.setRelativeUrl(reader.getElementText());
+                    break;
+                case "root":
+                    svnInfo.setRepositoryRoot(reader.getElementText());
+                    break;
+                case "uuid":
+                    svnInfo.setRepositoryUuid(reader.getElementText());
+                    break;
+                case "commit":
+                    svnInfo.setCommitRevision(Long.parseLong(reader.getAttributeValue(null, "revision")));
+                    break;
+                case "author":
+                    svnInfo.setCommitAuthor(reader.getElementText());
+                    break;
+                case "date":
+                    svnInfo.setCommitDate(DateUtils.parseDate(reader.getElementText()));
+                    break;
+                case "lock":
+                    svnLock = new SvnLock();
+                    break;
+                case "token":
+                    svnLock.setToken(reader.getElementText());
+                    break;
+                case "owner":
+                    svnLock.setOwner(reader.getElementText());
+                    break;
+                case "comment":
+                    svnLock.setComment(reader.getElementText());
+                    break;
+                case "created":
+                    svnLock.setCreatedAt(DateUtils.parseDate(reader.getElementText()));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (svnLock != null && svnLock.getToken() != null) {
+            svnInfo.setLock(svnLock);
+        }
+        return svnInfo;
+    }
+}
@@ -0,0 +1,159 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnLock;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streaming reader of "svn list --xml" output, pulls one SvnEntry at a time from the stream
+ * without building a document in memory.
+ * <p>
+ * kind, name, size, extension, commit and lock are read from the xml,
+ * paths and head revision are left to the caller.
+ *
+ * <pre>
+ * &lt;lists&gt;
+ *   &lt;list path="svn://localhost/repo/src"&gt;
+ *     &lt;entry kind="file"&gt;
+ *       &lt;name&gt;a.txt&lt;/name&gt;
+ *       &lt;size&gt;12&lt;/size&gt;
+ *       &lt;commit revision="3"&gt;&lt;author&gt;marssvn&lt;/author&gt;&lt;date&gt;...&lt;/date&gt;&lt;/commit&gt;
+ *       &lt;lock&gt;&lt;token&gt;...&lt;/token&gt;&lt;owner&gt;...&lt;/owner&gt;&lt;comment&gt;...&lt;/comment&gt;&lt;created&gt;...&lt;/created&gt;&lt;/lock&gt;
+ *     &lt;/entry&gt;
+ *   &lt;/list&gt;
+ * &lt;/lists&gt;
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class ListXmlReader extends AbstractXmlReader {
+
+    /**
+     * path attribute of current &lt;list&gt;
+     */
+    private String listPath;
+
+    /**
+     * listener of &lt;list&gt; start elements, receives the path attribute
+     */
+    private Consumer<String> listListener;
+
+    public ListXmlReader(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * read next entry
+     *
+     * @return entry, null if there are no more entries
+     */
+    public SvnEntry next() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("list".equals(name)) {
+                        listPath = reader.getAttributeValue(null, "path");
+                        if (listListener != null) {
+                            listListener.accept(listPath);
+                        }
+                    } else if ("entry".equals(name)) {
+                        return readEntry();
+                    }
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * get path attribute of the &lt;list&gt; which contains the last entry
+     *
+     * @return list path (full path of the list target)
+     */
+    public String getListPath() {
+        return listPath;
+    }
+
+    /**
+     * set listener of &lt;list&gt; start elements, a list without entries is only seen by the listener
+     *
+     * @param listListener listener, receives the path attribute of the list
+     */
+    public void setListListener(Consumer<String> listListener) {
+        this.listListener = listListener;
+    }
+
+    /**
+     * read &lt;entry&gt;, the reader is at the start element
+     *
+     * @return SvnEntry
+     * @throws XMLStreamException XMLStreamException
+     */
+    private SvnEntry readEntry() throws XMLStreamException {
+        SvnEntry svnEntry = new SvnEntry();
+        svnEntry.setKind(reader.getAttributeValue(null, "kind"));
+
+        SvnLock svnLock = null;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "entry".equals(reader.getLocalName())) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "name":
+                    svnEntry.setName(reader.getElementText());
+                    break;
+                case "size":
+                    svnEntry.setSize(Long.parseLong(reader.getElementText()));
+                    break;
+                case "commit":
+                    svnEntry.setCommitRevision(Long.parseLong(reader.getAttributeValue(null, "revision")));
+                    break;
+                case "author":
+                    svnEntry.setCommitAuthor(reader.getElementText());
+                    break;
+                case "date":
+                    svnEntry.setCommitDate(DateUtils.parseDate(reader.getElementText()));
+                    break;
+                case "lock":
+                    svnLock = new SvnLock();
+                    break;
+                case "token":
+                    svnLock.setToken(reader.getElementText());
+                    break;
+                case "owner":
+                    svnLock.setOwner(reader.getElementText());
+                    break;
+                case "comment":
+                    svnLock.setComment(reader.getElementText());
+                    break;
+                case "created":
+                    svnLock.setCreatedAt(DateUtils.parseDate(reader.getElementText()));
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        String entryName = svnEntry.getName();
+        if ("file".equals(svnEntry.getKind()) && entryName != null) {
+            svnEntry.setExtension(entryName.substring(entryName.lastIndexOf(".") + 1));
+        }
+        if (svnLock != null && svnLock.getToken() != null) {
+            svnEntry.setLock(svnLock);
+        }
+        return svnEntry;
+    }
+}
@@ -0,0 +1,76 @@
+package com.marssvn.svnapi.parser;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser of the output of "svn lock" and "svn unlock" with many targets.
+ * <p>
+ * Each target which was locked or unlocked is printed to the standard output,
+ * each target which failed is printed as a warning to the error output with its repository path,
+ * the command fails with E200009 at the end if any target failed.
+ *
+ * <pre>
+ * 'svn://localhost/repo/trunk/a.txt' locked by user 'marssvn'.
+ * 'svn://localhost/repo/trunk/a.txt' unlocked.
+ * svn: warning: W160035: Path '/trunk/b.txt' is already locked by user 'other' in filesystem '/repo/db'
+ * svn: E200009: One or more locks could not be obtained
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class LockOutputParser {
+
+    private final static String LOCKED = "' locked by user '";
+    private final static String UNLOCKED = "' unlocked.";
+    private final static String WARNING = "svn: warning: ";
+
+    private LockOutputParser() {
+    }
+
+    /**
+     * get the targets which were locked or unlocked
+     *
+     * @param output standard output
+     * @return targets as printed by svn, usually urls
+     */
+    public static List<String> parseDone(String output) {
+        List<String> targets = new ArrayList<>();
+        for (String line : output.split("\\R")) {
+            if (!line.startsWith("'")) {
+                continue;
+            }
+            int end = line.lastIndexOf(LOCKED);
+            if (end < 0 && line.endsWith(UNLOCKED)) {
+                end = line.length() - UNLOCKED.length();
+            }
+            if (end > 0) {
+                targets.add(line.substring(1, end));
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * get the warnings of the targets which failed
+     *
+     * @param error error output
+     * @return key: first quoted path of the warning, usually the repository path, value: warning
+     */
+    public static Map<String, String> parseWarnings(String error) {
+        Map<String, String> warnings = new LinkedHashMap<>();
+        for (String line : error.split("\\R")) {
+            if (!line.startsWith(WARNING)) {
+                continue;
+            }
+            int start = line.indexOf('\'');
+            int end = start < 0 ? -1 : line.indexOf('\'', start + 1);
+            if (end > start) {
+                warnings.put(line.substring(start + 1, end), line.substring(WARNING.length()));
+            }
+        }
+        return warnings;
+    }
+}
@@ -0,0 +1,132 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import java.io.InputStream;
+import java.util.ArrayList;
+
+/**
+ * Streaming reader of "svn log --xml" output, pulls one LogEntry at a time from the stream,
+ * so a long history is never held in memory as a whole.
+ * <p>
+ * changed paths are read if the log was run with -v, otherwise changedPaths of the entries is null.
+ *
+ * <pre>
+ * &lt;log&gt;
+ *   &lt;logentry revision="3"&gt;
+ *     &lt;author&gt;marssvn&lt;/author&gt;
+ *     &lt;date&gt;2020-06-01T08:00:00.000000Z&lt;/date&gt;
+ *     &lt;paths&gt;
+ *       &lt;path action="A" kind="file" copyfrom-path="/trunk/a.txt" copyfrom-rev="2"&gt;/trunk/b.txt&lt;/path&gt;
+ *     &lt;/paths&gt;
+ *     &lt;msg&gt;add readme&lt;/msg&gt;
+ *   &lt;/logentry&gt;
+ * &lt;/log&gt;
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class LogXmlReader extends AbstractXmlReader {
+
+    public LogXmlReader(InputStream inputStream) {
+        super(inputStream);
+    }
+
+    /**
+     * read next log entry
+     *
+     * @return log entry, null if there are no more entries
+     */
+    public LogEntry next() {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "logentry".equals(reader.getLocalName())) {
+                    return readEntry();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * read &lt;logentry&gt;, the reader is at the start element,
+     * nested entries of merged revisions (--use-merge-history) are skipped
+     *
+     * @return log entry
+     * @throws XMLStreamException XMLStreamException
+     */
+    private LogEntry readEntry() throws XMLStreamException {
+        LogEntry logEntry = new LogEntry();
+        logEntry.setRevision(Long.parseLong(reader.getAttributeValue(null, "revision")));
+
+        int depth = 0;
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT && "logentry".equals(reader.getLocalName())) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            if ("logentry".equals(reader.getLocalName())) {
+                depth++;
+                continue;
+            }
+            if (depth > 0) {
+                continue;
+            }
+            switch (reader.getLocalName()) {
+                case "author":
+                    logEntry.setAuthor(reader.getElementText());
+                    break;
+                case "date":
+                    logEntry.setDate(DateUtils.parseDate(reader.getElementText()));
+                    break;
+                case "msg":
+                    logEntry.setMessage(reader.getElementText());
+                    break;
+                case "paths":
+                    logEntry.setChangedPaths(new ArrayList<>());
+                    break;
+                case "path":
+                    logEntry.getChangedPaths().add(readChangedPath());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return logEntry;
+    }
+
+    /**
+     * read &lt;path&gt;, the reader is at the start element
+     *
+     * @return changed path
+     * @throws XMLStreamException XMLStreamException
+     */
+    private LogChangedPath readChangedPath() throws XMLStreamException {
+        LogChangedPath changedPath = new LogChangedPath();
+        changedPath.setAction(reader.getAttributeValue(null, "action"));
+        String kind = reader.getAttributeValue(null, "kind");
+        changedPath.setKind(StringUtils.isBlank(kind) ? null : kind);
+        changedPath.setCopyFromPath(reader.getAttributeValue(null, "copyfrom-path"));
+        String copyFromRevision = reader.getAttributeValue(null, "copyfrom-rev");
+        if (copyFromRevision != null) {
+            changedPath.setCopyFromRevision(Long.parseLong(copyFromRevision));
+        }
+        changedPath.setPath(reader.getElementText());
+        return changedPath;
+    }
+}
@@ -0,0 +1,129 @@
+package com.marssvn.svnapi.parser;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnLock;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming reader of "svnadmin lslocks" output, pulls one lock at a time from the stream.
+ * <p>
+ * the path of a lock is the repository path, e.g. /trunk/App.java.
+ *
+ * <pre>
+ * Path: /trunk/App.java
+ * UUID Token: opaquelocktoken:0c6c5c4c-...
+ * Owner: marssvn
+ * Created: 2020-06-01 08:00:00 +0800 (Mon, 01 Jun 2020)
+ * Expires:
+ * Comment (1 line):
+ * editing
+ *
+ * </pre>
+ *
+ * @author zhangkx
+ */
+public class LslocksReader {
+
+    /**
+     * Comment (N line[s]):
+     */
+    private final static Pattern COMMENT = Pattern.compile("^Comment \\((\\d+) lines?\\):$");
+
+    /**
+     * format of Created:, the text in parentheses is dropped
+     */
+    private final static DateTimeFormatter CREATED_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss xx");
+
+    /**
+     * lslocks output
+     */
+    private final BufferedReader reader;
+
+    public LslocksReader(InputStream inputStream) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * read next lock
+     *
+     * @return lock, null if there are no more locks
+     */
+    public SvnLock next() {
+        try {
+            SvnLock svnLock = null;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Path: ")) {
+                    svnLock = new SvnLock();
+                    svnLock.setPath(line.substring("Path: ".length()));
+                } else if (svnLock == null) {
+                    continue;
+                } else if (line.startsWith("UUID Token: ")) {
+                    svnLock.setToken(line.substring("UUID Token: ".length()));
+                } else if (line.startsWith("Owner: ")) {
+                    svnLock.setOwner(line.substring("Owner: ".length()));
+                } else if (line.startsWith("Created: ")) {
+                    svnLock.setCreatedAt(parseCreated(line.substring("Created: ".length())));
+                } else {
+                    Matcher matcher = COMMENT.matcher(line);
+                    if (matcher.matches()) {
+                        svnLock.setComment(readComment(Integer.parseInt(matcher.group(1))));
+                        return svnLock;
+                    }
+                }
+            }
+            return svnLock;
+        } catch (IOException e) {
+            throw new SvnApiException(e.getMessage());
+        }
+    }
+
+    /**
+     * read the lines of the comment, the comment is the last field of a lock
+     *
+     * @param lineCount count of lines
+     * @return comment
+     * @throws IOException IOException
+     */
+    private String readComment(int lineCount) throws IOException {
+        StringBuilder comment = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            String line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            if (i > 0) {
+                comment.append('\n');
+            }
+            comment.append(line);
+        }
+        return comment.toString();
+    }
+
+    /**
+     * parse the created time, e.g. 2020-06-01 08:00:00 +0800 (Mon, 01 Jun 2020)
+     *
+     * @param text text
+     * @return date, null if it can not be parsed
+     */
+    private static Date parseCreated(String text) {
+        int parenthesis = text.indexOf(" (");
+        String value = parenthesis < 0 ? text.trim() : text.substring(0, parenthesis);
+        try {
+            return Date.from(OffsetDateTime.parse(value, CREATED_FORMAT).toInstant());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
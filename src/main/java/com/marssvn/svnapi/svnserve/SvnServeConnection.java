@@ -0,0 +1,444 @@
+package com.marssvn.svnapi.svnserve;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getList;
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getLong;
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getString;
+import static com.marssvn.svnapi.svnserve.SvnServeItems.getWord;
+
+/**
+ * A connection to svnserve, speaks the svn:// protocol (version 2) directly over a socket.
+ * <p>
+ * The connection is opened and authenticated once, then it can execute any number of commands,
+ * one at a time. Paths of the commands are relative to the url of the connection.
+ *
+ * @author zhangkx
+ */
+public class SvnServeConnection implements Closeable {
+
+    /**
+     * slf4j.Logger
+     */
+    private Logger logger = LoggerFactory.getLogger(SvnServeConnection.class);
+
+    /**
+     * default svnserve port
+     */
+    private final static int DEFAULT_PORT = 3690;
+
+    /**
+     * protocol version
+     */
+    private final static int PROTOCOL_VERSION = 2;
+
+    /**
+     * client string
+     */
+    private final static String CLIENT_STRING = "SVN/1.14.0 marssvn-svnapi";
+
+    /**
+     * CRAM-MD5 auth mechanism
+     */
+    private final static String CRAM_MD5 = "CRAM-MD5";
+
+    /**
+     * ANONYMOUS auth mechanism
+     */
+    private final static String ANONYMOUS = "ANONYMOUS";
+
+    /**
+     * connection url, e.g. svn://localhost/repo
+     */
+    private final String url;
+
+    /**
+     * svn user
+     */
+    private final SvnUser svnUser;
+
+    /**
+     * socket
+     */
+    private Socket socket;
+
+    /**
+     * protocol reader
+     */
+    private SvnServeReader reader;
+
+    /**
+     * protocol writer
+     */
+    private SvnServeWriter writer;
+
+    /**
+     * repository uuid
+     */
+    private String uuid;
+
+    /**
+     * repository root url
+     */
+    private String repositoryRoot;
+
+    /**
+     * last time (milliseconds) the connection was used
+     */
+    private long lastUsedAt;
+
+    public SvnServeConnection(String url, SvnUser svnUser) {
+        this.url = url;
+        this.svnUser = svnUser;
+    }
+
+    /**
+     * connect to svnserve, negotiate the protocol version and authenticate
+     *
+     * @param timeout connect and read timeout, milliseconds
+     * @throws IOException IOException
+     */
+    public void open(int timeout) throws IOException {
+        URI uri = URI.create(url);
+        if (!"svn".equals(uri.getScheme()) || uri.getHost() == null) {
+            throw new SvnApiException("ES0001", "Not a svn:// url: " + url);
+        }
+        int port = uri.getPort() > 0 ? uri.getPort() : DEFAULT_PORT;
+
+        logger.debug("connect to svnserve: " + uri.getHost() + ":" + port);
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.setKeepAlive(true);
+        socket.setSoTimeout(timeout);
+        socket.connect(new InetSocketAddress(uri.getHost(), port), timeout);
+        reader = new SvnServeReader(new BufferedInputStream(socket.getInputStream(), 16 * 1024));
+        writer = new SvnServeWriter(new BufferedOutputStream(socket.getOutputStream(), 16 * 1024));
+
+        // greeting: ( success ( minver maxver ( ) ( cap ... ) ) )
+        List<Object> greeting = readResponse();
+        if (getLong(greeting, 0) > PROTOCOL_VERSION || getLong(greeting, 1) < PROTOCOL_VERSION) {
+            throw new SvnApiException("ES0002", "Unsupported svnserve protocol version");
+        }
+
+        // ( version ( cap ... ) url client-string ( ) )
+        writer.listStart().number(PROTOCOL_VERSION)
+                .listStart().word("edit-pipeline").word("svndiff1").word("absent-entries")
+                .word("depth").word("mergeinfo").word("log-revprops").listEnd()
+                .string(url).string(CLIENT_STRING).listStart().listEnd()
+                .listEnd().flush();
+
+        authenticate();
+
+        // repository info: ( success ( uuid repos-url ( cap ... ) ) )
+        List<Object> reposInfo = readResponse();
+        uuid = getString(reposInfo, 0);
+        repositoryRoot = getString(reposInfo, 1);
+        touch();
+    }
+
+    /**
+     * handle the auth request of the server: ( success ( ( mech ... ) realm ) )
+     * the mech list is empty when no more authentication is required
+     *
+     * @throws IOException IOException
+     */
+    private void authenticate() throws IOException {
+        List<Object> authRequest = readResponse();
+        List<Object> mechs = getList(authRequest, 0);
+        if (mechs.isEmpty()) {
+            return;
+        }
+
+        if (svnUser != null && mechs.contains(CRAM_MD5)) {
+            writer.listStart().word(CRAM_MD5).listStart().listEnd().listEnd().flush();
+
+            // ( step ( challenge ) )
+            List<Object> step = reader.readList();
+            checkAuthStatus(step, "step");
+            String challenge = getString(getList(step, 1), 0);
+
+            // "username hmac-md5(password, challenge)"
+            writer.string(svnUser.getUsername() + " " + hmacMd5(svnUser.getPassword(), challenge)).flush();
+            checkAuthStatus(reader.readList(), "success");
+        } else if (mechs.contains(ANONYMOUS)) {
+            writer.listStart().word(ANONYMOUS).listStart().string("").listEnd().listEnd().flush();
+            checkAuthStatus(reader.readList(), "success");
+        } else {
+            throw new SvnApiException("ES0003", "No supported authentication mechanism: " + mechs);
+        }
+    }
+
+    /**
+     * check status of auth response
+     *
+     * @param response auth response
+     * @param expected expected status word
+     */
+    private void checkAuthStatus(List<Object> response, String expected) {
+        String status = getWord(response, 0);
+        if (!expected.equals(status)) {
+            List<Object> params = response.size() > 1 ? getList(response, 1) : null;
+            String message = params != null && !params.isEmpty() ? getString(params, 0) : status;
+            throw new SvnApiException("ES0003", "Authentication failed: " + message);
+        }
+    }
+
+    /**
+     * HMAC-MD5 hex digest
+     *
+     * @param key  key
+     * @param text text
+     * @return hex string
+     */
+    private static String hmacMd5(String key, String text) {
+        try {
+            Mac mac = Mac.getInstance("HmacMD5");
+            mac.init(new SecretKeySpec(key.getBytes(StandardCharsets.UTF_8), "HmacMD5"));
+            byte[] digest = mac.doFinal(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (GeneralSecurityException e) {
+            throw new SvnApiException("ES0003", e.getMessage());
+        }
+    }
+
+    /**
+     * read command response: ( success ( params ) ) or ( failure ( ( err message file line ) ... ) )
+     *
+     * @return params
+     * @throws IOException IOException
+     */
+    private List<Object> readResponse() throws IOException {
+        List<Object> response = reader.readList();
+        String status = getWord(response, 0);
+        if ("success".equals(status)) {
+            return getList(response, 1);
+        }
+        if ("failure".equals(status)) {
+            StringBuilder message = new StringBuilder();
+            for (Object error : getList(response, 1)) {
+                @SuppressWarnings("unchecked")
+                List<Object> errorItems = (List<Object>) error;
+                if (message.length() > 0) {
+                    message.append("\n");
+                }
+                message.append("E").append(getLong(errorItems, 0)).append(": ").append(getString(errorItems, 1));
+            }
+            throw new SvnApiException("ES0004", message.toString());
+        }
+        throw new SvnApiException("ES0002", "Protocol error: unknown status " + status);
+    }
+
+    /**
+     * read the (usually empty) auth request and the command response
+     *
+     * @return params
+     * @throws IOException IOException
+     */
+    private List<Object> readCommandResponse() throws IOException {
+        authenticate();
+        return readResponse();
+    }
+
+    /**
+     * get latest revision
+     *
+     * @return head revision
+     * @throws IOException IOException
+     */
+    public long getLatestRevision() throws IOException {
+        touch();
+        writer.listStart().word("get-latest-rev").listStart().listEnd().listEnd().flush();
+        return getLong(readCommandResponse(), 0);
+    }
+
+    /**
+     * stat path
+     *
+     * @param path     relative path
+     * @param revision revision, &lt; 0 means HEAD
+     * @return dirent: ( kind size has-props created-rev ( date ) ( author ) ), null if the path not exists
+     * @throws IOException IOException
+     */
+    public List<Object> stat(String path, long revision) throws IOException {
+        touch();
+        writer.listStart().word("stat").listStart().string(path).revision(revision).listEnd().listEnd().flush();
+        List<Object> entry = getList(readCommandResponse(), 0);
+        return entry.isEmpty() ? null : getList(entry, 0);
+    }
+
+    /**
+     * get directory entries
+     *
+     * @param path     relative path
+     * @param revision revision, &lt; 0 means HEAD
+     * @return ( rev ( props ) ( ( name kind size has-props created-rev ( date ) ( author ) ) ... ) )
+     * @throws IOException IOException
+     */
+    public List<Object> getDir(String path, long revision) throws IOException {
+        touch();
+        writer.listStart().word("get-dir").listStart().string(path).revision(revision)
+                .bool(false).bool(true)
+                .listStart().word("kind").word("size").word("has-props").word("created-rev")
+                .word("time").word("last-author").listEnd()
+                .listEnd().listEnd().flush();
+        return readCommandResponse();
+    }
+
+    /**
+     * get file contents
+     *
+     * @param path         relative path
+     * @param revision     revision, &lt; 0 means HEAD
+     * @param outputStream file contents will be written into it
+     * @return file revision
+     * @throws IOException IOException
+     */
+    public long getFile(String path, long revision, OutputStream outputStream) throws IOException {
+        touch();
+        writer.listStart().word("get-file").listStart().string(path).revision(revision)
+                .bool(false).bool(true).listEnd().listEnd().flush();
+
+        // ( ( checksum ) rev ( props ) )
+        long fileRevision = getLong(readCommandResponse(), 1);
+
+        // contents: string ... 0:
+        while (true) {
+            Object chunk = reader.readItem();
+            if (!(chunk instanceof byte[])) {
+                throw new SvnApiException("ES0002", "Protocol error: non-string as part of file contents");
+            }
+            byte[] bytes = (byte[]) chunk;
+            if (bytes.length == 0) {
+                break;
+            }
+            outputStream.write(bytes);
+        }
+        readResponse();
+        return fileRevision;
+    }
+
+    /**
+     * get logs
+     *
+     * @param path          relative path
+     * @param startRevision start revision, &lt; 0 means HEAD
+     * @param endRevision   end revision, &lt; 0 means HEAD
+     * @param limit         max count of log entries, 0 means no limit
+     * @param changedPaths  discover changed paths
+     * @param consumer      receives log entries:
+     *                      ( ( changed-path ... ) rev ( author ) ( date ) ( message ) ... )
+     * @throws IOException IOException
+     */
+    public void log(String path, long startRevision, long endRevision, int limit, boolean changedPaths,
+                    Consumer<List<Object>> consumer) throws IOException {
+        touch();
+        writer.listStart().word("log").listStart()
+                .listStart().string(path).listEnd()
+                .revision(startRevision).revision(endRevision)
+                .bool(changedPaths).bool(false).number(Math.max(limit, 0)).bool(false)
+                .word("revprops").listStart().string("svn:author").string("svn:date").string("svn:log").listEnd()
+                .listEnd().listEnd().flush();
+        authenticate();
+
+        // log entries are terminated by the word "done"
+        while (true) {
+            Object item = reader.readItem();
+            if ("done".equals(item)) {
+                break;
+            }
+            if (!(item instanceof List)) {
+                throw new SvnApiException("ES0002", "Protocol error: log entry expected, but got " + item);
+            }
+            @SuppressWarnings("unchecked")
+            List<Object> entry = (List<Object>) item;
+            consumer.accept(entry);
+        }
+        readResponse();
+    }
+
+    /**
+     * get locks of path and its children
+     *
+     * @param path  relative path
+     * @param depth depth: empty, files, immediates, infinity
+     * @return ( ( path token owner ( comment ) created ( expires ) ) ... )
+     * @throws IOException IOException
+     */
+    public List<Object> getLocks(String path, String depth) throws IOException {
+        touch();
+        writer.listStart().word("get-locks").listStart().string(path)
+                .listStart().word(depth).listEnd()
+                .listEnd().listEnd().flush();
+        return getList(readCommandResponse(), 0);
+    }
+
+    /**
+     * get repository uuid
+     *
+     * @return uuid
+     */
+    public String getUuid() {
+        return uuid;
+    }
+
+    /**
+     * get repository root url
+     *
+     * @return root url
+     */
+    public String getRepositoryRoot() {
+        return repositoryRoot;
+    }
+
+    /**
+     * get last time the connection was used
+     *
+     * @return milliseconds
+     */
+    public long getLastUsedAt() {
+        return lastUsedAt;
+    }
+
+    /**
+     * update last used time
+     */
+    private void touch() {
+        lastUsedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * close the socket
+     */
+    @Override
+    public void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("close svnserve connection: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.marssvn.svnapi.svnserve;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of authenticated svnserve connections for one root path and one user.
+ * <p>
+ * Connections are opened lazily, reused in LIFO order, and closed when they have been idle for too long.
+ *
+ * @author zhangkx
+ */
+public class SvnServeConnectionPool implements Closeable {
+
+    /**
+     * slf4j.Logger
+     */
+    private static Logger logger = LoggerFactory.getLogger(SvnServeConnectionPool.class);
+
+    /**
+     * default max connections of one pool
+     */
+    public final static int DEFAULT_MAX_CONNECTIONS = 8;
+
+    /**
+     * time out, milliseconds
+     */
+    private final static int DEFAULT_TIME_OUT_M = 10000;
+
+    /**
+     * max idle time of a pooled connection, milliseconds
+     */
+    private final static long MAX_IDLE_TIME_M = 60000;
+
+    /**
+     * pools, key: root path + user name
+     */
+    private final static ConcurrentMap<String, SvnServeConnectionPool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * root path, e.g. svn://localhost/repo
+     */
+    private final String rootPath;
+
+    /**
+     * svn user
+     */
+    private final SvnUser svnUser;
+
+    /**
+     * permits, one permit for one connection in use
+     */
+    private final Semaphore permits;
+
+    /**
+     * idle connections
+     */
+    private final LinkedBlockingDeque<SvnServeConnection> idleConnections = new LinkedBlockingDeque<>();
+
+    /**
+     * connect / read / borrow time out, milliseconds
+     */
+    private final int timeout;
+
+    /**
+     * closed flag
+     */
+    private volatile boolean closed;
+
+    public SvnServeConnectionPool(String rootPath, SvnUser svnUser, int maxConnections, int timeout) {
+        this.rootPath = rootPath;
+        this.svnUser = svnUser;
+        this.permits = new Semaphore(maxConnections, true);
+        this.timeout = timeout;
+    }
+
+    /**
+     * get the shared pool of root path and user
+     *
+     * @param rootPath root path
+     * @param svnUser  svn user
+     * @return pool
+     */
+    public static SvnServeConnectionPool getPool(String rootPath, SvnUser svnUser) {
+        String key = rootPath + "\n" + (svnUser == null ? "" : svnUser.getUsername() + "\n" + svnUser.getPassword());
+        return POOLS.computeIfAbsent(key, k -> new SvnServeConnectionPool(rootPath, svnUser, DEFAULT_MAX_CONNECTIONS, DEFAULT_TIME_OUT_M));
+    }
+
+    /**
+     * execute callback with a pooled connection.
+     * the callback is retried once with a new connection if a reused connection was broken
+     *
+     * @param callback callback
+     * @param <T>      result type
+     * @return result
+     */
+    public <T> T execute(ConnectionCallback<T> callback) {
+        acquire();
+        try {
+            SvnServeConnection connection = idleConnections.pollFirst();
+            while (connection != null && System.currentTimeMillis() - connection.getLastUsedAt() > MAX_IDLE_TIME_M) {
+                connection.close();
+                connection = idleConnections.pollFirst();
+            }
+            boolean reused = connection != null;
+            if (!reused) {
+                connection = openConnection();
+            }
+
+            try {
+                return doInConnection(connection, callback);
+            } catch (IOException e) {
+                if (!reused) {
+                    throw new SvnApiException("ES0001", e.getMessage());
+                }
+
+                // the server may have closed an idle connection, retry with a new one
+                logger.debug("retry with a new connection: " + e.getMessage());
+                try {
+                    return doInConnection(openConnection(), callback);
+                } catch (IOException e2) {
+                    throw new SvnApiException("ES0001", e2.getMessage());
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * execute callback, return the connection to the pool on success,
+     * close it if the connection may be in an inconsistent state
+     *
+     * @param connection connection
+     * @param callback   callback
+     * @param <T>        result type
+     * @return result
+     * @throws IOException IOException
+     */
+    private <T> T doInConnection(SvnServeConnection connection, ConnectionCallback<T> callback) throws IOException {
+        try {
+            T result = callback.doInConnection(connection);
+            release(connection);
+            return result;
+        } catch (SvnApiException e) {
+
+            // a failure response of the server leaves the connection in a consistent state
+            if ("ES0004".equals(e.getErrorCode())) {
+                release(connection);
+            } else {
+                connection.close();
+            }
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * acquire a permit
+     */
+    private void acquire() {
+        if (closed) {
+            throw new SvnApiException("ES0005", "Connection pool is closed: " + rootPath);
+        }
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new SvnApiException("ES0005", "Time out waiting for a svnserve connection: " + rootPath);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SvnApiException("ES0005", "Interrupted waiting for a svnserve connection: " + rootPath);
+        }
+    }
+
+    /**
+     * open a new connection
+     *
+     * @return connection
+     */
+    private SvnServeConnection openConnection() {
+        SvnServeConnection connection = new SvnServeConnection(rootPath, svnUser);
+        try {
+            connection.open(timeout);
+            return connection;
+        } catch (IOException e) {
+            connection.close();
+            throw new SvnApiException("ES0001", "Can't connect to " + rootPath + ": " + e.getMessage());
+        } catch (RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * return the connection to the pool
+     *
+     * @param connection connection
+     */
+    private void release(SvnServeConnection connection) {
+        if (closed) {
+            connection.close();
+        } else {
+            idleConnections.offerFirst(connection);
+        }
+    }
+
+    /**
+     * get count of idle connections
+     *
+     * @return count
+     */
+    public int getIdleCount() {
+        return idleConnections.size();
+    }
+
+    /**
+     * close all idle connections, connections in use are closed when they are returned
+     */
+    @Override
+    public void close() {
+        closed = true;
+        POOLS.values().remove(this);
+        SvnServeConnection connection;
+        while ((connection = idleConnections.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    /**
+     * callback with a connection
+     *
+     * @param <T> result type
+     */
+    @FunctionalInterface
+    public interface ConnectionCallback<T> {
+
+        /**
+         * do in connection
+         *
+         * @param connection svnserve connection
+         * @return result
+         * @throws IOException IOException
+         */
+        T doInConnection(SvnServeConnection connection) throws IOException;
+    }
+}
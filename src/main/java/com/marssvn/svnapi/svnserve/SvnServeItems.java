@@ -0,0 +1,144 @@
+package com.marssvn.svnapi.svnserve;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * svnserve protocol item utils
+ *
+ * @author zhangkx
+ */
+public class SvnServeItems {
+
+    private SvnServeItems() {
+    }
+
+    /**
+     * get number item
+     *
+     * @param items item list
+     * @param index index
+     * @return long
+     */
+    public static long getLong(List<Object> items, int index) {
+        Object item = get(items, index);
+        if (!(item instanceof Long)) {
+            throw protocolError("number", item);
+        }
+        return (Long) item;
+    }
+
+    /**
+     * get string item as UTF-8 text
+     *
+     * @param items item list
+     * @param index index
+     * @return string
+     */
+    public static String getString(List<Object> items, int index) {
+        Object item = get(items, index);
+        if (!(item instanceof byte[])) {
+            throw protocolError("string", item);
+        }
+        return new String((byte[]) item, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * get word item
+     *
+     * @param items item list
+     * @param index index
+     * @return word
+     */
+    public static String getWord(List<Object> items, int index) {
+        Object item = get(items, index);
+        if (!(item instanceof String)) {
+            throw protocolError("word", item);
+        }
+        return (String) item;
+    }
+
+    /**
+     * get boolean item
+     *
+     * @param items item list
+     * @param index index
+     * @return boolean
+     */
+    public static boolean getBoolean(List<Object> items, int index) {
+        return "true".equals(getWord(items, index));
+    }
+
+    /**
+     * get list item
+     *
+     * @param items item list
+     * @param index index
+     * @return list
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object> getList(List<Object> items, int index) {
+        Object item = get(items, index);
+        if (!(item instanceof List)) {
+            throw protocolError("list", item);
+        }
+        return (List<Object>) item;
+    }
+
+    /**
+     * get optional string, which is encoded as "( ) " or "( string ) "
+     *
+     * @param items item list
+     * @param index index
+     * @return string or null
+     */
+    public static String getOptionalString(List<Object> items, int index) {
+        if (index >= items.size()) {
+            return null;
+        }
+        List<Object> tuple = getList(items, index);
+        return tuple.isEmpty() ? null : getString(tuple, 0);
+    }
+
+    /**
+     * get optional number, which is encoded as "( ) " or "( number ) "
+     *
+     * @param items item list
+     * @param index index
+     * @return number or -1
+     */
+    public static long getOptionalLong(List<Object> items, int index) {
+        if (index >= items.size()) {
+            return -1;
+        }
+        List<Object> tuple = getList(items, index);
+        return tuple.isEmpty() ? -1 : getLong(tuple, 0);
+    }
+
+    /**
+     * get item by index
+     *
+     * @param items item list
+     * @param index index
+     * @return item
+     */
+    private static Object get(List<Object> items, int index) {
+        if (index >= items.size()) {
+            throw new SvnApiException("ES0002", "Protocol error: missing item at index " + index);
+        }
+        return items.get(index);
+    }
+
+    /**
+     * create protocol error
+     *
+     * @param expected expected item type
+     * @param item     actual item
+     * @return SvnApiException
+     */
+    private static SvnApiException protocolError(String expected, Object item) {
+        return new SvnApiException("ES0002", "Protocol error: " + expected + " expected, but got " + item);
+    }
+}
@@ -0,0 +1,146 @@
+package com.marssvn.svnapi.svnserve;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * svnserve protocol reader
+ * <p>
+ * items are decoded as: number - Long, string - byte[], word - String, list - List&lt;Object&gt;
+ *
+ * @author zhangkx
+ */
+public class SvnServeReader {
+
+    /**
+     * max length of a single string item, protects the heap from a corrupted stream
+     */
+    private final static int MAX_STRING_LENGTH = 64 * 1024 * 1024;
+
+    /**
+     * input stream (buffered)
+     */
+    private final InputStream inputStream;
+
+    public SvnServeReader(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * read one item
+     *
+     * @return Long, byte[], String or List
+     * @throws IOException IOException
+     */
+    public Object readItem() throws IOException {
+        return readItem(skipWhitespace());
+    }
+
+    /**
+     * read a list item
+     *
+     * @return list
+     * @throws IOException IOException
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> readList() throws IOException {
+        Object item = readItem();
+        if (!(item instanceof List)) {
+            throw new SvnApiException("ES0002", "Protocol error: list expected, but got " + item);
+        }
+        return (List<Object>) item;
+    }
+
+    /**
+     * read item which starts with the char c
+     *
+     * @param c first char
+     * @return item
+     * @throws IOException IOException
+     */
+    private Object readItem(int c) throws IOException {
+        if (c == '(') {
+            List<Object> list = new ArrayList<>();
+            while (true) {
+                int next = skipWhitespace();
+                if (next == ')') {
+                    return list;
+                }
+                list.add(readItem(next));
+            }
+        }
+
+        // number or string
+        if (c >= '0' && c <= '9') {
+            long number = c - '0';
+            while (true) {
+                c = read();
+                if (c >= '0' && c <= '9') {
+                    number = number * 10 + (c - '0');
+                } else {
+                    break;
+                }
+            }
+            if (c != ':') {
+                return number;
+            }
+            if (number > MAX_STRING_LENGTH) {
+                throw new SvnApiException("ES0002", "Protocol error: string too long, length: " + number);
+            }
+            byte[] bytes = new byte[(int) number];
+            int offset = 0;
+            while (offset < bytes.length) {
+                int count = inputStream.read(bytes, offset, bytes.length - offset);
+                if (count < 0) {
+                    throw new EOFException("Connection closed by svnserve");
+                }
+                offset += count;
+            }
+            return bytes;
+        }
+
+        // word
+        if (Character.isLetter(c)) {
+            StringBuilder word = new StringBuilder();
+            while (Character.isLetterOrDigit(c) || c == '-') {
+                word.append((char) c);
+                c = read();
+            }
+            return word.toString();
+        }
+        throw new SvnApiException("ES0002", "Protocol error: unexpected char '" + (char) c + "'");
+    }
+
+    /**
+     * skip whitespace chars
+     *
+     * @return the first non-whitespace char
+     * @throws IOException IOException
+     */
+    private int skipWhitespace() throws IOException {
+        int c = read();
+        while (c == ' ' || c == '\n') {
+            c = read();
+        }
+        return c;
+    }
+
+    /**
+     * read one byte, throw EOFException when the connection is closed
+     *
+     * @return byte
+     * @throws IOException IOException
+     */
+    private int read() throws IOException {
+        int c = inputStream.read();
+        if (c < 0) {
+            throw new EOFException("Connection closed by svnserve");
+        }
+        return c;
+    }
+}
@@ -0,0 +1,121 @@
+package com.marssvn.svnapi.svnserve;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * svnserve protocol writer
+ *
+ * @author zhangkx
+ */
+public class SvnServeWriter {
+
+    /**
+     * output stream (buffered)
+     */
+    private final OutputStream outputStream;
+
+    public SvnServeWriter(OutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
+    /**
+     * write "( "
+     *
+     * @return this
+     * @throws IOException IOException
+     */
+    public SvnServeWriter listStart() throws IOException {
+        outputStream.write('(');
+        outputStream.write(' ');
+        return this;
+    }
+
+    /**
+     * write ") "
+     *
+     * @return this
+     * @throws IOException IOException
+     */
+    public SvnServeWriter listEnd() throws IOException {
+        outputStream.write(')');
+        outputStream.write(' ');
+        return this;
+    }
+
+    /**
+     * write word
+     *
+     * @param word word
+     * @return this
+     * @throws IOException IOException
+     */
+    public SvnServeWriter word(String word) throws IOException {
+        outputStream.write(word.getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(' ');
+        return this;
+    }
+
+    /**
+     * write number
+     *
+     * @param number number
+     * @return this
+     * @throws IOException IOException
+     */
+    public SvnServeWriter number(long number) throws IOException {
+        return word(String.valueOf(number));
+    }
+
+    /**
+     * write boolean
+     *
+     * @param value value
+     * @return this
+     * @throws IOException IOException
+     */
+    public SvnServeWriter bool(boolean value) throws IOException {
+        return word(value ? "true" : "false");
+    }
+
+    /**
+     * write UTF-8 string
+     *
+     * @param value value
+     * @return this
+     * @throws IOException IOException
+     */
+    public SvnServeWriter string(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        outputStream.write(String.valueOf(bytes.length).getBytes(StandardCharsets.US_ASCII));
+        outputStream.write(':');
+        outputStream.write(bytes);
+        outputStream.write(' ');
+        return this;
+    }
+
+    /**
+     * write optional revision: "( rev ) " or "( ) " when the revision is HEAD
+     *
+     * @param revision revision, &lt; 0 means HEAD
+     * @return this
+     * @throws IOException IOException
+     */
+    public SvnServeWriter revision(long revision) throws IOException {
+        listStart();
+        if (revision >= 0) {
+            number(revision);
+        }
+        return listEnd();
+    }
+
+    /**
+     * flush to the server
+     *
+     * @throws IOException IOException
+     */
+    public void flush() throws IOException {
+        outputStream.flush();
+    }
+}
@@ -0,0 +1,379 @@
+package com.marssvn.svnapi.watch;
+
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.fsfs.FsfsRepository;
+import com.marssvn.svnapi.model.RevisionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Watcher of the head revisions of local FSFS repositories.
+ * <p>
+ * svn writes db/current of a repository at every commit, the watcher watches the db directories with a NIO
+ * WatchService and reads db/current when it changes. Repositories are polled every poll interval instead
+ * if the file system has no WatchService or a directory can't be registered, e.g. on a network file system.
+ * One thread serves all watched repositories, so hundreds of repositories need neither a poller each nor a svn
+ * process per headRevision: SvnClient.setRevisionWatcher answers headRevision from the watcher.
+ * <p>
+ * Listeners are called on the watcher thread (or on the thread of refresh) in the order of the revisions of
+ * a repository and must not block, an event may report several commits if they came faster than they were seen.
+ *
+ * @author zhangkx
+ */
+public class RevisionWatcher implements Closeable {
+
+    private Logger logger = LoggerFactory.getLogger(RevisionWatcher.class);
+
+    /**
+     * default poll interval in milliseconds
+     */
+    public final static long DEFAULT_POLL_INTERVAL = 1000;
+
+    /**
+     * watch service, null if the repositories are polled
+     */
+    private final WatchService watchService;
+
+    /**
+     * poll interval in milliseconds
+     */
+    private final long pollInterval;
+
+    /**
+     * key: absolute repository directory, value: watched repository
+     */
+    private final Map<File, Watched> repositories = new ConcurrentHashMap<>();
+
+    /**
+     * key: watch key of a db directory, value: watched repository
+     */
+    private final Map<WatchKey, Watched> watchKeys = new ConcurrentHashMap<>();
+
+    /**
+     * listeners of all repositories
+     */
+    private final List<Consumer<RevisionEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * thread which waits for changes and polls
+     */
+    private final Thread thread;
+
+    /**
+     * whether the watcher is closed
+     */
+    private volatile boolean closed;
+
+    public RevisionWatcher() {
+        this(false, DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * create a watcher and start its thread
+     *
+     * @param polling      true to poll all repositories, false to use a WatchService if the file system has one
+     * @param pollInterval poll interval in milliseconds
+     */
+    public RevisionWatcher(boolean polling, long pollInterval) {
+        WatchService service = null;
+        if (!polling) {
+            try {
+                service = FileSystems.getDefault().newWatchService();
+            } catch (IOException | UnsupportedOperationException e) {
+                logger.warn("No WatchService, polling repositories every " + pollInterval + "ms, " + e.getMessage());
+            }
+        }
+        this.watchService = service;
+        this.pollInterval = pollInterval;
+        this.thread = new Thread(this::run, "svnapi-revision-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * whether all repositories are polled
+     *
+     * @return true if there is no WatchService
+     */
+    public boolean isPolling() {
+        return watchService == null;
+    }
+
+    /**
+     * watch a repository, watching a watched repository again does nothing
+     *
+     * @param repositoryDir repository directory
+     * @return head revision
+     */
+    public long watch(File repositoryDir) {
+        File key = repositoryDir.getAbsoluteFile();
+        Watched watched = repositories.get(key);
+        if (watched != null) {
+            return watched.revision;
+        }
+        if (!new File(key, "db/current").isFile()) {
+            throw new SvnApiException("EF0001", "Not a FSFS repository: " + key.getPath());
+        }
+
+        synchronized (repositories) {
+            watched = repositories.get(key);
+            if (watched != null) {
+                return watched.revision;
+            }
+            watched = new Watched(key, FsfsRepository.youngest(key));
+            if (watchService != null) {
+                try {
+                    watched.watchKey = new File(key, "db").toPath().register(watchService,
+                            StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    watchKeys.put(watched.watchKey, watched);
+                } catch (IOException e) {
+                    logger.warn("Polling " + key.getPath() + ", it can't be watched: " + e.getMessage());
+                }
+            }
+            repositories.put(key, watched);
+            return watched.revision;
+        }
+    }
+
+    /**
+     * stop watching a repository, its listeners are dropped
+     *
+     * @param repositoryDir repository directory
+     */
+    public void unwatch(File repositoryDir) {
+        synchronized (repositories) {
+            Watched watched = repositories.remove(repositoryDir.getAbsoluteFile());
+            if (watched != null && watched.watchKey != null) {
+                watchKeys.remove(watched.watchKey);
+                watched.watchKey.cancel();
+            }
+        }
+    }
+
+    /**
+     * get the head revision of a watched repository as last seen by the watcher,
+     * it lags a commit by the latency of the WatchService, or by up to the poll interval if it is polled
+     *
+     * @param repositoryDir repository directory
+     * @return head revision, -1 if the repository is not watched
+     */
+    public long headRevision(File repositoryDir) {
+        Watched watched = repositories.get(repositoryDir.getAbsoluteFile());
+        return watched == null ? -1 : watched.revision;
+    }
+
+    /**
+     * read db/current of a watched repository now, e.g. right after a commit of this process
+     *
+     * @param repositoryDir repository directory
+     * @return head revision, -1 if the repository is not watched
+     */
+    public long refresh(File repositoryDir) {
+        Watched watched = repositories.get(repositoryDir.getAbsoluteFile());
+        if (watched == null) {
+            return -1;
+        }
+        check(watched);
+        return watched.revision;
+    }
+
+    /**
+     * subscribe to the events of all watched repositories
+     *
+     * @param listener listener
+     */
+    public void subscribe(Consumer<RevisionEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * subscribe to the events of a repository, the repository is watched
+     *
+     * @param repositoryDir repository directory
+     * @param listener      listener
+     */
+    public void subscribe(File repositoryDir, Consumer<RevisionEvent> listener) {
+        watch(repositoryDir);
+        repositories.get(repositoryDir.getAbsoluteFile()).listeners.add(listener);
+    }
+
+    /**
+     * unsubscribe a listener from all repositories
+     *
+     * @param listener listener
+     */
+    public void unsubscribe(Consumer<RevisionEvent> listener) {
+        listeners.remove(listener);
+        for (Watched watched : repositories.values()) {
+            watched.listeners.remove(listener);
+        }
+    }
+
+    /**
+     * stop the thread and the WatchService
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                logger.warn(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * wait for changes of db directories, and poll the repositories which are not watched every poll interval
+     */
+    private void run() {
+        long nextPoll = System.nanoTime();
+        while (!closed) {
+            try {
+                if (watchService == null) {
+                    Thread.sleep(pollInterval);
+                } else {
+                    WatchKey watchKey = watchService.poll(pollInterval, TimeUnit.MILLISECONDS);
+                    while (watchKey != null) {
+                        handle(watchKey);
+                        watchKey = watchService.poll();
+                    }
+                }
+                if (System.nanoTime() - nextPoll >= 0) {
+                    for (Watched watched : repositories.values()) {
+                        if (watched.watchKey == null) {
+                            check(watched);
+                        }
+                    }
+                    nextPoll = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pollInterval);
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                if (!closed) {
+                    logger.warn("Revision watcher stopped: " + e);
+                }
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Revision watcher failed", e);
+            }
+        }
+    }
+
+    /**
+     * handle the events of a db directory, db/current is written through a temp file and renamed
+     *
+     * @param watchKey watch key
+     */
+    private void handle(WatchKey watchKey) {
+        Watched watched = watchKeys.get(watchKey);
+        boolean changed = false;
+        for (WatchEvent<?> event : watchKey.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else if (event.context() instanceof Path && "current".equals(event.context().toString())) {
+                changed = true;
+            }
+        }
+        if (!watchKey.reset() && watched != null) {
+
+            // the directory is gone or can't be watched any more, poll it
+            watchKeys.remove(watchKey);
+            watched.watchKey = null;
+        }
+        if (changed && watched != null) {
+            check(watched);
+        }
+    }
+
+    /**
+     * read db/current of a repository and publish an event if the head revision has advanced
+     *
+     * @param watched watched repository
+     */
+    private void check(Watched watched) {
+        synchronized (watched) {
+            long revision;
+            try {
+                revision = FsfsRepository.youngest(watched.repositoryDir);
+            } catch (SvnApiException e) {
+                logger.debug("Can't read head revision of " + watched.repositoryDir.getPath() + ", " + e.getMessage());
+                return;
+            }
+            if (revision <= watched.revision) {
+                return;
+            }
+            RevisionEvent event = new RevisionEvent(watched.repositoryDir.getPath(), watched.revision, revision, new Date());
+            watched.revision = revision;
+
+            // listeners see the events of a repository in order
+            publish(listeners, event);
+            publish(watched.listeners, event);
+        }
+    }
+
+    /**
+     * call listeners, a failing listener does not stop the others
+     *
+     * @param targets listeners
+     * @param event   event
+     */
+    private void publish(List<Consumer<RevisionEvent>> targets, RevisionEvent event) {
+        for (Consumer<RevisionEvent> listener : targets) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.error("Revision listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * a watched repository
+     */
+    private static final class Watched {
+
+        /**
+         * absolute repository directory
+         */
+        private final File repositoryDir;
+
+        /**
+         * listeners of the repository
+         */
+        private final List<Consumer<RevisionEvent>> listeners = new CopyOnWriteArrayList<>();
+
+        /**
+         * head revision as last seen
+         */
+        private volatile long revision;
+
+        /**
+         * watch key of the db directory, null if the repository is polled
+         */
+        private volatile WatchKey watchKey;
+
+        private Watched(File repositoryDir, long revision) {
+            this.repositoryDir = repositoryDir;
+            this.revision = revision;
+        }
+    }
+}
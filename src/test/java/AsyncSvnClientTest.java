@@ -0,0 +1,129 @@
+import com.marssvn.svnapi.AsyncSvnClient;
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AsyncSvnClient Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class AsyncSvnClientTest {
+
+    @Test
+    public void test01_Complete() throws Exception {
+        try (AsyncSvnClient asyncSvnClient = new AsyncSvnClient(new SleepingSvnClient(0, true), 2)) {
+            Assert.assertEquals(Long.valueOf(7), asyncSvnClient.headRevision().get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void test02_CancelDestroysProcess() throws Exception {
+        Assume.assumeTrue(new File("/bin/sleep").exists());
+        SleepingSvnClient svnClient = new SleepingSvnClient(30, true);
+        try (AsyncSvnClient asyncSvnClient = new AsyncSvnClient(svnClient, 2)) {
+            CompletableFuture<Long> future = asyncSvnClient.headRevision();
+            Assert.assertTrue(svnClient.started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(200);
+            Assert.assertTrue(future.cancel(true));
+
+            // the sleep process is destroyed, the operation ends long before the sleep would
+            Assert.assertTrue(svnClient.finished.await(5, TimeUnit.SECONDS));
+            try {
+                future.get();
+                Assert.fail();
+            } catch (CancellationException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void test03_Timeout() throws Exception {
+        Assume.assumeTrue(new File("/bin/sleep").exists());
+        SleepingSvnClient svnClient = new SleepingSvnClient(30, false);
+        try (AsyncSvnClient asyncSvnClient = new AsyncSvnClient(svnClient, 2)) {
+            asyncSvnClient.setTimeout(500);
+            try {
+                asyncSvnClient.headRevision().get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof SvnApiException);
+                Assert.assertEquals("Time out", e.getCause().getMessage());
+            }
+            Assert.assertTrue(svnClient.finished.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void test04_MaxConcurrency() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        try (AsyncSvnClient asyncSvnClient = new AsyncSvnClient(new SleepingSvnClient(0, true), 2)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(asyncSvnClient.submit(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return running.decrementAndGet();
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+            Assert.assertTrue(maxRunning.get() <= 2);
+        }
+    }
+
+    /**
+     * svn client whose head revision takes some seconds, runs "sleep" instead of svn, streamed or not
+     */
+    private static class SleepingSvnClient extends SvnClient {
+
+        private final int seconds;
+
+        private final boolean streamed;
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private SleepingSvnClient(int seconds, boolean streamed) {
+            this.seconds = seconds;
+            this.streamed = streamed;
+        }
+
+        @Override
+        public long headRevision() {
+            started.countDown();
+            try {
+                if (seconds > 0 && streamed) {
+                    CommandUtils.executeForStream("sleep " + seconds, 60000, inputStream -> inputStream.read());
+                } else if (seconds > 0) {
+                    CommandUtils.execute("sleep " + seconds, 60000);
+                }
+                return 7;
+            } finally {
+                finished.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.cache.BlobCache;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Consumer;
+
+/**
+ * BlobCache Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class BlobCacheTest {
+
+    private File dir;
+
+    @Before
+    public void before() throws IOException {
+        dir = Files.createTempDirectory("svnapi-blobs").toFile();
+    }
+
+    @After
+    public void after() throws IOException {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    @Test
+    public void test01_PutAndGet() {
+        BlobCache blobCache = new BlobCache(dir);
+        Assert.assertNull(blobCache.get("uuid", "src/a.txt", 3, false));
+        Assert.assertEquals("hello", text(blobCache.put("uuid", "src/a.txt", 3, false, writer("hello"))));
+        Assert.assertEquals("hello", text(blobCache.get("uuid", "/src/a.txt", 3, false)));
+        Assert.assertNull(blobCache.get("uuid", "src/a.txt", 4, false));
+        Assert.assertNull(blobCache.get("other", "src/a.txt", 3, false));
+
+        // content with expanded keywords is cached apart from the stored content
+        Assert.assertNull(blobCache.get("uuid", "src/a.txt", 3, true));
+
+        // survives restarts
+        Assert.assertEquals("hello", text(new BlobCache(dir).get("uuid", "src/a.txt", 3, false)));
+    }
+
+    @Test
+    public void test02_Deduplicate() {
+        BlobCache blobCache = new BlobCache(dir);
+        blobCache.put("uuid", "src/a.txt", 3, false, writer("same"));
+        blobCache.put("uuid", "src/a.txt", 4, false, writer("same"));
+        blobCache.put("uuid", "branches/b/a.txt", 5, false, writer("same"));
+        Assert.assertEquals(4, blobCache.getTotalBytes());
+        Assert.assertEquals(1, new File(dir, "blobs").list().length);
+    }
+
+    @Test
+    public void test03_Evict() {
+        BlobCache blobCache = new BlobCache(dir, 10);
+        blobCache.put("uuid", "a", 1, false, writer("aaaa"));
+        new File(dir, "blobs").listFiles()[0].setLastModified(System.currentTimeMillis() - 60000);
+        blobCache.put("uuid", "b", 1, false, writer("bbbb"));
+        blobCache.put("uuid", "c", 1, false, writer("cccc"));
+
+        // the least recently used blob is evicted
+        Assert.assertEquals(8, blobCache.getTotalBytes());
+        Assert.assertNull(blobCache.get("uuid", "a", 1, false));
+        Assert.assertEquals("cccc", text(blobCache.get("uuid", "c", 1, false)));
+
+        // too large
+        Assert.assertNull(blobCache.put("uuid", "d", 1, false, writer("ddddddddddd")));
+        Assert.assertEquals(8, blobCache.getTotalBytes());
+    }
+
+    @Test
+    public void test04_RootPaths() {
+        BlobCache blobCache = new BlobCache(dir);
+        ContentSvnClient repository = new ContentSvnClient("svn://localhost/repo", "", true, blobCache);
+        ContentSvnClient trunk = new ContentSvnClient("svn://localhost/repo/trunk/", "trunk", true, blobCache);
+
+        // the same relative path of different root paths is a different file
+        Assert.assertEquals("root README", repository.getFileContent("README", 5));
+        Assert.assertEquals("trunk/README", trunk.getFileContent("README", 5));
+        Assert.assertEquals("trunk/README", repository.getFileContent("trunk/README", 5));
+        Assert.assertEquals(1, repository.transfers);
+        Assert.assertEquals(1, trunk.transfers);
+
+        // content with expanded keywords is not served to clients which do not expand keywords
+        ContentSvnClient stored = new ContentSvnClient("svn://localhost/repo/trunk", "trunk", false, blobCache);
+        Assert.assertEquals("$Rev: 5 $", trunk.getFileContent("keywords.txt", 5));
+        Assert.assertEquals("$Rev$", stored.getFileContent("keywords.txt", 5));
+        Assert.assertEquals("$Rev$", stored.getFileContent("keywords.txt", 5));
+        Assert.assertEquals(1, stored.transfers);
+    }
+
+    private static Consumer<WritableByteChannel> writer(String content) {
+        return channel -> {
+            try {
+                channel.write(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return buffer == null ? null : StandardCharsets.UTF_8.decode(buffer).toString();
+    }
+
+    /**
+     * client of a repository whose files contain their repository path, keywords.txt contains a keyword
+     */
+    private static class ContentSvnClient extends SvnClient {
+
+        private final String prefix;
+
+        private final boolean keywordsExpanded;
+
+        private int transfers;
+
+        ContentSvnClient(String rootPath, String prefix, boolean keywordsExpanded, BlobCache blobCache) {
+            this.prefix = prefix;
+            this.keywordsExpanded = keywordsExpanded;
+            setRootPath(rootPath);
+            setBlobCache(blobCache);
+        }
+
+        @Override
+        protected String doRepositoryUuid() {
+            return "uuid";
+        }
+
+        @Override
+        protected String doRootPathInRepository() {
+            return prefix;
+        }
+
+        @Override
+        protected boolean expandsKeywords() {
+            return keywordsExpanded;
+        }
+
+        @Override
+        protected long doTransferTo(String filePath, long revision, WritableByteChannel channel) {
+            return write(filePath.endsWith("keywords.txt") ? "$Rev: " + revision + " $" : null, filePath, channel);
+        }
+
+        @Override
+        protected long transferStoredTo(String filePath, long revision, WritableByteChannel channel) {
+            return write(filePath.endsWith("keywords.txt") ? "$Rev$" : null, filePath, channel);
+        }
+
+        private long write(String content, String filePath, WritableByteChannel channel) {
+            transfers++;
+            String path = prefix.isEmpty() ? filePath : prefix + "/" + filePath;
+            writer(content != null ? content : "README".equals(path) ? "root README" : path).accept(channel);
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.enums.EChangeType;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.journal.ChangeJournal;
+import com.marssvn.svnapi.journal.ChangeJournalReader;
+import com.marssvn.svnapi.model.ChangeRecord;
+import com.marssvn.svnapi.model.LogChangedPath;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChangeJournal Tester, the hooks are run by sh with a fake svnlook, no svn binaries are needed.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ChangeJournalTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("svnapi-journal").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void test01_ReadRecords() throws Exception {
+        File journal = new File(root, "changes");
+        append(journal, "C 5 1500000000 alice\nA   trunk/\nU   trunk/a.txt\n_U  trunk/b.txt\nD   old.txt\n.\n"
+                + "L 0 1500000001 bob\n/trunk/a.txt\n.\n"
+                + "X 1 1 unknown\n.\n"
+                + "U 0 1500000002 bob\ntrunk/a.txt\n.\n"
+                + "C 6 1500000003 ");
+
+        ChangeJournalReader reader = new ChangeJournalReader(journal, null);
+        List<ChangeRecord> records = reader.poll(100);
+        Assert.assertEquals(3, records.size());
+
+        ChangeRecord commit = records.get(0);
+        Assert.assertEquals(EChangeType.COMMIT, commit.getType());
+        Assert.assertEquals(5, commit.getRevision());
+        Assert.assertEquals("alice", commit.getAuthor());
+        Assert.assertEquals(1500000000000L, commit.getDate().getTime());
+        List<LogChangedPath> changedPaths = commit.getChangedPaths();
+        Assert.assertEquals(4, changedPaths.size());
+        assertChangedPath(changedPaths.get(0), "A", "/trunk", "dir");
+        assertChangedPath(changedPaths.get(1), "M", "/trunk/a.txt", "file");
+        assertChangedPath(changedPaths.get(2), "M", "/trunk/b.txt", "file");
+        assertChangedPath(changedPaths.get(3), "D", "/old.txt", "file");
+
+        Assert.assertEquals(EChangeType.LOCK, records.get(1).getType());
+        Assert.assertEquals("bob", records.get(1).getAuthor());
+        assertChangedPath(records.get(1).getChangedPaths().get(0), null, "/trunk/a.txt", "file");
+        Assert.assertEquals(EChangeType.UNLOCK, records.get(2).getType());
+        assertChangedPath(records.get(2).getChangedPaths().get(0), null, "/trunk/a.txt", "file");
+
+        // the last record is incomplete, it is returned once the hook has finished it
+        Assert.assertEquals(records.get(2).getOffset(), reader.getOffset());
+        Assert.assertTrue(reader.poll(100).isEmpty());
+        append(journal, "\nA   tags/\n.\n");
+        records = reader.poll(100);
+        Assert.assertEquals(1, records.size());
+        Assert.assertEquals(6, records.get(0).getRevision());
+        Assert.assertNull(records.get(0).getAuthor());
+        Assert.assertEquals(journal.length(), reader.getOffset());
+    }
+
+    @Test
+    public void test02_Checkpoint() throws Exception {
+        File journal = new File(root, "changes");
+        File checkpoint = new File(root, "consumer.checkpoint");
+        for (int i = 1; i <= 5; i++) {
+            append(journal, "C " + i + " 1500000000 alice\nU   trunk/a.txt\n.\n");
+        }
+
+        ChangeJournalReader reader = new ChangeJournalReader(journal, checkpoint);
+        Assert.assertEquals(2, reader.poll(2).size());
+        reader.checkpoint();
+        Assert.assertEquals(2, reader.poll(2).size());
+
+        // a new reader resumes from the checkpoint, not from the records polled after it
+        reader = new ChangeJournalReader(journal, checkpoint);
+        List<ChangeRecord> records = reader.poll(100);
+        Assert.assertEquals(3, records.size());
+        Assert.assertEquals(3, records.get(0).getRevision());
+        reader.checkpoint();
+        Assert.assertEquals(String.valueOf(journal.length()), FileUtils.readFileToString(checkpoint, StandardCharsets.UTF_8));
+
+        // waiting for a record
+        long start = System.nanoTime();
+        Assert.assertTrue(reader.poll(100, 200).isEmpty());
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+    }
+
+    @Test
+    public void test03_Hooks() throws Exception {
+        Assume.assumeFalse(CommandUtils.osIsWindows());
+        File repository = new File(root, "repo");
+        File hooks = new File(repository, "hooks");
+        FileUtils.forceMkdir(hooks);
+
+        File journal = ChangeJournal.install(repository);
+        Assert.assertEquals(ChangeJournal.fileOf(repository), journal);
+        Assert.assertTrue(journal.isFile());
+        for (String name : new String[]{"post-commit", "post-lock", "post-unlock"}) {
+            Assert.assertTrue(new File(hooks, name).canExecute());
+        }
+
+        // installing again replaces the hooks
+        ChangeJournal.install(repository);
+
+        // the hooks of the change journal do not replace other hooks
+        File other = new File(root, "other");
+        FileUtils.writeStringToFile(new File(other, "hooks/post-commit"), "#!/bin/sh\n", StandardCharsets.UTF_8);
+        try {
+            ChangeJournal.install(other);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EA0005", e.getErrorCode());
+        }
+
+        // run the hooks as svn does, with a fake svnlook
+        File svnlook = new File(root, "svnlook");
+        FileUtils.writeStringToFile(svnlook, "#!/bin/sh\n"
+                + "if [ \"$1\" = author ]; then echo alice; else printf 'A   trunk/\\nU   trunk/a.txt\\n'; fi\n", StandardCharsets.UTF_8);
+        Assert.assertTrue(svnlook.setExecutable(true));
+        File postCommit = new File(hooks, "post-commit");
+        String script = FileUtils.readFileToString(postCommit, StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(postCommit, script.replaceAll("(?m)^SVNLOOK=.*$", "SVNLOOK='" + svnlook.getPath() + "'"),
+                StandardCharsets.UTF_8);
+
+        Assert.assertEquals(0, hook(repository, "post-commit", "7", null));
+        Assert.assertEquals(0, hook(repository, "post-lock", "bob", "/trunk/a.txt\n/trunk/b.txt\n"));
+        Assert.assertEquals(0, hook(repository, "post-unlock", "bob", "/trunk/a.txt\n"));
+
+        List<ChangeRecord> records = new ChangeJournalReader(journal, null).poll(100);
+        Assert.assertEquals(3, records.size());
+        Assert.assertEquals(EChangeType.COMMIT, records.get(0).getType());
+        Assert.assertEquals(7, records.get(0).getRevision());
+        Assert.assertEquals("alice", records.get(0).getAuthor());
+        Assert.assertEquals(2, records.get(0).getChangedPaths().size());
+        assertChangedPath(records.get(0).getChangedPaths().get(1), "M", "/trunk/a.txt", "file");
+        Assert.assertEquals(EChangeType.LOCK, records.get(1).getType());
+        Assert.assertEquals("bob", records.get(1).getAuthor());
+        Assert.assertEquals(2, records.get(1).getChangedPaths().size());
+        Assert.assertEquals(EChangeType.UNLOCK, records.get(2).getType());
+        Assert.assertEquals(1, records.get(2).getChangedPaths().size());
+    }
+
+    /**
+     * run a hook with an empty environment
+     *
+     * @param repository repository directory
+     * @param name       hook name
+     * @param argument   second argument, revision or user
+     * @param input      standard input, null for none
+     * @return exit value
+     */
+    private int hook(File repository, String name, String argument, String input) throws Exception {
+        ProcessBuilder builder = new ProcessBuilder(new File(repository, "hooks/" + name).getPath(), repository.getPath(), argument);
+        builder.environment().clear();
+        Process process = builder.start();
+        try (OutputStream outputStream = process.getOutputStream()) {
+            if (input != null) {
+                outputStream.write(input.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Assert.assertTrue(process.waitFor(10, TimeUnit.SECONDS));
+        return process.exitValue();
+    }
+
+    private void append(File journal, String content) throws IOException {
+        FileUtils.writeStringToFile(journal, content, StandardCharsets.UTF_8, true);
+    }
+
+    private void assertChangedPath(LogChangedPath changedPath, String action, String path, String kind) {
+        Assert.assertEquals(action, changedPath.getAction());
+        Assert.assertEquals(path, changedPath.getPath());
+        Assert.assertEquals(kind, changedPath.getKind());
+    }
+}
@@ -0,0 +1,104 @@
+import com.marssvn.svnapi.common.CommandStream;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.metrics.CommandStats;
+import com.marssvn.svnapi.metrics.ICommandMetrics;
+import com.marssvn.svnapi.metrics.SimpleCommandMetrics;
+import org.apache.commons.io.IOUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CommandUtils metrics Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CommandMetricsTest {
+
+    private static ICommandMetrics defaultMetrics;
+
+    private SimpleCommandMetrics metrics;
+
+    @BeforeClass
+    public static void beforeClass() {
+        Assume.assumeTrue(CommandUtils.osIsLinux() && new File("/bin/sleep").exists());
+        defaultMetrics = CommandUtils.getMetrics();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        if (defaultMetrics != null) {
+            CommandUtils.setMetrics(defaultMetrics);
+        }
+    }
+
+    @Before
+    public void before() {
+        metrics = new SimpleCommandMetrics();
+        CommandUtils.setMetrics(metrics);
+    }
+
+    @Test
+    public void test01_Execute() {
+        Assert.assertEquals("hello", CommandUtils.executeForString("echo hello").trim());
+        CommandUtils.execute("echo hello");
+
+        CommandStats stats = metrics.getStats("echo", null);
+        Assert.assertEquals(2, stats.getCount());
+        Assert.assertEquals(12, stats.getStdoutBytes());
+        Assert.assertEquals(0, stats.getFailures());
+        Assert.assertTrue(stats.getWallNanos() >= stats.getSpawnNanos());
+    }
+
+    @Test
+    public void test02_Stream() throws Exception {
+        try (CommandStream commandStream = CommandUtils.openStream("echo hello", 0)) {
+            Assert.assertEquals("hello", IOUtils.toString(commandStream.getInputStream(), StandardCharsets.UTF_8).trim());
+            commandStream.finish(null);
+        }
+        try (CommandStream commandStream = CommandUtils.openStream("ls /svnapi-not-exists", 0)) {
+            commandStream.finish(error -> {
+            });
+        }
+
+        Assert.assertEquals(6, metrics.getStats("echo", null).getStdoutBytes());
+        CommandStats stats = metrics.getStats("ls", null);
+        Assert.assertEquals(1, stats.getFailures());
+        Assert.assertTrue(stats.getStderrBytes() > 0);
+    }
+
+    @Test
+    public void test03_Timeout() {
+        try {
+            CommandUtils.execute("sleep 5", 200);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("Time out", e.getMessage());
+        }
+
+        CommandStats stats = metrics.getStats("sleep", null);
+        Assert.assertEquals(1, stats.getTimeouts());
+        Assert.assertTrue(stats.getWallPercentileMillis(0.99) >= 200);
+    }
+
+    @Test
+    public void test04_Subcommand() {
+        try {
+            CommandUtils.execute("svn --non-interactive list /svnapi-not-exists");
+        } catch (SvnApiException e) {
+            // svn is not installed or the path does not exist
+        }
+        Assume.assumeTrue(!metrics.getStats().isEmpty());
+        Assert.assertNotNull(metrics.getStats("svn", "list"));
+    }
+}
@@ -0,0 +1,136 @@
+import com.marssvn.svnapi.common.CommandScheduler;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.enums.ECommandPriority;
+import com.marssvn.svnapi.exception.SvnApiException;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * CommandScheduler Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CommandSchedulerTest {
+
+    private final static ExecutorService EXECUTOR = Executors.newCachedThreadPool();
+
+    private static CommandScheduler defaultScheduler;
+
+    /**
+     * svn which sleeps 0.3s
+     */
+    private static String svn;
+
+    private CommandScheduler scheduler;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        Assume.assumeTrue(CommandUtils.osIsLinux() && new File("/bin/sleep").exists());
+        File dir = Files.createTempDirectory("svnapi-scheduler").toFile();
+        dir.deleteOnExit();
+        File script = new File(dir, "svn");
+        FileUtils.writeStringToFile(script, "#!/bin/sh\nsleep 0.3\n", StandardCharsets.UTF_8);
+        Assert.assertTrue(script.setExecutable(true));
+        script.deleteOnExit();
+        svn = script.getPath();
+        defaultScheduler = CommandUtils.getScheduler();
+    }
+
+    @AfterClass
+    public static void afterClass() {
+        if (defaultScheduler != null) {
+            CommandUtils.setScheduler(defaultScheduler);
+        }
+    }
+
+    @Before
+    public void before() {
+        scheduler = new CommandScheduler();
+        CommandUtils.setScheduler(scheduler);
+    }
+
+    @Test
+    public void test01_KeyAndPriority() {
+        Assert.assertEquals("svn://127.0.0.1:3690", CommandScheduler.keyOf(Arrays.asList("svn", "list", "svn://127.0.0.1:3690/repo/a", "--xml")));
+        Assert.assertEquals("http://host", CommandScheduler.keyOf(Arrays.asList("svn", "info", "http://HOST")));
+        Assert.assertEquals(CommandScheduler.LOCAL_KEY, CommandScheduler.keyOf(Arrays.asList("svnadmin", "create", "/tmp/repo")));
+        Assert.assertEquals(ECommandPriority.INTERACTIVE, CommandScheduler.priorityOf(Arrays.asList("svn", "list", "svn://h/r")));
+        Assert.assertEquals(ECommandPriority.BACKGROUND, CommandScheduler.priorityOf(Arrays.asList("svnadmin", "verify", "/tmp/repo")));
+    }
+
+    @Test
+    public void test02_MaxConcurrency() {
+        scheduler.setMaxConcurrency("svn://h1", 1);
+        long start = System.currentTimeMillis();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> CommandUtils.execute(svn + " info svn://h1/repo", 5000), EXECUTOR));
+        }
+        // another host is not limited by h1
+        futures.add(CompletableFuture.supplyAsync(() -> CommandUtils.execute(svn + " info svn://h2/repo", 5000), EXECUTOR));
+        futures.forEach(CompletableFuture::join);
+        Assert.assertTrue(System.currentTimeMillis() - start >= 900);
+        Assert.assertEquals(0, scheduler.getRunning("svn://h1"));
+    }
+
+    @Test
+    public void test03_InteractiveFirst() throws Exception {
+        scheduler.setMaxConcurrency("svn://h1", 1);
+        ConcurrentLinkedQueue<String> finished = new ConcurrentLinkedQueue<>();
+        CompletableFuture<Void> blocker = CompletableFuture.runAsync(() -> CommandUtils.execute(svn + " info svn://h1/repo", 5000), EXECUTOR);
+        waitFor(() -> scheduler.getRunning("svn://h1") == 1);
+        CompletableFuture<Void> export = CompletableFuture.runAsync(() -> {
+            CommandUtils.execute(svn + " export svn://h1/repo /tmp/export", 5000);
+            finished.add("export");
+        }, EXECUTOR);
+        waitFor(() -> scheduler.getWaiting("svn://h1") == 1);
+        CompletableFuture<Void> list = CompletableFuture.runAsync(() -> {
+            CommandUtils.execute(svn + " list svn://h1/repo", 5000);
+            finished.add("list");
+        }, EXECUTOR);
+        CompletableFuture.allOf(blocker, export, list).join();
+        Assert.assertEquals(Arrays.asList("list", "export"), new ArrayList<>(finished));
+    }
+
+    @Test
+    public void test04_Reject() throws Exception {
+        scheduler.setMaxConcurrency("svn://h1", 1);
+        scheduler.setQueueCapacity(0);
+        CompletableFuture<Void> blocker = CompletableFuture.runAsync(() -> CommandUtils.execute(svn + " info svn://h1/repo", 5000), EXECUTOR);
+        waitFor(() -> scheduler.getRunning("svn://h1") == 1);
+        try {
+            CommandUtils.execute(svn + " info svn://h1/repo", 5000);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("ECM0002", e.getErrorCode());
+        }
+        blocker.join();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,103 @@
+import com.marssvn.svnapi.common.CommandStream;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.exception.SvnApiException;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CommandStream Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CommandStreamTest {
+
+    @BeforeClass
+    public static void beforeClass() {
+        Assume.assumeTrue(CommandUtils.osIsLinux() && new File("/bin/sleep").exists());
+    }
+
+    @Test
+    public void test01_Finish() throws Exception {
+        try (CommandStream commandStream = CommandUtils.openStream("echo hello", 0)) {
+            Assert.assertEquals("hello", IOUtils.toString(commandStream.getInputStream(), StandardCharsets.UTF_8).trim());
+            commandStream.finish(null);
+        }
+    }
+
+    @Test
+    public void test02_CloseDestroysProcess() throws Exception {
+        long start = System.currentTimeMillis();
+        try (CommandStream commandStream = CommandUtils.openStream("sleep 30", 60000)) {
+            Assert.assertNotNull(commandStream.getInputStream());
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    public void test03_ErrorOutput() {
+        try (CommandStream commandStream = CommandUtils.openStream("ls /svnapi-not-exists", 0)) {
+            commandStream.finish(null);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertTrue(e.getMessage().contains("svnapi-not-exists"));
+        }
+
+        StringBuilder errors = new StringBuilder();
+        try (CommandStream commandStream = CommandUtils.openStream("ls /svnapi-not-exists", 0)) {
+            commandStream.finish(errors::append);
+        }
+        Assert.assertTrue(errors.toString().contains("svnapi-not-exists"));
+    }
+
+    @Test
+    public void test04_InputStream() throws Exception {
+        try (InputStream inputStream = CommandUtils.openInputStream("echo hello", 0)) {
+            Assert.assertEquals("hello", IOUtils.toString(inputStream, StandardCharsets.UTF_8).trim());
+        }
+
+        // the error is thrown at the end of the output
+        try (InputStream inputStream = CommandUtils.openInputStream("ls /svnapi-not-exists", 0)) {
+            IOUtils.toByteArray(inputStream);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertTrue(e.getMessage().contains("svnapi-not-exists"));
+        }
+    }
+
+    @Test
+    public void test05_DestroyNestedStreams() throws Exception {
+        long start = System.currentTimeMillis();
+
+        // a stream opened while another one is open on the same thread, e.g. svn cat during a walk
+        try (CommandStream outer = CommandUtils.openStream("sleep 30", 60000);
+             CommandStream inner = CommandUtils.openStream("sleep 30", 60000)) {
+            Assert.assertTrue(CommandUtils.destroyRunningProcess(Thread.currentThread()));
+            Assert.assertTrue(ended(outer.getInputStream()));
+            Assert.assertTrue(ended(inner.getInputStream()));
+        }
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+        Assert.assertFalse(CommandUtils.destroyRunningProcess(Thread.currentThread()));
+    }
+
+    /**
+     * whether the output of a process ended, the output of a destroyed process may be closed
+     */
+    private static boolean ended(InputStream inputStream) {
+        try {
+            return inputStream.read() == -1;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import com.marssvn.svnapi.SvnAdminForLocale;
+import com.marssvn.svnapi.enums.ERepositoryType;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnRepository;
+import com.marssvn.svnapi.model.SvnRepositoryResult;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SvnAdminForLocale.createRepositories Tester, no svn binaries are needed.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CreateRepositoriesTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("svnapi-create").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void test01_Batch() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        SvnAdminForLocale svnAdmin = new SvnAdminForLocale() {
+            @Override
+            public SvnRepository createRepository(SvnRepository svnRepository) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    if (svnRepository.getName().startsWith("bad")) {
+                        throw new SvnApiException("EA0001", "Repository exists: " + svnRepository.getName());
+                    }
+                    return svnRepository;
+                } catch (InterruptedException e) {
+                    throw new SvnApiException(e.getMessage());
+                } finally {
+                    running.decrementAndGet();
+                }
+            }
+        };
+
+        List<SvnRepository> repositories = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            repositories.add(repository((i % 5 == 0 ? "bad" : "repo") + i));
+        }
+        List<SvnRepositoryResult> results = svnAdmin.createRepositories(repositories, 4);
+        Assert.assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            SvnRepositoryResult result = results.get(i);
+            Assert.assertSame(repositories.get(i), result.getRepository());
+            Assert.assertEquals(i % 5 != 0, result.isSuccess());
+            Assert.assertEquals(i % 5 == 0 ? "Repository exists: bad" + i : null, result.getError());
+        }
+        Assert.assertTrue(maxRunning.get() <= 4);
+        Assert.assertTrue(maxRunning.get() > 1);
+        Assert.assertTrue(svnAdmin.createRepositories(Collections.emptyList(), 4).isEmpty());
+    }
+
+    @Test
+    public void test02_Template() throws IOException {
+        File templates = new File(root, "templates");
+        File template = new File(templates, ERepositoryType.FSFS.getCode());
+        FileUtils.writeStringToFile(new File(template, "format"), "5\n", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(template, "conf/backup/authz"), "[/]\n", StandardCharsets.UTF_8);
+
+        SvnAdminForLocale svnAdmin = new SvnAdminForLocale();
+        svnAdmin.setTemplateDirectory(templates);
+
+        // an existing repository is not overwritten
+        SvnRepository existing = repository("existing");
+        existing.setRepositoryType(ERepositoryType.FSFS);
+        FileUtils.writeStringToFile(new File(root, "existing/format"), "5\n", StandardCharsets.UTF_8);
+
+        // the fake template has no uuid to regenerate, the copy is removed when svnadmin setuuid fails
+        SvnRepository fake = repository("fake");
+        fake.setRepositoryType(ERepositoryType.FSFS);
+
+        List<SvnRepositoryResult> results = svnAdmin.createRepositories(Arrays.asList(existing, fake), 2);
+        Assert.assertFalse(results.get(0).isSuccess());
+        Assert.assertEquals("Repository exists: " + new File(root, "existing").getPath(), results.get(0).getError());
+        Assert.assertTrue(new File(root, "existing/format").isFile());
+        Assert.assertFalse(results.get(1).isSuccess());
+        Assert.assertFalse(new File(root, "fake").exists());
+        Assert.assertTrue(new File(template, "format").isFile());
+    }
+
+    private SvnRepository repository(String name) {
+        SvnRepository svnRepository = new SvnRepository();
+        svnRepository.setName(name);
+        svnRepository.setRootPathLocal(root.getPath());
+        return svnRepository;
+    }
+}
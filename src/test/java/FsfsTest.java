@@ -0,0 +1,465 @@
+import com.marssvn.svnapi.FsfsSvnClient;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.fsfs.FsfsNode;
+import com.marssvn.svnapi.fsfs.FsfsRepository;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnUser;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * FsfsRepository and FsfsSvnClient Tester, the repositories are written by the test, no svn binaries are needed.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class FsfsTest {
+
+    private final static String MD5 = "d41d8cd98f00b204e9800998ecf8427e";
+
+    private final static String DATE = "2020-06-01T08:00:00.000000Z";
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("svnapi-fsfs").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void test01_ReadRevisions() throws IOException {
+        writeRepository(false);
+        try (FsfsRepository fsfs = new FsfsRepository(root)) {
+            Assert.assertEquals(6, fsfs.getFormat());
+            Assert.assertEquals(2, fsfs.youngest());
+            Assert.assertEquals("00000000-1111-2222-3333-444444444444", fsfs.uuid());
+            Assert.assertTrue(fsfs.list(fsfs.root(0)).isEmpty());
+
+            Map<String, FsfsNode> trunk = fsfs.list(fsfs.node("trunk", 2));
+            Assert.assertEquals(Arrays.asList("a.txt", "b.txt", "d.txt", "sub"), new ArrayList<>(trunk.keySet()));
+            Assert.assertEquals(2, trunk.get("a.txt").getRevision());
+            Assert.assertEquals(1, trunk.get("b.txt").getRevision());
+            Assert.assertTrue(trunk.get("sub").isDirectory());
+
+            // plain, and a zlib delta against it
+            Assert.assertEquals("hello\n", text(fsfs, "/trunk/a.txt", 1));
+            Assert.assertEquals("hello\n" + repeat("x", 200), text(fsfs, "trunk/a.txt", 2));
+            Assert.assertEquals(206, fsfs.size(trunk.get("a.txt")));
+
+            // self-deltas: a copy from the target which overlaps, and lz4
+            Assert.assertEquals("abababab", text(fsfs, "trunk/b.txt", 2));
+            Assert.assertEquals(repeat("ab", 16), text(fsfs, "trunk/d.txt", 2));
+            Assert.assertEquals("", text(fsfs, "trunk/sub/empty.txt", 2));
+
+            Assert.assertNull(fsfs.node("trunk/c.txt", 2));
+            Assert.assertNull(fsfs.node("trunk/a.txt/x", 2));
+            Assert.assertNull(fsfs.node("trunk/sub", 1));
+            Assert.assertEquals("bob", fsfs.revisionProperties(2).get("svn:author"));
+            try {
+                fsfs.root(3);
+                Assert.fail();
+            } catch (SvnApiException e) {
+                Assert.assertEquals("EF0003", e.getErrorCode());
+            }
+        }
+    }
+
+    @Test
+    public void test02_ReadPackedShard() throws IOException {
+        writeRepository(false);
+        try (FsfsRepository fsfs = new FsfsRepository(root)) {
+            Assert.assertEquals("hello\n", text(fsfs, "trunk/a.txt", 1));
+
+            // the shard is packed while the repository is open
+            pack();
+            try (FsfsRepository packed = new FsfsRepository(root, 1, 1)) {
+                Assert.assertEquals("hello\n", text(packed, "trunk/a.txt", 1));
+                Assert.assertEquals("hello\n" + repeat("x", 200), text(packed, "trunk/a.txt", 2));
+                Assert.assertEquals("alice", packed.revisionProperties(1).get("svn:author"));
+                Assert.assertEquals("init", packed.revisionProperties(0).get("svn:log"));
+            }
+            Assert.assertEquals("abababab", text(fsfs, "trunk/b.txt", 1));
+        }
+    }
+
+    @Test
+    public void test03_ReadLogicalAddressing() throws IOException {
+        writeRepository(true);
+        try (FsfsRepository fsfs = new FsfsRepository(root)) {
+            Assert.assertEquals(7, fsfs.getFormat());
+            Assert.assertTrue(fsfs.isLogicalAddressing());
+            Assert.assertEquals(3, fsfs.list(fsfs.node("trunk", 1)).size());
+            Assert.assertEquals("hello\n" + repeat("x", 200), text(fsfs, "trunk/a.txt", 2));
+            Assert.assertEquals(repeat("ab", 16), text(fsfs, "trunk/d.txt", 2));
+        }
+    }
+
+    @Test
+    public void test04_UnsupportedFormat() throws IOException {
+        write("db/format", "9\nlayout sharded 2\naddressing logical\n");
+        try {
+            new FsfsRepository(root);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EF0001", e.getErrorCode());
+        }
+        write("db/fs-type", "bdb\n");
+        Assert.assertFalse(FsfsRepository.isFsfs(root));
+    }
+
+    @Test
+    public void test05_Client() throws IOException {
+        writeRepository(false);
+        String digest = md5Hex("/trunk/a.txt");
+        write("db/locks/" + digest.substring(0, 3) + "/" + digest, hash("path", "/trunk/a.txt", "token", "opaquelocktoken:1",
+                "owner", "alice", "comment", "editing", "creation_date", DATE));
+
+        FsfsSvnClient svnClient = new FsfsSvnClient();
+        svnClient.setRootPath("file://" + root.getAbsolutePath().replace('\\', '/'));
+        svnClient.setSvnUser(new SvnUser("user", "password"));
+        Assert.assertEquals(2, svnClient.headRevision());
+        Assert.assertEquals("00000000-1111-2222-3333-444444444444", svnClient.repositoryUuid());
+
+        List<SvnEntry> list = svnClient.list("trunk", -1);
+        Assert.assertEquals(4, list.size());
+        SvnEntry a = list.get(0);
+        Assert.assertEquals("trunk/a.txt", a.getPath());
+        Assert.assertEquals("file", a.getKind());
+        Assert.assertEquals("txt", a.getExtension());
+        Assert.assertEquals(206, a.getSize());
+        Assert.assertEquals(2, a.getCommitRevision());
+        Assert.assertEquals("bob", a.getCommitAuthor());
+        Assert.assertEquals(1590998400000L, a.getCommitDate().getTime());
+        Assert.assertEquals("alice", a.getLock().getOwner());
+        Assert.assertNull(list.get(1).getLock());
+        Assert.assertEquals("dir", list.get(3).getKind());
+
+        // locks are only read at HEAD
+        Assert.assertNull(svnClient.list("trunk", 1).get(0).getLock());
+        Assert.assertEquals(6, svnClient.list("trunk", 1).get(0).getSize());
+
+        Map<String, List<SvnEntry>> lists = svnClient.listAll(Arrays.asList("trunk", "trunk/sub", "trunk/missing"), -1);
+        Assert.assertEquals(2, lists.size());
+        Assert.assertEquals("empty.txt", lists.get("trunk/sub").get(0).getName());
+
+        Assert.assertEquals("hello\n", svnClient.getFileContent("trunk/a.txt", 1));
+        try (InputStream inputStream = svnClient.openFile("trunk/b.txt", -1)) {
+            Assert.assertEquals("abababab", IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+        }
+        try {
+            svnClient.getFileContent("trunk/sub", -1);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EC0003", e.getErrorCode());
+        }
+
+        // the root path may be a directory in the repository
+        svnClient.setRootPath("file://" + root.getAbsolutePath().replace('\\', '/') + "/trunk");
+        Assert.assertEquals("sub/empty.txt", svnClient.list("sub", -1).get(0).getPath());
+        Assert.assertEquals(repeat("ab", 16), svnClient.getFileContent("d.txt", -1));
+    }
+
+    @Test
+    public void test06_OpenContent() throws IOException {
+        writeRepository(false);
+        try (FsfsRepository fsfs = new FsfsRepository(root)) {
+
+            // a plain representation is a read-only view of the revision file, whatever its size
+            ByteBuffer plain = fsfs.open(fsfs.node("trunk/a.txt", 1), 0);
+            Assert.assertTrue(plain.isReadOnly());
+            Assert.assertEquals("hello\n", StandardCharsets.UTF_8.decode(plain).toString());
+
+            // a delta is applied in memory up to the limit
+            FsfsNode a2 = fsfs.node("trunk/a.txt", 2);
+            Assert.assertEquals("hello\n" + repeat("x", 200), StandardCharsets.UTF_8.decode(fsfs.open(a2, 206)).toString());
+            try {
+                fsfs.open(a2, 205);
+                Assert.fail();
+            } catch (SvnApiException e) {
+                Assert.assertEquals("EF0001", e.getErrorCode());
+            }
+        }
+
+        FsfsSvnClient svnClient = new FsfsSvnClient();
+        svnClient.setRootPath("file://" + root.getAbsolutePath().replace('\\', '/'));
+        svnClient.setSvnUser(new SvnUser("user", "password"));
+        svnClient.setMaxDeltaSize(100);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Assert.assertEquals(6, svnClient.transferTo("trunk/a.txt", 1, Channels.newChannel(outputStream)));
+        Assert.assertEquals("hello\n", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+
+        // a larger delta is streamed from svn cat
+        try {
+            svnClient.transferTo("trunk/a.txt", 2, Channels.newChannel(new ByteArrayOutputStream()));
+        } catch (SvnApiException e) {
+            Assert.assertNotEquals("EF0001", e.getErrorCode());
+        }
+    }
+
+    /**
+     * write a repository of 3 revisions and a shard size of 2:
+     * r1 adds trunk with a.txt, b.txt and d.txt, r2 changes a.txt and adds trunk/sub/empty.txt
+     *
+     * @param logical format 7 with logical addressing, or format 6 with physical addressing
+     */
+    private void writeRepository(boolean logical) throws IOException {
+        write("format", "5\n");
+        write("db/fs-type", "fsfs\n");
+        write("db/format", logical ? "7\nlayout sharded 2\naddressing logical\n" : "6\nlayout sharded 2\n");
+        write("db/current", "2\n");
+        write("db/uuid", "00000000-1111-2222-3333-444444444444\n");
+        write("db/min-unpacked-rev", "0\n");
+        write("db/revprops/0/0", hash("svn:date", DATE, "svn:log", "init"));
+        write("db/revprops/0/1", hash("svn:author", "alice", "svn:date", DATE));
+        write("db/revprops/1/2", hash("svn:author", "bob", "svn:date", DATE));
+
+        RevisionBuilder r0 = new RevisionBuilder(0, logical);
+        String root0 = r0.node("dir", r0.plain(hash()), "/", true);
+        write("db/revs/0/0", r0.finish(root0));
+
+        // a.txt is plain, b.txt is a self-delta which copies from its own target, d.txt is lz4 compressed
+        RevisionBuilder r1 = new RevisionBuilder(1, logical);
+        String aText = r1.plain("hello\n".getBytes(StandardCharsets.UTF_8));
+        String a = r1.node("file", aText, "/trunk/a.txt", false);
+        String b = r1.node("file", r1.delta(null, 8, bytes(0, 0, 8, 3, 2, 0x82, 0x46, 0x00, 'a', 'b'), 0), "/trunk/b.txt", false);
+        byte[] lz4 = bytes(0x2f, 'a', 'b', 0x02, 0x00, 11);
+        ByteArrayOutputStream d = new ByteArrayOutputStream();
+        d.write(bytes(0, 0, 32, 2, 1 + lz4.length, 1, 0xa0, 32));
+        d.write(lz4);
+        String dText = r1.delta(null, 32, d.toByteArray(), 2);
+        String dNode = r1.node("file", dText, "/trunk/d.txt", false);
+        String trunk1 = r1.node("dir", r1.plain(hash("a.txt", a, "b.txt", b, "d.txt", dNode)), "/trunk", false);
+        write("db/revs/0/1", r1.finish(r1.node("dir", r1.plain(hash("trunk", trunk1)), "/", true)));
+
+        // a.txt is a zlib delta against r1: copy "hello\n" from the source, then 200 x
+        RevisionBuilder r2 = new RevisionBuilder(2, logical);
+        byte[] newData = deflate(repeat("x", 200).getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream window = new ByteArrayOutputStream();
+        window.write(bytes(0, 6, 0x81, 0x4e, 6, 2 + newData.length, 5, 0x06, 0x00, 0x80, 0x81, 0x48, 0x81, 0x48));
+        window.write(newData);
+        String[] aBase = aText.split(" ");
+        String a2 = r2.node("file", r2.delta(aBase[0] + " " + aBase[1] + " " + aBase[2], 206, window.toByteArray(), 1), "/trunk/a.txt", false);
+        String sub = r2.node("dir", r2.plain(hash("empty.txt", r2.node("file", null, "/trunk/sub/empty.txt", false))), "/trunk/sub", false);
+        String trunk2 = r2.node("dir", r2.plain(hash("a.txt", a2, "b.txt", b, "d.txt", dNode, "sub", sub)), "/trunk", false);
+        write("db/revs/1/2", r2.finish(r2.node("dir", r2.plain(hash("trunk", trunk2)), "/", true)));
+    }
+
+    /**
+     * pack shard 0 as svnadmin pack does: the pack, its manifest of offsets, and the revision properties except r0
+     */
+    private void pack() throws IOException {
+        byte[] r0 = Files.readAllBytes(new File(root, "db/revs/0/0").toPath());
+        byte[] r1 = Files.readAllBytes(new File(root, "db/revs/0/1").toPath());
+        ByteArrayOutputStream pack = new ByteArrayOutputStream();
+        pack.write(r0);
+        pack.write(r1);
+        write("db/revs/0.pack/pack", pack.toByteArray());
+        write("db/revs/0.pack/manifest", "0\n" + r0.length + "\n");
+
+        // not compressed: the original length, then the original data
+        byte[] properties = Files.readAllBytes(new File(root, "db/revprops/0/1").toPath());
+        byte[] content = ("1\n1\n" + properties.length + "\n\n" + new String(properties, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream revpropsPack = new ByteArrayOutputStream();
+        revpropsPack.write(bytes(0x80 | content.length >> 7, content.length & 0x7f));
+        revpropsPack.write(content);
+        write("db/revprops/0.pack/1.0", revpropsPack.toByteArray());
+        write("db/revprops/0.pack/manifest", "1.0\n");
+        write("db/min-unpacked-rev", "2\n");
+        FileUtils.deleteDirectory(new File(root, "db/revs/0"));
+        Files.delete(new File(root, "db/revprops/0/1").toPath());
+    }
+
+    private static String text(FsfsRepository fsfs, String path, long revision) {
+        return new String(fsfs.read(fsfs.node(path, revision)), StandardCharsets.UTF_8);
+    }
+
+    private void write(String path, String content) throws IOException {
+        write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void write(String path, byte[] content) throws IOException {
+        FileUtils.writeByteArrayToFile(new File(root, path), content);
+    }
+
+    private static String hash(String... keyValues) {
+        StringBuilder dump = new StringBuilder();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            dump.append("K ").append(keyValues[i].getBytes(StandardCharsets.UTF_8).length).append('\n').append(keyValues[i]).append('\n');
+            dump.append("V ").append(keyValues[i + 1].getBytes(StandardCharsets.UTF_8).length).append('\n').append(keyValues[i + 1]).append('\n');
+        }
+        return dump.append("END\n").toString();
+    }
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] buffer = new byte[1024];
+        int length = deflater.deflate(buffer);
+        deflater.end();
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static String repeat(String text, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(text);
+        }
+        return builder.toString();
+    }
+
+    private static String md5Hex(String text) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("MD5").digest(text.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * writer of a revision file: representations and node-revisions, addressed by offset or by item index
+     */
+    private static final class RevisionBuilder {
+
+        private final long revision;
+
+        private final boolean logical;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        /**
+         * offsets by item index, 0 is unused, 1 is the changes and 2 the root node-revision
+         */
+        private final List<Long> offsets = new ArrayList<>(Arrays.asList(-1L, -1L, -1L));
+
+        private RevisionBuilder(long revision, boolean logical) {
+            this.revision = revision;
+            this.logical = logical;
+        }
+
+        private String plain(String dump) throws IOException {
+            return plain(dump.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private String plain(byte[] content) throws IOException {
+            long item = register(out.size());
+            out.write("PLAIN\n".getBytes(StandardCharsets.UTF_8));
+            out.write(content);
+            out.write("ENDREP\n".getBytes(StandardCharsets.UTF_8));
+            return revision + " " + item + " " + content.length + " " + content.length + " " + MD5;
+        }
+
+        private String delta(String base, long expandedSize, byte[] window, int version) throws IOException {
+            long item = register(out.size());
+            out.write(("DELTA" + (base == null ? "" : " " + base) + "\n").getBytes(StandardCharsets.UTF_8));
+            out.write(bytes('S', 'V', 'N', version));
+            out.write(window);
+            out.write("ENDREP\n".getBytes(StandardCharsets.UTF_8));
+            return revision + " " + item + " " + (window.length + 4) + " " + expandedSize + " " + MD5;
+        }
+
+        private String node(String kind, String text, String path, boolean isRoot) throws IOException {
+            long offset = out.size();
+            long item;
+            if (logical && isRoot) {
+                offsets.set(2, offset);
+                item = 2;
+            } else {
+                item = register(offset);
+            }
+            String id = "0.0.r" + revision + "/" + item;
+            out.write(("id: " + id + "\ntype: " + kind + "\ncount: 0\n" + (text == null ? "" : "text: " + text + "\n")
+                    + "cpath: " + path + "\n\n").getBytes(StandardCharsets.UTF_8));
+            return kind + " " + id;
+        }
+
+        private long register(long offset) {
+            if (!logical) {
+                return offset;
+            }
+            offsets.add(offset);
+            return offsets.size() - 1;
+        }
+
+        /**
+         * end the revision: the trailer of root and changes offsets, or the log-to-phys index and the footer
+         */
+        private byte[] finish(String rootEntry) throws IOException {
+            long changes = out.size();
+            out.write('\n');
+            if (!logical) {
+                String id = rootEntry.substring(rootEntry.indexOf(' ') + 1);
+                out.write((id.substring(id.indexOf('/') + 1) + " " + changes + "\n").getBytes(StandardCharsets.UTF_8));
+                return out.toByteArray();
+            }
+            offsets.set(1, changes);
+
+            // one page of offset + 1 deltas, zigzag encoded
+            ByteArrayOutputStream page = new ByteArrayOutputStream();
+            long last = 0;
+            for (long offset : offsets) {
+                long delta = offset + 1 - last;
+                last = offset + 1;
+                number(page, delta >= 0 ? delta * 2 : -delta * 2 - 1);
+            }
+            long l2pOffset = out.size();
+            out.write("L2P-INDEX\n".getBytes(StandardCharsets.UTF_8));
+            for (long value : new long[]{revision, 1, 8192, 1, 1, page.size(), offsets.size()}) {
+                number(out, value);
+            }
+            out.write(page.toByteArray());
+            long p2lOffset = out.size();
+            out.write("P2L-INDEX\n".getBytes(StandardCharsets.UTF_8));
+            byte[] footer = (l2pOffset + " " + MD5 + " " + p2lOffset + " " + MD5).getBytes(StandardCharsets.UTF_8);
+            out.write(footer);
+            out.write(footer.length);
+            return out.toByteArray();
+        }
+
+        private static void number(ByteArrayOutputStream out, long value) {
+            while (value >= 0x80) {
+                out.write((int) (value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+    }
+}
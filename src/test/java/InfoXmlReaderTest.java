@@ -0,0 +1,67 @@
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.model.SvnInfo;
+import com.marssvn.svnapi.parser.InfoXmlReader;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * InfoXmlReader Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class InfoXmlReaderTest {
+
+    private final static String INFO_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<info>\n"
+            + "<entry kind=\"dir\" path=\"src\" revision=\"5\">\n<url>svn://localhost/test/src</url>\n"
+            + "<relative-url>^/src</relative-url>\n<repository>\n<root>svn://localhost/test</root>\n"
+            + "<uuid>8a1f7a10-0000-0000-0000-000000000000</uuid>\n</repository>\n"
+            + "<commit revision=\"4\">\n<author>marssvn</author>\n<date>2020-08-01T08:00:00.000000Z</date>\n</commit>\n</entry>\n"
+            + "<entry kind=\"file\" path=\"a.txt\" revision=\"5\">\n<url>svn://localhost/test/a.txt</url>\n"
+            + "<commit revision=\"3\">\n<author>marssvn</author>\n<date>2020-08-01T08:00:00.000000Z</date>\n</commit>\n"
+            + "<lock>\n<token>opaquelocktoken:1</token>\n<owner>marssvn</owner>\n<created>2020-08-02T08:00:00.000000Z</created>\n</lock>\n"
+            + "</entry>\n</info>\n";
+
+    @Test
+    public void test01_Read() {
+        try (InfoXmlReader reader = new InfoXmlReader(new ByteArrayInputStream(INFO_XML.getBytes(StandardCharsets.UTF_8)))) {
+            SvnInfo dir = reader.next();
+            Assert.assertEquals("dir", dir.getKind());
+            Assert.assertEquals("svn://localhost/test/src", dir.getUrl());
+            Assert.assertEquals("^/src", dir.getRelativeUrl());
+            Assert.assertEquals("svn://localhost/test", dir.getRepositoryRoot());
+            Assert.assertEquals(5, dir.getRevision());
+            Assert.assertEquals(4, dir.getCommitRevision());
+            Assert.assertNull(dir.getLock());
+
+            SvnInfo file = reader.next();
+            Assert.assertEquals("a.txt", file.getPath());
+            Assert.assertEquals("opaquelocktoken:1", file.getLock().getToken());
+            Assert.assertNull(reader.next());
+        }
+    }
+
+    /**
+     * xml stream readers close the stream at the end of the document, the command output must still be drained
+     */
+    @Test
+    public void test02_ReadCommandOutput() {
+        Assume.assumeTrue(new File("/bin/echo").exists());
+        SvnInfo svnInfo = CommandUtils.executeForStream("echo <info><entry><url>svn://localhost/test</url></entry></info>",
+                0, inputStream -> {
+                    try (InfoXmlReader reader = new InfoXmlReader(inputStream)) {
+                        SvnInfo first = reader.next();
+                        Assert.assertNull(reader.next());
+                        return first;
+                    }
+                });
+        Assert.assertEquals("svn://localhost/test", svnInfo.getUrl());
+    }
+}
@@ -0,0 +1,87 @@
+import com.marssvn.svnapi.cache.ListCache;
+import com.marssvn.svnapi.cache.LruCache;
+import com.marssvn.svnapi.model.SvnEntry;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ListCache Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ListCacheTest {
+
+    private final static String ROOT_PATH = "svn://localhost/test";
+
+    @Test
+    public void test01_LruEviction() {
+        LruCache<String, String> cache = new LruCache<>(2, 100, (key, value) -> value.length());
+        cache.put("a", "1");
+        cache.put("b", "2");
+        Assert.assertEquals("1", cache.get("a"));
+
+        // b is the least recently used
+        cache.put("c", "3");
+        Assert.assertNull(cache.get("b"));
+        Assert.assertEquals("1", cache.get("a"));
+        Assert.assertEquals("3", cache.get("c"));
+        Assert.assertEquals(3, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void test02_WeightEviction() {
+        LruCache<String, String> cache = new LruCache<>(100, 10, (key, value) -> value.length());
+        cache.put("a", "12345");
+        cache.put("b", "12345");
+        Assert.assertEquals(10, cache.getWeight());
+        cache.put("c", "1");
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(6, cache.getWeight());
+
+        // heavier than the max weight, not cached
+        cache.put("d", "12345678901");
+        Assert.assertNull(cache.get("d"));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void test03_ListCache() {
+        ListCache listCache = new ListCache(10, 100);
+        List<SvnEntry> list = createList(3, 5);
+        listCache.put(ROOT_PATH, "src", 5, list);
+        Assert.assertNull(listCache.get(ROOT_PATH, "src", 4, 5));
+        Assert.assertNull(listCache.get("svn://localhost/other", "src", 5, 5));
+
+        // cached entries are copies, the head revision is set to the current one
+        list.get(0).setName("changed");
+        List<SvnEntry> cached = listCache.get(ROOT_PATH, "src", 5, 8);
+        Assert.assertEquals(3, cached.size());
+        Assert.assertEquals("entry-0", cached.get(0).getName());
+        Assert.assertEquals(8, cached.get(0).getHeadRevision());
+        Assert.assertEquals(1, listCache.getHitCount());
+        Assert.assertEquals(2, listCache.getMissCount());
+
+        listCache.invalidate(ROOT_PATH);
+        Assert.assertEquals(0, listCache.size());
+    }
+
+    private static List<SvnEntry> createList(int count, long headRevision) {
+        List<SvnEntry> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            SvnEntry svnEntry = new SvnEntry();
+            svnEntry.setName("entry-" + i);
+            svnEntry.setKind("file");
+            svnEntry.setHeadRevision(headRevision);
+            list.add(svnEntry);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,158 @@
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.parser.ListXmlReader;
+import org.dom4j.Document;
+import org.dom4j.DocumentHelper;
+import org.dom4j.Element;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ListXmlReader Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ListXmlReaderTest {
+
+    private final static String LIST_PATH = "svn://localhost/test/src";
+
+    @Test
+    public void test01_Read() {
+        byte[] xml = createListXml(2);
+        try (ListXmlReader reader = new ListXmlReader(new ByteArrayInputStream(xml))) {
+            SvnEntry dir = reader.next();
+            Assert.assertEquals(LIST_PATH, reader.getListPath());
+            Assert.assertEquals("dir", dir.getKind());
+            Assert.assertEquals("dir-0", dir.getName());
+            Assert.assertEquals(10, dir.getCommitRevision());
+            Assert.assertEquals("marssvn", dir.getCommitAuthor());
+            Assert.assertNull(dir.getLock());
+
+            SvnEntry file = reader.next();
+            Assert.assertEquals("file", file.getKind());
+            Assert.assertEquals("file-1.txt", file.getName());
+            Assert.assertEquals("txt", file.getExtension());
+            Assert.assertEquals(1024, file.getSize());
+            Assert.assertEquals("opaquelocktoken:1", file.getLock().getToken());
+            Assert.assertEquals("marssvn", file.getLock().getOwner());
+            Assert.assertEquals("editing", file.getLock().getComment());
+
+            Assert.assertNull(reader.next());
+        }
+    }
+
+    /**
+     * the streaming reader allocates less per entry than dom4j on the whole output string
+     */
+    @Test
+    public void test02_AllocationPerEntry() {
+        java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadMXBean;
+
+        int count = 20000;
+        byte[] xml = createListXml(count);
+        long threadId = Thread.currentThread().getId();
+
+        // warm up
+        readWithDom(xml);
+        readWithStax(xml);
+
+        long start = allocationBean.getThreadAllocatedBytes(threadId);
+        Assert.assertEquals(count, readWithDom(xml).size());
+        long domBytes = allocationBean.getThreadAllocatedBytes(threadId) - start;
+
+        start = allocationBean.getThreadAllocatedBytes(threadId);
+        Assert.assertEquals(count, readWithStax(xml).size());
+        long staxBytes = allocationBean.getThreadAllocatedBytes(threadId) - start;
+
+        Assert.assertTrue("allocated bytes per entry, dom4j: " + domBytes / count + ", stax: " + staxBytes / count,
+                staxBytes < domBytes);
+    }
+
+    @Test
+    public void test03_ListListener() {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<lists>\n<list path=\"svn://localhost/test/empty\">\n</list>\n"
+                + "<list path=\"svn://localhost/test/a%20b\">\n<entry kind=\"dir\">\n<name>c</name>\n"
+                + "<commit revision=\"1\">\n<author>marssvn</author>\n<date>2020-08-01T08:00:00.000000Z</date>\n</commit>\n"
+                + "</entry>\n</list>\n</lists>\n";
+        List<String> listPaths = new ArrayList<>();
+        try (ListXmlReader reader = new ListXmlReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))) {
+            reader.setListListener(listPaths::add);
+            Assert.assertEquals("c", reader.next().getName());
+            Assert.assertEquals("svn://localhost/test/a%20b", reader.getListPath());
+            Assert.assertNull(reader.next());
+        }
+
+        // the empty list is only seen by the listener
+        Assert.assertEquals(Arrays.asList("svn://localhost/test/empty", "svn://localhost/test/a%20b"), listPaths);
+        Assert.assertEquals("svn://localhost/test/a b", StringUtils.decodeUri(listPaths.get(1)));
+    }
+
+    private static List<SvnEntry> readWithStax(byte[] xml) {
+        List<SvnEntry> list = new ArrayList<>();
+        try (ListXmlReader reader = new ListXmlReader(new ByteArrayInputStream(xml))) {
+            SvnEntry svnEntry;
+            while ((svnEntry = reader.next()) != null) {
+                list.add(svnEntry);
+            }
+        }
+        return list;
+    }
+
+    private static List<SvnEntry> readWithDom(byte[] xml) {
+        try {
+            Document document = DocumentHelper.parseText(new String(xml, StandardCharsets.UTF_8));
+            List<SvnEntry> list = new ArrayList<>();
+            for (Element entry : document.getRootElement().element("list").elements()) {
+                SvnEntry svnEntry = new SvnEntry();
+                svnEntry.setKind(entry.attributeValue("kind"));
+                svnEntry.setName(entry.elementText("name"));
+                Element commitElement = entry.element("commit");
+                svnEntry.setCommitRevision(Long.parseLong(commitElement.attributeValue("revision")));
+                svnEntry.setCommitAuthor(commitElement.elementText("author"));
+                svnEntry.setCommitDate(DateUtils.parseDate(commitElement.elementText("date")));
+                list.add(svnEntry);
+            }
+            return list;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * create svn list xml, even entries are directories, odd entries are locked files
+     */
+    private static byte[] createListXml(int count) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<lists>\n<list path=\"")
+                .append(LIST_PATH).append("\">\n");
+        for (int i = 0; i < count; i++) {
+            boolean file = i % 2 == 1;
+            xml.append("<entry kind=\"").append(file ? "file" : "dir").append("\">\n<name>")
+                    .append(file ? "file-" + i + ".txt" : "dir-" + i).append("</name>\n");
+            if (file) {
+                xml.append("<size>1024</size>\n");
+            }
+            xml.append("<commit revision=\"10\">\n<author>marssvn</author>\n<date>2020-08-01T08:00:00.000000Z</date>\n</commit>\n");
+            if (file) {
+                xml.append("<lock>\n<token>opaquelocktoken:").append(i).append("</token>\n<owner>marssvn</owner>\n")
+                        .append("<comment>editing</comment>\n<created>2020-08-02T08:00:00.000000Z</created>\n</lock>\n");
+            }
+            xml.append("</entry>\n");
+        }
+        xml.append("</list>\n</lists>\n");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
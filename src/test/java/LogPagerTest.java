@@ -0,0 +1,76 @@
+import com.marssvn.svnapi.LogPager;
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.LogPage;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LogPager Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LogPagerTest {
+
+    @Test
+    public void test01_Pages() {
+        HistorySvnClient svnClient = new HistorySvnClient(120);
+        LogPager pager = new LogPager(svnClient, "trunk");
+
+        LogPage page = pager.first();
+        Assert.assertEquals(LogPager.DEFAULT_PAGE_SIZE, page.getEntries().size());
+        Assert.assertEquals(120, page.getEntries().get(0).getRevision());
+        Assert.assertEquals(70, page.getNextCursor());
+
+        // only one page is read per call
+        page = pager.page(page.getNextCursor());
+        Assert.assertEquals(70, page.getEntries().get(0).getRevision());
+        Assert.assertEquals(20, page.getNextCursor());
+        Assert.assertEquals(50, svnClient.entriesRead);
+
+        page = pager.page(page.getNextCursor());
+        Assert.assertEquals(20, page.getEntries().size());
+        Assert.assertEquals(1, page.getEntries().get(19).getRevision());
+        Assert.assertFalse(page.hasNext());
+    }
+
+    @Test
+    public void test02_LastPageIsFull() {
+        LogPager pager = new LogPager(new HistorySvnClient(10), "trunk", 5, false);
+        LogPage page = pager.page(5);
+        Assert.assertEquals(5, page.getEntries().size());
+        Assert.assertFalse(page.hasNext());
+    }
+
+    /**
+     * client with a history of revisions 1 to head, every revision changes the path
+     */
+    private static class HistorySvnClient extends SvnClient {
+
+        private final long head;
+
+        private int entriesRead;
+
+        HistorySvnClient(long head) {
+            this.head = head;
+        }
+
+        @Override
+        public List<LogEntry> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths) {
+            List<LogEntry> logEntries = new ArrayList<>();
+            for (long revision = fromRevision <= 0 ? head : fromRevision; revision >= toRevision && logEntries.size() < limit; revision--) {
+                LogEntry logEntry = new LogEntry();
+                logEntry.setRevision(revision);
+                logEntries.add(logEntry);
+            }
+            entriesRead = logEntries.size();
+            return logEntries;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.index.LogSearchIndex;
+import com.marssvn.svnapi.index.RevisionIndex;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * LogSearchIndex Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LogSearchIndexTest {
+
+    @Test
+    public void test01_Search() {
+        LogSearchIndex index = new LogSearchIndex();
+        Assert.assertTrue(index.add(logEntry(1, "marssvn", "ABC-123: fix login page", "/trunk/web/Login.java")));
+        Assert.assertTrue(index.add(logEntry(2, "zhangkx", "Refactor the login service, see ABC-124.", "/trunk/service/LoginService.java")));
+        Assert.assertTrue(index.add(logEntry(3, "marssvn", "\u4fee\u590d\u767b\u5f55\u95ee\u9898 ABC-123", "/trunk/web/Login.java")));
+        Assert.assertTrue(index.add(logEntry(4, "marssvn", "update readme", "/trunk/README.md")));
+        Assert.assertFalse(index.add(logEntry(4, "marssvn", "duplicate", "/trunk/README.md")));
+
+        // newest first
+        Assert.assertEquals(Arrays.asList(3L, 1L), index.search("abc-123", 0));
+        Assert.assertEquals(Arrays.asList(3L, 2L, 1L), index.search("ABC", 0));
+        Assert.assertEquals(Arrays.asList(3L, 2L, 1L), index.search("login", 0));
+        Assert.assertEquals(Arrays.asList(3L, 1L), index.search("login author:MARSSVN", 0));
+        Assert.assertEquals(Collections.singletonList(2L), index.search("login author:zhangkx", 0));
+        Assert.assertEquals(Arrays.asList(3L, 1L), index.search("Login.java", 0));
+        Assert.assertEquals(Collections.singletonList(2L), index.search("service abc-124.", 0));
+        Assert.assertEquals(Collections.singletonList(3L), index.search("\u767b\u5f55", 0));
+        Assert.assertEquals(Arrays.asList(4L, 3L), index.search("trunk", 2));
+        Assert.assertEquals(Arrays.asList(2L, 1L), index.search("trunk", 2, 0));
+        Assert.assertTrue(index.search("abc-125", 0).isEmpty());
+        Assert.assertTrue(index.search("  ", 0).isEmpty());
+        Assert.assertEquals(4, index.getLastRevision());
+    }
+
+    @Test
+    public void test02_UpdateFromRevisionIndex() throws Exception {
+        File rootDir = Files.createTempDirectory("svnapi").toFile();
+        try (RevisionIndex revisionIndex = new RevisionIndex(new File(rootDir, "search.revisions"))) {
+            HistorySvnClient svnClient = new HistorySvnClient();
+            svnClient.logEntries.add(logEntry(1, "marssvn", "initial import", "/trunk"));
+            revisionIndex.update(svnClient);
+
+            LogSearchIndex index = new LogSearchIndex();
+            Assert.assertEquals(1, index.update(revisionIndex));
+
+            svnClient.logEntries.add(logEntry(2, "marssvn", "XYZ-9 add build", "/trunk/pom.xml"));
+            revisionIndex.update(svnClient);
+            Assert.assertEquals(1, index.update(revisionIndex));
+            Assert.assertEquals(0, index.update(revisionIndex));
+            Assert.assertEquals(Collections.singletonList(2L), index.search("xyz-9 pom.xml", 10));
+        } finally {
+            FileUtils.deleteDirectory(rootDir);
+        }
+    }
+
+    private static LogEntry logEntry(long revision, String author, String message, String path) {
+        LogEntry logEntry = new LogEntry();
+        logEntry.setRevision(revision);
+        logEntry.setAuthor(author);
+        logEntry.setMessage(message);
+        LogChangedPath changedPath = new LogChangedPath();
+        changedPath.setAction("M");
+        changedPath.setPath(path);
+        logEntry.setChangedPaths(Collections.singletonList(changedPath));
+        return logEntry;
+    }
+
+    /**
+     * client whose history is a list of log entries
+     */
+    private static class HistorySvnClient extends SvnClient {
+
+        private final List<LogEntry> logEntries = new ArrayList<>();
+
+        @Override
+        public String repositoryUuid() {
+            return "uuid-search";
+        }
+
+        @Override
+        public long headRevision() {
+            return logEntries.size();
+        }
+
+        @Override
+        public List<LogEntry> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths) {
+            return new ArrayList<>(logEntries.subList((int) fromRevision - 1, (int) toRevision));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import com.marssvn.svnapi.common.DateUtils;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.parser.LogXmlReader;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * LogXmlReader Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class LogXmlReaderTest {
+
+    private final static String LOG_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<log>\n"
+            + "<logentry revision=\"3\">\n"
+            + "<author>marssvn</author>\n"
+            + "<date>2020-06-01T08:00:00.123456Z</date>\n"
+            + "<paths>\n"
+            + "<path action=\"A\" prop-mods=\"false\" text-mods=\"true\" kind=\"file\" copyfrom-path=\"/trunk/a.txt\" copyfrom-rev=\"2\">/trunk/b.txt</path>\n"
+            + "<path action=\"M\" prop-mods=\"true\" text-mods=\"false\" kind=\"\">/trunk</path>\n"
+            + "</paths>\n"
+            + "<msg>copy a &amp; b</msg>\n"
+            + "<logentry revision=\"2\"><author>merged</author><msg>merged change</msg></logentry>\n"
+            + "</logentry>\n"
+            + "<logentry revision=\"1\">\n"
+            + "<author>marssvn</author>\n"
+            + "<date>2020-05-31T23:59:59.000000Z</date>\n"
+            + "<msg></msg>\n"
+            + "</logentry>\n"
+            + "</log>\n";
+
+    @Test
+    public void test01_Read() {
+        try (LogXmlReader reader = new LogXmlReader(new ByteArrayInputStream(LOG_XML.getBytes(StandardCharsets.UTF_8)))) {
+            LogEntry logEntry = reader.next();
+            Assert.assertEquals(3, logEntry.getRevision());
+            Assert.assertEquals("marssvn", logEntry.getAuthor());
+            Assert.assertEquals(1590998400123L, logEntry.getDate().getTime());
+            Assert.assertEquals("copy a & b", logEntry.getMessage());
+            Assert.assertEquals(2, logEntry.getChangedPaths().size());
+
+            LogChangedPath copied = logEntry.getChangedPaths().get(0);
+            Assert.assertEquals("A", copied.getAction());
+            Assert.assertEquals("/trunk/b.txt", copied.getPath());
+            Assert.assertEquals("file", copied.getKind());
+            Assert.assertEquals("/trunk/a.txt", copied.getCopyFromPath());
+            Assert.assertEquals(2, copied.getCopyFromRevision());
+
+            LogChangedPath modified = logEntry.getChangedPaths().get(1);
+            Assert.assertEquals("M", modified.getAction());
+            Assert.assertNull(modified.getKind());
+            Assert.assertNull(modified.getCopyFromPath());
+            Assert.assertEquals(-1, modified.getCopyFromRevision());
+
+            // the nested entry of the merged revision is skipped
+            logEntry = reader.next();
+            Assert.assertEquals(1, logEntry.getRevision());
+            Assert.assertEquals("", logEntry.getMessage());
+            Assert.assertNull(logEntry.getChangedPaths());
+
+            Assert.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void test02_ParseDate() {
+        Assert.assertEquals(1590998400000L, DateUtils.parseDate("2020-06-01T08:00:00.000000Z").getTime());
+        Assert.assertEquals(1590998400000L, DateUtils.parseDate("2020-06-01T08:00:00Z").getTime());
+        Assert.assertNull(DateUtils.parseDate(""));
+        Assert.assertNull(DateUtils.parseDate(null));
+        Assert.assertNull(DateUtils.parseDate("yesterday"));
+    }
+}
@@ -0,0 +1,194 @@
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.index.RevisionIndex;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import org.apache.commons.io.FileUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * RevisionIndex Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RevisionIndexTest {
+
+    private static File rootDir;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        rootDir = Files.createTempDirectory("svnapi").toFile();
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        FileUtils.deleteDirectory(rootDir);
+    }
+
+    @Test
+    public void test01_Update() {
+        HistorySvnClient svnClient = new HistorySvnClient("uuid-1", 2500);
+        try (RevisionIndex index = new RevisionIndex(new File(rootDir, "test01.revisions"))) {
+            Assert.assertEquals(2500, index.update(svnClient));
+            Assert.assertEquals(3, svnClient.logCalls);
+            Assert.assertEquals(2500, index.getLastRevision());
+            Assert.assertEquals("uuid-1", index.getRepositoryUuid());
+
+            LogEntry logEntry = index.get(7);
+            Assert.assertEquals("user2", logEntry.getAuthor());
+            Assert.assertEquals("change 7", logEntry.getMessage());
+            Assert.assertEquals(7000, logEntry.getDate().getTime());
+            Assert.assertEquals("/trunk/module7/File7.java", logEntry.getChangedPaths().get(0).getPath());
+            Assert.assertEquals("/trunk/module6/File6.java", logEntry.getChangedPaths().get(1).getCopyFromPath());
+            Assert.assertEquals(6, logEntry.getChangedPaths().get(1).getCopyFromRevision());
+
+            // incremental
+            svnClient.head = 2510;
+            Assert.assertEquals(10, index.update(svnClient));
+            Assert.assertEquals(0, index.update(svnClient));
+            Assert.assertEquals(2510, index.size());
+        }
+    }
+
+    @Test
+    public void test02_Queries() {
+        try (RevisionIndex index = new RevisionIndex(new File(rootDir, "test01.revisions"))) {
+            Assert.assertEquals(2510, index.getLastRevision());
+
+            // commits of module3 and its files, newest first
+            List<Long> revisions = revisionsOf(index.log("trunk/module3/", -1, 1, 3));
+            Assert.assertEquals(Arrays.asList(2503L, 2493L, 2483L), revisions);
+            Assert.assertEquals(Arrays.asList(3L, 13L), revisionsOf(index.log("/trunk/module3", 1, 20, 0)));
+            Assert.assertEquals(2510, index.log("/", -1, 1, 0).size());
+            Assert.assertEquals(2510, index.log("trunk", -1, 1, 0).size());
+            Assert.assertTrue(index.log("branches", -1, 1, 0).isEmpty());
+
+            Assert.assertEquals(2509, index.lastChange("trunk/module9/File9.java").getRevision());
+            Assert.assertNull(index.lastChange("trunk/missing"));
+
+            List<LogEntry> byAuthor = index.byAuthor("user2", 100, 2);
+            Assert.assertEquals(Arrays.asList(97L, 92L), revisionsOf(byAuthor));
+            Assert.assertTrue(index.byAuthor("nobody", -1, 0).isEmpty());
+
+            List<LogEntry> scanned = new ArrayList<>();
+            index.scan(2505, scanned::add);
+            Assert.assertEquals(Arrays.asList(2506L, 2507L, 2508L, 2509L, 2510L), revisionsOf(scanned));
+        }
+    }
+
+    @Test
+    public void test03_TruncatedRecord() throws Exception {
+        File file = new File(rootDir, "test01.revisions");
+        long length = file.length();
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(length - 3);
+        }
+        HistorySvnClient svnClient = new HistorySvnClient("uuid-1", 2510);
+        try (RevisionIndex index = new RevisionIndex(file)) {
+            Assert.assertEquals(2509, index.getLastRevision());
+            Assert.assertEquals(1, index.update(svnClient));
+            Assert.assertEquals("change 2510", index.get(2510).getMessage());
+        }
+        Assert.assertEquals(length, file.length());
+    }
+
+    @Test
+    public void test04_OtherRepository() {
+        try (RevisionIndex index = new RevisionIndex(new File(rootDir, "test01.revisions"))) {
+            index.update(new HistorySvnClient("uuid-2", 2600));
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EI0002", e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void test05_SubdirectoryRootPath() {
+
+        // the changed paths of the log of a client rooted at trunk are repository paths
+        HistorySvnClient svnClient = new HistorySvnClient("uuid-3", 20);
+        svnClient.setRootPath("svn://127.0.0.1/repo/trunk");
+        try (RevisionIndex index = new RevisionIndex(new File(rootDir, "test05.revisions"))) {
+            Assert.assertEquals(20, index.update(svnClient));
+            Assert.assertEquals(Arrays.asList(13L, 3L), revisionsOf(index.log("/trunk/module3", -1, 1, 0)));
+            Assert.assertEquals(13, index.lastChange("trunk/module3/File3.java").getRevision());
+            Assert.assertTrue(index.log("module3", -1, 1, 0).isEmpty());
+        }
+    }
+
+    private static List<Long> revisionsOf(List<LogEntry> logEntries) {
+        return logEntries.stream().map(LogEntry::getRevision).collect(Collectors.toList());
+    }
+
+    /**
+     * client with a history of revisions 1 to head, revision r changes /trunk/module(r % 10)/File(r % 10).java,
+     * and copies the file of the previous module
+     */
+    private static class HistorySvnClient extends SvnClient {
+
+        private final String uuid;
+
+        private long head;
+
+        private int logCalls;
+
+        HistorySvnClient(String uuid, long head) {
+            this.uuid = uuid;
+            this.head = head;
+        }
+
+        @Override
+        public String repositoryUuid() {
+            return uuid;
+        }
+
+        @Override
+        public long headRevision() {
+            return head;
+        }
+
+        @Override
+        public List<LogEntry> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths) {
+            logCalls++;
+            List<LogEntry> logEntries = new ArrayList<>();
+            for (long revision = fromRevision; revision <= toRevision; revision++) {
+                LogEntry logEntry = new LogEntry();
+                logEntry.setRevision(revision);
+                logEntry.setAuthor("user" + revision % 5);
+                logEntry.setDate(new Date(revision * 1000));
+                logEntry.setMessage("change " + revision);
+
+                List<LogChangedPath> changedPaths = new ArrayList<>();
+                LogChangedPath modified = new LogChangedPath();
+                modified.setAction("M");
+                modified.setKind("file");
+                modified.setPath("/trunk/module" + revision % 10 + "/File" + revision % 10 + ".java");
+                changedPaths.add(modified);
+                LogChangedPath copied = new LogChangedPath();
+                copied.setAction("A");
+                copied.setPath("/trunk/module" + revision % 10 + "/Copy.java");
+                copied.setCopyFromPath("/trunk/module" + (revision - 1) % 10 + "/File" + (revision - 1) % 10 + ".java");
+                copied.setCopyFromRevision(revision - 1);
+                changedPaths.add(copied);
+                logEntry.setChangedPaths(changedPaths);
+                logEntries.add(logEntry);
+            }
+            return logEntries;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.cache.SvnLockTable;
+import com.marssvn.svnapi.model.RevisionEvent;
+import com.marssvn.svnapi.model.SvnUser;
+import com.marssvn.svnapi.watch.RevisionWatcher;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RevisionWatcher Tester, the repositories are a db/current each, no svn binaries are needed.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class RevisionWatcherTest {
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("svnapi-watcher").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(root);
+    }
+
+    @Test
+    public void test01_WatchService() throws Exception {
+        File repository = repository("repo1", 3);
+        try (RevisionWatcher watcher = new RevisionWatcher()) {
+            BlockingQueue<RevisionEvent> events = new LinkedBlockingQueue<>();
+            watcher.subscribe(repository, events::add);
+            Assert.assertEquals(3, watcher.headRevision(repository));
+            Assert.assertEquals(-1, watcher.headRevision(new File(root, "other")));
+
+            commit(repository, 4);
+            RevisionEvent event = events.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(event);
+            Assert.assertEquals(repository.getAbsolutePath(), event.getRepositoryPath());
+            Assert.assertEquals(3, event.getPreviousRevision());
+            Assert.assertEquals(4, event.getRevision());
+            Assert.assertEquals(4, watcher.headRevision(repository));
+        }
+    }
+
+    @Test
+    public void test02_Polling() throws Exception {
+        File first = repository("repo1", 1);
+        File second = repository("repo2", 7);
+        try (RevisionWatcher watcher = new RevisionWatcher(true, 20)) {
+            Assert.assertTrue(watcher.isPolling());
+            BlockingQueue<RevisionEvent> events = new LinkedBlockingQueue<>();
+            watcher.subscribe(events::add);
+            watcher.watch(first);
+            watcher.watch(second);
+
+            commit(second, 9);
+            RevisionEvent event = events.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(event);
+            Assert.assertEquals(second.getAbsolutePath(), event.getRepositoryPath());
+            Assert.assertEquals(9, event.getRevision());
+
+            // a failing listener does not stop the others, refresh reads db/current at once
+            watcher.subscribe(first, e -> {
+                throw new IllegalStateException("listener failed");
+            });
+            commit(first, 2);
+            Assert.assertEquals(2, watcher.refresh(first));
+            Assert.assertEquals(1, events.poll(10, TimeUnit.SECONDS).getPreviousRevision());
+
+            watcher.unwatch(first);
+            Assert.assertEquals(-1, watcher.headRevision(first));
+        }
+    }
+
+    @Test
+    public void test03_ClientHeadRevision() throws Exception {
+        File repository = repository("repo1", 5);
+        AtomicInteger loads = new AtomicInteger();
+        SvnLockTable table = new SvnLockTable(() -> {
+            loads.incrementAndGet();
+            return Collections.emptyList();
+        });
+        table.setRefreshInterval(0);
+
+        WatchedSvnClient svnClient = new WatchedSvnClient();
+        svnClient.setLockTable(table);
+        Assert.assertEquals(100, svnClient.headRevision());
+        Assert.assertEquals(1, svnClient.svnCalls.get());
+
+        try (RevisionWatcher watcher = new RevisionWatcher(true, 20)) {
+            svnClient.setRevisionWatcher(watcher, repository);
+            table.size();
+            Assert.assertEquals(1, loads.get());
+
+            // no svn process while the repository is watched
+            Assert.assertEquals(5, svnClient.headRevision());
+            Assert.assertEquals(1, svnClient.svnCalls.get());
+
+            // a commit may release locks, the lock table is reloaded at the next lookup
+            commit(repository, 6);
+            watcher.refresh(repository);
+            Assert.assertEquals(6, svnClient.headRevision());
+            table.size();
+            Assert.assertEquals(2, loads.get());
+
+            svnClient.setRevisionWatcher(null, null);
+            Assert.assertEquals(100, svnClient.headRevision());
+            Assert.assertEquals(2, svnClient.svnCalls.get());
+        }
+    }
+
+    private File repository(String name, long revision) throws IOException {
+        File repository = new File(root, name);
+        FileUtils.writeStringToFile(new File(repository, "db/current"), revision + "\n", StandardCharsets.UTF_8);
+        return repository;
+    }
+
+    /**
+     * write db/current as svn does: a temp file which is renamed
+     */
+    private static void commit(File repository, long revision) throws IOException {
+        File temp = new File(repository, "db/current.tmp");
+        FileUtils.writeStringToFile(temp, revision + "\n", StandardCharsets.UTF_8);
+        Files.move(temp.toPath(), new File(repository, "db/current").toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * client whose svn info always answers 100
+     */
+    private static class WatchedSvnClient extends SvnClient {
+
+        private final AtomicInteger svnCalls = new AtomicInteger();
+
+        WatchedSvnClient() {
+            setRootPath("svn://localhost/test");
+            setSvnUser(new SvnUser("user", "password"));
+        }
+
+        @Override
+        protected long doHeadRevision() {
+            svnCalls.incrementAndGet();
+            return 100;
+        }
+    }
+}
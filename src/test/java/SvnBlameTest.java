@@ -0,0 +1,244 @@
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.cache.BlameCache;
+import com.marssvn.svnapi.common.LineDiff;
+import com.marssvn.svnapi.model.LogChangedPath;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.SvnBlame;
+import com.marssvn.svnapi.model.SvnBlameLine;
+import com.marssvn.svnapi.model.SvnUser;
+import com.marssvn.svnapi.parser.BlameXmlReader;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * SvnClient blame Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SvnBlameTest {
+
+    private final static String ROOT_PATH = "svn://localhost/test";
+
+    private final static String FILE_PATH = "trunk/App.java";
+
+    @Test
+    public void test01_LineDiff() {
+        Assert.assertEquals(Arrays.asList("a", "b", ""), LineDiff.splitLines("a\r\nb\n\n"));
+        Assert.assertEquals(Collections.singletonList("a"), LineDiff.splitLines("a"));
+        Assert.assertTrue(LineDiff.splitLines("").isEmpty());
+
+        List<String> oldLines = Arrays.asList("a", "b", "c", "a", "b", "b", "a");
+        List<String> newLines = Arrays.asList("c", "b", "a", "b", "a", "c");
+        int[] matched = LineDiff.match(oldLines, newLines, 100);
+
+        // matched lines are equal and in order, the edit script is the shortest: 7 + 6 - 2 * 4 = 5
+        int previous = -1;
+        int count = 0;
+        for (int i = 0; i < matched.length; i++) {
+            if (matched[i] >= 0) {
+                Assert.assertEquals(oldLines.get(matched[i]), newLines.get(i));
+                Assert.assertTrue(matched[i] > previous);
+                previous = matched[i];
+                count++;
+            }
+        }
+        Assert.assertEquals(4, count);
+        Assert.assertNull(LineDiff.match(oldLines, newLines, 4));
+        Assert.assertArrayEquals(new int[]{0, -1, 1}, LineDiff.match(Arrays.asList("a", "c"), Arrays.asList("a", "b", "c"), 1));
+    }
+
+    @Test
+    public void test02_BlameXmlReader() {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<blame>\n<target path=\"svn://localhost/test/trunk/App.java\">\n"
+                + "<entry line-number=\"1\">\n<commit revision=\"2\">\n<author>alice</author>\n"
+                + "<date>2020-06-01T08:00:00.000000Z</date>\n</commit>\n</entry>\n"
+                + "<entry line-number=\"2\">\n<commit revision=\"5\">\n<author>bob</author>\n</commit>\n"
+                + "<merged path=\"/branches/b/App.java\">\n<commit revision=\"4\">\n<author>carol</author>\n</commit>\n</merged>\n"
+                + "</entry>\n</target>\n</blame>\n";
+        try (BlameXmlReader reader = new BlameXmlReader(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))) {
+            SvnBlameLine line = reader.next();
+            Assert.assertEquals(1, line.getLineNumber());
+            Assert.assertEquals(2, line.getRevision());
+            Assert.assertEquals("alice", line.getAuthor());
+            Assert.assertEquals(1590998400000L, line.getDate().getTime());
+
+            line = reader.next();
+            Assert.assertEquals(5, line.getRevision());
+            Assert.assertEquals("bob", line.getAuthor());
+            Assert.assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void test03_IncrementalBlame() {
+        HistorySvnClient svnClient = new HistorySvnClient();
+        svnClient.setBlameCache(new BlameCache());
+
+        // no older blame: full blame
+        SvnBlame blame = svnClient.getBlame(FILE_PATH, 3);
+        Assert.assertEquals(1, svnClient.fullBlames);
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), contentsOf(blame));
+
+        // r5 and r7 are applied to the blame at r3
+        blame = svnClient.getBlame(FILE_PATH, 8);
+        Assert.assertEquals(1, svnClient.fullBlames);
+        Assert.assertEquals(8, blame.getRevision());
+        Assert.assertEquals(Arrays.asList("x", "a", "B", "d"), contentsOf(blame));
+        Assert.assertEquals(Arrays.asList(7L, 2L, 5L, 5L), revisionsOf(blame));
+        Assert.assertEquals(Arrays.asList("carol", "full", "bob", "bob"),
+                blame.getLines().stream().map(SvnBlameLine::getAuthor).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4),
+                blame.getLines().stream().map(SvnBlameLine::getLineNumber).collect(Collectors.toList()));
+
+        // cached
+        int logs = svnClient.logs;
+        Assert.assertEquals(Arrays.asList(7L, 2L, 5L, 5L), revisionsOf(svnClient.getBlame(FILE_PATH, 8)));
+        Assert.assertEquals(logs, svnClient.logs);
+
+        // unchanged since r8
+        blame = svnClient.getBlame(FILE_PATH, 9);
+        Assert.assertEquals(9, blame.getRevision());
+        Assert.assertEquals(Arrays.asList(7L, 2L, 5L, 5L), revisionsOf(blame));
+        Assert.assertEquals(1, svnClient.fullBlames);
+
+        // the parent was replaced by a copy in r10
+        blame = svnClient.getBlame(FILE_PATH, 10);
+        Assert.assertEquals(2, svnClient.fullBlames);
+        Assert.assertEquals(Arrays.asList(10L, 10L), revisionsOf(blame));
+
+        // text of the blame
+        Assert.assertEquals("    10       full copied\n    10       full y\n", svnClient.blame(FILE_PATH, 10));
+    }
+
+    @Test
+    public void test04_BlameCacheEviction() {
+        BlameCache blameCache = new BlameCache(2, 100);
+        for (int i = 0; i < 100; i++) {
+            blameCache.put(ROOT_PATH, blameOf("trunk/file" + i + ".txt", 3));
+        }
+        Assert.assertEquals(2, blameCache.size());
+        Assert.assertEquals(2, blameCache.getPathCount());
+        Assert.assertNotNull(blameCache.getOlder(ROOT_PATH, "trunk/file99.txt", 5));
+        Assert.assertNull(blameCache.getOlder(ROOT_PATH, "trunk/file0.txt", 5));
+
+        // revisions of a path are dropped with their blames, the path is dropped with its last revision
+        blameCache.put(ROOT_PATH, blameOf("trunk/file99.txt", 4));
+        Assert.assertEquals(4, blameCache.getOlder(ROOT_PATH, "trunk/file99.txt", 5).getRevision());
+        Assert.assertEquals(1, blameCache.getPathCount());
+
+        // a blame heavier than the cache is not tracked
+        SvnBlame heavy = blameOf("trunk/heavy.txt", 3);
+        for (int i = 0; i < 100; i++) {
+            heavy.getLines().add(new SvnBlameLine());
+        }
+        blameCache.put(ROOT_PATH, heavy);
+        Assert.assertEquals(1, blameCache.getPathCount());
+
+        blameCache.clear();
+        Assert.assertEquals(0, blameCache.getPathCount());
+    }
+
+    private static SvnBlame blameOf(String path, long revision) {
+        SvnBlame blame = new SvnBlame();
+        blame.setPath(path);
+        blame.setRevision(revision);
+        blame.setLines(new ArrayList<>());
+        return blame;
+    }
+
+    private static List<String> contentsOf(SvnBlame blame) {
+        return blame.getLines().stream().map(SvnBlameLine::getContent).collect(Collectors.toList());
+    }
+
+    private static List<Long> revisionsOf(SvnBlame blame) {
+        return blame.getLines().stream().map(SvnBlameLine::getRevision).collect(Collectors.toList());
+    }
+
+    /**
+     * client with a history of trunk/App.java: r2 added by alice, r5 changed by bob, r7 changed by carol,
+     * r10 trunk replaced by a copy; a full blame blames every line on the revision, by "full"
+     */
+    private static class HistorySvnClient extends SvnClient {
+
+        private final TreeMap<Long, String> contents = new TreeMap<>();
+
+        private final List<LogEntry> logEntries = new ArrayList<>();
+
+        private int fullBlames;
+
+        private int logs;
+
+        HistorySvnClient() {
+            setRootPath("svn://localhost/test");
+            setSvnUser(new SvnUser("user", "password"));
+            contents.put(2L, "a\nb\nc\n");
+            contents.put(5L, "a\nB\nc\nd\n");
+            contents.put(7L, "x\na\nB\nd\n");
+            contents.put(10L, "copied\ny\n");
+            logEntries.add(logEntry(2, "alice", "A", "/trunk/App.java"));
+            logEntries.add(logEntry(5, "bob", "M", "/trunk/App.java"));
+            logEntries.add(logEntry(7, "carol", "M", "/trunk/App.java"));
+            logEntries.add(logEntry(10, "dave", "R", "/trunk"));
+        }
+
+        @Override
+        public String getFileContent(String filePath, long revision) {
+            return contents.floorEntry(revision).getValue();
+        }
+
+        @Override
+        public List<LogEntry> log(String path, long fromRevision, long toRevision, int limit, boolean withChangedPaths) {
+            logs++;
+            List<LogEntry> result = new ArrayList<>();
+            for (int i = logEntries.size() - 1; i >= 0 && result.size() < limit; i--) {
+                long revision = logEntries.get(i).getRevision();
+                if (revision <= fromRevision && revision >= toRevision) {
+                    result.add(logEntries.get(i));
+                }
+            }
+            return result;
+        }
+
+        @Override
+        protected SvnBlame doBlame(String filePath, long revision) {
+            fullBlames++;
+            List<SvnBlameLine> lines = new ArrayList<>();
+            for (String content : LineDiff.splitLines(getFileContent(filePath, revision))) {
+                SvnBlameLine line = new SvnBlameLine();
+                line.setLineNumber(lines.size() + 1);
+                line.setRevision(contents.floorKey(revision) == 10 ? 10 : 2);
+                line.setAuthor("full");
+                line.setContent(content);
+                lines.add(line);
+            }
+            SvnBlame blame = new SvnBlame();
+            blame.setPath(filePath);
+            blame.setRevision(revision);
+            blame.setLines(lines);
+            return blame;
+        }
+
+        private static LogEntry logEntry(long revision, String author, String action, String path) {
+            LogEntry logEntry = new LogEntry();
+            logEntry.setRevision(revision);
+            logEntry.setAuthor(author);
+            LogChangedPath changedPath = new LogChangedPath();
+            changedPath.setAction(action);
+            changedPath.setPath(path);
+            logEntry.setChangedPaths(Collections.singletonList(changedPath));
+            return logEntry;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import com.marssvn.svnapi.FsfsSvnClient;
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.SvnClientRegistry;
+import com.marssvn.svnapi.SvnServeClient;
+import com.marssvn.svnapi.cache.ListCache;
+import com.marssvn.svnapi.exception.SvnApiException;
+import com.marssvn.svnapi.model.SvnUser;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SvnClientRegistry Tester, no svn binaries are needed.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SvnClientRegistryTest {
+
+    private final SvnUser alice = new SvnUser("alice", "secret");
+
+    @Test
+    public void test01_ClientPerRepositoryAndUser() {
+        SvnClientRegistry registry = new SvnClientRegistry();
+        SvnClient client = registry.getClient("svn://localhost/repo1", alice);
+        Assert.assertTrue(client instanceof SvnServeClient);
+        Assert.assertTrue(client.isBound());
+        Assert.assertSame(client, registry.getClient("svn://localhost/repo1/", new SvnUser("alice", "secret")));
+        Assert.assertNotSame(client, registry.getClient("svn://localhost/repo1", new SvnUser("bob", "secret")));
+        Assert.assertNotSame(client, registry.getClient("svn://localhost/repo2", alice));
+        Assert.assertTrue(registry.getClient("file:///repos/repo1", alice) instanceof FsfsSvnClient);
+        Assert.assertEquals(SvnClient.class, registry.getClient("http://localhost/svn/repo1", alice).getClass());
+        Assert.assertEquals(5, registry.size());
+
+        // clients share the caches of the registry
+        Assert.assertSame(registry.getListCache(), client.getListCache());
+        Assert.assertSame(registry.getListCache(), registry.getClient("svn://localhost/repo2", alice).getListCache());
+
+        // a changed user does not change the client
+        SvnUser user = new SvnUser("carol", "secret");
+        SvnClient carol = registry.getClient("svn://localhost/repo1", user);
+        user.setPassword("changed");
+        Assert.assertSame(carol, registry.getClient("svn://localhost/repo1", new SvnUser("carol", "secret")));
+
+        registry.invalidate("svn://localhost/repo1/");
+        Assert.assertEquals(3, registry.size());
+        Assert.assertNotSame(client, registry.getClient("svn://localhost/repo1", alice));
+    }
+
+    @Test
+    public void test02_BoundClient() {
+        SvnClient client = new SvnClientRegistry().getClient("svn://localhost/repo1", alice);
+        try {
+            client.setRootPath("svn://localhost/other");
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EC0005", e.getErrorCode());
+        }
+        try {
+            client.setListCache(new ListCache());
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EC0005", e.getErrorCode());
+        }
+        try {
+            ((SvnServeClient) client).setPool(null);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EC0005", e.getErrorCode());
+        }
+
+        // a client which is not bound is configured as before
+        SvnClient unbound = new SvnClient();
+        Assert.assertFalse(unbound.isBound());
+        unbound.setRootPath("svn://localhost/repo1");
+        unbound.setRootPath("svn://localhost/repo2");
+
+        try {
+            new SvnClientRegistry().getClient("svn://localhost/repo1", null);
+            Assert.fail();
+        } catch (SvnApiException e) {
+            Assert.assertEquals("EC0001", e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void test03_Concurrent() throws Exception {
+        SvnClientRegistry registry = new SvnClientRegistry(100, null, null, null, null);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            Set<SvnClient> clients = ConcurrentHashMap.newKeySet();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < 1000; j++) {
+                        clients.add(registry.getClient("svn://localhost/repo" + (j % 10), alice));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            Assert.assertEquals(10, clients.size());
+            Assert.assertEquals(10, registry.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // least recently used clients are dropped
+        for (int i = 0; i < 200; i++) {
+            registry.getClient("svn://localhost/many" + i, alice);
+        }
+        Assert.assertEquals(100, registry.size());
+    }
+}
@@ -0,0 +1,316 @@
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.cache.DiffCache;
+import com.marssvn.svnapi.enums.EDiffLineType;
+import com.marssvn.svnapi.model.SvnDiff;
+import com.marssvn.svnapi.model.SvnDiffFile;
+import com.marssvn.svnapi.model.SvnDiffHunk;
+import com.marssvn.svnapi.model.SvnDiffLine;
+import com.marssvn.svnapi.model.SvnDiffSummary;
+import com.marssvn.svnapi.model.SvnPropertyChange;
+import com.marssvn.svnapi.model.SvnUser;
+import com.marssvn.svnapi.parser.DiffReader;
+import com.marssvn.svnapi.parser.DiffSummaryXmlReader;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * structured diff Tester: DiffReader, DiffSummaryXmlReader and the diff cache of SvnClient.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SvnDiffTest {
+
+    /**
+     * App.java: 2 hunks, the last line has no line break; logo.png: binary, added;
+     * old.txt: deleted; dir: property changes only
+     */
+    private final static String DIFF = "Index: App.java\n"
+            + "===================================================================\n"
+            + "--- App.java\t(revision 3)\n"
+            + "+++ App.java\t(revision 4)\n"
+            + "@@ -1,3 +1,4 @@ public class App\n"
+            + " a\n"
+            + "-b\n"
+            + "+B\r\n"
+            + "+b2\n"
+            + " c\n"
+            + "@@ -10 +11 @@\n"
+            + "-x\n"
+            + "\\ No newline at end of file\n"
+            + "+y\n"
+            + "\\ No newline at end of file\n"
+            + "\n"
+            + "Property changes on: App.java\n"
+            + "___________________________________________________________________\n"
+            + "Added: svn:eol-style\n"
+            + "## -0,0 +1 ##\n"
+            + "+native\n"
+            + "\\ No newline at end of property\n"
+            + "Index: logo.png\n"
+            + "===================================================================\n"
+            + "Cannot display: file marked as a binary type.\n"
+            + "svn:mime-type = application/octet-stream\n"
+            + "--- logo.png\t(nonexistent)\n"
+            + "+++ logo.png\t(revision 4)\n"
+            + "Index: old.txt\n"
+            + "===================================================================\n"
+            + "--- old.txt\t(revision 3)\n"
+            + "+++ old.txt\t(nonexistent)\n"
+            + "@@ -1,2 +0,0 @@\n"
+            + "-one\n"
+            + "-\n"
+            + "\n"
+            + "Property changes on: dir\n"
+            + "___________________________________________________________________\n"
+            + "Modified: svn:ignore\n"
+            + "## -1,2 +1,2 ##\n"
+            + " target\n"
+            + "-*.log\n"
+            + "+*.tmp\n";
+
+    private final static String SUMMARY_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<diff>\n"
+            + "<paths>\n"
+            + "<path item=\"modified\" props=\"none\" kind=\"file\">svn://localhost/test/trunk/App.java</path>\n"
+            + "<path item=\"added\" props=\"none\" kind=\"file\">svn://localhost/test/trunk/my%20logo.png</path>\n"
+            + "<path item=\"none\" props=\"modified\" kind=\"dir\">svn://localhost/test/trunk/dir</path>\n"
+            + "</paths>\n"
+            + "</diff>\n";
+
+    @Test
+    public void test01_ReadAll() {
+        SvnDiff diff = read(0, 0, DiffReader.DEFAULT_MAX_HUNK_LINES);
+        Assert.assertEquals(-1, diff.getNextHunk());
+        Assert.assertEquals(4, diff.getFiles().size());
+
+        SvnDiffFile app = diff.getFiles().get(0);
+        Assert.assertEquals("App.java", app.getPath());
+        Assert.assertEquals(3, app.getOldRevision());
+        Assert.assertEquals(4, app.getNewRevision());
+        Assert.assertEquals(2, app.getHunks().size());
+
+        SvnDiffHunk hunk = app.getHunks().get(0);
+        Assert.assertEquals(1, hunk.getOldStart());
+        Assert.assertEquals(3, hunk.getOldCount());
+        Assert.assertEquals(1, hunk.getNewStart());
+        Assert.assertEquals(4, hunk.getNewCount());
+        Assert.assertEquals("public class App", hunk.getSection());
+        Assert.assertEquals(5, hunk.getLines().size());
+        assertLine(hunk.getLines().get(0), EDiffLineType.CONTEXT, "a", 1, 1);
+        assertLine(hunk.getLines().get(1), EDiffLineType.DELETED, "b", 2, -1);
+        assertLine(hunk.getLines().get(2), EDiffLineType.ADDED, "B", -1, 2);
+        assertLine(hunk.getLines().get(3), EDiffLineType.ADDED, "b2", -1, 3);
+        assertLine(hunk.getLines().get(4), EDiffLineType.CONTEXT, "c", 3, 4);
+
+        // a range without count is one line
+        SvnDiffHunk last = app.getHunks().get(1);
+        Assert.assertEquals(1, last.getOldCount());
+        Assert.assertEquals(1, last.getNewCount());
+        Assert.assertEquals(2, last.getLines().size());
+        Assert.assertTrue(last.getLines().get(0).isNoNewline());
+        Assert.assertTrue(last.getLines().get(1).isNoNewline());
+        assertLine(last.getLines().get(1), EDiffLineType.ADDED, "y", -1, 11);
+
+        Assert.assertEquals(1, app.getPropertyChanges().size());
+        SvnPropertyChange eolStyle = app.getPropertyChanges().get(0);
+        Assert.assertEquals("svn:eol-style", eolStyle.getName());
+        Assert.assertEquals("Added", eolStyle.getAction());
+        Assert.assertNull(eolStyle.getOldValue());
+        Assert.assertEquals("native", eolStyle.getNewValue());
+
+        SvnDiffFile logo = diff.getFiles().get(1);
+        Assert.assertTrue(logo.isBinary());
+        Assert.assertEquals(-1, logo.getOldRevision());
+        Assert.assertEquals(4, logo.getNewRevision());
+        Assert.assertTrue(logo.getHunks().isEmpty());
+
+        // an empty deleted line is a line of the hunk
+        SvnDiffFile old = diff.getFiles().get(2);
+        Assert.assertEquals(-1, old.getNewRevision());
+        Assert.assertEquals(2, old.getHunks().get(0).getLines().size());
+        assertLine(old.getHunks().get(0).getLines().get(1), EDiffLineType.DELETED, "", 2, -1);
+
+        SvnDiffFile dir = diff.getFiles().get(3);
+        Assert.assertEquals("dir", dir.getPath());
+        SvnPropertyChange ignore = dir.getPropertyChanges().get(0);
+        Assert.assertEquals("Modified", ignore.getAction());
+        Assert.assertEquals("target\n*.log", ignore.getOldValue());
+        Assert.assertEquals("target\n*.tmp", ignore.getNewValue());
+    }
+
+    @Test
+    public void test02_Pages() {
+
+        // first page: the first hunk of App.java
+        SvnDiff first = read(0, 1, DiffReader.DEFAULT_MAX_HUNK_LINES);
+        Assert.assertEquals(1, first.getNextHunk());
+        Assert.assertEquals(1, first.getFiles().size());
+        Assert.assertEquals(1, first.getFiles().get(0).getHunks().size());
+        Assert.assertTrue(first.getFiles().get(0).getPropertyChanges().isEmpty());
+
+        // second page: the last hunk and the properties of App.java
+        SvnDiff second = read(first.getNextHunk(), 1, DiffReader.DEFAULT_MAX_HUNK_LINES);
+        Assert.assertEquals(2, second.getNextHunk());
+        Assert.assertEquals(1, second.getFiles().size());
+        Assert.assertEquals("App.java", second.getFiles().get(0).getPath());
+        Assert.assertEquals(11, second.getFiles().get(0).getHunks().get(0).getNewStart());
+        Assert.assertEquals(1, second.getFiles().get(0).getPropertyChanges().size());
+
+        // third page: logo.png without hunks goes with the next hunk
+        SvnDiff third = read(second.getNextHunk(), 1, DiffReader.DEFAULT_MAX_HUNK_LINES);
+        Assert.assertEquals(3, third.getNextHunk());
+        Assert.assertEquals(2, third.getFiles().size());
+        Assert.assertEquals("logo.png", third.getFiles().get(0).getPath());
+        Assert.assertEquals("old.txt", third.getFiles().get(1).getPath());
+
+        // last page: the properties of dir after the last hunk
+        SvnDiff last = read(third.getNextHunk(), 1, DiffReader.DEFAULT_MAX_HUNK_LINES);
+        Assert.assertEquals(-1, last.getNextHunk());
+        Assert.assertEquals(1, last.getFiles().size());
+        Assert.assertEquals("dir", last.getFiles().get(0).getPath());
+    }
+
+    @Test
+    public void test03_TruncatedHunk() {
+        SvnDiff diff = read(0, 0, 2);
+        SvnDiffHunk hunk = diff.getFiles().get(0).getHunks().get(0);
+        Assert.assertTrue(hunk.isTruncated());
+        Assert.assertEquals(2, hunk.getLines().size());
+
+        // the lines are still counted, the next hunk is read
+        Assert.assertFalse(diff.getFiles().get(0).getHunks().get(1).isTruncated());
+        Assert.assertEquals(4, diff.getFiles().size());
+    }
+
+    @Test
+    public void test04_SummaryReader() {
+        List<SvnDiffSummary> summary = new ArrayList<>();
+        try (DiffSummaryXmlReader reader = new DiffSummaryXmlReader(
+                new ByteArrayInputStream(SUMMARY_XML.getBytes(StandardCharsets.UTF_8)))) {
+            SvnDiffSummary changedPath;
+            while ((changedPath = reader.next()) != null) {
+                summary.add(changedPath);
+            }
+        }
+        Assert.assertEquals(3, summary.size());
+        Assert.assertEquals("svn://localhost/test/trunk/App.java", summary.get(0).getPath());
+        Assert.assertEquals("modified", summary.get(0).getItem());
+        Assert.assertEquals("added", summary.get(1).getItem());
+        Assert.assertEquals("dir", summary.get(2).getKind());
+        Assert.assertEquals("modified", summary.get(2).getProps());
+    }
+
+    @Test
+    public void test05_Cache() {
+        DiffSvnClient svnClient = new DiffSvnClient();
+        svnClient.setDiffCache(new DiffCache());
+
+        SvnDiff diff = svnClient.getDiff("trunk", 3, 4, 0, 1);
+        Assert.assertEquals(1, diff.getNextHunk());
+        diff.getFiles().clear();
+        SvnDiff cached = svnClient.getDiff("trunk", 3, 4, 0, 1);
+        Assert.assertEquals(1, cached.getFiles().size());
+        Assert.assertEquals(1, svnClient.diffs);
+
+        // another page is another entry, HEAD is resolved to the head revision
+        svnClient.getDiff("trunk", 3, 4, 1, 1);
+        Assert.assertEquals(2, svnClient.diffs);
+        SvnDiff head = svnClient.getDiff("trunk", 3, -1, 0, 1);
+        Assert.assertEquals(4, head.getNewRevision());
+        Assert.assertEquals(2, svnClient.diffs);
+
+        svnClient.diffSummary("trunk", 3, 4);
+        List<SvnDiffSummary> summary = svnClient.diffSummary("trunk", 3, -1);
+        Assert.assertEquals(1, svnClient.summaries);
+        Assert.assertEquals("trunk/App.java", summary.get(0).getPath());
+
+        // without cache every call runs the command
+        svnClient.setDiffCache(null);
+        svnClient.getDiff("trunk", 3, 4, 0, 1);
+        Assert.assertEquals(3, svnClient.diffs);
+    }
+
+    @Test
+    public void test06_OldRevision() {
+        DiffSvnClient svnClient = new DiffSvnClient();
+        svnClient.setDiffCache(new DiffCache());
+
+        // an old revision at HEAD is resolved before the diff is cached
+        Assert.assertEquals(4, svnClient.getDiff("trunk", -1, 4, 0, 1).getOldRevision());
+        svnClient.head = 5;
+        SvnDiff diff = svnClient.getDiff("trunk", -1, 4, 0, 1);
+        Assert.assertEquals(5, diff.getOldRevision());
+        Assert.assertEquals(2, svnClient.diffs);
+        svnClient.diffSummary("trunk", -1, -1);
+        svnClient.head = 6;
+        svnClient.diffSummary("trunk", -1, -1);
+        Assert.assertEquals(2, svnClient.summaries);
+
+        // r0 is an old revision, the diff since the creation of the repository
+        Assert.assertEquals(0, svnClient.getDiff("trunk", 0, 4, 0, 1).getOldRevision());
+        Assert.assertEquals(3, svnClient.diffs);
+    }
+
+    private static SvnDiff read(int firstHunk, int maxHunks, int maxHunkLines) {
+        return new DiffReader(new ByteArrayInputStream(DIFF.getBytes(StandardCharsets.UTF_8)),
+                firstHunk, maxHunks, maxHunkLines).read();
+    }
+
+    private static void assertLine(SvnDiffLine line, EDiffLineType type, String content, int oldLineNumber, int newLineNumber) {
+        Assert.assertEquals(type, line.getType());
+        Assert.assertEquals(content, line.getContent());
+        Assert.assertEquals(oldLineNumber, line.getOldLineNumber());
+        Assert.assertEquals(newLineNumber, line.getNewLineNumber());
+    }
+
+    /**
+     * client which reads the diff above, head revision is 4 unless it is changed
+     */
+    private static class DiffSvnClient extends SvnClient {
+
+        private int diffs;
+
+        private int summaries;
+
+        private long head = 4;
+
+        DiffSvnClient() {
+            setRootPath("svn://localhost/test");
+            setSvnUser(new SvnUser("user", "password"));
+        }
+
+        @Override
+        public long headRevision() {
+            return head;
+        }
+
+        @Override
+        protected SvnDiff doDiff(String path, long oldRevision, long newRevision, int firstHunk, int maxHunks) {
+            diffs++;
+            SvnDiff diff = read(firstHunk, maxHunks, DiffReader.DEFAULT_MAX_HUNK_LINES);
+            diff.setPath(path);
+            diff.setOldRevision(oldRevision);
+            diff.setNewRevision(newRevision);
+            return diff;
+        }
+
+        @Override
+        protected List<SvnDiffSummary> doDiffSummary(String path, long oldRevision, long newRevision) {
+            summaries++;
+            SvnDiffSummary changedPath = new SvnDiffSummary();
+            changedPath.setPath("trunk/App.java");
+            changedPath.setItem("modified");
+            List<SvnDiffSummary> summary = new ArrayList<>();
+            summary.add(changedPath);
+            return summary;
+        }
+    }
+}
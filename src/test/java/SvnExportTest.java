@@ -0,0 +1,180 @@
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.enums.EArchiveFormat;
+import com.marssvn.svnapi.enums.ESvnDepth;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnUser;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * SvnClient archive export Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SvnExportTest {
+
+    private final static Map<String, String> EXPECTED = new LinkedHashMap<>();
+
+    static {
+        EXPECTED.put("trunk/", "");
+        EXPECTED.put("trunk/readme.txt", "readme@7");
+        EXPECTED.put("trunk/src/", "");
+        EXPECTED.put("trunk/src/App.java", "class App {}@7");
+        EXPECTED.put("trunk/keywords.txt", "$Rev$@7");
+        EXPECTED.put("trunk/crlf.txt", "a\r\nb\r\n@7");
+    }
+
+    @Test
+    public void test01_TarGz() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new TreeSvnClient().export("trunk", -1, outputStream, EArchiveFormat.TAR_GZ);
+        Assert.assertEquals(EXPECTED, read(new TarArchiveInputStream(new GzipCompressorInputStream(
+                new ByteArrayInputStream(outputStream.toByteArray())))));
+    }
+
+    @Test
+    public void test02_Zip() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new TreeSvnClient().export("trunk/", 0, outputStream, EArchiveFormat.ZIP);
+        Map<String, String> entries = read(new ZipArchiveInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+        Assert.assertEquals(new ArrayList<>(EXPECTED.keySet()), new ArrayList<>(entries.keySet()));
+        Assert.assertEquals(EXPECTED, entries);
+    }
+
+    @Test
+    public void test03_ParallelZip() throws IOException {
+        TreeSvnClient svnClient = new TreeSvnClient();
+        svnClient.setExportParallelism(4);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        svnClient.export("trunk", 7, outputStream, EArchiveFormat.ZIP);
+        Map<String, String> entries = read(new ZipArchiveInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+
+        // entries compressed in parallel may be reordered
+        Assert.assertEquals(EXPECTED, entries);
+    }
+
+    @Test
+    public void test04_Keywords() throws IOException {
+
+        // svn cat expands $Rev$, the archives hold the content as stored, whose size is the size of the listing
+        TreeSvnClient svnClient = new TreeSvnClient();
+        Assert.assertEquals("$Rev: 7 $@7", IOUtils.toString(svnClient.openFile("trunk/keywords.txt", 7), StandardCharsets.UTF_8));
+        for (EArchiveFormat format : EArchiveFormat.values()) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            svnClient.export("trunk", 7, outputStream, format);
+            InputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
+            Map<String, String> entries = read(format == EArchiveFormat.ZIP ? new ZipArchiveInputStream(inputStream)
+                    : new TarArchiveInputStream(new GzipCompressorInputStream(inputStream)));
+            Assert.assertEquals("$Rev$@7", entries.get("trunk/keywords.txt"));
+        }
+    }
+
+    private static Map<String, String> read(ArchiveInputStream inputStream) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        ArchiveEntry entry;
+        while ((entry = inputStream.getNextEntry()) != null) {
+            entries.put(entry.getName(), IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+        }
+        return entries;
+    }
+
+    /**
+     * svn client serving a fixed tree instead of running svn
+     */
+    private static class TreeSvnClient extends SvnClient {
+
+        private TreeSvnClient() {
+            setRootPath("svn://127.0.0.1/repo");
+            setSvnUser(new SvnUser("user", "password"));
+        }
+
+        @Override
+        public long headRevision() {
+            return 7;
+        }
+
+        @Override
+        protected Stream<SvnEntry> walkAtRevision(String path, long revision, long headRevision, ESvnDepth depth) {
+            List<SvnEntry> entries = new ArrayList<>();
+            for (String name : Arrays.asList("readme.txt", "src", "src/App.java", "keywords.txt", "crlf.txt")) {
+                SvnEntry svnEntry = new SvnEntry();
+                svnEntry.setKind(name.equals("src") ? "dir" : "file");
+                svnEntry.setPath(path + "/" + name);
+                svnEntry.setSize(content(svnEntry.getPath(), revision).length);
+                entries.add(svnEntry);
+            }
+            return entries.stream();
+        }
+
+        @Override
+        public InputStream openFile(String filePath, long revision) {
+            return new ByteArrayInputStream(expanded(filePath, revision));
+        }
+
+        @Override
+        public long transferTo(String filePath, long revision, WritableByteChannel channel) {
+            return write(expanded(filePath, revision), channel);
+        }
+
+        @Override
+        protected InputStream openStoredFile(String filePath, long revision) {
+            return new ByteArrayInputStream(stored(filePath, revision));
+        }
+
+        @Override
+        protected long transferStoredTo(String filePath, long revision, WritableByteChannel channel) {
+            return write(stored(filePath, revision), channel);
+        }
+
+        private static long write(byte[] content, WritableByteChannel channel) {
+            try {
+                return channel.write(ByteBuffer.wrap(content));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static byte[] expanded(String filePath, long revision) {
+            String content = new String(stored(filePath, revision), StandardCharsets.UTF_8);
+            return content.replace("$Rev$", "$Rev: " + revision + " $").getBytes(StandardCharsets.UTF_8);
+        }
+
+        /**
+         * content as svn cat --ignore-keywords prints it, crlf.txt has svn:eol-style CRLF,
+         * it is larger than the size of the listing
+         */
+        private static byte[] stored(String filePath, long revision) {
+            String content = new String(content(filePath, revision), StandardCharsets.UTF_8);
+            return (filePath.endsWith("crlf.txt") ? content.replace("\n", "\r\n") : content).getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static byte[] content(String filePath, long revision) {
+            String content = filePath.endsWith("App.java") ? "class App {}" : filePath.endsWith("keywords.txt") ? "$Rev$"
+                    : filePath.endsWith("crlf.txt") ? "a\nb\n" : "readme";
+            return (content + "@" + revision).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
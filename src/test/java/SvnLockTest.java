@@ -0,0 +1,347 @@
+import com.marssvn.svnapi.ISvnSnapshot;
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.cache.SvnLockTable;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.common.StringUtils;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnLock;
+import com.marssvn.svnapi.model.SvnLockResult;
+import com.marssvn.svnapi.model.SvnUser;
+import com.marssvn.svnapi.parser.LockOutputParser;
+import com.marssvn.svnapi.parser.LslocksReader;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * bulk lock and unlock, and lock table Tester, no svn binaries are needed.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SvnLockTest {
+
+    @Test
+    public void test01_ParseOutput() {
+        List<String> done = LockOutputParser.parseDone("'svn://localhost/test/trunk/a%20b.txt' locked by user 'user'.\n"
+                + "'svn://localhost/test/trunk/c.txt' unlocked.\n"
+                + "unrelated line\n");
+        Assert.assertEquals(Arrays.asList("svn://localhost/test/trunk/a%20b.txt", "svn://localhost/test/trunk/c.txt"), done);
+
+        Map<String, String> warnings = LockOutputParser.parseWarnings(
+                "svn: warning: W160035: Path '/trunk/d.txt' is already locked by user 'other' in filesystem '/repo/db'\n"
+                        + "svn: E200009: One or more locks could not be obtained\n");
+        Assert.assertEquals(1, warnings.size());
+        Assert.assertTrue(warnings.get("/trunk/d.txt").startsWith("W160035: Path '/trunk/d.txt' is already locked"));
+    }
+
+    @Test
+    public void test02_LockDirectory() {
+        LockSvnClient svnClient = new LockSvnClient(300);
+        List<SvnLockResult> results = svnClient.lockAll(Arrays.asList("trunk/assets", "trunk/missing"), "release \"1.0\"", false);
+
+        // a process per chunk of targets, not per file
+        Assert.assertTrue(svnClient.commands.size() > 1);
+        Assert.assertTrue(svnClient.commands.size() < 10);
+        for (String command : svnClient.commands) {
+            Assert.assertTrue(command.startsWith("svn lock svn://localhost/test/trunk/assets/"));
+            Assert.assertTrue(command.contains(" -m \"release '1.0'\""));
+            Assert.assertFalse(command.contains("--force"));
+        }
+
+        Assert.assertEquals(301, results.size());
+        SvnLockResult missing = results.get(0);
+        Assert.assertEquals("trunk/missing", missing.getPath());
+        Assert.assertFalse(missing.isSuccess());
+
+        int failed = 0;
+        for (SvnLockResult result : results.subList(1, results.size())) {
+            if (!result.isSuccess()) {
+                failed++;
+                Assert.assertEquals("trunk/assets/texture7.png", result.getPath());
+                Assert.assertTrue(result.getError().contains("already locked by user 'other'"));
+            }
+        }
+        Assert.assertEquals(1, failed);
+    }
+
+    @Test
+    public void test03_LockAndUnlock() {
+        LockSvnClient svnClient = new LockSvnClient(5);
+        Assert.assertTrue(svnClient.unLock("trunk/assets", true));
+        Assert.assertEquals(1, svnClient.commands.size());
+        Assert.assertTrue(svnClient.commands.get(0).startsWith("svn unlock "));
+        Assert.assertTrue(svnClient.commands.get(0).contains(" --force"));
+
+        svnClient = new LockSvnClient(10);
+        Assert.assertFalse(svnClient.lock("trunk/assets", null, true));
+        Assert.assertFalse(svnClient.commands.get(0).contains(" -m "));
+    }
+
+    @Test
+    public void test04_LslocksReader() {
+        String output = "Path: /trunk/a.txt\n"
+                + "UUID Token: opaquelocktoken:1\n"
+                + "Owner: alice\n"
+                + "Created: 2020-06-01 08:00:00 +0800 (Mon, 01 Jun 2020)\n"
+                + "Expires: \n"
+                + "Comment (2 lines):\n"
+                + "editing\n"
+                + "Path: not a path\n"
+                + "\n"
+                + "Path: /trunk/b.txt\n"
+                + "UUID Token: opaquelocktoken:2\n"
+                + "Owner: bob\n"
+                + "Created: 2020-06-01 09:00:00 +0000 (Mon, 01 Jun 2020)\n"
+                + "Expires: \n"
+                + "Comment (0 lines):\n"
+                + "\n";
+        LslocksReader reader = new LslocksReader(new ByteArrayInputStream(output.getBytes(StandardCharsets.UTF_8)));
+        SvnLock first = reader.next();
+        Assert.assertEquals("/trunk/a.txt", first.getPath());
+        Assert.assertEquals("opaquelocktoken:1", first.getToken());
+        Assert.assertEquals("alice", first.getOwner());
+        Assert.assertEquals(1590969600000L, first.getCreatedAt().getTime());
+
+        // the comment is read by its line count
+        Assert.assertEquals("editing\nPath: not a path", first.getComment());
+        SvnLock second = reader.next();
+        Assert.assertEquals("bob", second.getOwner());
+        Assert.assertEquals("", second.getComment());
+        Assert.assertNull(reader.next());
+    }
+
+    @Test
+    public void test05_LockTable() {
+        AtomicInteger loads = new AtomicInteger();
+        SvnLockTable table = new SvnLockTable(() -> {
+            loads.incrementAndGet();
+            return Arrays.asList(lock("/trunk/a.txt", "alice"), lock("/trunk/c.txt", "alice"), lock("/trunk/b.txt", "bob"));
+        });
+        table.setRefreshInterval(0);
+
+        // loaded once at the first lookup
+        Assert.assertEquals(0, table.getLoadedAt());
+        Assert.assertEquals("alice", table.get("trunk/a.txt").getOwner());
+        Assert.assertEquals("trunk/a.txt", table.get("/trunk/a.txt/").getPath());
+        Assert.assertNull(table.get("trunk/d.txt"));
+        List<SvnLock> aliceLocks = table.getByOwner("alice");
+        Assert.assertEquals(2, aliceLocks.size());
+        Assert.assertEquals("trunk/c.txt", aliceLocks.get(1).getPath());
+        Assert.assertEquals(1, loads.get());
+
+        // copies are handed out
+        table.get("trunk/a.txt").setOwner("mallory");
+        Assert.assertEquals("alice", table.get("trunk/a.txt").getOwner());
+
+        table.put(lock("trunk/a.txt", "bob"));
+        table.remove("trunk/c.txt");
+        Assert.assertTrue(table.getByOwner("alice").isEmpty());
+        Assert.assertEquals(2, table.getByOwner("bob").size());
+        Assert.assertEquals(2, table.size());
+
+        // a stale table is reloaded at the next lookup
+        table.setRefreshInterval(1);
+        sleep(5);
+        Assert.assertEquals(3, table.size());
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void test06_ClientWithLockTable() {
+        LockSvnClient svnClient = new LockSvnClient(10);
+        SvnLockTable table = new SvnLockTable(() -> Arrays.asList(lock("trunk/assets/texture7.png", "other")));
+        svnClient.setLockTable(table);
+
+        svnClient.lockAll(Arrays.asList("trunk/assets"), "art", false);
+        Assert.assertEquals(10, table.size());
+        Assert.assertEquals("other", svnClient.getLock("trunk/assets/texture7.png").getOwner());
+        SvnLock locked = svnClient.getLock("trunk/assets/texture1.png");
+        Assert.assertEquals("user", locked.getOwner());
+        Assert.assertEquals("art", locked.getComment());
+
+        // list attaches the locks of the table at HEAD
+        List<SvnEntry> list = svnClient.list("trunk/assets", -1);
+        Assert.assertEquals("user", list.get(1).getLock().getOwner());
+        Assert.assertEquals("other", list.get(7).getLock().getOwner());
+
+        svnClient.unLockAll(Arrays.asList("trunk/assets/texture1.png"), false);
+        Assert.assertNull(svnClient.getLock("trunk/assets/texture1.png"));
+        Assert.assertNull(svnClient.list("trunk/assets", -1).get(1).getLock());
+        Assert.assertEquals(9, table.getByOwner("user").size() + table.getByOwner("other").size());
+
+        // snapshots at HEAD attach the locks of the table as well, snapshots at older revisions do not
+        ISvnSnapshot snapshot = svnClient.openSnapshot(-1);
+        Assert.assertEquals("other", snapshot.list("trunk/assets").get(7).getLock().getOwner());
+        Assert.assertNull(snapshot.list("trunk/assets").get(1).getLock());
+        Assert.assertEquals("user", snapshot.listAll(Arrays.asList("trunk/assets")).get("trunk/assets").get(2).getLock().getOwner());
+        Assert.assertNull(svnClient.openSnapshot(2).list("trunk/assets").get(7).getLock());
+    }
+
+    @Test
+    public void test07_SpaceInFileName() {
+        LockSvnClient svnClient = new LockSvnClient(3);
+        List<SvnLockResult> results = svnClient.lockAll(Arrays.asList("trunk/assets/my file.png", "trunk/assets/texture1.png"), null, false);
+        Assert.assertEquals(2, results.size());
+        Assert.assertEquals("trunk/assets/my file.png", results.get(0).getPath());
+        Assert.assertTrue(results.get(0).isSuccess());
+        Assert.assertTrue(results.get(1).isSuccess());
+        Assert.assertTrue(svnClient.commands.get(0).contains(" svn://localhost/test/trunk/assets/my%20file.png "));
+
+        results = svnClient.unLockAll(Arrays.asList("trunk/assets/it's \"mine\".png"), false);
+        Assert.assertEquals("trunk/assets/it's \"mine\".png", results.get(0).getPath());
+        Assert.assertTrue(results.get(0).isSuccess());
+    }
+
+    @Test
+    public void test08_ChangesDuringRefresh() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SvnLockTable table = new SvnLockTable(() -> {
+            if (loads.incrementAndGet() > 1) {
+                loading.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Arrays.asList(lock("trunk/a.txt", "alice"), lock("trunk/c.txt", "alice"));
+        });
+        table.setRefreshInterval(0);
+        Assert.assertEquals(2, table.size());
+
+        // the load misses the lock and the unlock made while it runs, they are kept
+        Thread refresher = new Thread(table::refresh);
+        refresher.start();
+        Assert.assertTrue(loading.await(10, TimeUnit.SECONDS));
+        table.put(lock("trunk/b.txt", "user"));
+        table.remove("trunk/c.txt");
+        release.countDown();
+        refresher.join(10000);
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals("user", table.get("trunk/b.txt").getOwner());
+        Assert.assertNull(table.get("trunk/c.txt"));
+        Assert.assertEquals("alice", table.get("trunk/a.txt").getOwner());
+
+        // changes are not applied again by later loads
+        table.refresh();
+        Assert.assertNull(table.get("trunk/b.txt"));
+        Assert.assertEquals(2, table.size());
+    }
+
+    private static SvnLock lock(String path, String owner) {
+        SvnLock svnLock = new SvnLock();
+        svnLock.setPath(path);
+        svnLock.setOwner(owner);
+        svnLock.setToken("opaquelocktoken:" + path);
+        return svnLock;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * client with a directory trunk/assets of count files, texture7.png is locked by another user
+     */
+    private static class LockSvnClient extends SvnClient {
+
+        private final int count;
+
+        private final List<String> commands = new ArrayList<>();
+
+        LockSvnClient(int count) {
+            this.count = count;
+            setRootPath("svn://localhost/test");
+            setSvnUser(new SvnUser("user", "password"));
+        }
+
+        @Override
+        protected List<String> filesOf(List<String> paths, List<SvnLockResult> missing) {
+            List<String> files = new ArrayList<>();
+            for (String path : paths) {
+                if (path.startsWith("trunk/assets/")) {
+                    files.add(path);
+                    continue;
+                }
+                if (!"trunk/assets".equals(path)) {
+                    missing.add(new SvnLockResult(path, false, "Path not found"));
+                    continue;
+                }
+                for (int i = 0; i < count; i++) {
+                    files.add(path + "/texture" + i + ".png");
+                }
+            }
+            return files;
+        }
+
+        @Override
+        protected List<SvnLockResult> lockTargets(String command, List<String> chunk) {
+            Assert.assertTrue(command.length() <= MAX_COMMAND_LENGTH);
+            commands.add(command);
+            boolean lock = command.startsWith("svn lock ");
+            StringBuilder output = new StringBuilder();
+            StringBuilder error = new StringBuilder();
+
+            // the targets as svn gets them from the command line
+            for (String target : CommandUtils.translateCommandline(command)) {
+                if (!target.startsWith("svn://localhost/test/")) {
+                    continue;
+                }
+                String path = StringUtils.decodeUri(target.substring("svn://localhost/test/".length()));
+                if (lock && path.endsWith("/texture7.png")) {
+                    error.append("svn: warning: W160035: Path '/").append(path)
+                            .append("' is already locked by user 'other' in filesystem '/repo/db'\n");
+                } else {
+                    output.append("'").append(target).append(lock ? "' locked by user 'user'.\n" : "' unlocked.\n");
+                }
+            }
+            return lockResults(chunk, output.toString(), error.toString());
+        }
+
+        @Override
+        public long headRevision() {
+            return 3;
+        }
+
+        @Override
+        protected List<SvnEntry> doList(String path, long revision, long headRevision) {
+            List<SvnEntry> list = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                SvnEntry svnEntry = new SvnEntry();
+                svnEntry.setKind("file");
+                svnEntry.setName("texture" + i + ".png");
+                svnEntry.setPath(path + "/" + svnEntry.getName());
+                list.add(svnEntry);
+            }
+            return list;
+        }
+
+        @Override
+        protected Map<String, List<SvnEntry>> doListAll(List<String> paths, long revision, long headRevision) {
+            Map<String, List<SvnEntry>> lists = new HashMap<>();
+            for (String path : paths) {
+                lists.put(path, doList(path, revision, headRevision));
+            }
+            return lists;
+        }
+    }
+}
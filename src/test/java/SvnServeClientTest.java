@@ -0,0 +1,258 @@
+import com.marssvn.svnapi.ISvnClient;
+import com.marssvn.svnapi.ISvnSnapshot;
+import com.marssvn.svnapi.SvnAdminForLocale;
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.SvnServeClient;
+import com.marssvn.svnapi.cache.BlobCache;
+import com.marssvn.svnapi.common.CommandUtils;
+import com.marssvn.svnapi.enums.ESvnDepth;
+import com.marssvn.svnapi.model.LogEntry;
+import com.marssvn.svnapi.model.SvnBlame;
+import com.marssvn.svnapi.model.SvnEntry;
+import com.marssvn.svnapi.model.SvnInfo;
+import com.marssvn.svnapi.model.SvnRepository;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SvnServeClient Tester, runs against a svnserve started on an ephemeral port.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SvnServeClientTest {
+
+    private final static String REPOSITORY_NAME = "test_svnserve";
+
+    private static File rootDir;
+    private static Process svnserve;
+    private static ISvnClient cliClient;
+    private static SvnServeClient serveClient;
+
+    @BeforeClass
+    public static void beforeClass() throws Exception {
+        Assume.assumeTrue("svnserve is required", commandExists("svnserve"));
+
+        // create repository
+        rootDir = Files.createTempDirectory("svnapi").toFile();
+        SvnRepository svnRepository = new SvnRepository();
+        svnRepository.setName(REPOSITORY_NAME);
+        svnRepository.setRootPathLocal(rootDir.getPath());
+        new SvnAdminForLocale().createRepository(svnRepository);
+
+        // start svnserve on an ephemeral port
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        svnserve = new ProcessBuilder("svnserve", "-d", "--foreground", "--listen-host", "127.0.0.1",
+                "--listen-port", String.valueOf(port), "-r", rootDir.getPath()).start();
+        waitForPort(port);
+
+        String rootPath = "svn://127.0.0.1:" + port + "/" + REPOSITORY_NAME;
+        cliClient = new SvnClient();
+        cliClient.setRootPath(rootPath);
+        cliClient.setSvnUser(svnRepository.getAdminUser());
+        serveClient = new SvnServeClient();
+        serveClient.setRootPath(rootPath);
+        serveClient.setSvnUser(svnRepository.getAdminUser());
+
+        // seed: r1 src/main, r2 src/test, r3 src/readme.txt
+        cliClient.mkdir("src/main", "make dir src/main");
+        cliClient.mkdir("src/test", "make dir src/test");
+        File readme = new File(rootDir, "readme.txt");
+        FileUtils.writeStringToFile(readme, "hello svnserve", StandardCharsets.UTF_8);
+        CommandUtils.execute("svn import " + readme.getPath() + " " + rootPath + "/src/readme.txt -m \"add readme\""
+                + svnRepository.getAdminUser().getAuthString());
+    }
+
+    @AfterClass
+    public static void afterClass() throws Exception {
+        if (svnserve != null) {
+            svnserve.destroy();
+        }
+        if (rootDir != null) {
+            FileUtils.deleteDirectory(rootDir);
+        }
+    }
+
+    @Test
+    public void test01_HeadRevision() {
+        Assert.assertEquals(3, serveClient.headRevision());
+        Assert.assertEquals(cliClient.headRevision(), serveClient.headRevision());
+    }
+
+    @Test
+    public void test02_LastChangedRevision() {
+        Assert.assertEquals(2, serveClient.lastChangedRevision("src/test"));
+    }
+
+    @Test
+    public void test03_List() {
+        List<SvnEntry> expected = cliClient.list("src");
+        List<SvnEntry> actual = serveClient.list("src");
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            Assert.assertEquals(expected.get(i).getKind(), actual.get(i).getKind());
+            Assert.assertEquals(expected.get(i).getSize(), actual.get(i).getSize());
+            Assert.assertEquals(expected.get(i).getCommitRevision(), actual.get(i).getCommitRevision());
+            Assert.assertEquals(expected.get(i).getFullPath(), actual.get(i).getFullPath());
+        }
+    }
+
+    @Test
+    public void test04_ListAtRevision() {
+        List<SvnEntry> list = serveClient.list("src", 1);
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(3, list.get(0).getHeadRevision());
+    }
+
+    @Test
+    public void test05_GetFileContent() {
+        Assert.assertEquals("hello svnserve", serveClient.getFileContent("src/readme.txt", -1));
+    }
+
+    @Test
+    public void test06_Log() {
+        List<LogEntry> logEntries = serveClient.log("src", -1, 1, 2, true);
+        Assert.assertEquals(2, logEntries.size());
+        Assert.assertEquals(3, logEntries.get(0).getRevision());
+        Assert.assertEquals("add readme", logEntries.get(0).getMessage());
+        Assert.assertEquals("/src/readme.txt", logEntries.get(0).getChangedPaths().get(0).getPath());
+        Assert.assertEquals("A", logEntries.get(0).getChangedPaths().get(0).getAction());
+
+        // the command line client reads the same entries from svn log --xml
+        List<LogEntry> expected = cliClient.log("src", -1, 1, 2, true);
+        Assert.assertEquals(expected.get(1).getRevision(), logEntries.get(1).getRevision());
+        Assert.assertEquals(expected.get(1).getDate(), logEntries.get(1).getDate());
+        Assert.assertEquals(expected.get(0).getChangedPaths().get(0).getKind(), logEntries.get(0).getChangedPaths().get(0).getKind());
+    }
+
+    @Test
+    public void test07_Snapshot() {
+        SvnEntry expected = cliClient.getFile("src/readme.txt", -1);
+        ISvnSnapshot snapshot = serveClient.openSnapshot(2);
+        Assert.assertEquals(3, snapshot.getHeadRevision());
+        Assert.assertEquals(2, snapshot.list("src").size());
+        Assert.assertEquals(expected.getSize(), serveClient.openSnapshot().getFile("src/readme.txt").getSize());
+        Assert.assertEquals(expected.getCommitRevision(), serveClient.getFile("src/readme.txt", 3).getCommitRevision());
+        Assert.assertEquals("hello svnserve", cliClient.openSnapshot().getFileContent("src/readme.txt"));
+    }
+
+    @Test
+    public void test08_ListAll() {
+        List<String> paths = Arrays.asList("src", "src/main", "missing");
+        Map<String, List<SvnEntry>> expected = cliClient.listAll(paths, -1);
+        Map<String, List<SvnEntry>> actual = serveClient.listAll(paths, -1);
+        Assert.assertEquals(Arrays.asList("src", "src/main"), new ArrayList<>(expected.keySet()));
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        Assert.assertEquals(3, expected.get("src").size());
+        Assert.assertTrue(expected.get("src/main").isEmpty());
+
+        Map<String, SvnInfo> infos = cliClient.infoAll(paths, -1);
+        Assert.assertEquals(Arrays.asList("src", "src/main"), new ArrayList<>(infos.keySet()));
+        Assert.assertEquals(1, infos.get("src/main").getCommitRevision());
+    }
+
+    @Test
+    public void test09_Walk() {
+        List<String> expected;
+        try (Stream<SvnEntry> stream = cliClient.walk("src", -1, ESvnDepth.INFINITY)) {
+            expected = stream.map(SvnEntry::getPath).collect(Collectors.toList());
+        }
+        Assert.assertEquals(Arrays.asList("src/main", "src/readme.txt", "src/test"), expected);
+        try (Stream<SvnEntry> stream = serveClient.walk("src", -1, ESvnDepth.INFINITY)) {
+            Assert.assertEquals(expected, stream.map(SvnEntry::getPath).collect(Collectors.toList()));
+        }
+
+        // early termination
+        List<SvnEntry> visited = new ArrayList<>();
+        cliClient.walk("src", -1, ESvnDepth.FILES, svnEntry -> visited.add(svnEntry) && false);
+        Assert.assertEquals(1, visited.size());
+        Assert.assertEquals("txt", visited.get(0).getExtension());
+    }
+
+    @Test
+    public void test10_OpenFile() throws Exception {
+        try (InputStream inputStream = cliClient.openFile("src/readme.txt", -1)) {
+            Assert.assertEquals("hello svnserve", IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+        }
+        for (ISvnClient client : Arrays.asList(cliClient, serveClient)) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            Assert.assertEquals(14, client.transferTo("src/readme.txt", 3, Channels.newChannel(outputStream)));
+            Assert.assertEquals("hello svnserve", new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+        }
+
+        // read once into the blob cache, then served from it
+        BlobCache blobCache = new BlobCache(new File(rootDir, "blobs"));
+        serveClient.setBlobCache(blobCache);
+        try {
+            Assert.assertEquals("hello svnserve", serveClient.getFileContent("src/readme.txt", 3));
+            Assert.assertEquals("hello svnserve", IOUtils.toString(serveClient.openFile("src/readme.txt", 3), StandardCharsets.UTF_8));
+            Assert.assertEquals(14, blobCache.getTotalBytes());
+            Assert.assertNotNull(blobCache.get(serveClient.repositoryUuid(), "src/readme.txt", 3, false));
+        } finally {
+            serveClient.setBlobCache(null);
+        }
+    }
+
+    @Test
+    public void test11_Blame() {
+        SvnBlame blame = cliClient.getBlame("src/readme.txt", -1);
+        Assert.assertEquals(1, blame.getLines().size());
+        Assert.assertEquals(3, blame.getLines().get(0).getRevision());
+        Assert.assertEquals("hello svnserve", blame.getLines().get(0).getContent());
+        Assert.assertEquals(blame.getLines().get(0).getAuthor(), serveClient.getBlame("src/readme.txt", 3).getLines().get(0).getAuthor());
+    }
+
+    /**
+     * check if the command exists
+     */
+    private static boolean commandExists(String command) {
+        try {
+            return new ProcessBuilder(command, "--version").start().waitFor() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    /**
+     * wait until svnserve accepts connections
+     */
+    private static void waitForPort(int port) throws InterruptedException {
+        for (int i = 0; i < 50; i++) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 1000);
+                return;
+            } catch (IOException e) {
+                Thread.sleep(100);
+            }
+        }
+        Assert.fail("svnserve is not started");
+    }
+}
@@ -0,0 +1,113 @@
+import com.marssvn.svnapi.ISvnSnapshot;
+import com.marssvn.svnapi.SvnClient;
+import com.marssvn.svnapi.model.SvnEntry;
+import org.junit.Assert;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SvnSnapshot Tester.
+ *
+ * @author zhangkx
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SvnSnapshotTest {
+
+    @Test
+    public void test01_HeadResolvedOnce() {
+        CountingSvnClient svnClient = new CountingSvnClient(8);
+        ISvnSnapshot snapshot = svnClient.openSnapshot();
+        Assert.assertEquals(8, snapshot.getRevision());
+        Assert.assertEquals(8, snapshot.getHeadRevision());
+
+        for (int i = 0; i < 3; i++) {
+            List<SvnEntry> list = snapshot.list("src");
+            Assert.assertEquals(8, list.get(0).getHeadRevision());
+        }
+        Assert.assertEquals("src/a.txt@8", snapshot.getFile("src/a.txt").getPath());
+        Assert.assertEquals("content@8", snapshot.getFileContent("src/a.txt"));
+
+        // the head moves, the snapshot does not
+        svnClient.head = 9;
+        Assert.assertEquals(Collections.singletonList(8L), revisionsOf(snapshot.list("src")));
+        Assert.assertEquals(1, svnClient.headRevisionCount);
+        Assert.assertEquals(4, svnClient.listRevisions.size());
+    }
+
+    @Test
+    public void test02_PinnedRevision() {
+        CountingSvnClient svnClient = new CountingSvnClient(8);
+        ISvnSnapshot snapshot = svnClient.openSnapshot(5);
+        Assert.assertEquals(5, snapshot.getRevision());
+        Assert.assertEquals(8, snapshot.getHeadRevision());
+        Assert.assertEquals(Collections.singletonList(5L), revisionsOf(snapshot.list("src")));
+        Assert.assertEquals("content@5", snapshot.getFileContent("src/a.txt"));
+        Assert.assertEquals(1, svnClient.headRevisionCount);
+    }
+
+    @Test
+    public void test03_ListWithoutSnapshot() {
+        CountingSvnClient svnClient = new CountingSvnClient(8);
+        svnClient.list("src");
+        svnClient.list("src");
+        Assert.assertEquals(2, svnClient.headRevisionCount);
+    }
+
+    private static List<Long> revisionsOf(List<SvnEntry> list) {
+        List<Long> revisions = new ArrayList<>();
+        for (SvnEntry svnEntry : list) {
+            revisions.add(svnEntry.getCommitRevision());
+        }
+        return revisions;
+    }
+
+    /**
+     * svn client which counts head revision queries instead of running svn
+     */
+    private static class CountingSvnClient extends SvnClient {
+
+        private long head;
+
+        private int headRevisionCount;
+
+        private final List<Long> listRevisions = new ArrayList<>();
+
+        private CountingSvnClient(long head) {
+            this.head = head;
+        }
+
+        @Override
+        public long headRevision() {
+            headRevisionCount++;
+            return head;
+        }
+
+        @Override
+        protected List<SvnEntry> doList(String path, long revision, long headRevision) {
+            listRevisions.add(revision);
+            SvnEntry svnEntry = new SvnEntry();
+            svnEntry.setPath(path + "/a.txt");
+            svnEntry.setCommitRevision(revision);
+            svnEntry.setHeadRevision(headRevision);
+            return Collections.singletonList(svnEntry);
+        }
+
+        @Override
+        protected SvnEntry getFileAtRevision(String path, long revision, long headRevision) {
+            SvnEntry svnEntry = new SvnEntry();
+            svnEntry.setPath(path + "@" + revision);
+            svnEntry.setHeadRevision(headRevision);
+            return svnEntry;
+        }
+
+        @Override
+        public String getFileContent(String filePath, long revision) {
+            return "content@" + revision;
+        }
+    }
+}